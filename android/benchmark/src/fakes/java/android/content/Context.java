@@ -0,0 +1,121 @@
+package android.content;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JVM stand-in with in-memory SharedPreferences and a temporary files dir.
+ */
+public class Context {
+
+    public static final int MODE_PRIVATE = 0;
+    public static final String WIFI_SERVICE = "wifi";
+    public static final String CONNECTIVITY_SERVICE = "connectivity";
+
+    private final Map<String, SharedPreferences> prefs = new ConcurrentHashMap<>();
+    private final Map<String, Object> services = new HashMap<>();
+    private File filesDir;
+
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    public SharedPreferences getSharedPreferences(String name, int mode) {
+        return prefs.computeIfAbsent(name, k -> new InMemoryPreferences());
+    }
+
+    public synchronized File getFilesDir() {
+        if (filesDir == null) {
+            try {
+                filesDir = java.nio.file.Files.createTempDirectory("ionic-chromecast-bench").toFile();
+            } catch (java.io.IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return filesDir;
+    }
+
+    /**
+     * Sin almacenamiento externo montado: el SDK devuelve null en esa posición.
+     */
+    public File[] getExternalFilesDirs(String type) {
+        return new File[] { null };
+    }
+
+    public Object getSystemService(String name) {
+        return services.get(name);
+    }
+
+    public void putSystemService(String name, Object service) {
+        services.put(name, service);
+    }
+
+    private static final class InMemoryPreferences implements SharedPreferences {
+
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+
+        @Override
+        public String getString(String key, String defValue) {
+            Object v = values.get(key);
+            return v instanceof String ? (String) v : defValue;
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            Object v = values.get(key);
+            return v instanceof Boolean ? (Boolean) v : defValue;
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+            Object v = values.get(key);
+            return v instanceof Long ? (Long) v : defValue;
+        }
+
+        @Override
+        public Editor edit() {
+            Map<String, Object> pending = new HashMap<>();
+            return new Editor() {
+                @Override
+                public Editor putString(String key, String value) {
+                    pending.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putBoolean(String key, boolean value) {
+                    pending.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor putLong(String key, long value) {
+                    pending.put(key, value);
+                    return this;
+                }
+
+                @Override
+                public Editor remove(String key) {
+                    pending.put(key, null);
+                    return this;
+                }
+
+                @Override
+                public void apply() {
+                    commit();
+                }
+
+                @Override
+                public boolean commit() {
+                    for (Map.Entry<String, Object> e : pending.entrySet()) {
+                        if (e.getValue() == null) values.remove(e.getKey());
+                        else values.put(e.getKey(), e.getValue());
+                    }
+                    return true;
+                }
+            };
+        }
+    }
+}
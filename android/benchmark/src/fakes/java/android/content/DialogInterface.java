@@ -0,0 +1,11 @@
+package android.content;
+
+public interface DialogInterface {
+    interface OnCancelListener {
+        void onCancel(DialogInterface dialog);
+    }
+
+    interface OnDismissListener {
+        void onDismiss(DialogInterface dialog);
+    }
+}
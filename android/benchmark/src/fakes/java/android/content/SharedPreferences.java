@@ -0,0 +1,25 @@
+package android.content;
+
+public interface SharedPreferences {
+    String getString(String key, String defValue);
+
+    boolean getBoolean(String key, boolean defValue);
+
+    long getLong(String key, long defValue);
+
+    Editor edit();
+
+    interface Editor {
+        Editor putString(String key, String value);
+
+        Editor putBoolean(String key, boolean value);
+
+        Editor putLong(String key, long value);
+
+        Editor remove(String key);
+
+        void apply();
+
+        boolean commit();
+    }
+}
@@ -0,0 +1,71 @@
+package android.os;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JVM stand-in backed by the fake main looper's executor.
+ * {@link #POSTS} counts every hop onto the looper so benchmarks can report thread hops per call.
+ */
+public class Handler {
+
+    public static final AtomicLong POSTS = new AtomicLong();
+
+    private final Looper looper;
+    private final Map<Runnable, Set<ScheduledFuture<?>>> delayed = new ConcurrentHashMap<>();
+
+    public Handler(Looper looper) {
+        this.looper = looper;
+    }
+
+    public final Looper getLooper() {
+        return looper;
+    }
+
+    public final boolean post(Runnable r) {
+        POSTS.incrementAndGet();
+        looper.executor.execute(() -> runSafely(r));
+        return true;
+    }
+
+    public final boolean postAtFrontOfQueue(Runnable r) {
+        return post(r);
+    }
+
+    public final boolean postDelayed(Runnable r, long delayMillis) {
+        if (delayMillis <= 0) return post(r);
+        POSTS.incrementAndGet();
+        Set<ScheduledFuture<?>> futures = delayed.computeIfAbsent(r, k -> ConcurrentHashMap.newKeySet());
+        ScheduledFuture<?>[] self = new ScheduledFuture<?>[1];
+        self[0] = looper.executor.schedule(() -> {
+            futures.remove(self[0]);
+            runSafely(r);
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        futures.add(self[0]);
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable r) {
+        if (r == null) return;
+        Set<ScheduledFuture<?>> futures = delayed.remove(r);
+        if (futures == null) return;
+        for (ScheduledFuture<?> f : futures) f.cancel(false);
+    }
+
+    public final void removeCallbacksAndMessages(Object token) {
+        if (token != null) return;
+        for (Runnable r : delayed.keySet()) removeCallbacks(r);
+    }
+
+    private static void runSafely(Runnable r) {
+        try {
+            r.run();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package android.text;
+
+public final class TextUtils {
+
+    private TextUtils() {}
+
+    public static boolean isEmpty(CharSequence s) {
+        return s == null || s.length() == 0;
+    }
+}
@@ -0,0 +1,7 @@
+package androidx.appcompat;
+
+public final class R {
+    public static final class style {
+        public static final int Theme_AppCompat_NoActionBar = 0;
+    }
+}
@@ -0,0 +1,19 @@
+package androidx.mediarouter.app;
+
+import android.content.Context;
+import android.content.DialogInterface;
+import androidx.mediarouter.media.MediaRouteSelector;
+
+/** JVM stand-in: show() is a no-op, there is no UI. */
+public class MediaRouteChooserDialog {
+
+    public MediaRouteChooserDialog(Context context, int theme) {}
+
+    public void setRouteSelector(MediaRouteSelector selector) {}
+
+    public void setCanceledOnTouchOutside(boolean cancel) {}
+
+    public void setOnCancelListener(DialogInterface.OnCancelListener listener) {}
+
+    public void show() {}
+}
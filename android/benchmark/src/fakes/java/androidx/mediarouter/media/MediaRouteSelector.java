@@ -0,0 +1,37 @@
+package androidx.mediarouter.media;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class MediaRouteSelector {
+
+    public static final MediaRouteSelector EMPTY = new MediaRouteSelector(Collections.emptyList());
+
+    private final List<String> categories;
+
+    private MediaRouteSelector(List<String> categories) {
+        this.categories = categories;
+    }
+
+    public boolean isEmpty() {
+        return categories.isEmpty();
+    }
+
+    public List<String> getControlCategories() {
+        return categories;
+    }
+
+    public static final class Builder {
+        private final List<String> categories = new ArrayList<>();
+
+        public Builder addControlCategory(String category) {
+            categories.add(category);
+            return this;
+        }
+
+        public MediaRouteSelector build() {
+            return new MediaRouteSelector(Collections.unmodifiableList(new ArrayList<>(categories)));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package androidx.mediarouter.media;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * JVM stand-in: a single process-wide router whose routes are driven by the harness through
+ * {@link #addRoute}/{@link #removeRoute}. Callbacks are delivered on the fake main looper, as on Android.
+ */
+public final class MediaRouter {
+
+    public static final int CALLBACK_FLAG_PERFORM_ACTIVE_SCAN = 1;
+    public static final int CALLBACK_FLAG_UNFILTERED_EVENTS = 2;
+    public static final int CALLBACK_FLAG_REQUEST_DISCOVERY = 4;
+    public static final int UNSELECT_REASON_STOPPED = 2;
+
+    private static final MediaRouter INSTANCE = new MediaRouter();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final RouteInfo defaultRoute = new RouteInfo("DEFAULT_ROUTE", "Phone", null, true);
+    private final List<RouteInfo> routes = new CopyOnWriteArrayList<>(Collections.singletonList(defaultRoute));
+    private final List<Callback> callbacks = new CopyOnWriteArrayList<>();
+    private volatile RouteInfo selectedRoute = defaultRoute;
+
+    public static MediaRouter getInstance(Context context) {
+        return INSTANCE;
+    }
+
+    public void addCallback(MediaRouteSelector selector, Callback callback) {
+        addCallback(selector, callback, 0);
+    }
+
+    public void addCallback(MediaRouteSelector selector, Callback callback, int flags) {
+        if (!callbacks.contains(callback)) callbacks.add(callback);
+    }
+
+    public void removeCallback(Callback callback) {
+        callbacks.remove(callback);
+    }
+
+    public List<RouteInfo> getRoutes() {
+        return new ArrayList<>(routes);
+    }
+
+    public RouteInfo getDefaultRoute() {
+        return defaultRoute;
+    }
+
+    public RouteInfo getSelectedRoute() {
+        return selectedRoute;
+    }
+
+    public void selectRoute(RouteInfo route) {
+        selectedRoute = route;
+        for (Callback cb : callbacks) cb.onRouteSelected(this, route);
+    }
+
+    public void unselect(int reason) {
+        RouteInfo previous = selectedRoute;
+        selectedRoute = defaultRoute;
+        for (Callback cb : callbacks) cb.onRouteUnselected(this, previous);
+    }
+
+    /** Harness: publish a route and notify callbacks on the main looper. */
+    public void addRoute(RouteInfo route) {
+        routes.add(route);
+        handler.post(() -> {
+            for (Callback cb : callbacks) cb.onRouteAdded(this, route);
+        });
+    }
+
+    /** Harness: withdraw a route and notify callbacks on the main looper. */
+    public void removeRoute(RouteInfo route) {
+        routes.remove(route);
+        handler.post(() -> {
+            for (Callback cb : callbacks) cb.onRouteRemoved(this, route);
+        });
+    }
+
+    /** Harness: drop every non-default route without notifying. */
+    public void clearRoutes() {
+        routes.retainAll(Collections.singletonList(defaultRoute));
+    }
+
+    public static class RouteInfo {
+        public static final int CONNECTION_STATE_DISCONNECTED = 0;
+        public static final int CONNECTION_STATE_CONNECTING = 1;
+        public static final int CONNECTION_STATE_CONNECTED = 2;
+        public static final int DEVICE_TYPE_UNKNOWN = 0;
+        public static final int DEVICE_TYPE_TV = 1;
+        public static final int DEVICE_TYPE_SPEAKER = 2;
+        public static final int PLAYBACK_VOLUME_VARIABLE = 1;
+
+        private final String id;
+        private final String name;
+        private final String description;
+        private final boolean isDefault;
+
+        public RouteInfo(String id, String name, String description) {
+            this(id, name, description, false);
+        }
+
+        private RouteInfo(String id, String name, String description, boolean isDefault) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.isDefault = isDefault;
+        }
+
+        public boolean matchesSelector(MediaRouteSelector selector) {
+            return !isDefault;
+        }
+
+        public boolean isDefault() {
+            return isDefault;
+        }
+
+        public boolean isEnabled() {
+            return true;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public android.os.Bundle getExtras() {
+            if (isDefault) return null;
+            android.os.Bundle extras = new android.os.Bundle();
+            extras.putString("deviceId", id);
+            extras.putString("friendlyName", name);
+            return extras;
+        }
+
+        public int getConnectionState() {
+            return CONNECTION_STATE_DISCONNECTED;
+        }
+
+        public int getDeviceType() {
+            return DEVICE_TYPE_TV;
+        }
+
+        public int getVolumeHandling() {
+            return PLAYBACK_VOLUME_VARIABLE;
+        }
+
+        public boolean isSelected() {
+            return INSTANCE.selectedRoute == this;
+        }
+
+        public void select() {
+            INSTANCE.selectRoute(this);
+        }
+    }
+
+    public abstract static class Callback {
+        public void onRouteAdded(MediaRouter router, RouteInfo route) {}
+
+        public void onRouteRemoved(MediaRouter router, RouteInfo route) {}
+
+        public void onRouteChanged(MediaRouter router, RouteInfo route) {}
+
+        public void onRouteSelected(MediaRouter router, RouteInfo route) {}
+
+        public void onRouteSelected(MediaRouter router, RouteInfo route, int reason) {}
+
+        public void onRouteUnselected(MediaRouter router, RouteInfo route) {}
+    }
+}
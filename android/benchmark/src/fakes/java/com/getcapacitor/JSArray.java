@@ -0,0 +1,20 @@
+package com.getcapacitor;
+
+import java.util.Collection;
+import org.json.JSONArray;
+import org.json.JSONException;
+
+public class JSArray extends JSONArray {
+
+    public JSArray() {
+        super();
+    }
+
+    public JSArray(Collection<?> values) {
+        super(values);
+    }
+
+    public JSArray(String json) throws JSONException {
+        super(json);
+    }
+}
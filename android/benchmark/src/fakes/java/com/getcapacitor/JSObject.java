@@ -0,0 +1,85 @@
+package com.getcapacitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+public class JSObject extends JSONObject {
+
+    public JSObject() {
+        super();
+    }
+
+    public JSObject(String json) throws JSONException {
+        super(json);
+    }
+
+    public static JSObject fromJSONObject(JSONObject obj) throws JSONException {
+        return new JSObject(obj.toString());
+    }
+
+    @Override
+    public JSObject put(String key, boolean value) {
+        super.put(key, value);
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, int value) {
+        super.put(key, value);
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, long value) {
+        super.put(key, value);
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, double value) {
+        super.put(key, value);
+        return this;
+    }
+
+    @Override
+    public JSObject put(String key, Object value) {
+        super.put(key, value);
+        return this;
+    }
+
+    public JSObject put(String key, String value) {
+        super.put(key, value);
+        return this;
+    }
+
+    @Override
+    public String getString(String key) {
+        return getString(key, null);
+    }
+
+    public String getString(String key, String defaultValue) {
+        Object v = opt(key);
+        return v instanceof String ? (String) v : defaultValue;
+    }
+
+    public Integer getInteger(String key) {
+        return getInteger(key, null);
+    }
+
+    public Integer getInteger(String key, Integer defaultValue) {
+        Object v = opt(key);
+        return v instanceof Number ? Integer.valueOf(((Number) v).intValue()) : defaultValue;
+    }
+
+    public Boolean getBoolean(String key, Boolean defaultValue) {
+        Object v = opt(key);
+        return v instanceof Boolean ? (Boolean) v : defaultValue;
+    }
+
+    public JSObject getJSObject(String key) {
+        Object v = opt(key);
+        if (v instanceof JSObject) return (JSObject) v;
+        if (v instanceof JSONObject) return fromJSONObject((JSONObject) v);
+        return null;
+    }
+}
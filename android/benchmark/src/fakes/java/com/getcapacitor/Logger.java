@@ -0,0 +1,23 @@
+package com.getcapacitor;
+
+/** JVM stand-in: silent unless -Dbench.log=true. */
+public class Logger {
+
+    private static final boolean ENABLED = Boolean.getBoolean("bench.log");
+
+    public static void info(String tag, String message) {
+        if (ENABLED) System.out.println(tag + " I " + message);
+    }
+
+    public static void warn(String tag, String message) {
+        if (ENABLED) System.out.println(tag + " W " + message);
+    }
+
+    public static void debug(String tag, String message) {
+        if (ENABLED) System.out.println(tag + " D " + message);
+    }
+
+    public static void error(String tag, String message, Throwable e) {
+        if (ENABLED) System.out.println(tag + " E " + message + (e != null ? " " + e : ""));
+    }
+}
@@ -0,0 +1,80 @@
+package com.getcapacitor;
+
+import android.content.Context;
+import androidx.appcompat.app.AppCompatActivity;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JVM stand-in for the Capacitor bridge side of a plugin.
+ * notifyListeners only counts events; the payload is kept so benchmarks can consume it.
+ */
+public class Plugin {
+
+    private final Set<String> listeners = ConcurrentHashMap.newKeySet();
+    private final AtomicLong notifications = new AtomicLong();
+    private AppCompatActivity activity;
+    private PluginConfig config = new PluginConfig();
+    private volatile JSObject lastEvent;
+
+    /** Harness: stand-in for the bridge registering the plugin, then load(). */
+    public void attach(AppCompatActivity activity, PluginConfig config) {
+        this.activity = activity;
+        this.config = config != null ? config : new PluginConfig();
+        load();
+    }
+
+    /** Harness: stand-in for JS calling addListener(eventName). */
+    public void addListener(String eventName) {
+        listeners.add(eventName);
+    }
+
+    /** Harness: number of events emitted since creation. */
+    public long getNotificationCount() {
+        return notifications.get();
+    }
+
+    /** Harness: payload of the last event emitted. */
+    public JSObject getLastEvent() {
+        return lastEvent;
+    }
+
+    /** Harness: stand-in for the activity being destroyed. */
+    public void destroy() {
+        handleOnDestroy();
+    }
+
+    public Context getContext() {
+        return activity;
+    }
+
+    public AppCompatActivity getActivity() {
+        return activity;
+    }
+
+    public PluginConfig getConfig() {
+        return config;
+    }
+
+    public void load() {}
+
+    protected void notifyListeners(String eventName, JSObject data) {
+        notifyListeners(eventName, data, false);
+    }
+
+    protected void notifyListeners(String eventName, JSObject data, boolean retainUntilConsumed) {
+        lastEvent = data;
+        notifications.incrementAndGet();
+    }
+
+    protected boolean hasListeners(String eventName) {
+        return listeners.contains(eventName);
+    }
+
+    protected void handleOnPause() {}
+
+    protected void handleOnResume() {}
+
+    protected void handleOnDestroy() {}
+}
@@ -0,0 +1,141 @@
+package com.getcapacitor;
+
+import org.json.JSONArray;
+
+/**
+ * JVM stand-in: wraps the call data and records how the plugin completed the call.
+ */
+public class PluginCall {
+
+    private final JSObject data;
+    private volatile boolean completed;
+    private volatile JSObject result;
+    private volatile String errorMessage;
+
+    public PluginCall(JSObject data) {
+        this.data = data != null ? data : new JSObject();
+    }
+
+    public JSObject getData() {
+        return data;
+    }
+
+    public boolean hasOption(String key) {
+        return data.has(key);
+    }
+
+    public String getString(String key) {
+        return data.getString(key);
+    }
+
+    public String getString(String key, String defaultValue) {
+        return data.getString(key, defaultValue);
+    }
+
+    public Integer getInt(String key) {
+        return data.getInteger(key);
+    }
+
+    public Integer getInt(String key, Integer defaultValue) {
+        return data.getInteger(key, defaultValue);
+    }
+
+    public Long getLong(String key) {
+        return getLong(key, null);
+    }
+
+    public Long getLong(String key, Long defaultValue) {
+        Object v = data.opt(key);
+        return v instanceof Number ? Long.valueOf(((Number) v).longValue()) : defaultValue;
+    }
+
+    public Double getDouble(String key) {
+        return getDouble(key, null);
+    }
+
+    public Double getDouble(String key, Double defaultValue) {
+        Object v = data.opt(key);
+        return v instanceof Number ? Double.valueOf(((Number) v).doubleValue()) : defaultValue;
+    }
+
+    public Boolean getBoolean(String key) {
+        return data.getBoolean(key, null);
+    }
+
+    public Boolean getBoolean(String key, Boolean defaultValue) {
+        return data.getBoolean(key, defaultValue);
+    }
+
+    public JSObject getObject(String key) {
+        return data.getJSObject(key);
+    }
+
+    public JSArray getArray(String key) {
+        Object v = data.opt(key);
+        if (v instanceof JSArray) return (JSArray) v;
+        if (v instanceof JSONArray) return new JSArray(((JSONArray) v).toList());
+        return null;
+    }
+
+    public void setKeepAlive(Boolean keepAlive) {}
+
+    public String getCallbackId() {
+        return null;
+    }
+
+    public void resolve() {
+        resolve(new JSObject());
+    }
+
+    public void resolve(JSObject value) {
+        result = value;
+        completed = true;
+    }
+
+    public void reject(String message) {
+        reject(message, (String) null, null, null);
+    }
+
+    public void reject(String message, JSObject data) {
+        reject(message, null, null, data);
+    }
+
+    public void reject(String message, String code) {
+        reject(message, code, null, null);
+    }
+
+    public void reject(String message, String code, JSObject data) {
+        reject(message, code, null, data);
+    }
+
+    public void reject(String message, String code, Exception e, JSObject data) {
+        errorMessage = message;
+        completed = true;
+    }
+
+    /** Harness: whether resolve/reject has been called. */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /** Harness: the resolved value, or null if rejected or still pending. */
+    public JSObject getResult() {
+        return result;
+    }
+
+    /** Harness: the reject message, or null. */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /** Harness: spin until the plugin completes the call; used instead of a latch to avoid allocating per call. */
+    public boolean await(long timeoutMs) {
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+        while (!completed) {
+            if (System.nanoTime() > deadline) return false;
+            Thread.onSpinWait();
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.getcapacitor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PluginConfig {
+
+    private final Map<String, Object> values = new HashMap<>();
+
+    /** Harness: set a value as if it came from capacitor.config.json. */
+    public PluginConfig set(String key, Object value) {
+        values.put(key, value);
+        return this;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object v = values.get(key);
+        return v instanceof Boolean ? (Boolean) v : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object v = values.get(key);
+        return v instanceof Number ? ((Number) v).intValue() : defaultValue;
+    }
+
+    public String getString(String key) {
+        return getString(key, null);
+    }
+
+    public String getString(String key, String defaultValue) {
+        Object v = values.get(key);
+        return v instanceof String ? (String) v : defaultValue;
+    }
+}
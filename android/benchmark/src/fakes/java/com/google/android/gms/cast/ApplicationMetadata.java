@@ -0,0 +1,20 @@
+package com.google.android.gms.cast;
+
+public class ApplicationMetadata {
+
+    private final String applicationId;
+    private final String name;
+
+    public ApplicationMetadata(String applicationId, String name) {
+        this.applicationId = applicationId;
+        this.name = name;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,11 @@
+package com.google.android.gms.cast;
+
+/** JVM stand-in. */
+public final class Cast {
+
+    private Cast() {}
+
+    public interface MessageReceivedCallback {
+        void onMessageReceived(CastDevice castDevice, String namespace, String message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.google.android.gms.cast;
+
+public class CastDevice {
+
+    public static final int CAPABILITY_VIDEO_OUT = 1;
+    public static final int CAPABILITY_AUDIO_OUT = 4;
+    public static final int CAPABILITY_MULTIZONE_GROUP = 32;
+
+    private final String deviceId;
+    private final String friendlyName;
+
+    public CastDevice(String deviceId, String friendlyName) {
+        this.deviceId = deviceId;
+        this.friendlyName = friendlyName;
+    }
+
+    /**
+     * Harness: the fake RouteInfo stores the device id and name in its extras.
+     */
+    public static CastDevice getFromBundle(android.os.Bundle extras) {
+        if (extras == null || extras.getString("deviceId") == null) return null;
+        return new CastDevice(extras.getString("deviceId"), extras.getString("friendlyName"));
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public String getFriendlyName() {
+        return friendlyName;
+    }
+
+    public String getModelName() {
+        return "Fake Chromecast";
+    }
+
+    public boolean hasCapability(int capability) {
+        return capability == CAPABILITY_VIDEO_OUT || capability == CAPABILITY_AUDIO_OUT;
+    }
+}
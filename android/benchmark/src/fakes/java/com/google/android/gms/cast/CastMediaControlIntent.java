@@ -0,0 +1,12 @@
+package com.google.android.gms.cast;
+
+public final class CastMediaControlIntent {
+
+    public static final String DEFAULT_MEDIA_RECEIVER_APPLICATION_ID = "CC1AD845";
+
+    private CastMediaControlIntent() {}
+
+    public static String categoryForCast(String applicationId) {
+        return "com.google.android.gms.cast.CATEGORY_CAST/" + applicationId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.google.android.gms.cast;
+
+import com.google.android.gms.common.api.CommonStatusCodes;
+
+public final class CastStatusCodes extends CommonStatusCodes {
+    public static final int AUTHENTICATION_FAILED = 2000;
+    public static final int INVALID_REQUEST = 2001;
+    public static final int CANCELED = 2002;
+    public static final int NOT_ALLOWED = 2003;
+    public static final int APPLICATION_NOT_FOUND = 2004;
+    public static final int APPLICATION_NOT_RUNNING = 2005;
+    public static final int MESSAGE_TOO_LARGE = 2006;
+    public static final int MESSAGE_SEND_BUFFER_TOO_FULL = 2007;
+    public static final int FAILED = 2100;
+    public static final int REPLACED = 2103;
+    public static final int ERROR_SERVICE_DISCONNECTED = 2201;
+}
@@ -0,0 +1,87 @@
+package com.google.android.gms.cast;
+
+import org.json.JSONObject;
+
+public class MediaInfo {
+
+    public static final int STREAM_TYPE_BUFFERED = 1;
+    public static final int STREAM_TYPE_LIVE = 2;
+
+    private final String contentId;
+    private final int streamType;
+    private final String contentType;
+    private final MediaMetadata metadata;
+    private final long streamDuration;
+
+    private MediaInfo(Builder b) {
+        contentId = b.contentId;
+        streamType = b.streamType;
+        contentType = b.contentType;
+        metadata = b.metadata;
+        streamDuration = b.streamDuration;
+    }
+
+    public String getContentId() {
+        return contentId;
+    }
+
+    public String getContentUrl() {
+        return contentId;
+    }
+
+    public int getStreamType() {
+        return streamType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public MediaMetadata getMetadata() {
+        return metadata;
+    }
+
+    public long getStreamDuration() {
+        return streamDuration;
+    }
+
+    public static class Builder {
+        private final String contentId;
+        private int streamType = STREAM_TYPE_BUFFERED;
+        private String contentType;
+        private MediaMetadata metadata;
+        private long streamDuration = -1;
+
+        public Builder(String contentId) {
+            this.contentId = contentId;
+        }
+
+        public Builder setStreamType(int streamType) {
+            this.streamType = streamType;
+            return this;
+        }
+
+        public Builder setContentType(String contentType) {
+            this.contentType = contentType;
+            return this;
+        }
+
+        public Builder setMetadata(MediaMetadata metadata) {
+            this.metadata = metadata;
+            return this;
+        }
+
+        public Builder setStreamDuration(long streamDuration) {
+            this.streamDuration = streamDuration;
+            return this;
+        }
+
+        public Builder setCustomData(JSONObject customData) {
+            return this;
+        }
+
+        public MediaInfo build() {
+            return new MediaInfo(this);
+        }
+    }
+}
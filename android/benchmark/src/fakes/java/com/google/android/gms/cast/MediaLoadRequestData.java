@@ -0,0 +1,67 @@
+package com.google.android.gms.cast;
+
+public class MediaLoadRequestData {
+
+    private final MediaInfo mediaInfo;
+    private final MediaQueueData queueData;
+    private final Boolean autoplay;
+    private final long currentTime;
+
+    private MediaLoadRequestData(Builder b) {
+        mediaInfo = b.mediaInfo;
+        queueData = b.queueData;
+        autoplay = b.autoplay;
+        currentTime = b.currentTime;
+    }
+
+    public MediaInfo getMediaInfo() {
+        return mediaInfo;
+    }
+
+    public MediaQueueData getQueueData() {
+        return queueData;
+    }
+
+    public Boolean getAutoplay() {
+        return autoplay;
+    }
+
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    public static class Builder {
+        private MediaInfo mediaInfo;
+        private MediaQueueData queueData;
+        private Boolean autoplay = Boolean.TRUE;
+        private long currentTime;
+
+        public Builder setMediaInfo(MediaInfo mediaInfo) {
+            this.mediaInfo = mediaInfo;
+            return this;
+        }
+
+        public Builder setQueueData(MediaQueueData queueData) {
+            this.queueData = queueData;
+            return this;
+        }
+
+        public Builder setAutoplay(Boolean autoplay) {
+            this.autoplay = autoplay;
+            return this;
+        }
+
+        public Builder setCurrentTime(long currentTime) {
+            this.currentTime = currentTime;
+            return this;
+        }
+
+        public Builder setActiveTrackIds(long[] trackIds) {
+            return this;
+        }
+
+        public MediaLoadRequestData build() {
+            return new MediaLoadRequestData(this);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.google.android.gms.cast;
+
+import com.google.android.gms.common.images.WebImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MediaMetadata {
+
+    public static final int MEDIA_TYPE_GENERIC = 0;
+    public static final String KEY_TITLE = "com.google.android.gms.cast.metadata.TITLE";
+    public static final String KEY_SUBTITLE = "com.google.android.gms.cast.metadata.SUBTITLE";
+
+    private final int mediaType;
+    private final Map<String, String> strings = new HashMap<>();
+    private final List<WebImage> images = new ArrayList<>();
+
+    public MediaMetadata(int mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public int getMediaType() {
+        return mediaType;
+    }
+
+    public void putString(String key, String value) {
+        strings.put(key, value);
+    }
+
+    public String getString(String key) {
+        return strings.get(key);
+    }
+
+    public void addImage(WebImage image) {
+        images.add(image);
+    }
+
+    public List<WebImage> getImages() {
+        return images;
+    }
+}
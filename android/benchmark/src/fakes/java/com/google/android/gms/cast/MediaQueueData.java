@@ -0,0 +1,58 @@
+package com.google.android.gms.cast;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MediaQueueData {
+
+    private final List<MediaQueueItem> items;
+    private final int startIndex;
+    private final int repeatMode;
+
+    private MediaQueueData(Builder b) {
+        items = b.items;
+        startIndex = b.startIndex;
+        repeatMode = b.repeatMode;
+    }
+
+    public List<MediaQueueItem> getItems() {
+        return items;
+    }
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    public int getRepeatMode() {
+        return repeatMode;
+    }
+
+    public static class Builder {
+        private List<MediaQueueItem> items = new ArrayList<>();
+        private int startIndex;
+        private int repeatMode;
+
+        public Builder setItems(List<MediaQueueItem> items) {
+            this.items = items;
+            return this;
+        }
+
+        public Builder setStartIndex(int startIndex) {
+            this.startIndex = startIndex;
+            return this;
+        }
+
+        public Builder setStartTime(long startTime) {
+            return this;
+        }
+
+        public Builder setRepeatMode(int repeatMode) {
+            this.repeatMode = repeatMode;
+            return this;
+        }
+
+        public MediaQueueData build() {
+            return new MediaQueueData(this);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.google.android.gms.cast;
+
+public class MediaQueueItem {
+
+    public static final int INVALID_ITEM_ID = 0;
+
+    private final int itemId;
+    private final MediaInfo media;
+    private final boolean autoplay;
+    private final double preloadTime;
+    private final double startTime;
+
+    private MediaQueueItem(int itemId, Builder b) {
+        this.itemId = itemId;
+        this.media = b.media;
+        this.autoplay = b.autoplay;
+        this.preloadTime = b.preloadTime;
+        this.startTime = b.startTime;
+    }
+
+    /** Harness: the receiver assigns item IDs; the fake RemoteMediaClient does it through this copy. */
+    public MediaQueueItem withItemId(int id) {
+        Builder b = new Builder(media).setAutoplay(autoplay).setPreloadTime(preloadTime).setStartTime(startTime);
+        return new MediaQueueItem(id, b);
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public MediaInfo getMedia() {
+        return media;
+    }
+
+    public boolean getAutoplay() {
+        return autoplay;
+    }
+
+    public double getPreloadTime() {
+        return preloadTime;
+    }
+
+    public double getStartTime() {
+        return startTime;
+    }
+
+    public static class Builder {
+        private final MediaInfo media;
+        private boolean autoplay = true;
+        private double preloadTime;
+        private double startTime;
+
+        public Builder(MediaInfo media) {
+            this.media = media;
+        }
+
+        public Builder setAutoplay(boolean autoplay) {
+            this.autoplay = autoplay;
+            return this;
+        }
+
+        public Builder setPreloadTime(double preloadTime) {
+            this.preloadTime = preloadTime;
+            return this;
+        }
+
+        public Builder setStartTime(double startTime) {
+            this.startTime = startTime;
+            return this;
+        }
+
+        public MediaQueueItem build() {
+            return new MediaQueueItem(INVALID_ITEM_ID, this);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.google.android.gms.cast;
+
+/** JVM stand-in. */
+public class MediaSeekOptions {
+
+    public static final int RESUME_STATE_UNCHANGED = 0;
+    public static final int RESUME_STATE_PLAY = 1;
+    public static final int RESUME_STATE_PAUSE = 2;
+
+    private final long position;
+    private final int resumeState;
+
+    private MediaSeekOptions(long position, int resumeState) {
+        this.position = position;
+        this.resumeState = resumeState;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public int getResumeState() {
+        return resumeState;
+    }
+
+    public static class Builder {
+        private long position;
+        private int resumeState = RESUME_STATE_UNCHANGED;
+
+        public Builder setPosition(long position) {
+            this.position = position;
+            return this;
+        }
+
+        public Builder setResumeState(int resumeState) {
+            this.resumeState = resumeState;
+            return this;
+        }
+
+        public MediaSeekOptions build() {
+            return new MediaSeekOptions(position, resumeState);
+        }
+    }
+}
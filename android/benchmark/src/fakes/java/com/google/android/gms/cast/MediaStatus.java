@@ -0,0 +1,98 @@
+package com.google.android.gms.cast;
+
+import java.util.Collections;
+import java.util.List;
+
+/** JVM stand-in: a mutable status owned by the fake RemoteMediaClient. */
+public class MediaStatus {
+
+    public static final int PLAYER_STATE_UNKNOWN = 0;
+    public static final int PLAYER_STATE_IDLE = 1;
+    public static final int PLAYER_STATE_PLAYING = 2;
+    public static final int PLAYER_STATE_PAUSED = 3;
+    public static final int PLAYER_STATE_BUFFERING = 4;
+    public static final int PLAYER_STATE_LOADING = 5;
+    public static final int IDLE_REASON_NONE = 0;
+    public static final int IDLE_REASON_FINISHED = 1;
+    public static final int IDLE_REASON_CANCELED = 2;
+    public static final int IDLE_REASON_INTERRUPTED = 3;
+    public static final int IDLE_REASON_ERROR = 4;
+    public static final int REPEAT_MODE_REPEAT_OFF = 0;
+    public static final int REPEAT_MODE_REPEAT_ALL = 1;
+    public static final int REPEAT_MODE_REPEAT_SINGLE = 2;
+    public static final int REPEAT_MODE_REPEAT_ALL_AND_SHUFFLE = 3;
+
+    private volatile int playerState = PLAYER_STATE_IDLE;
+    private volatile int idleReason = IDLE_REASON_NONE;
+    private volatile MediaInfo mediaInfo;
+    private volatile long streamPosition;
+    private volatile List<MediaQueueItem> queueItems = Collections.emptyList();
+    private volatile int repeatMode = REPEAT_MODE_REPEAT_OFF;
+    private volatile double streamVolume = 1.0;
+    private volatile boolean mute;
+
+    public int getPlayerState() {
+        return playerState;
+    }
+
+    public int getIdleReason() {
+        return idleReason;
+    }
+
+    public MediaInfo getMediaInfo() {
+        return mediaInfo;
+    }
+
+    public long getStreamPosition() {
+        return streamPosition;
+    }
+
+    public double getStreamVolume() {
+        return streamVolume;
+    }
+
+    public boolean isMute() {
+        return mute;
+    }
+
+    public List<MediaQueueItem> getQueueItems() {
+        return queueItems;
+    }
+
+    public int getQueueItemCount() {
+        return queueItems.size();
+    }
+
+    public int getQueueRepeatMode() {
+        return repeatMode;
+    }
+
+    /** Harness: updated by the fake RemoteMediaClient as commands complete. */
+    public void setPlayerState(int playerState, int idleReason) {
+        this.playerState = playerState;
+        this.idleReason = idleReason;
+    }
+
+    public void setMediaInfo(MediaInfo mediaInfo) {
+        this.mediaInfo = mediaInfo;
+    }
+
+    public void setStreamPosition(long streamPosition) {
+        this.streamPosition = streamPosition;
+    }
+
+    public void setQueue(List<MediaQueueItem> queueItems, int repeatMode) {
+        this.queueItems = queueItems;
+        this.repeatMode = repeatMode;
+    }
+
+    public void setVolume(double streamVolume, boolean mute) {
+        this.streamVolume = streamVolume;
+        this.mute = mute;
+    }
+
+    public int getCurrentItemId() {
+        List<MediaQueueItem> items = queueItems;
+        return items.isEmpty() ? MediaQueueItem.INVALID_ITEM_ID : items.get(0).getItemId();
+    }
+}
@@ -0,0 +1,62 @@
+package com.google.android.gms.cast.framework;
+
+import android.content.Context;
+import com.google.android.gms.tasks.Task;
+import java.util.concurrent.Executor;
+
+/**
+ * JVM stand-in. Like the real SDK it builds its options from the app's OptionsProvider once, on first use;
+ * the provider class is read from -Dbench.optionsProvider (the plugin's CastOptionsProvider by default).
+ */
+public class CastContext {
+
+    private static volatile CastContext instance;
+
+    private final SessionManager sessionManager = new SessionManager();
+    private volatile String receiverApplicationId;
+
+    private CastContext(CastOptions options) {
+        this.receiverApplicationId = options != null ? options.getReceiverApplicationId() : null;
+    }
+
+    public static CastContext getSharedInstance() {
+        return instance;
+    }
+
+    public static synchronized CastContext getSharedInstance(Context context) {
+        if (instance == null) {
+            instance = new CastContext(loadOptions(context));
+        }
+        return instance;
+    }
+
+    public static Task<CastContext> getSharedInstance(Context context, Executor executor) {
+        try {
+            return Task.forResult(getSharedInstance(context));
+        } catch (RuntimeException e) {
+            return Task.forException(e);
+        }
+    }
+
+    private static CastOptions loadOptions(Context context) {
+        String name = System.getProperty("bench.optionsProvider", "com.fabianacevedo.ionicchromecast.CastOptionsProvider");
+        try {
+            OptionsProvider provider = (OptionsProvider) Class.forName(name).getDeclaredConstructor().newInstance();
+            return provider.getCastOptions(context);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create OptionsProvider " + name, e);
+        }
+    }
+
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    public void setReceiverApplicationId(String receiverApplicationId) {
+        this.receiverApplicationId = receiverApplicationId;
+    }
+
+    public String getReceiverApplicationId() {
+        return receiverApplicationId;
+    }
+}
@@ -0,0 +1,51 @@
+package com.google.android.gms.cast.framework;
+
+public class CastOptions {
+
+    private final String receiverApplicationId;
+    private final boolean stopReceiverApplicationWhenEndingSession;
+    private final boolean resumeSavedSession;
+
+    private CastOptions(Builder b) {
+        receiverApplicationId = b.receiverApplicationId;
+        stopReceiverApplicationWhenEndingSession = b.stopReceiverApplicationWhenEndingSession;
+        resumeSavedSession = b.resumeSavedSession;
+    }
+
+    public String getReceiverApplicationId() {
+        return receiverApplicationId;
+    }
+
+    public boolean getStopReceiverApplicationWhenEndingSession() {
+        return stopReceiverApplicationWhenEndingSession;
+    }
+
+    public boolean getResumeSavedSession() {
+        return resumeSavedSession;
+    }
+
+    public static final class Builder {
+        private String receiverApplicationId;
+        private boolean stopReceiverApplicationWhenEndingSession;
+        private boolean resumeSavedSession = true;
+
+        public Builder setReceiverApplicationId(String receiverApplicationId) {
+            this.receiverApplicationId = receiverApplicationId;
+            return this;
+        }
+
+        public Builder setStopReceiverApplicationWhenEndingSession(boolean stop) {
+            this.stopReceiverApplicationWhenEndingSession = stop;
+            return this;
+        }
+
+        public Builder setResumeSavedSession(boolean resume) {
+            this.resumeSavedSession = resume;
+            return this;
+        }
+
+        public CastOptions build() {
+            return new CastOptions(this);
+        }
+    }
+}
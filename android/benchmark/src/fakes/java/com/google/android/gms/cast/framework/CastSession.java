@@ -0,0 +1,72 @@
+package com.google.android.gms.cast.framework;
+
+import com.google.android.gms.cast.ApplicationMetadata;
+import com.google.android.gms.cast.Cast;
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+import com.google.android.gms.common.api.PendingResult;
+import com.google.android.gms.common.api.Status;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CastSession extends Session {
+
+    private final ApplicationMetadata applicationMetadata;
+    private final CastDevice castDevice;
+    private final RemoteMediaClient remoteMediaClient;
+    private final Map<String, Cast.MessageReceivedCallback> messageCallbacks = new ConcurrentHashMap<>();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private volatile Cast.MessageReceivedCallback sentMessageListener;
+
+    public CastSession(String sessionId, ApplicationMetadata applicationMetadata, CastDevice castDevice,
+                       RemoteMediaClient remoteMediaClient) {
+        super(sessionId);
+        this.applicationMetadata = applicationMetadata;
+        this.castDevice = castDevice;
+        this.remoteMediaClient = remoteMediaClient;
+    }
+
+    public ApplicationMetadata getApplicationMetadata() {
+        return applicationMetadata;
+    }
+
+    public CastDevice getCastDevice() {
+        return castDevice;
+    }
+
+    public RemoteMediaClient getRemoteMediaClient() {
+        return isConnected() ? remoteMediaClient : null;
+    }
+
+    public void setMessageReceivedCallbacks(String namespace, Cast.MessageReceivedCallback callback) {
+        messageCallbacks.put(namespace, callback);
+    }
+
+    public void removeMessageReceivedCallbacks(String namespace) {
+        messageCallbacks.remove(namespace);
+    }
+
+    public PendingResult<Status> sendMessage(String namespace, String message) {
+        messagesSent.incrementAndGet();
+        Cast.MessageReceivedCallback listener = sentMessageListener;
+        if (listener != null) listener.onMessageReceived(castDevice, namespace, message);
+        return new PendingResult<>(Status.RESULT_SUCCESS, 0);
+    }
+
+    /** Harness: calls to sendMessage, i.e. frames on the wire. */
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    /** Harness: sees every payload passed to sendMessage, on the calling thread. */
+    public void setSentMessageListener(Cast.MessageReceivedCallback listener) {
+        this.sentMessageListener = listener;
+    }
+
+    /** Harness: a message from the receiver. Main thread, as on a device. */
+    public void receiveMessage(String namespace, String message) {
+        Cast.MessageReceivedCallback callback = messageCallbacks.get(namespace);
+        if (callback != null) callback.onMessageReceived(castDevice, namespace, message);
+    }
+}
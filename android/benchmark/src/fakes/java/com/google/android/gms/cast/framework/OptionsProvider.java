@@ -0,0 +1,10 @@
+package com.google.android.gms.cast.framework;
+
+import android.content.Context;
+import java.util.List;
+
+public interface OptionsProvider {
+    CastOptions getCastOptions(Context context);
+
+    List<SessionProvider> getAdditionalSessionProviders(Context context);
+}
@@ -0,0 +1,40 @@
+package com.google.android.gms.cast.framework;
+
+public abstract class Session {
+
+    private final String sessionId;
+    private volatile boolean connected;
+
+    protected Session(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /** Harness: connection state driven by the fake SessionManager. */
+    public void setConnected(boolean connected) {
+        this.connected = connected;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public boolean isConnecting() {
+        return false;
+    }
+
+    public boolean isResuming() {
+        return false;
+    }
+
+    public boolean isSuspended() {
+        return false;
+    }
+
+    public boolean isDisconnected() {
+        return !connected;
+    }
+
+    public final String getSessionId() {
+        return sessionId;
+    }
+}
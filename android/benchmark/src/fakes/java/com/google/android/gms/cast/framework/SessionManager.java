@@ -0,0 +1,54 @@
+package com.google.android.gms.cast.framework;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * JVM stand-in: sessions are started and ended by the harness; listener callbacks run on the main looper.
+ */
+public class SessionManager {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<SessionManagerListener<CastSession>> listeners = new CopyOnWriteArrayList<>();
+    private volatile CastSession currentSession;
+
+    public CastSession getCurrentCastSession() {
+        return currentSession;
+    }
+
+    public Session getCurrentSession() {
+        return currentSession;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Session> void addSessionManagerListener(SessionManagerListener<T> listener, Class<T> sessionClass) {
+        listeners.add((SessionManagerListener<CastSession>) listener);
+    }
+
+    public <T extends Session> void removeSessionManagerListener(SessionManagerListener<T> listener, Class<T> sessionClass) {
+        listeners.remove(listener);
+    }
+
+    /** Harness: connect the given session and run the starting/started callbacks on the main looper. */
+    public void startSession(CastSession session) {
+        handler.post(() -> {
+            for (SessionManagerListener<CastSession> l : listeners) l.onSessionStarting(session);
+            session.setConnected(true);
+            currentSession = session;
+            for (SessionManagerListener<CastSession> l : listeners) l.onSessionStarted(session, session.getSessionId());
+        });
+    }
+
+    public void endCurrentSession(boolean stopCasting) {
+        handler.post(() -> {
+            CastSession session = currentSession;
+            if (session == null) return;
+            for (SessionManagerListener<CastSession> l : listeners) l.onSessionEnding(session);
+            session.setConnected(false);
+            currentSession = null;
+            for (SessionManagerListener<CastSession> l : listeners) l.onSessionEnded(session, 0);
+        });
+    }
+}
@@ -0,0 +1,3 @@
+package com.google.android.gms.cast.framework;
+
+public abstract class SessionProvider {}
@@ -0,0 +1,217 @@
+package com.google.android.gms.cast.framework.media;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaLoadRequestData;
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.MediaSeekOptions;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.common.api.PendingResult;
+import com.google.android.gms.common.api.Result;
+import com.google.android.gms.common.api.Status;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.json.JSONObject;
+
+/**
+ * JVM stand-in for the receiver side: every command succeeds, updates the MediaStatus and completes
+ * on the main looper after {@link #setResponseDelayMs} (0 by default, i.e. the next looper turn).
+ */
+public class RemoteMediaClient {
+
+    public interface MediaChannelResult extends Result {
+        JSONObject getCustomData();
+    }
+
+    public interface ProgressListener {
+        void onProgressUpdated(long progressMs, long durationMs);
+    }
+
+    public abstract static class Callback {
+        public void onStatusUpdated() {}
+
+        public void onMetadataUpdated() {}
+
+        public void onQueueStatusUpdated() {}
+
+        public void onPreloadStatusUpdated() {}
+
+        public void onSendingRemoteMediaRequest() {}
+    }
+
+    private static final MediaChannelResult SUCCESS = new MediaChannelResult() {
+        @Override
+        public Status getStatus() {
+            return Status.RESULT_SUCCESS;
+        }
+
+        @Override
+        public JSONObject getCustomData() {
+            return null;
+        }
+    };
+
+    private final MediaStatus mediaStatus = new MediaStatus();
+    private final List<Callback> callbacks = new CopyOnWriteArrayList<>();
+    private final List<ProgressListener> progressListeners = new CopyOnWriteArrayList<>();
+    private volatile long responseDelayMs;
+    private int nextItemId = 1;
+
+    /** Harness: simulated receiver round trip for every command. */
+    public void setResponseDelayMs(long responseDelayMs) {
+        this.responseDelayMs = responseDelayMs;
+    }
+
+    public MediaStatus getMediaStatus() {
+        return mediaStatus;
+    }
+
+    public MediaInfo getMediaInfo() {
+        return mediaStatus.getMediaInfo();
+    }
+
+    public int getPlayerState() {
+        return mediaStatus.getPlayerState();
+    }
+
+    public boolean hasMediaSession() {
+        return mediaStatus.getMediaInfo() != null;
+    }
+
+    public long getApproximateStreamPosition() {
+        return mediaStatus.getStreamPosition();
+    }
+
+    public long getStreamDuration() {
+        MediaInfo info = mediaStatus.getMediaInfo();
+        return info != null ? info.getStreamDuration() : 0;
+    }
+
+    public void registerCallback(Callback callback) {
+        callbacks.add(callback);
+    }
+
+    public void unregisterCallback(Callback callback) {
+        callbacks.remove(callback);
+    }
+
+    public boolean addProgressListener(ProgressListener listener, long periodMs) {
+        return listener != null && progressListeners.add(listener);
+    }
+
+    public void removeProgressListener(ProgressListener listener) {
+        progressListeners.remove(listener);
+    }
+
+    /** Harness: what the SDK does every period while a listener is registered. Main thread. */
+    public void dispatchProgress(long progressMs, long durationMs) {
+        mediaStatus.setStreamPosition(progressMs);
+        for (ProgressListener l : progressListeners) l.onProgressUpdated(progressMs, durationMs);
+    }
+
+    public PendingResult<MediaChannelResult> load(MediaLoadRequestData request) {
+        if (request.getQueueData() != null) {
+            mediaStatus.setQueue(assignIds(request.getQueueData().getItems()), request.getQueueData().getRepeatMode());
+            List<MediaQueueItem> items = mediaStatus.getQueueItems();
+            mediaStatus.setMediaInfo(items.isEmpty() ? null : items.get(0).getMedia());
+        } else {
+            mediaStatus.setMediaInfo(request.getMediaInfo());
+        }
+        mediaStatus.setStreamPosition(request.getCurrentTime());
+        mediaStatus.setPlayerState(MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE);
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> stop() {
+        mediaStatus.setPlayerState(MediaStatus.PLAYER_STATE_IDLE, MediaStatus.IDLE_REASON_CANCELED);
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> play() {
+        mediaStatus.setPlayerState(MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE);
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> pause() {
+        mediaStatus.setPlayerState(MediaStatus.PLAYER_STATE_PAUSED, MediaStatus.IDLE_REASON_NONE);
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> seek(MediaSeekOptions options) {
+        mediaStatus.setStreamPosition(options.getPosition());
+        if (options.getResumeState() == MediaSeekOptions.RESUME_STATE_PLAY) {
+            mediaStatus.setPlayerState(MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE);
+        } else if (options.getResumeState() == MediaSeekOptions.RESUME_STATE_PAUSE) {
+            mediaStatus.setPlayerState(MediaStatus.PLAYER_STATE_PAUSED, MediaStatus.IDLE_REASON_NONE);
+        }
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> setStreamVolume(double volume) {
+        mediaStatus.setVolume(volume, mediaStatus.isMute());
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> setStreamMute(boolean mute) {
+        mediaStatus.setVolume(mediaStatus.getStreamVolume(), mute);
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> setActiveMediaTracks(long[] trackIds) {
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> queueNext(JSONObject customData) {
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> queueInsertItems(MediaQueueItem[] items, int insertBeforeItemId, JSONObject customData) {
+        List<MediaQueueItem> queue = new ArrayList<>(mediaStatus.getQueueItems());
+        int index = indexOf(queue, insertBeforeItemId);
+        queue.addAll(index < 0 ? queue.size() : index, assignIds(Arrays.asList(items)));
+        mediaStatus.setQueue(queue, mediaStatus.getQueueRepeatMode());
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> queueRemoveItems(int[] itemIds, JSONObject customData) {
+        List<MediaQueueItem> queue = new ArrayList<>(mediaStatus.getQueueItems());
+        for (int id : itemIds) {
+            int index = indexOf(queue, id);
+            if (index >= 0) queue.remove(index);
+        }
+        mediaStatus.setQueue(queue, mediaStatus.getQueueRepeatMode());
+        return complete();
+    }
+
+    public PendingResult<MediaChannelResult> queueReorderItems(int[] itemIds, int insertBeforeItemId, JSONObject customData) {
+        List<MediaQueueItem> queue = new ArrayList<>(mediaStatus.getQueueItems());
+        List<MediaQueueItem> moved = new ArrayList<>();
+        for (int id : itemIds) {
+            int index = indexOf(queue, id);
+            if (index >= 0) moved.add(queue.remove(index));
+        }
+        int index = indexOf(queue, insertBeforeItemId);
+        queue.addAll(index < 0 ? queue.size() : index, moved);
+        mediaStatus.setQueue(queue, mediaStatus.getQueueRepeatMode());
+        return complete();
+    }
+
+    private PendingResult<MediaChannelResult> complete() {
+        for (Callback cb : callbacks) cb.onStatusUpdated();
+        return new PendingResult<>(SUCCESS, responseDelayMs);
+    }
+
+    private synchronized List<MediaQueueItem> assignIds(List<MediaQueueItem> items) {
+        List<MediaQueueItem> out = new ArrayList<>(items.size());
+        for (MediaQueueItem item : items) out.add(item.withItemId(nextItemId++));
+        return out;
+    }
+
+    private static int indexOf(List<MediaQueueItem> queue, int itemId) {
+        for (int i = 0; i < queue.size(); i++) {
+            if (queue.get(i).getItemId() == itemId) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,13 @@
+package com.google.android.gms.common.api;
+
+public class CommonStatusCodes {
+    public static final int SUCCESS = 0;
+    public static final int INVALID_ACCOUNT = 5;
+    public static final int NETWORK_ERROR = 7;
+    public static final int INTERNAL_ERROR = 8;
+    public static final int DEVELOPER_ERROR = 10;
+    public static final int INTERRUPTED = 14;
+    public static final int TIMEOUT = 15;
+    public static final int CANCELED = 16;
+    public static final int API_NOT_CONNECTED = 17;
+}
@@ -0,0 +1,41 @@
+package com.google.android.gms.common.api;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM stand-in: the result is known up front and the callback is delivered on the main looper,
+ * which is where the Cast SDK delivers it on a device.
+ */
+public class PendingResult<R extends Result> {
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private final R result;
+    private final long delayMs;
+    private volatile boolean canceled;
+
+    public PendingResult(R result, long delayMs) {
+        this.result = result;
+        this.delayMs = delayMs;
+    }
+
+    public R await(long time, TimeUnit unit) {
+        return result;
+    }
+
+    public void setResultCallback(ResultCallback<? super R> callback) {
+        MAIN.postDelayed(() -> {
+            if (!canceled) callback.onResult(result);
+        }, delayMs);
+    }
+
+    public void cancel() {
+        canceled = true;
+    }
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+}
@@ -0,0 +1,35 @@
+package com.google.android.gms.common.api;
+
+public final class Status implements Result {
+
+    public static final Status RESULT_SUCCESS = new Status(CommonStatusCodes.SUCCESS);
+
+    private final int statusCode;
+    private final String statusMessage;
+
+    public Status(int statusCode) {
+        this(statusCode, null);
+    }
+
+    public Status(int statusCode, String statusMessage) {
+        this.statusCode = statusCode;
+        this.statusMessage = statusMessage;
+    }
+
+    @Override
+    public Status getStatus() {
+        return this;
+    }
+
+    public boolean isSuccess() {
+        return statusCode <= CommonStatusCodes.SUCCESS;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getStatusMessage() {
+        return statusMessage;
+    }
+}
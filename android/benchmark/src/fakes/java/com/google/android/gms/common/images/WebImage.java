@@ -0,0 +1,16 @@
+package com.google.android.gms.common.images;
+
+import android.net.Uri;
+
+public final class WebImage {
+
+    private final Uri url;
+
+    public WebImage(Uri url) {
+        this.url = url;
+    }
+
+    public Uri getUrl() {
+        return url;
+    }
+}
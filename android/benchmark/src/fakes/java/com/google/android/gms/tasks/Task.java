@@ -0,0 +1,49 @@
+package com.google.android.gms.tasks;
+
+import java.util.concurrent.Executor;
+
+/** JVM stand-in: an already completed task. */
+public class Task<T> {
+
+    private final T result;
+    private final Exception exception;
+
+    private Task(T result, Exception exception) {
+        this.result = result;
+        this.exception = exception;
+    }
+
+    public static <T> Task<T> forResult(T result) {
+        return new Task<>(result, null);
+    }
+
+    public static <T> Task<T> forException(Exception e) {
+        return new Task<>(null, e);
+    }
+
+    public boolean isComplete() {
+        return true;
+    }
+
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    public T getResult() {
+        return result;
+    }
+
+    public Exception getException() {
+        return exception;
+    }
+
+    public Task<T> addOnCompleteListener(Executor executor, OnCompleteListener<T> listener) {
+        executor.execute(() -> listener.onComplete(this));
+        return this;
+    }
+
+    public Task<T> addOnCompleteListener(OnCompleteListener<T> listener) {
+        listener.onComplete(this);
+        return this;
+    }
+}
@@ -0,0 +1,84 @@
+package com.fabianacevedo.ionicchromecast;
+
+import android.os.Handler;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.mediarouter.media.MediaRouter;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginConfig;
+import com.google.android.gms.cast.ApplicationMetadata;
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.framework.CastContext;
+import com.google.android.gms.cast.framework.CastSession;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+
+/**
+ * Plugin inicializado sobre los sustitutos: una ruta Cast visible y, opcionalmente, una sesión conectada.
+ * Cada benchmark crea el suyo en @Setup(Level.Trial).
+ */
+final class BenchEnvironment {
+
+    static final String RECEIVER_APP_ID = "CC1AD845";
+    static final long AWAIT_MS = 10_000;
+
+    final AppCompatActivity activity = new AppCompatActivity();
+    final IonicChromecastPlugin plugin = new IonicChromecastPlugin();
+    final MediaRouter router = MediaRouter.getInstance(activity);
+    final RemoteMediaClient remoteMediaClient = new RemoteMediaClient();
+    final MediaRouter.RouteInfo livingRoom = new MediaRouter.RouteInfo("route-1", "Living Room TV", "Chromecast");
+    final CastSession session = new CastSession(
+        "session-1",
+        new ApplicationMetadata(RECEIVER_APP_ID, "Default Media Receiver"),
+        new CastDevice("device-1", "Living Room TV"),
+        remoteMediaClient
+    );
+
+    BenchEnvironment(long discoveryTtlMs, boolean connectSession) {
+        plugin.attach(activity, new PluginConfig());
+        plugin.addListener("deviceAvailabilityChanged");
+        plugin.addListener("routesChanged");
+        router.clearRoutes();
+        router.addRoute(livingRoom);
+
+        JSObject init = new JSObject();
+        init.put("receiverApplicationId", RECEIVER_APP_ID);
+        init.put("discoveryTtlMs", discoveryTtlMs);
+        init.put("routeDebounceMs", 0);
+        init.put("cacheBusting", "none");
+        PluginCall call = new PluginCall(init);
+        plugin.initialize(call);
+        require(call, "initialize");
+
+        if (connectSession) {
+            CastContext.getSharedInstance(activity).getSessionManager().startSession(session);
+            awaitSessionActive();
+        }
+    }
+
+    /** Número de posts al hilo principal desde el arranque; la diferencia entre dos lecturas son los saltos de hilo */
+    static long mainThreadHops() {
+        return Handler.POSTS.get();
+    }
+
+    static void require(PluginCall call, String name) {
+        if (!call.await(AWAIT_MS)) throw new IllegalStateException(name + " did not complete");
+        if (call.getErrorMessage() != null) throw new IllegalStateException(name + " failed: " + call.getErrorMessage());
+    }
+
+    private void awaitSessionActive() {
+        long deadline = System.nanoTime() + AWAIT_MS * 1_000_000L;
+        while (true) {
+            PluginCall call = new PluginCall(new JSObject());
+            plugin.isSessionActive(call);
+            require(call, "isSessionActive");
+            if (call.getResult().optBoolean("active")) return;
+            if (System.nanoTime() > deadline) throw new IllegalStateException("session did not become active");
+            Thread.onSpinWait();
+        }
+    }
+
+    void close() {
+        CastContext.getSharedInstance(activity).getSessionManager().endCurrentSession(true);
+        plugin.destroy();
+    }
+}
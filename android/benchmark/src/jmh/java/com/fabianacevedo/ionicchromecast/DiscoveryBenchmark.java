@@ -0,0 +1,58 @@
+package com.fabianacevedo.ionicchromecast;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * areDevicesAvailable respondiendo del índice de rutas frente a un escaneo activo por llamada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscoveryBenchmark {
+
+    /** indexed: el índice siempre está fresco; scan: TTL 0, cada llamada lanza un escaneo activo */
+    @Param({ "indexed", "scan" })
+    public String mode;
+
+    private BenchEnvironment env;
+    private JSObject emptyData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = new BenchEnvironment("scan".equals(mode) ? 0 : TimeUnit.HOURS.toMillis(1), false);
+        emptyData = new JSObject();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    public JSObject areDevicesAvailable(HopCounters hops) {
+        long before = BenchEnvironment.mainThreadHops();
+        PluginCall call = new PluginCall(emptyData);
+        env.plugin.areDevicesAvailable(call);
+        BenchEnvironment.require(call, "areDevicesAvailable");
+        hops.record(before);
+        return call.getResult();
+    }
+}
@@ -0,0 +1,81 @@
+package com.fabianacevedo.ionicchromecast;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.mediarouter.media.MediaRouter;
+import com.getcapacitor.JSObject;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latencia desde un callback del SDK hasta que el plugin emite el evento a JS:
+ * cambios de rutas de MediaRouter (debounce 0) y progreso del ProgressListener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventEmissionBenchmark {
+
+    private BenchEnvironment env;
+    private MediaRouter.RouteInfo kitchen;
+    private boolean kitchenVisible;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private long positionMs;
+    private final Runnable progressTick = () -> env.remoteMediaClient.dispatchProgress(positionMs += 1000, 3_600_000);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = new BenchEnvironment(DeviceDiscovery.DEFAULT_TTL_MS, true);
+        env.plugin.addListener("progress");
+        kitchen = new MediaRouter.RouteInfo("route-2", "Kitchen speaker", "Google Nest");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    /** Alterna la aparición y desaparición de una segunda ruta y espera a que se emita routesChanged */
+    @Benchmark
+    public JSObject routeChange(HopCounters hops) {
+        long before = BenchEnvironment.mainThreadHops();
+        long emitted = env.plugin.getNotificationCount();
+        if (kitchenVisible) env.router.removeRoute(kitchen);
+        else env.router.addRoute(kitchen);
+        kitchenVisible = !kitchenVisible;
+        return awaitEvent(emitted, before, hops);
+    }
+
+    /** Un tick del ProgressListener en el hilo principal hasta el evento progress (solo positionMs) */
+    @Benchmark
+    public JSObject progress(HopCounters hops) {
+        long before = BenchEnvironment.mainThreadHops();
+        long emitted = env.plugin.getNotificationCount();
+        mainHandler.post(progressTick);
+        return awaitEvent(emitted, before, hops);
+    }
+
+    private JSObject awaitEvent(long emitted, long hopsBefore, HopCounters hops) {
+        long deadline = System.nanoTime() + BenchEnvironment.AWAIT_MS * 1_000_000L;
+        while (env.plugin.getNotificationCount() == emitted) {
+            if (System.nanoTime() > deadline) throw new IllegalStateException("no event emitted");
+            Thread.onSpinWait();
+        }
+        hops.record(hopsBefore);
+        return env.plugin.getLastEvent();
+    }
+}
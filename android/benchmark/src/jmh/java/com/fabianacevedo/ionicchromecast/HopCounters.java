@@ -0,0 +1,29 @@
+package com.fabianacevedo.ionicchromecast;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Saltos al hilo principal por iteración; saltos por llamada = mainThreadHops / calls.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class HopCounters {
+
+    public long mainThreadHops;
+    public long calls;
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        mainThreadHops = 0;
+        calls = 0;
+    }
+
+    void record(long hopsBefore) {
+        mainThreadHops += BenchEnvironment.mainThreadHops() - hopsBefore;
+        calls++;
+    }
+}
@@ -0,0 +1,98 @@
+package com.fabianacevedo.ionicchromecast;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * sendMessage a ritmo alto en un namespace propio: coste por llamada y marcos enviados al receiver.
+ * Con coalesceKey cada ventana de batchWindowMs deja un solo mensaje; sin ella, los mensajes se agrupan en marcos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageChannelBenchmark {
+
+    static final String NAMESPACE = "urn:x-cast:com.example.sync";
+
+    @Param({ "coalesced", "batched" })
+    public String mode;
+
+    private BenchEnvironment env;
+    private JSObject sendData;
+
+    /**
+     * Marcos (llamadas a CastSession.sendMessage) por iteración; marcos por mensaje = frames / calls.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FrameCounters {
+
+        public long frames;
+        public long calls;
+        private long framesAtStart;
+
+        @Setup(Level.Iteration)
+        public void clear(MessageChannelBenchmark bench) {
+            frames = 0;
+            calls = 0;
+            framesAtStart = bench.env.session.getMessagesSent();
+        }
+
+        @TearDown(Level.Iteration)
+        public void collect(MessageChannelBenchmark bench) throws InterruptedException {
+            // Deja salir la última ventana
+            Thread.sleep(MessageChannel.DEFAULT_BATCH_WINDOW_MS * 3);
+            frames = bench.env.session.getMessagesSent() - framesAtStart;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = new BenchEnvironment(DeviceDiscovery.DEFAULT_TTL_MS, true);
+        JSObject ns = new JSObject();
+        ns.put("namespace", NAMESPACE);
+        PluginCall call = new PluginCall(ns);
+        env.plugin.addMessageNamespace(call);
+        BenchEnvironment.require(call, "addMessageNamespace");
+
+        JSObject message = new JSObject();
+        message.put("t", "position");
+        message.put("ms", 123456);
+        sendData = new JSObject();
+        sendData.put("namespace", NAMESPACE);
+        sendData.put("message", message);
+        if ("coalesced".equals(mode)) sendData.put("coalesceKey", "position");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    public JSObject sendMessage(FrameCounters counters) {
+        PluginCall call = new PluginCall(sendData);
+        env.plugin.sendMessage(call);
+        BenchEnvironment.require(call, "sendMessage");
+        counters.calls++;
+        return call.getResult();
+    }
+}
@@ -0,0 +1,103 @@
+package com.fabianacevedo.ionicchromecast;
+
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Coste por llamada del puente PluginCall -> IonicChromecast -> SDK Cast (sustituido), de la entrada
+ * del método del plugin al resolve. El receiver responde en el siguiente turno del hilo principal,
+ * así que lo medido es la sobrecarga propia del plugin y sus saltos de hilo, no la red.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginCallBenchmark {
+
+    private BenchEnvironment env;
+    private JSObject emptyData;
+    private JSObject loadData;
+    private JSObject batchData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = new BenchEnvironment(DeviceDiscovery.DEFAULT_TTL_MS, true);
+        emptyData = new JSObject();
+        loadData = new JSObject();
+        loadData.put("url", "https://example.com/video.mp4");
+        JSObject metadata = new JSObject();
+        metadata.put("title", "Benchmark");
+        metadata.put("contentType", "video/mp4");
+        loadData.put("metadata", metadata);
+
+        // "Reanudar en la posición con subtítulos": seek + pistas + play en una sola llamada
+        JSArray operations = new JSArray();
+        JSObject seek = new JSObject();
+        seek.put("type", "seek");
+        seek.put("position", 42.5);
+        operations.put(seek);
+        JSObject tracks = new JSObject();
+        tracks.put("type", "setActiveTrackIds");
+        JSArray trackIds = new JSArray();
+        trackIds.put(1);
+        tracks.put("trackIds", trackIds);
+        operations.put(tracks);
+        JSObject play = new JSObject();
+        play.put("type", "play");
+        operations.put(play);
+        batchData = new JSObject();
+        batchData.put("operations", operations);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        env.close();
+    }
+
+    @Benchmark
+    public JSObject isSessionActive(HopCounters hops) {
+        long before = BenchEnvironment.mainThreadHops();
+        PluginCall call = new PluginCall(emptyData);
+        env.plugin.isSessionActive(call);
+        BenchEnvironment.require(call, "isSessionActive");
+        hops.record(before);
+        return call.getResult();
+    }
+
+    /** El receiver ya reproduce el elemento anterior: incluye el stop previo y la carga */
+    @Benchmark
+    public JSObject loadMedia(HopCounters hops) {
+        long before = BenchEnvironment.mainThreadHops();
+        PluginCall call = new PluginCall(loadData);
+        env.plugin.loadMedia(call);
+        BenchEnvironment.require(call, "loadMedia");
+        hops.record(before);
+        return call.getResult();
+    }
+
+    @Benchmark
+    public JSObject executeBatch(HopCounters hops) {
+        long before = BenchEnvironment.mainThreadHops();
+        PluginCall call = new PluginCall(batchData);
+        env.plugin.executeBatch(call);
+        BenchEnvironment.require(call, "executeBatch");
+        hops.record(before);
+        return call.getResult();
+    }
+}
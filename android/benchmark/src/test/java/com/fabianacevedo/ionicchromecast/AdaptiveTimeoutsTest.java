@@ -0,0 +1,159 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Plazo = srtt + 4·rttvar (Jacobson/Karels), backoff de Karn, límites y estimación por dispositivo.
+ */
+public class AdaptiveTimeoutsTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void withoutEnoughSamples_usesDefault() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        assertEquals(AdaptiveTimeouts.Op.STOP.defaultMs, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+        timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 1000 * MS);
+        timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 1000 * MS);
+        assertEquals(AdaptiveTimeouts.Op.STOP.defaultMs, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+    }
+
+    @Test
+    public void rto_followsSrttPlusFourRttvar() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        for (int i = 0; i < 3; i++) timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 1000 * MS);
+        // srtt = 1000; rttvar: 500 -> 375 -> 281.25; 1000 + 4 * 281.25 = 2125
+        assertEquals(2125, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+        AdaptiveTimeouts.Snapshot snap = timeouts.snapshot(AdaptiveTimeouts.Op.STOP);
+        assertEquals(3, snap.samples);
+        assertEquals(1000, snap.srttMs, 0.001);
+        assertEquals(281.25, snap.rttvarMs, 0.001);
+
+        // Una muestra lenta sube srtt 1/8 de la diferencia y rttvar 1/4 de la desviación
+        timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 3000 * MS);
+        snap = timeouts.snapshot(AdaptiveTimeouts.Op.STOP);
+        assertEquals(1250, snap.srttMs, 0.001);
+        assertEquals(0.75 * 281.25 + 0.25 * 2000, snap.rttvarMs, 0.001);
+        assertEquals(Math.round(1250 + 4 * (0.75 * 281.25 + 0.25 * 2000)), snap.deadlineMs);
+    }
+
+    @Test
+    public void timeout_doublesDeadlineUntilNextSuccess() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        for (int i = 0; i < 3; i++) timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 1000 * MS);
+        timeouts.recordTimeout(AdaptiveTimeouts.Op.STOP);
+        assertEquals(4250, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+        timeouts.recordTimeout(AdaptiveTimeouts.Op.STOP);
+        // 8500 queda acotado al máximo de la operación
+        assertEquals(AdaptiveTimeouts.Op.STOP.defaultMaxMs, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+        assertEquals(4, timeouts.snapshot(AdaptiveTimeouts.Op.STOP).backoff);
+
+        timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 1000 * MS);
+        assertEquals(1, timeouts.snapshot(AdaptiveTimeouts.Op.STOP).backoff);
+        assertTrue(timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP) < 4250);
+    }
+
+    @Test
+    public void backoff_isCapped() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        for (int i = 0; i < 10; i++) timeouts.recordTimeout(AdaptiveTimeouts.Op.LOAD);
+        assertEquals(8, timeouts.snapshot(AdaptiveTimeouts.Op.LOAD).backoff);
+        assertEquals(10, timeouts.snapshot(AdaptiveTimeouts.Op.LOAD).timeouts);
+    }
+
+    @Test
+    public void scanTimeout_doesNotBackOff() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        timeouts.recordTimeout(AdaptiveTimeouts.Op.SCAN);
+        assertEquals(1, timeouts.snapshot(AdaptiveTimeouts.Op.SCAN).backoff);
+        assertEquals(AdaptiveTimeouts.Op.SCAN.defaultMs, timeouts.deadlineMs(AdaptiveTimeouts.Op.SCAN));
+    }
+
+    @Test
+    public void deadline_isClampedToBounds() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        for (int i = 0; i < 3; i++) timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 1 * MS);
+        assertEquals(AdaptiveTimeouts.Op.STOP.defaultMinMs, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+
+        timeouts.setBounds(AdaptiveTimeouts.Op.STOP, 800, 0);
+        assertEquals(800, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+        assertEquals(AdaptiveTimeouts.Op.STOP.defaultMaxMs, timeouts.maxMs(AdaptiveTimeouts.Op.STOP));
+
+        // Un mínimo por encima del máximo arrastra el máximo
+        timeouts.setBounds(AdaptiveTimeouts.Op.STOP, 20000, 0);
+        assertEquals(20000, timeouts.maxMs(AdaptiveTimeouts.Op.STOP));
+        assertEquals(20000, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+    }
+
+    @Test
+    public void disabled_usesClampedDefault() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        for (int i = 0; i < 3; i++) timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 1000 * MS);
+        timeouts.recordTimeout(AdaptiveTimeouts.Op.STOP);
+        timeouts.setEnabled(false);
+        assertEquals(AdaptiveTimeouts.Op.STOP.defaultMs, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+        timeouts.setBounds(AdaptiveTimeouts.Op.STOP, 0, 2000);
+        assertEquals(2000, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+    }
+
+    @Test
+    public void deviceEstimate_replacesOverallOnceItHasEnoughSamples() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        timeouts.setDevice("fast");
+        for (int i = 0; i < 3; i++) timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 1000 * MS);
+        timeouts.setDevice("slow");
+        for (int i = 0; i < 2; i++) timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 4000 * MS);
+        // Con dos muestras manda la estimación de la operación (cinco muestras de ambos)
+        long overall = timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP);
+        assertEquals(Math.round(timeouts.snapshot(AdaptiveTimeouts.Op.STOP).srttMs + 4 * timeouts.snapshot(AdaptiveTimeouts.Op.STOP).rttvarMs), overall);
+
+        timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 4000 * MS);
+        assertEquals(AdaptiveTimeouts.Op.STOP.defaultMaxMs, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+        timeouts.setDevice("fast");
+        assertEquals(2125, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+
+        Map<String, AdaptiveTimeouts.Snapshot.Device> devices = timeouts.snapshot(AdaptiveTimeouts.Op.STOP).getDevices();
+        assertEquals(2125, devices.get("fast").deadlineMs);
+        assertEquals(3, devices.get("slow").samples);
+    }
+
+    @Test
+    public void fullDeviceMap_evictsLeastRecentlyUsed() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        for (int i = 0; i < 32; i++) {
+            timeouts.setDevice("device" + i);
+            timeouts.recordSuccess(AdaptiveTimeouts.Op.LOAD, 1000 * MS);
+        }
+        // Consultar el plazo cuenta como uso: device0 pasa a ser el más reciente
+        timeouts.setDevice("device0");
+        timeouts.deadlineMs(AdaptiveTimeouts.Op.LOAD);
+        timeouts.setDevice("device32");
+        timeouts.recordSuccess(AdaptiveTimeouts.Op.LOAD, 1000 * MS);
+
+        Map<String, AdaptiveTimeouts.Snapshot.Device> devices = timeouts.snapshot(AdaptiveTimeouts.Op.LOAD).getDevices();
+        assertEquals(32, devices.size());
+        assertTrue(devices.containsKey("device0"));
+        assertFalse(devices.containsKey("device1"));
+        assertTrue(devices.containsKey("device2"));
+        assertTrue(devices.containsKey("device32"));
+    }
+
+    @Test
+    public void reset_forgetsSamplesButKeepsBounds() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+        timeouts.setBounds(AdaptiveTimeouts.Op.STOP, 600, 7000);
+        for (int i = 0; i < 3; i++) timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, 1000 * MS);
+        timeouts.recordTimeout(AdaptiveTimeouts.Op.STOP);
+        timeouts.reset();
+        AdaptiveTimeouts.Snapshot snap = timeouts.snapshot(AdaptiveTimeouts.Op.STOP);
+        assertEquals(0, snap.samples);
+        assertEquals(1, snap.backoff);
+        assertTrue(snap.getDevices().isEmpty());
+        assertEquals(600, snap.minMs);
+        assertEquals(7000, snap.maxMs);
+        assertEquals(AdaptiveTimeouts.Op.STOP.defaultMs, snap.deadlineMs);
+    }
+}
@@ -0,0 +1,64 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Parámetro _cb que añade cada política a la URL del media.
+ */
+public class CacheBustPolicyTest {
+
+    private static final String URL = "https://cdn.example.com/video.mp4";
+
+    @Test
+    public void none_leavesUrlUnchanged() {
+        assertEquals(URL, CacheBustPolicy.NONE.apply(URL, "token"));
+    }
+
+    @Test
+    public void session_usesSessionToken() {
+        assertEquals(URL + "?_cb=abc123", CacheBustPolicy.SESSION.apply(URL, "abc123"));
+        assertEquals(URL + "?q=1&_cb=abc123", CacheBustPolicy.SESSION.apply(URL + "?q=1", "abc123"));
+        // Sin sesión no hay token estable: la URL no se toca
+        assertEquals(URL, CacheBustPolicy.SESSION.apply(URL, null));
+        assertEquals(URL, CacheBustPolicy.SESSION.apply(URL, ""));
+    }
+
+    @Test
+    public void contentHash_isStablePerUrl() {
+        String first = CacheBustPolicy.CONTENT_HASH.apply(URL, null);
+        assertEquals(first, CacheBustPolicy.CONTENT_HASH.apply(URL, "ignored"));
+        assertTrue(first, first.matches("\\Q" + URL + "\\E\\?_cb=[0-9a-f]{1,16}"));
+        assertNotEquals(first.substring(URL.length()),
+            CacheBustPolicy.CONTENT_HASH.apply("https://cdn.example.com/other.mp4", null).substring("https://cdn.example.com/other.mp4".length()));
+    }
+
+    @Test
+    public void timestamp_usesCurrentTime() {
+        long before = System.currentTimeMillis();
+        String url = CacheBustPolicy.TIMESTAMP.apply(URL + "?q=1", null);
+        long after = System.currentTimeMillis();
+        assertTrue(url, url.startsWith(URL + "?q=1&_cb="));
+        long value = Long.parseLong(url.substring(url.indexOf("_cb=") + 4));
+        assertTrue(value >= before && value <= after);
+    }
+
+    @Test
+    public void emptyUrl_isReturnedAsIs() {
+        for (CacheBustPolicy policy : CacheBustPolicy.values()) {
+            assertNull(policy.apply(null, "token"));
+            assertEquals("", policy.apply("", "token"));
+        }
+    }
+
+    @Test
+    public void fromString_mapsJsValues() {
+        assertEquals(CacheBustPolicy.NONE, CacheBustPolicy.fromString("none", CacheBustPolicy.TIMESTAMP));
+        assertEquals(CacheBustPolicy.SESSION, CacheBustPolicy.fromString("session", CacheBustPolicy.TIMESTAMP));
+        assertEquals(CacheBustPolicy.CONTENT_HASH, CacheBustPolicy.fromString("contentHash", CacheBustPolicy.TIMESTAMP));
+        assertEquals(CacheBustPolicy.TIMESTAMP, CacheBustPolicy.fromString("timestamp", CacheBustPolicy.NONE));
+        assertEquals(CacheBustPolicy.SESSION, CacheBustPolicy.fromString("CONTENT_HASH", CacheBustPolicy.SESSION));
+        assertEquals(CacheBustPolicy.SESSION, CacheBustPolicy.fromString(null, CacheBustPolicy.SESSION));
+    }
+}
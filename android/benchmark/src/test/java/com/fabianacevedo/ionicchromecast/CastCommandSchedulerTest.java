@@ -0,0 +1,202 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Cola de comandos sobre el looper principal falso: reemplazo de pendientes y vencimiento de plazos.
+ */
+public class CastCommandSchedulerTest {
+
+    private static final long WAIT_MS = 2000;
+
+    private AdaptiveTimeouts timeouts;
+    private CastCommandScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        timeouts = new AdaptiveTimeouts();
+        // Plazos cortos para que los vencimientos no alarguen la prueba
+        timeouts.setBounds(AdaptiveTimeouts.Op.STOP, 50, 150);
+        MainThreadMonitor monitor = new MainThreadMonitor(new TraceRecorder(64));
+        scheduler = new CastCommandScheduler(new Handler(Looper.getMainLooper()), monitor, new CastMetrics(),
+            new TraceRecorder(64), timeouts);
+    }
+
+    @Test
+    public void newerCommand_supersedesPendingOneWithSameKey() throws Exception {
+        AtomicReference<IonicChromecast.CastCallback> blocker = new AtomicReference<>();
+        BlockingQueue<CastResult> first = new ArrayBlockingQueue<>(1);
+        BlockingQueue<CastResult> older = new ArrayBlockingQueue<>(1);
+        BlockingQueue<CastResult> newer = new ArrayBlockingQueue<>(1);
+        BlockingQueue<String> ran = new ArrayBlockingQueue<>(4);
+
+        scheduler.submit("first", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.LOAD, "first timed out",
+            done -> blocker.set(done), first::add);
+        scheduler.submit("load1", null, CastCommandScheduler.PRIORITY_NORMAL, "load", AdaptiveTimeouts.Op.LOAD, "load1 timed out",
+            done -> {
+                ran.add("load1");
+                done.onResult(CastResult.ok());
+            }, older::add);
+        scheduler.submit("load2", null, CastCommandScheduler.PRIORITY_NORMAL, "load", AdaptiveTimeouts.Op.LOAD, "load2 timed out",
+            done -> {
+                ran.add("load2");
+                done.onResult(CastResult.ok());
+            }, newer::add);
+
+        CastResult superseded = older.poll(WAIT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(superseded);
+        assertEquals(CastResult.Code.SUPERSEDED, superseded.getCode());
+        assertTrue(newer.isEmpty());
+
+        // Hasta que termina el comando en ejecución no empieza el siguiente
+        awaitNotNull(blocker);
+        blocker.get().onResult(CastResult.ok());
+        assertTrue(first.poll(WAIT_MS, TimeUnit.MILLISECONDS).isSuccess());
+        assertTrue(newer.poll(WAIT_MS, TimeUnit.MILLISECONDS).isSuccess());
+        assertEquals("load2", ran.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertNull(ran.poll());
+        assertEquals(1, scheduler.getSuperseded());
+        assertEquals(2, scheduler.getSucceeded());
+    }
+
+    @Test
+    public void higherPriority_runsFirst() throws Exception {
+        AtomicReference<IonicChromecast.CastCallback> blocker = new AtomicReference<>();
+        BlockingQueue<String> order = new ArrayBlockingQueue<>(4);
+        scheduler.submit("first", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.LOAD, null,
+            done -> blocker.set(done), result -> {});
+        scheduler.submit("normal", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.LOAD, null,
+            done -> {
+                order.add("normal");
+                done.onResult(CastResult.ok());
+            }, result -> {});
+        scheduler.submit("high", null, CastCommandScheduler.PRIORITY_HIGH, null, AdaptiveTimeouts.Op.LOAD, null,
+            done -> {
+                order.add("high");
+                done.onResult(CastResult.ok());
+            }, result -> {});
+
+        awaitNotNull(blocker);
+        // submit() publica en el looper: cuando esta tarea corre los tres ya están encolados
+        runOnMainAndWait(() -> blocker.get().onResult(CastResult.ok()));
+        assertEquals("high", order.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertEquals("normal", order.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void runningCommand_timesOutAndNextOneStarts() throws Exception {
+        AtomicReference<IonicChromecast.CastCallback> hung = new AtomicReference<>();
+        BlockingQueue<CastResult> hungResults = new ArrayBlockingQueue<>(2);
+        BlockingQueue<CastResult> next = new ArrayBlockingQueue<>(1);
+
+        scheduler.submit("stop", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.STOP, "Stop timed out",
+            done -> hung.set(done), hungResults::add);
+        scheduler.submit("stop2", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.STOP, "Stop timed out",
+            done -> done.onResult(CastResult.ok()), next::add);
+
+        CastResult timedOut = hungResults.poll(WAIT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(timedOut);
+        assertEquals(CastResult.Code.TIMEOUT, timedOut.getCode());
+        assertEquals("Stop timed out", timedOut.getMessage());
+        assertTrue(next.poll(WAIT_MS, TimeUnit.MILLISECONDS).isSuccess());
+
+        // La respuesta tardía del receiver se ignora: el callback ya se completó
+        runOnMainAndWait(() -> hung.get().onResult(CastResult.ok()));
+        assertNull(hungResults.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, scheduler.getTimedOut());
+        assertEquals(1, scheduler.getSucceeded());
+        // Un timeout en ejecución sí cuenta para el backoff de la operación
+        assertEquals(1, timeouts.snapshot(AdaptiveTimeouts.Op.STOP).timeouts);
+    }
+
+    @Test
+    public void pendingCommand_expiresInQueueAfterMaxDeadline() throws Exception {
+        BlockingQueue<CastResult> queued = new ArrayBlockingQueue<>(1);
+        AtomicReference<IonicChromecast.CastCallback> blocker = new AtomicReference<>();
+        // El primero no vence antes que el encolado: su operación tiene un tope mucho mayor
+        scheduler.submit("load", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.LOAD, null,
+            done -> blocker.set(done), result -> {});
+        scheduler.submit("stop", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.STOP, "Stop timed out",
+            done -> fail("an expired command must not run"), queued::add);
+
+        CastResult result = queued.poll(WAIT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(result);
+        assertEquals(CastResult.Code.TIMEOUT, result.getCode());
+        // Vencer en la cola no dice nada del receiver: no cuenta para el backoff
+        assertEquals(0, timeouts.snapshot(AdaptiveTimeouts.Op.STOP).timeouts);
+        runOnMainAndWait(() -> scheduler.cancelPending("test"));
+        awaitNotNull(blocker);
+        runOnMainAndWait(() -> blocker.get().onResult(CastResult.ok()));
+    }
+
+    @Test
+    public void cancelPending_reportsCancelled() throws Exception {
+        AtomicReference<IonicChromecast.CastCallback> blocker = new AtomicReference<>();
+        BlockingQueue<CastResult> pending = new ArrayBlockingQueue<>(1);
+        scheduler.submit("load", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.LOAD, null,
+            done -> blocker.set(done), result -> {});
+        scheduler.submit("queue", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.LOAD, null,
+            done -> fail("a cancelled command must not run"), pending::add);
+
+        runOnMainAndWait(() -> scheduler.cancelPending("Plugin destroyed"));
+        CastResult result = pending.poll(WAIT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(CastResult.Code.CANCELLED, result.getCode());
+        assertEquals("Plugin destroyed", result.getMessage());
+        assertEquals(1, scheduler.getCancelled());
+        awaitNotNull(blocker);
+        runOnMainAndWait(() -> blocker.get().onResult(CastResult.ok()));
+    }
+
+    @Test
+    public void synchronousCompletions_runInOneLoopWithoutRecursion() throws Exception {
+        AtomicReference<IonicChromecast.CastCallback> blocker = new AtomicReference<>();
+        scheduler.submit("first", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.LOAD, null,
+            done -> blocker.set(done), result -> {});
+        int count = 200;
+        BlockingQueue<Integer> stackDepths = new ArrayBlockingQueue<>(count);
+        for (int i = 0; i < count; i++) {
+            scheduler.submit("sync" + i, null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.LOAD, null,
+                done -> {
+                    stackDepths.add(Thread.currentThread().getStackTrace().length);
+                    done.onResult(CastResult.ok());
+                }, result -> {});
+        }
+
+        awaitNotNull(blocker);
+        runOnMainAndWait(() -> blocker.get().onResult(CastResult.ok()));
+        assertEquals(count, stackDepths.size());
+        // Cada cuerpo arranca a la misma profundidad de pila: el siguiente no se lanza desde dentro del anterior
+        int first = stackDepths.peek();
+        for (int depth : stackDepths) assertEquals(first, depth);
+        assertEquals(count + 1, scheduler.getSucceeded());
+    }
+
+    static void runOnMainAndWait(Runnable task) throws InterruptedException {
+        BlockingQueue<Boolean> done = new ArrayBlockingQueue<>(1);
+        new Handler(Looper.getMainLooper()).post(() -> {
+            try {
+                task.run();
+            } finally {
+                done.add(true);
+            }
+        });
+        assertNotNull("main looper did not run the task", done.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    private static void awaitNotNull(AtomicReference<?> ref) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (ref.get() == null) {
+            if (System.currentTimeMillis() > deadline) fail("command body did not run");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+/**
+ * Lectura con reset de getMetrics: la copia se lleva lo registrado y ninguna muestra se pierde entre ventanas.
+ */
+public class CastMetricsTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void snapshotAndReset_movesSamplesToCopy() {
+        CastMetrics metrics = new CastMetrics();
+        metrics.recordElapsed(CastMetrics.Op.LOAD, CastMetrics.Outcome.SUCCESS, 40 * MS);
+        metrics.recordElapsed(CastMetrics.Op.LOAD, CastMetrics.Outcome.TIMEOUT, 3000 * MS);
+        metrics.recordElapsed(CastMetrics.Op.END, CastMetrics.Outcome.FAILURE, 5 * MS);
+
+        CastMetrics copy = metrics.snapshotAndReset();
+        CastMetrics.OpStats load = copy.get(CastMetrics.Op.LOAD);
+        assertEquals(2, load.getCount());
+        assertEquals(1, load.getSuccess());
+        assertEquals(1, load.getTimeout());
+        assertEquals(3000, load.getMaxMs(), 0.001);
+        assertEquals(1520, load.getMeanMs(), 0.001);
+        assertEquals(50, load.getPercentileMs(0.5), 0);
+        assertEquals(1, copy.get(CastMetrics.Op.END).getFailure());
+
+        for (CastMetrics.Op op : CastMetrics.Op.values()) {
+            CastMetrics.OpStats stats = metrics.get(op);
+            assertEquals(0, stats.getCount());
+            assertEquals(0, stats.getMaxMs(), 0);
+            for (int i = 0; i < stats.getBucketCountLength(); i++) assertEquals(0, stats.getBucketCount(i));
+        }
+    }
+
+    @Test
+    public void snapshotAndReset_losesNothingRecordedConcurrently() throws Exception {
+        CastMetrics metrics = new CastMetrics();
+        int threads = 4;
+        int perThread = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            writers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    metrics.recordElapsed(CastMetrics.Op.SCAN, CastMetrics.Outcome.SUCCESS, 7 * MS);
+                }
+            });
+            writers[t].start();
+        }
+
+        long success = 0;
+        long bucketed = 0;
+        start.countDown();
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread writer : writers) running |= writer.isAlive();
+            CastMetrics.OpStats window = metrics.snapshotAndReset().get(CastMetrics.Op.SCAN);
+            success += window.getSuccess();
+            for (int i = 0; i < window.getBucketCountLength(); i++) bucketed += window.getBucketCount(i);
+        }
+        assertEquals((long) threads * perThread, success);
+        assertEquals((long) threads * perThread, bucketed);
+    }
+}
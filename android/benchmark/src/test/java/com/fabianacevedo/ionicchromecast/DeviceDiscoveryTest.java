@@ -0,0 +1,87 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import android.os.Handler;
+import android.os.Looper;
+import androidx.mediarouter.media.MediaRouteSelector;
+import androidx.mediarouter.media.MediaRouter;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Escaneo single-flight sobre el MediaRouter falso: respuesta al aparecer una ruta y corte al parar.
+ */
+public class DeviceDiscoveryTest {
+
+    private static final long WAIT_MS = 2000;
+
+    private MediaRouter router;
+    private AdaptiveTimeouts timeouts;
+    private DeviceDiscovery discovery;
+    private final BlockingQueue<CastResult> results = new ArrayBlockingQueue<>(8);
+
+    @Before
+    public void setUp() throws Exception {
+        router = MediaRouter.getInstance(null);
+        router.clearRoutes();
+        timeouts = new AdaptiveTimeouts();
+        MediaRouteSelector selector = new MediaRouteSelector.Builder().addControlCategory("test").build();
+        discovery = new DeviceDiscovery(router, selector, new Handler(Looper.getMainLooper()), new CastMetrics(),
+            new TraceRecorder(64), timeouts);
+        runOnMainAndWait(discovery::start);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        runOnMainAndWait(discovery::stop);
+        router.clearRoutes();
+    }
+
+    @Test
+    public void concurrentScans_shareTheRouteThatAppears() throws Exception {
+        runOnMainAndWait(() -> {
+            discovery.scan(WAIT_MS, results::add);
+            discovery.scan(WAIT_MS, results::add);
+        });
+        router.addRoute(new MediaRouter.RouteInfo("route-1", "TV", null));
+
+        assertTrue(results.poll(WAIT_MS, TimeUnit.MILLISECONDS).isSuccess());
+        assertTrue(results.poll(WAIT_MS, TimeUnit.MILLISECONDS).isSuccess());
+        assertEquals(1, discovery.getScansStarted());
+        assertEquals(1, discovery.getScanCallsCoalesced());
+    }
+
+    @Test
+    public void stop_releasesScanWaitersWithoutWaitingForTimeout() throws Exception {
+        runOnMainAndWait(() -> {
+            discovery.scan(300, results::add);
+            discovery.scan(300, results::add);
+            discovery.stop();
+        });
+        assertEquals(2, results.size());
+        for (CastResult result : results) assertEquals(CastResult.Code.NO_DEVICES, result.getCode());
+        results.clear();
+
+        // Ni el callback activo ni el plazo del escaneo cortado siguen vivos
+        router.addRoute(new MediaRouter.RouteInfo("route-1", "TV", null));
+        assertNull(results.poll(500, TimeUnit.MILLISECONDS));
+        assertEquals(0, timeouts.snapshot(AdaptiveTimeouts.Op.SCAN).timeouts);
+    }
+
+    private static void runOnMainAndWait(Runnable task) throws InterruptedException {
+        BlockingQueue<Boolean> done = new ArrayBlockingQueue<>(1);
+        new Handler(Looper.getMainLooper()).post(() -> {
+            try {
+                task.run();
+            } finally {
+                done.add(true);
+            }
+        });
+        assertNotNull("main looper did not run the task", done.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,180 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Archivo binario de calidad por dispositivo: lo escrito se vuelve a leer igual y lo leído se suma a lo registrado.
+ */
+public class DeviceQualityStoreTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long WAIT_MS = 3000;
+
+    private File dir;
+    private File otherDir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("quality").toFile();
+        otherDir = Files.createTempDirectory("quality").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(dir);
+        deleteRecursively(otherDir);
+    }
+
+    @Test
+    public void savedStats_roundTripThroughFile() throws Exception {
+        DeviceQualityStore store = new DeviceQualityStore(dir);
+        store.recordSessionStart("id-1", "Living Room TV", true, false, 1200 * MS);
+        store.recordSessionStart("id-1", "Living Room TV", false, true, 0);
+        store.recordLoad("id-1", null, true, false, 800 * MS);
+        store.recordLoad("id-1", null, false, false, 0);
+        store.recordDisconnect("id-1", null);
+        store.recordLoad("id-2", "Kitchen", true, false, 300 * MS);
+        store.flushNow();
+        awaitFile(new File(dir, DeviceQualityStore.FILE_NAME));
+
+        DeviceQualityStore reopened = new DeviceQualityStore(dir);
+        DeviceQualityStore.Quality q = awaitDevice(reopened, "id-1");
+        DeviceQualityStore.Quality original = store.get("id-1");
+        assertEquals("Living Room TV", q.name);
+        assertEquals(original.lastSeen, q.lastSeen);
+        assertEquals(2, q.sessionStarts);
+        assertEquals(0, q.sessionStartFailures);
+        assertEquals(1, q.sessionStartTimeouts);
+        assertEquals(1200, q.sessionStartMs, 0.01);
+        assertEquals(2, q.loads);
+        assertEquals(1, q.loadFailures);
+        assertEquals(0, q.loadTimeouts);
+        assertEquals(800, q.loadMs, 0.01);
+        assertEquals(1, q.disconnects);
+        assertEquals(original.score, q.score, 1e-6);
+
+        assertNotNull(awaitDevice(reopened, "id-2"));
+        List<DeviceQualityStore.Quality> ranked = reopened.ranked();
+        assertEquals(2, ranked.size());
+        // Más rápido y sin fallos: primero
+        assertEquals("id-2", ranked.get(0).deviceId);
+    }
+
+    @Test
+    public void load_mergesSavedStatsWithOnesRecordedMeanwhile() throws Exception {
+        DeviceQualityStore older = new DeviceQualityStore(otherDir);
+        older.recordSessionStart("id-1", "Living Room TV", true, false, 1000 * MS);
+        older.recordLoad("id-1", null, true, false, 2000 * MS);
+        older.recordLoad("id-1", null, false, true, 0);
+        older.recordDisconnect("id-1", null);
+        older.flushNow();
+        File saved = new File(otherDir, DeviceQualityStore.FILE_NAME);
+        awaitFile(saved);
+        Files.copy(saved.toPath(), new File(dir, DeviceQualityStore.FILE_NAME).toPath());
+
+        // Se registra mientras el hilo de E/S lee el archivo: da igual qué termine antes, nada se pierde
+        DeviceQualityStore store = new DeviceQualityStore(dir);
+        store.recordSessionStart("id-1", "", true, false, 3000 * MS);
+        store.recordSessionStart("id-1", "", false, false, 0);
+
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        DeviceQualityStore.Quality q;
+        while ((q = store.get("id-1")).sessionStarts < 3) {
+            if (System.currentTimeMillis() > deadline) fail("saved stats not merged");
+            Thread.sleep(10);
+        }
+        assertEquals("Living Room TV", q.name);
+        assertEquals(3, q.sessionStarts);
+        assertEquals(1, q.sessionStartFailures);
+        assertEquals(0, q.sessionStartTimeouts);
+        assertTrue(String.valueOf(q.sessionStartMs), q.sessionStartMs > 1000 && q.sessionStartMs < 3000);
+        assertEquals(2, q.loads);
+        assertEquals(1, q.loadTimeouts);
+        assertEquals(2000, q.loadMs, 0.01);
+        assertEquals(1, q.disconnects);
+    }
+
+    @Test
+    public void load_ignoresFileOfAnotherVersion() throws Exception {
+        File file = new File(dir, DeviceQualityStore.FILE_NAME);
+        Files.write(file.toPath(), new byte[] { 0, 0, 0, 99, 0, 0, 0, 1 });
+        DeviceQualityStore store = new DeviceQualityStore(dir);
+        awaitReadAndRewritten(store, file);
+        assertEquals(1, store.ranked().size());
+    }
+
+    @Test
+    public void load_ignoresTruncatedFile() throws Exception {
+        DeviceQualityStore writer = new DeviceQualityStore(otherDir);
+        writer.recordLoad("id-1", "TV", true, false, 500 * MS);
+        writer.flushNow();
+        File saved = new File(otherDir, DeviceQualityStore.FILE_NAME);
+        awaitFile(saved);
+        byte[] bytes = Files.readAllBytes(saved.toPath());
+        File file = new File(dir, DeviceQualityStore.FILE_NAME);
+        Files.write(file.toPath(), java.util.Arrays.copyOf(bytes, bytes.length - 6));
+
+        DeviceQualityStore store = new DeviceQualityStore(dir);
+        awaitReadAndRewritten(store, file);
+        assertNull(store.get("id-1"));
+    }
+
+    @Test
+    public void record_withoutDeviceId_isIgnored() {
+        DeviceQualityStore store = new DeviceQualityStore(dir);
+        store.recordSessionStart(null, "TV", true, false, 1000 * MS);
+        store.recordLoad("", "TV", true, false, 1000 * MS);
+        store.recordDisconnect(null, "TV");
+        assertTrue(store.ranked().isEmpty());
+    }
+
+    private static void awaitFile(File file) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (!file.isFile()) {
+            if (System.currentTimeMillis() > deadline) fail("not written: " + file);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Registra un dispositivo testigo y fuerza la escritura. El hilo de E/S es uno solo: cuando el archivo cambia,
+     * la lectura inicial ya terminó.
+     */
+    private static void awaitReadAndRewritten(DeviceQualityStore store, File file) throws Exception {
+        byte[] before = Files.readAllBytes(file.toPath());
+        store.recordDisconnect("witness", "Witness");
+        store.flushNow();
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (java.util.Arrays.equals(before, Files.readAllBytes(file.toPath()))) {
+            if (System.currentTimeMillis() > deadline) fail("not rewritten: " + file);
+            Thread.sleep(10);
+        }
+        assertNotNull(store.get("witness"));
+    }
+
+    private static DeviceQualityStore.Quality awaitDevice(DeviceQualityStore store, String deviceId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        DeviceQualityStore.Quality q;
+        while ((q = store.get(deviceId)) == null) {
+            if (System.currentTimeMillis() > deadline) fail("not loaded: " + deviceId);
+            Thread.sleep(10);
+        }
+        return q;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteRecursively(child);
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,90 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import com.google.android.gms.cast.CastStatusCodes;
+import org.junit.Test;
+
+/**
+ * Clasificación de los fallos de loadMedia y límites del backoff con jitter.
+ */
+public class LoadRetryPolicyTest {
+
+    private static final int SAMPLES = 500;
+
+    @Test
+    public void classify_transientFailures() {
+        for (int code : new int[] { CastStatusCodes.NETWORK_ERROR, CastStatusCodes.INTERNAL_ERROR, CastStatusCodes.INTERRUPTED,
+            CastStatusCodes.TIMEOUT, CastStatusCodes.MESSAGE_SEND_BUFFER_TOO_FULL }) {
+            assertEquals("status " + code, LoadRetryPolicy.Kind.TRANSIENT, LoadRetryPolicy.classify(code));
+        }
+    }
+
+    @Test
+    public void classify_sessionFailures() {
+        for (int code : new int[] { CastStatusCodes.API_NOT_CONNECTED, CastStatusCodes.APPLICATION_NOT_RUNNING,
+            CastStatusCodes.ERROR_SERVICE_DISCONNECTED }) {
+            assertEquals("status " + code, LoadRetryPolicy.Kind.SESSION, LoadRetryPolicy.classify(code));
+        }
+    }
+
+    @Test
+    public void classify_permanentFailures() {
+        for (int code : new int[] { CastStatusCodes.INVALID_REQUEST, CastStatusCodes.CANCELED, CastStatusCodes.REPLACED,
+            CastStatusCodes.NOT_ALLOWED, CastStatusCodes.FAILED, -1 }) {
+            assertEquals("status " + code, LoadRetryPolicy.Kind.PERMANENT, LoadRetryPolicy.classify(code));
+        }
+    }
+
+    @Test
+    public void delay_isEqualJitterOfExponentialBackoff() {
+        LoadRetryPolicy policy = new LoadRetryPolicy();
+        policy.configure(3, 100, 1000, -1);
+        assertDelayBetween(policy, 1, 50, 100);
+        assertDelayBetween(policy, 2, 100, 200);
+        assertDelayBetween(policy, 3, 200, 400);
+        assertDelayBetween(policy, 4, 400, 800);
+        // 1600 queda acotado a maxDelayMs
+        assertDelayBetween(policy, 5, 500, 1000);
+    }
+
+    @Test
+    public void delay_doesNotOverflowForLargeRetryNumbers() {
+        LoadRetryPolicy policy = new LoadRetryPolicy();
+        policy.configure(-1, 5000, 60000, -1);
+        assertDelayBetween(policy, 64, 30000, 60000);
+        assertDelayBetween(policy, Integer.MAX_VALUE, 30000, 60000);
+        // retry 0 o negativo se trata como el primero
+        assertDelayBetween(policy, 0, 2500, 5000);
+    }
+
+    @Test
+    public void delay_zeroBaseOrCapMeansNoWait() {
+        LoadRetryPolicy policy = new LoadRetryPolicy();
+        policy.configure(-1, 0, -1, -1);
+        assertEquals(0, policy.delayMs(1));
+        policy.configure(-1, 500, 0, -1);
+        assertEquals(0, policy.delayMs(3));
+    }
+
+    @Test
+    public void configure_negativeValuesKeepCurrent() {
+        LoadRetryPolicy policy = new LoadRetryPolicy();
+        policy.configure(-1, -1, -1, -1);
+        assertEquals(LoadRetryPolicy.DEFAULT_MAX_RETRIES, policy.getMaxRetries());
+        assertEquals(LoadRetryPolicy.DEFAULT_REJOIN_TIMEOUT_MS, policy.getRejoinTimeoutMs());
+        assertDelayBetween(policy, 1, LoadRetryPolicy.DEFAULT_BASE_DELAY_MS / 2, LoadRetryPolicy.DEFAULT_BASE_DELAY_MS);
+
+        policy.configure(0, -1, -1, 3000);
+        assertEquals(0, policy.getMaxRetries());
+        assertEquals(3000, policy.getRejoinTimeoutMs());
+    }
+
+    private static void assertDelayBetween(LoadRetryPolicy policy, int retry, long min, long max) {
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.delayMs(retry);
+            assertTrue("retry " + retry + ": " + delay + " < " + min, delay >= min);
+            assertTrue("retry " + retry + ": " + delay + " > " + max, delay <= max);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Cabeceras Range, respuesta 416 y archivos fuera de los directorios permitidos.
+ */
+public class LocalMediaServerTest {
+
+    private File root;
+    private File outside;
+    private LocalMediaServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        File base = Files.createTempDirectory("media").toFile().getCanonicalFile();
+        root = new File(base, "files");
+        outside = new File(base, "files-other");
+        assertTrue(root.mkdir());
+        assertTrue(outside.mkdir());
+        server = new LocalMediaServer(Collections.singletonList(root), new TraceRecorder(64));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        deleteRecursively(root.getParentFile());
+    }
+
+    @Test
+    public void parseRange_satisfiableRanges() {
+        assertArrayEquals(new long[] { 0, 99 }, LocalMediaServer.parseRange("bytes=0-99", 1000));
+        assertArrayEquals(new long[] { 500, 999 }, LocalMediaServer.parseRange("bytes=500-", 1000));
+        assertArrayEquals(new long[] { 900, 999 }, LocalMediaServer.parseRange("bytes=-100", 1000));
+        // El final se recorta al tamaño y un sufijo mayor que el archivo es el archivo entero
+        assertArrayEquals(new long[] { 900, 999 }, LocalMediaServer.parseRange("bytes=900-5000", 1000));
+        assertArrayEquals(new long[] { 0, 999 }, LocalMediaServer.parseRange("bytes=-5000", 1000));
+        // Solo el primero de varios rangos; espacios y mayúsculas tolerados
+        assertArrayEquals(new long[] { 0, 9 }, LocalMediaServer.parseRange(" BYTES= 0-9 , 20-29", 1000));
+    }
+
+    @Test
+    public void parseRange_otherUnit_servesWholeFile() {
+        assertEquals(0, LocalMediaServer.parseRange("items=0-5", 1000).length);
+    }
+
+    @Test
+    public void parseRange_unsatisfiable_isNull() {
+        // null es la respuesta 416 Range Not Satisfiable
+        assertNull(LocalMediaServer.parseRange("bytes=1000-", 1000));
+        assertNull(LocalMediaServer.parseRange("bytes=1000-1200", 1000));
+        assertNull(LocalMediaServer.parseRange("bytes=-0", 1000));
+        assertNull(LocalMediaServer.parseRange("bytes=50-10", 1000));
+        assertNull(LocalMediaServer.parseRange("bytes=0-0", 0));
+        assertNull(LocalMediaServer.parseRange("bytes=abc", 1000));
+        assertNull(LocalMediaServer.parseRange("bytes=x-10", 1000));
+        assertNull(LocalMediaServer.parseRange("bytes=-", 1000));
+    }
+
+    @Test
+    public void toLocalFile_recognisesLocalUrls() {
+        assertEquals(new File("/data/video.mp4"), LocalMediaServer.toLocalFile("/data/video.mp4"));
+        assertEquals(new File("/data/video.mp4"), LocalMediaServer.toLocalFile("file:///data/video.mp4"));
+        assertEquals(new File("/data/user/0/app/files/video.mp4"),
+            LocalMediaServer.toLocalFile("http://localhost/_capacitor_file_/data/user/0/app/files/video.mp4"));
+    }
+
+    @Test
+    public void toLocalFile_remoteUrls_areNull() {
+        assertNull(LocalMediaServer.toLocalFile("https://cdn.example.com/video.mp4"));
+        assertNull(LocalMediaServer.toLocalFile("//cdn.example.com/video.mp4"));
+        assertNull(LocalMediaServer.toLocalFile("http://localhost/other/video.mp4"));
+        assertNull(LocalMediaServer.toLocalFile(""));
+        assertNull(LocalMediaServer.toLocalFile(null));
+    }
+
+    @Test
+    public void register_rejectsFilesOutsideAllowedRoots() throws IOException {
+        File sibling = new File(outside, "video.mp4");
+        Files.write(sibling.toPath(), new byte[] { 1 });
+        assertRejected(sibling, "outside");
+        // ".." se resuelve antes de comprobar el directorio
+        assertRejected(new File(root, "../files-other/video.mp4"), "outside");
+        assertRejected(new File(root, "missing.mp4"), "not found");
+        assertEquals(0, server.getFileCount());
+        assertFalse(server.isRunning());
+    }
+
+    @Test
+    public void rangeRequests_areServedWith206And416() throws IOException {
+        byte[] content = new byte[1000];
+        for (int i = 0; i < content.length; i++) content[i] = (byte) i;
+        File file = new File(root, "clip.mp4");
+        Files.write(file.toPath(), content);
+        String url;
+        try {
+            url = server.register(file, null);
+        } catch (IOException e) {
+            // Sin interfaz de red local (p. ej. algunos contenedores de CI) no hay a dónde enlazar el servidor
+            Assume.assumeNoException(e);
+            return;
+        }
+        URI uri = URI.create(url);
+
+        String partial = get(uri, "Range: bytes=10-19\r\n");
+        assertTrue(partial, partial.startsWith("HTTP/1.1 206 Partial Content\r\n"));
+        assertTrue(partial, partial.contains("Content-Range: bytes 10-19/1000\r\n"));
+        assertTrue(partial, partial.contains("Content-Length: 10\r\n"));
+        byte[] body = partial.substring(partial.indexOf("\r\n\r\n") + 4).getBytes(StandardCharsets.ISO_8859_1);
+        assertArrayEquals(java.util.Arrays.copyOfRange(content, 10, 20), body);
+
+        String unsatisfiable = get(uri, "Range: bytes=2000-\r\n");
+        assertTrue(unsatisfiable, unsatisfiable.startsWith("HTTP/1.1 416 Range Not Satisfiable\r\n"));
+        assertTrue(unsatisfiable, unsatisfiable.contains("Content-Range: bytes */1000\r\n"));
+
+        String whole = get(uri, "");
+        assertTrue(whole, whole.startsWith("HTTP/1.1 200 OK\r\n"));
+        assertTrue(whole, whole.contains("Content-Length: 1000\r\n"));
+
+        String unknown = get(URI.create(uri.getScheme() + "://" + uri.getAuthority() + "/0123456789abcdef/clip.mp4"), "");
+        assertTrue(unknown, unknown.startsWith("HTTP/1.1 404 Not Found\r\n"));
+        assertEquals(1, server.rangeRequests.get());
+    }
+
+    private void assertRejected(File file, String reason) {
+        try {
+            server.register(file, "video/mp4");
+            fail("registered " + file);
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(reason));
+        }
+    }
+
+    /**
+     * Una petición con Connection: close; devuelve la respuesta entera (cabeceras y cuerpo) en ISO-8859-1.
+     */
+    private static String get(URI uri, String headers) throws IOException {
+        try (Socket socket = new Socket(uri.getHost(), uri.getPort())) {
+            socket.setSoTimeout(2000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + uri.getRawPath() + " HTTP/1.1\r\nHost: " + uri.getAuthority() + "\r\n" + headers
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) >= 0) response.write(buffer, 0, n);
+            return new String(response.toByteArray(), StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteRecursively(child);
+        }
+        file.delete();
+    }
+}
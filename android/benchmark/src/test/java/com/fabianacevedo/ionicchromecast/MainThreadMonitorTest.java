@@ -0,0 +1,51 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Solo la tarea exterior cuenta como ocupación del hilo principal.
+ */
+public class MainThreadMonitorTest {
+
+    @Test
+    public void nestedRun_isCountedOnce() {
+        MainThreadMonitor monitor = new MainThreadMonitor(new TraceRecorder(64));
+        monitor.run("outer", () -> {
+            monitor.run("inner", () -> {});
+            monitor.run("inner2", () -> monitor.run("innermost", () -> {}));
+        });
+        assertEquals(1, monitor.getTasks());
+        assertEquals("outer", monitor.getBusyMaxOp());
+
+        monitor.run("second", () -> {});
+        assertEquals(2, monitor.getTasks());
+    }
+
+    @Test
+    public void nestedRun_thatThrows_keepsDepthBalanced() {
+        MainThreadMonitor monitor = new MainThreadMonitor(new TraceRecorder(64));
+        try {
+            monitor.run("outer", () -> monitor.run("inner", () -> {
+                throw new IllegalStateException("boom");
+            }));
+            fail("exception must propagate");
+        } catch (IllegalStateException expected) {
+            assertEquals("boom", expected.getMessage());
+        }
+        assertEquals(1, monitor.getTasks());
+        monitor.run("after", () -> {});
+        assertEquals(2, monitor.getTasks());
+    }
+
+    @Test
+    public void reset_clearsCounters() {
+        MainThreadMonitor monitor = new MainThreadMonitor(new TraceRecorder(64));
+        monitor.run("task", () -> {});
+        monitor.reset();
+        assertEquals(0, monitor.getTasks());
+        assertEquals(0, monitor.getBusyTotalMs(), 0);
+        assertNull(monitor.getBusyMaxOp());
+    }
+}
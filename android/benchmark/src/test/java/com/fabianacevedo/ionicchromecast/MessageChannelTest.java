@@ -0,0 +1,166 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.framework.CastSession;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Marcos {"$b":[...]} de salida y de entrada sobre la CastSession falsa.
+ */
+public class MessageChannelTest {
+
+    private static final String NS = "urn:x-cast:com.example.test";
+    private static final long WAIT_MS = 2000;
+
+    private MessageChannel channel;
+    private CastSession session;
+    private final BlockingQueue<String> sent = new ArrayBlockingQueue<>(64);
+    private final BlockingQueue<List<Object>> delivered = new ArrayBlockingQueue<>(64);
+
+    @Before
+    public void setUp() throws Exception {
+        channel = new MessageChannel(new Handler(Looper.getMainLooper()));
+        session = new CastSession("session-1", null, new CastDevice("device-1", "TV"), null);
+        session.setConnected(true);
+        session.setSentMessageListener((device, namespace, message) -> sent.add(message));
+        channel.setListener(new MessageChannel.Listener() {
+            @Override
+            public boolean wantsMessages() {
+                return true;
+            }
+
+            @Override
+            public void onMessages(String namespace, List<Object> messages) {
+                delivered.add(messages);
+            }
+        });
+        runOnMainAndWait(() -> {
+            channel.register(NS, 20, 0);
+            channel.attach(session);
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        runOnMainAndWait(() -> {
+            channel.unregister(NS);
+            channel.attach(null);
+        });
+    }
+
+    @Test
+    public void messagesInOneWindow_goInOneFrame() throws Exception {
+        channel.send(NS, "{\"t\":1}", null);
+        channel.send(NS, "{\"t\":2}", null);
+        channel.send(NS, "\"text\"", null);
+
+        JSONObject frame = new JSONObject(sent.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(1, frame.length());
+        JSONArray items = frame.getJSONArray(MessageChannel.BATCH_KEY);
+        assertEquals(3, items.length());
+        assertEquals(1, items.getJSONObject(0).getInt("t"));
+        assertEquals(2, items.getJSONObject(1).getInt("t"));
+        assertEquals("text", items.getString(2));
+        assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void singleMessage_goesUnframed() throws Exception {
+        channel.send(NS, "{\"t\":1}", null);
+        assertEquals("{\"t\":1}", sent.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void singleMessageThatLooksLikeFrame_isWrapped() throws Exception {
+        channel.send(NS, "{\"$b\":[1,2]}", null);
+        JSONObject frame = new JSONObject(sent.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        JSONArray items = frame.getJSONArray(MessageChannel.BATCH_KEY);
+        assertEquals(1, items.length());
+        assertEquals(2, items.getJSONObject(0).getJSONArray(MessageChannel.BATCH_KEY).length());
+
+        // Con más claves no es un marco: sale tal cual
+        channel.send(NS, "{\"$b\":[1],\"x\":1}", null);
+        assertEquals("{\"$b\":[1],\"x\":1}", sent.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void coalesceKey_keepsOnlyLatestValue() throws Exception {
+        channel.send(NS, "{\"ms\":1}", "position");
+        channel.send(NS, "{\"ms\":2}", "position");
+        channel.send(NS, "{\"ms\":3}", "position");
+        assertEquals("{\"ms\":3}", sent.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        MessageChannel.Namespace ns = channel.getNamespaces().iterator().next();
+        assertEquals(3, ns.queued.get());
+        assertEquals(2, ns.coalesced.get());
+    }
+
+    @Test
+    public void incomingFrame_isUnpacked() throws Exception {
+        runOnMainAndWait(() -> session.receiveMessage(NS, "{\"$b\":[{\"a\":1},2,\"x\"]}"));
+        List<Object> messages = delivered.poll(WAIT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(3, messages.size());
+        assertEquals(1, ((JSONObject) messages.get(0)).getInt("a"));
+        assertEquals(2, ((Number) messages.get(1)).intValue());
+        assertEquals("x", messages.get(2));
+    }
+
+    @Test
+    public void incomingWrappedFrameLikeMessage_isDeliveredWhole() throws Exception {
+        runOnMainAndWait(() -> session.receiveMessage(NS, "{\"$b\":[{\"$b\":[1,2]}]}"));
+        List<Object> messages = delivered.poll(WAIT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(1, messages.size());
+        JSONObject message = (JSONObject) messages.get(0);
+        assertEquals(2, message.getJSONArray(MessageChannel.BATCH_KEY).length());
+    }
+
+    @Test
+    public void incomingNonJson_isDeliveredAsString() throws Exception {
+        runOnMainAndWait(() -> session.receiveMessage(NS, "hello {"));
+        List<Object> messages = delivered.poll(WAIT_MS, TimeUnit.MILLISECONDS);
+        assertEquals(1, messages.size());
+        assertEquals("hello {", messages.get(0));
+    }
+
+    @Test
+    public void unregister_dropsPendingMessages() throws Exception {
+        runOnMainAndWait(() -> {
+            channel.send(NS, "{\"t\":1}", null);
+            channel.unregister(NS);
+        });
+        assertFalse(channel.send(NS, "{\"t\":2}", null));
+        assertNull(sent.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void withoutConnectedSession_messagesAreDropped() throws Exception {
+        session.setConnected(false);
+        channel.send(NS, "{\"t\":1}", null);
+        assertNull(sent.poll(200, TimeUnit.MILLISECONDS));
+        MessageChannel.Namespace ns = channel.getNamespaces().iterator().next();
+        assertEquals(1, ns.droppedOutgoing.get());
+    }
+
+    private static void runOnMainAndWait(Runnable task) throws InterruptedException {
+        BlockingQueue<Boolean> done = new ArrayBlockingQueue<>(1);
+        new Handler(Looper.getMainLooper()).post(() -> {
+            try {
+                task.run();
+            } finally {
+                done.add(true);
+            }
+        });
+        assertNotNull("main looper did not run the task", done.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+    }
+}
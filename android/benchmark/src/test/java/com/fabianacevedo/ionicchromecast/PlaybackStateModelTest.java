@@ -0,0 +1,183 @@
+package com.fabianacevedo.ionicchromecast;
+
+import static org.junit.Assert.*;
+
+import com.google.android.gms.cast.MediaSeekOptions;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Previsiones optimistas de executeBatch: se confirman con el receiver o vuelven a su estado con un rollback.
+ */
+public class PlaybackStateModelTest {
+
+    private RemoteMediaClient client;
+    private MediaStatus status;
+    private PlaybackStateModel model;
+    private final List<Rollback> rollbacks = new ArrayList<>();
+
+    private static final class Rollback {
+        final int fields;
+        final String reason;
+        final String error;
+        final PlaybackStateModel.State state;
+
+        Rollback(int fields, String reason, String error, PlaybackStateModel.State state) {
+            this.fields = fields;
+            this.reason = reason;
+            this.error = error;
+            this.state = state;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        client = new RemoteMediaClient();
+        status = client.getMediaStatus();
+        status.setPlayerState(MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE);
+        status.setStreamPosition(10000);
+        model = new PlaybackStateModel();
+        model.setListener((fields, reason, error, state) -> rollbacks.add(new Rollback(fields, reason, error, state)));
+        model.attach(client);
+    }
+
+    @Test
+    public void prediction_isVisibleBeforeReceiverAnswers() {
+        long[] tokens = model.predict(Arrays.asList(RemoteCommand.pause(), RemoteCommand.setVolume(0.4)));
+        assertTrue(tokens[0] != 0 && tokens[1] != 0);
+        PlaybackStateModel.State state = model.getState();
+        assertEquals(MediaStatus.PLAYER_STATE_PAUSED, state.getPlayerState());
+        assertEquals(0.4, state.getVolume(), 0.0001);
+        assertEquals(PlaybackStateModel.FIELD_PLAYER_STATE | PlaybackStateModel.FIELD_VOLUME, state.getPendingFields());
+    }
+
+    @Test
+    public void confirmedPrediction_settlesWithoutRollback() {
+        long token = model.predict(Arrays.asList(RemoteCommand.pause()))[0];
+        status.setPlayerState(MediaStatus.PLAYER_STATE_PAUSED, MediaStatus.IDLE_REASON_NONE);
+        model.settle(token, null);
+        assertTrue(rollbacks.isEmpty());
+        assertEquals(MediaStatus.PLAYER_STATE_PAUSED, model.getState().getPlayerState());
+        assertEquals(0, model.getState().getPendingFields());
+    }
+
+    @Test
+    public void failedCommand_rollsBackToReceiverState() {
+        long token = model.predict(Arrays.asList(RemoteCommand.pause()))[0];
+        model.settle(token, "Receiver rejected pause");
+        assertEquals(1, rollbacks.size());
+        Rollback rollback = rollbacks.get(0);
+        assertEquals(PlaybackStateModel.FIELD_PLAYER_STATE, rollback.fields);
+        assertEquals(PlaybackStateModel.REASON_FAILED, rollback.reason);
+        assertEquals("Receiver rejected pause", rollback.error);
+        assertEquals(MediaStatus.PLAYER_STATE_PLAYING, rollback.state.getPlayerState());
+        assertEquals(0, rollback.state.getPendingFields());
+    }
+
+    @Test
+    public void receiverDisagreement_rollsBackOnlyThatField() {
+        long[] tokens = model.predict(Arrays.asList(RemoteCommand.setVolume(0.3), RemoteCommand.mute(true)));
+        // El receiver aplicó el mute pero no el volumen
+        status.setVolume(1.0, true);
+        model.settle(tokens[0], null);
+        model.settle(tokens[1], null);
+        assertEquals(1, rollbacks.size());
+        assertEquals(PlaybackStateModel.FIELD_VOLUME, rollbacks.get(0).fields);
+        assertEquals(PlaybackStateModel.REASON_RECEIVER_DISAGREES, rollbacks.get(0).reason);
+        assertNull(rollbacks.get(0).error);
+        assertEquals(1.0, model.getState().getVolume(), 0.0001);
+        assertTrue(model.getState().isMuted());
+    }
+
+    @Test
+    public void seek_withinToleranceIsConfirmed() {
+        long token = model.predict(Arrays.asList(RemoteCommand.seek(60000, MediaSeekOptions.RESUME_STATE_PAUSE)))[0];
+        PlaybackStateModel.State predicted = model.getState();
+        assertEquals(60000, predicted.getPositionMs());
+        assertEquals(MediaStatus.PLAYER_STATE_PAUSED, predicted.getPlayerState());
+        assertEquals(PlaybackStateModel.FIELD_POSITION | PlaybackStateModel.FIELD_PLAYER_STATE, predicted.getPendingFields());
+
+        status.setStreamPosition(60500);
+        status.setPlayerState(MediaStatus.PLAYER_STATE_PAUSED, MediaStatus.IDLE_REASON_NONE);
+        model.settle(token, null);
+        assertTrue(rollbacks.isEmpty());
+        assertEquals(60500, model.getState().getPositionMs());
+    }
+
+    @Test
+    public void seek_ignoredByReceiverRollsBackPosition() {
+        long token = model.predict(Arrays.asList(RemoteCommand.seek(60000, MediaSeekOptions.RESUME_STATE_PAUSE)))[0];
+        status.setPlayerState(MediaStatus.PLAYER_STATE_PAUSED, MediaStatus.IDLE_REASON_NONE);
+        model.settle(token, null);
+        assertEquals(1, rollbacks.size());
+        assertEquals(PlaybackStateModel.FIELD_POSITION, rollbacks.get(0).fields);
+        assertEquals(10000, model.getState().getPositionMs());
+    }
+
+    @Test
+    public void olderCommand_doesNotSettleNewerPrediction() {
+        long pause = model.predict(Arrays.asList(RemoteCommand.pause()))[0];
+        long play = model.predict(Arrays.asList(RemoteCommand.play()))[0];
+        // El pause falló pero su previsión ya la reemplazó el play
+        model.settle(pause, "Receiver rejected pause");
+        assertTrue(rollbacks.isEmpty());
+        assertEquals(PlaybackStateModel.FIELD_PLAYER_STATE, model.getState().getPendingFields());
+
+        model.settle(play, null);
+        assertTrue(rollbacks.isEmpty());
+        assertEquals(MediaStatus.PLAYER_STATE_PLAYING, model.getState().getPlayerState());
+    }
+
+    @Test
+    public void newerPrediction_leavesConfirmedPositionAlone() throws Exception {
+        long pause = model.predict(Arrays.asList(RemoteCommand.pause()))[0];
+        Thread.sleep(300);
+        // El play previsto parte de la posición congelada por el pause, pero no la da por confirmada
+        long play = model.predict(Arrays.asList(RemoteCommand.play()))[0];
+        assertTrue(model.getState().getPositionMs() < 10200);
+        model.settle(pause, "Receiver rejected pause");
+        model.settle(play, "Receiver rejected play");
+
+        assertEquals(1, rollbacks.size());
+        PlaybackStateModel.State state = rollbacks.get(0).state;
+        assertEquals(MediaStatus.PLAYER_STATE_PLAYING, state.getPlayerState());
+        // El receiver siguió reproduciendo todo ese tiempo
+        assertTrue(String.valueOf(state.getPositionMs()), state.getPositionMs() >= 10300);
+    }
+
+    @Test
+    public void buffering_confirmsPredictedPlay() {
+        status.setPlayerState(MediaStatus.PLAYER_STATE_PAUSED, MediaStatus.IDLE_REASON_NONE);
+        model.attach(null);
+        model.attach(client);
+        long token = model.predict(Arrays.asList(RemoteCommand.play()))[0];
+        status.setPlayerState(MediaStatus.PLAYER_STATE_BUFFERING, MediaStatus.IDLE_REASON_NONE);
+        model.settle(token, null);
+        assertTrue(rollbacks.isEmpty());
+    }
+
+    @Test
+    public void detach_dropsPredictionsWithoutRollback() {
+        long token = model.predict(Arrays.asList(RemoteCommand.pause()))[0];
+        model.detach();
+        assertEquals(0, model.getState().getPendingFields());
+        model.settle(token, "Session ended");
+        assertTrue(rollbacks.isEmpty());
+    }
+
+    @Test
+    public void unmodeledOpsAndNoSession_getNoToken() {
+        long[] tokens = model.predict(Arrays.asList(RemoteCommand.queueNext(), RemoteCommand.setActiveTrackIds(new long[] { 1 })));
+        assertArrayEquals(new long[] { 0, 0 }, tokens);
+
+        PlaybackStateModel detached = new PlaybackStateModel();
+        assertArrayEquals(new long[] { 0 }, detached.predict(Arrays.asList(RemoteCommand.pause())));
+        detached.settle(0, "ignored");
+        assertEquals(PlaybackStateModel.State.EMPTY, detached.getState());
+    }
+}
@@ -0,0 +1,293 @@
+package com.fabianacevedo.ionicchromecast;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plazos aprendidos de la latencia observada, como el RTO de TCP (Jacobson/Karels):
+ * srtt y rttvar son medias exponenciales de la latencia y de su desviación, y el plazo es srtt + 4·rttvar
+ * acotado a [minMs, maxMs] de la operación. Se aprende por operación y por dispositivo; mientras un dispositivo
+ * tiene pocas muestras se usa la estimación de la operación, y sin muestras el plazo fijo histórico.
+ * Solo las operaciones correctas aportan muestras (un fallo inmediato no dice nada de la red). Un timeout dobla
+ * el plazo hasta el siguiente éxito (Karn), salvo en el escaneo, donde vencer el plazo solo significa que no hay
+ * dispositivos. Cualquier hilo.
+ */
+class AdaptiveTimeouts {
+
+    static final int MIN_SAMPLES = 3;
+    private static final double ALPHA = 1.0 / 8;
+    private static final double BETA = 1.0 / 4;
+    private static final int K = 4;
+    private static final int MAX_BACKOFF = 8;
+    // Dispositivos distintos que se recuerdan por operación; al llenarse se olvida el usado hace más tiempo
+    private static final int MAX_DEVICES = 32;
+
+    enum Op {
+        INIT("init", 6000, 2000, 15000, true),
+        SESSION("session", 15000, 5000, 30000, true),
+        SCAN("scan", 4000, 1500, 10000, false),
+        STOP("stop", 3000, 500, 8000, true),
+        LOAD("load", 14000, 3000, 30000, true),
+        END("end", 4000, 1000, 10000, true),
+        QUEUE("queue", 6000, 1500, 15000, true),
+        BATCH("batch", 8000, 2000, 15000, true);
+
+        private final String key;
+        final long defaultMs;
+        final long defaultMinMs;
+        final long defaultMaxMs;
+        final boolean backoffOnTimeout;
+
+        Op(String key, long defaultMs, long defaultMinMs, long defaultMaxMs, boolean backoffOnTimeout) {
+            this.key = key;
+            this.defaultMs = defaultMs;
+            this.defaultMinMs = defaultMinMs;
+            this.defaultMaxMs = defaultMaxMs;
+            this.backoffOnTimeout = backoffOnTimeout;
+        }
+
+        String key() {
+            return key;
+        }
+    }
+
+    // Cada OpState se protege con su propio lock
+    private final OpState[] ops = new OpState[Op.values().length];
+    private volatile boolean enabled = true;
+    // ID estable del dispositivo de la sesión actual ("" sin sesión): las muestras y los plazos se asocian a él.
+    // No el nombre: dos receivers con el mismo nombre no comparten estimación y renombrar no borra el historial
+    private volatile String device = "";
+
+    AdaptiveTimeouts() {
+        for (Op op : Op.values()) ops[op.ordinal()] = new OpState(op);
+    }
+
+    /**
+     * Con false se usan siempre los plazos fijos históricos (acotados igualmente).
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param device ID del dispositivo (CastDevice.getDeviceId()); "" o null al terminar la sesión
+     */
+    void setDevice(String device) {
+        this.device = device != null ? device : "";
+    }
+
+    /**
+     * Límites del plazo de una operación; los valores no positivos conservan el límite actual.
+     */
+    void setBounds(Op op, long minMs, long maxMs) {
+        OpState state = ops[op.ordinal()];
+        synchronized (state) {
+            long min = minMs > 0 ? minMs : state.minMs;
+            long max = maxMs > 0 ? maxMs : state.maxMs;
+            if (min > max) {
+                if (minMs > 0) max = min;
+                else min = max;
+            }
+            state.minMs = min;
+            state.maxMs = max;
+        }
+    }
+
+    /**
+     * Plazo actual de la operación para el dispositivo de la sesión.
+     */
+    long deadlineMs(Op op) {
+        OpState state = ops[op.ordinal()];
+        synchronized (state) {
+            Estimator est = enabled ? state.devices.get(device) : null;
+            if (est == null || est.samples < MIN_SAMPLES) est = enabled ? state.overall : null;
+            double base = est != null && est.samples >= MIN_SAMPLES ? est.rtoMs() : op.defaultMs;
+            int backoff = enabled ? state.backoff : 1;
+            return clamp(Math.round(base * backoff), state.minMs, state.maxMs);
+        }
+    }
+
+    /**
+     * Tope de la operación: lo máximo que puede durar pase lo que pase (p. ej. la espera en cola).
+     */
+    long maxMs(Op op) {
+        OpState state = ops[op.ordinal()];
+        synchronized (state) {
+            return state.maxMs;
+        }
+    }
+
+    /**
+     * Latencia de una operación que terminó bien.
+     */
+    void recordSuccess(Op op, long elapsedNanos) {
+        double ms = Math.max(0, elapsedNanos) / 1_000_000.0;
+        OpState state = ops[op.ordinal()];
+        String key = device;
+        synchronized (state) {
+            state.backoff = 1;
+            state.overall.add(ms);
+            Estimator est = state.devices.get(key);
+            if (est == null) {
+                if (state.devices.size() >= MAX_DEVICES) evictLeastRecentlyUsed(state.devices);
+                est = new Estimator();
+                state.devices.put(key, est);
+            }
+            est.add(ms);
+        }
+    }
+
+    void recordTimeout(Op op) {
+        OpState state = ops[op.ordinal()];
+        synchronized (state) {
+            state.timeouts++;
+            if (op.backoffOnTimeout && state.backoff < MAX_BACKOFF) state.backoff *= 2;
+        }
+    }
+
+    /**
+     * Olvida lo aprendido; los límites configurados se conservan.
+     */
+    void reset() {
+        for (OpState state : ops) {
+            synchronized (state) {
+                state.overall.clear();
+                state.devices.clear();
+                state.backoff = 1;
+                state.timeouts = 0;
+            }
+        }
+    }
+
+    /**
+     * Copia coherente del estado de una operación para diagnóstico.
+     */
+    Snapshot snapshot(Op op) {
+        long deadline = deadlineMs(op);
+        OpState state = ops[op.ordinal()];
+        synchronized (state) {
+            Map<String, Snapshot.Device> devices = new HashMap<>();
+            for (Map.Entry<String, Estimator> e : state.devices.entrySet()) {
+                Estimator est = e.getValue();
+                devices.put(e.getKey(), new Snapshot.Device(est.samples, est.srttMs, est.rttvarMs,
+                    est.samples >= MIN_SAMPLES ? clamp(Math.round(est.rtoMs() * state.backoff), state.minMs, state.maxMs) : 0));
+            }
+            return new Snapshot(deadline, op.defaultMs, state.minMs, state.maxMs, state.overall.samples,
+                state.overall.srttMs, state.overall.rttvarMs, state.backoff, state.timeouts, Collections.unmodifiableMap(devices));
+        }
+    }
+
+    /**
+     * El mapa va en orden de acceso: el primero es el dispositivo consultado hace más tiempo.
+     */
+    private static void evictLeastRecentlyUsed(Map<String, Estimator> devices) {
+        Iterator<Map.Entry<String, Estimator>> it = devices.entrySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static final class OpState {
+        final Estimator overall = new Estimator();
+        // En orden de acceso (deadlineMs y recordSuccess) para olvidar el dispositivo menos usado
+        final Map<String, Estimator> devices = new LinkedHashMap<>(16, 0.75f, true);
+        long minMs;
+        long maxMs;
+        int backoff = 1;
+        long timeouts = 0;
+
+        OpState(Op op) {
+            minMs = op.defaultMinMs;
+            maxMs = op.defaultMaxMs;
+        }
+    }
+
+    private static final class Estimator {
+        int samples = 0;
+        double srttMs = 0;
+        double rttvarMs = 0;
+
+        void add(double ms) {
+            if (samples == 0) {
+                srttMs = ms;
+                rttvarMs = ms / 2;
+            } else {
+                rttvarMs = (1 - BETA) * rttvarMs + BETA * Math.abs(srttMs - ms);
+                srttMs = (1 - ALPHA) * srttMs + ALPHA * ms;
+            }
+            if (samples < Integer.MAX_VALUE) samples++;
+        }
+
+        double rtoMs() {
+            return srttMs + K * rttvarMs;
+        }
+
+        void clear() {
+            samples = 0;
+            srttMs = 0;
+            rttvarMs = 0;
+        }
+    }
+
+    /**
+     * Estado de una operación en un instante.
+     */
+    static final class Snapshot {
+        final long deadlineMs;
+        final long defaultMs;
+        final long minMs;
+        final long maxMs;
+        final int samples;
+        final double srttMs;
+        final double rttvarMs;
+        final int backoff;
+        final long timeouts;
+        private final Map<String, Device> devices;
+
+        Snapshot(long deadlineMs, long defaultMs, long minMs, long maxMs, int samples, double srttMs, double rttvarMs,
+                 int backoff, long timeouts, Map<String, Device> devices) {
+            this.deadlineMs = deadlineMs;
+            this.defaultMs = defaultMs;
+            this.minMs = minMs;
+            this.maxMs = maxMs;
+            this.samples = samples;
+            this.srttMs = srttMs;
+            this.rttvarMs = rttvarMs;
+            this.backoff = backoff;
+            this.timeouts = timeouts;
+            this.devices = devices;
+        }
+
+        /** Por ID de dispositivo ("" = sin sesión) */
+        Map<String, Device> getDevices() {
+            return devices;
+        }
+
+        static final class Device {
+            final int samples;
+            final double srttMs;
+            final double rttvarMs;
+            /** 0 mientras tenga menos de MIN_SAMPLES muestras */
+            final long deadlineMs;
+
+            Device(int samples, double srttMs, double rttvarMs, long deadlineMs) {
+                this.samples = samples;
+                this.srttMs = srttMs;
+                this.rttvarMs = rttvarMs;
+                this.deadlineMs = deadlineMs;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.fabianacevedo.ionicchromecast;
+
+/**
+ * Cómo se marca la URL del media (y de la imagen) para que el receiver no muestre contenido anterior.
+ * TIMESTAMP es el comportamiento histórico pero provoca un miss de CDN en cada cast;
+ * SESSION y CONTENT_HASH mantienen la URL estable para que las cachés de borde sigan sirviendo.
+ */
+public enum CacheBustPolicy {
+    /** URL sin modificar */
+    NONE,
+    /** Un token por sesión Cast: misma URL durante toda la sesión */
+    SESSION,
+    /** Hash estable de la propia URL: siempre la misma URL para el mismo contenido */
+    CONTENT_HASH,
+    /** _cb=System.currentTimeMillis() en cada carga */
+    TIMESTAMP;
+
+    private static final String PARAM = "_cb=";
+
+    /**
+     * Acepta los valores del lado JS: none, session, contentHash, timestamp.
+     */
+    public static CacheBustPolicy fromString(String value, CacheBustPolicy fallback) {
+        if (value == null) return fallback;
+        switch (value) {
+            case "none":
+                return NONE;
+            case "session":
+                return SESSION;
+            case "contentHash":
+                return CONTENT_HASH;
+            case "timestamp":
+                return TIMESTAMP;
+            default:
+                return fallback;
+        }
+    }
+
+    /**
+     * Devuelve la URL con el parámetro _cb según la política.
+     * @param sessionToken token de la sesión actual; solo se usa con SESSION
+     */
+    public String apply(String url, String sessionToken) {
+        if (url == null || url.isEmpty() || this == NONE) return url;
+        String value;
+        switch (this) {
+            case SESSION:
+                if (sessionToken == null || sessionToken.isEmpty()) return url;
+                value = sessionToken;
+                break;
+            case CONTENT_HASH:
+                value = Long.toHexString(fnv1a64(url));
+                break;
+            default:
+                value = Long.toString(System.currentTimeMillis());
+                break;
+        }
+        String suffix = url.contains("?") ? "&" : "?";
+        return url + suffix + PARAM + value;
+    }
+
+    private static long fnv1a64(String s) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            hash ^= s.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,303 @@
+package com.fabianacevedo.ionicchromecast;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.getcapacitor.Logger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola única para los comandos que cambian el estado del receiver (carga, cola, fin de sesión).
+ * Se ejecutan de uno en uno en el hilo principal: el siguiente no empieza hasta que el anterior
+ * termina o vence su plazo, así que un loadMedia ya no puede cruzarse con un endSession.
+ * Entre los pendientes sale antes el de mayor prioridad (FIFO a igual prioridad). Un comando con
+ * clave de reemplazo descarta los pendientes con la misma clave: un loadMedia más reciente anula
+ * el anterior que aún no había empezado. En la cola un comando espera como mucho el tope de su operación
+ * en {@link AdaptiveTimeouts}; al empezar recibe el plazo aprendido, y su latencia de ejecución alimenta
+ * ese aprendizaje. Si el plazo vence en la cola se descarta; si vence en ejecución se da por fallido y pasa el siguiente.
+ */
+class CastCommandScheduler {
+
+    private static final String TAG = "IonicChromecast";
+    static final int PRIORITY_NORMAL = 0;
+    static final int PRIORITY_HIGH = 10;
+    static final String SUPERSEDED_PREFIX = "Superseded by a newer ";
+
+    /**
+     * Cuerpo de un comando. Corre en el hilo principal y debe completar done exactamente una vez
+     * (normalmente desde el callback del resultado del receiver).
+     */
+    interface Body {
+        void run(IonicChromecast.CastCallback done);
+    }
+
+    private final Handler mainHandler;
+    private final MainThreadMonitor monitor;
+    private final CastMetrics metrics;
+    private final TraceRecorder trace;
+    private final AdaptiveTimeouts timeouts;
+    // Solo hilo principal
+    private final PriorityQueue<Command> pending = new PriorityQueue<>(8, (a, b) ->
+        a.priority != b.priority ? Integer.compare(b.priority, a.priority) : Long.compare(a.seq, b.seq));
+    private Command running = null;
+    private boolean pumping = false;
+    private long nextSeq = 0;
+    // Estadísticas, legibles desde cualquier hilo
+    private volatile int depth = 0;
+    private volatile int maxDepth = 0;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private volatile long maxWaitNanos = 0;
+
+    CastCommandScheduler(Handler mainHandler, MainThreadMonitor monitor, CastMetrics metrics, TraceRecorder trace,
+                         AdaptiveTimeouts timeouts) {
+        this.mainHandler = mainHandler;
+        this.monitor = monitor;
+        this.metrics = metrics;
+        this.trace = trace;
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * Encola un comando. Puede llamarse desde cualquier hilo; callback se completa una sola vez.
+     * @param op operación para {@link CastMetrics} (null = sin métricas); la latencia incluye la espera en cola
+     * @param supersedeKey los pendientes con la misma clave se descartan; null = no reemplaza a nadie
+     * @param timeoutOp de qué operación se aprende y se toma el plazo
+     */
+    void submit(String name, CastMetrics.Op op, int priority, String supersedeKey, AdaptiveTimeouts.Op timeoutOp,
+                String timeoutError, Body body, IonicChromecast.CastCallback callback) {
+        submitted.incrementAndGet();
+        Command cmd = new Command(name, op, priority, supersedeKey, timeoutOp, timeoutError, body, callback);
+        onMain(name, () -> enqueue(cmd));
+    }
+
+    private void enqueue(Command cmd) {
+        cmd.seq = nextSeq++;
+        if (cmd.supersedeKey != null) {
+            Iterator<Command> it = pending.iterator();
+            while (it.hasNext()) {
+                Command older = it.next();
+                if (cmd.supersedeKey.equals(older.supersedeKey)) {
+                    it.remove();
+                    superseded.incrementAndGet();
+                    older.finish(null, CastResult.error(CastResult.Code.SUPERSEDED, SUPERSEDED_PREFIX + cmd.name));
+                }
+            }
+        }
+        mainHandler.postDelayed(cmd.deadline, timeouts.maxMs(cmd.timeoutOp));
+        pending.add(cmd);
+        updateDepth();
+        pump();
+    }
+
+    /**
+     * Arranca pendientes mientras no haya uno en ejecución. Un comando que termina de forma síncrona dentro de
+     * su cuerpo vuelve a llamar aquí: esa llamada no hace nada y el bucle exterior sigue, sin recursión.
+     */
+    private void pump() {
+        if (pumping) return;
+        pumping = true;
+        try {
+            while (running == null && !pending.isEmpty()) {
+                Command cmd = pending.poll();
+                updateDepth();
+                long now = System.nanoTime();
+                long wait = now - cmd.enqueuedNanos;
+                trace.record("command.wait", cmd.name, cmd.enqueuedNanos, now);
+                cmd.startedNanos = now;
+                mainHandler.removeCallbacks(cmd.deadline);
+                mainHandler.postDelayed(cmd.deadline, timeouts.deadlineMs(cmd.timeoutOp));
+                started.incrementAndGet();
+                totalWaitNanos.addAndGet(wait);
+                if (wait > maxWaitNanos) maxWaitNanos = wait;
+
+                running = cmd;
+                monitor.run(cmd.name, () -> {
+                    try {
+                        cmd.body.run(result -> onMain(cmd.name + ".result", () -> complete(cmd, result)));
+                    } catch (Exception e) {
+                        Logger.error(TAG, "Error running " + cmd.name + ": " + e.getMessage(), e);
+                        complete(cmd, CastResult.error(CastResult.Code.INTERNAL, "Error running " + cmd.name + ": " + e.getMessage()));
+                    }
+                });
+            }
+        } finally {
+            pumping = false;
+        }
+    }
+
+    private void complete(Command cmd, CastResult result) {
+        if (cmd.finished) return;
+        cmd.finish(result.isSuccess() ? CastMetrics.Outcome.SUCCESS : CastMetrics.Outcome.FAILURE, result);
+        if (running == cmd) {
+            running = null;
+            pump();
+        }
+    }
+
+    private void expire(Command cmd) {
+        if (cmd.finished) return;
+        if (cmd.timeoutError != null) Logger.error(TAG, cmd.timeoutError, null);
+        pending.remove(cmd);
+        cmd.finish(CastMetrics.Outcome.TIMEOUT, CastResult.error(CastResult.Code.TIMEOUT, cmd.timeoutError));
+        updateDepth();
+        if (running == cmd) {
+            // Un resultado tardío del receiver se ignora (finished ya es true)
+            running = null;
+            pump();
+        }
+    }
+
+    /**
+     * Descarta los comandos pendientes (no el que está en ejecución). Debe llamarse en el hilo principal.
+     */
+    void cancelPending(String reason) {
+        List<Command> dropped = new ArrayList<>(pending);
+        pending.clear();
+        updateDepth();
+        cancelled.addAndGet(dropped.size());
+        for (Command cmd : dropped) cmd.finish(null, CastResult.error(CastResult.Code.CANCELLED, reason));
+    }
+
+    private void updateDepth() {
+        int d = pending.size() + (running != null ? 1 : 0);
+        depth = d;
+        if (d > maxDepth) maxDepth = d;
+    }
+
+    private void onMain(String op, Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+        } else {
+            mainHandler.post(monitor.wrap(op, runnable));
+        }
+    }
+
+    /** Comandos pendientes más el que está en ejecución */
+    int getDepth() {
+        return depth;
+    }
+
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    long getSubmitted() {
+        return submitted.get();
+    }
+
+    long getSucceeded() {
+        return succeeded.get();
+    }
+
+    long getFailed() {
+        return failed.get();
+    }
+
+    long getTimedOut() {
+        return timedOut.get();
+    }
+
+    long getSuperseded() {
+        return superseded.get();
+    }
+
+    long getCancelled() {
+        return cancelled.get();
+    }
+
+    double getAvgWaitMs() {
+        long n = started.get();
+        return n == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / n;
+    }
+
+    double getMaxWaitMs() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    void resetStats() {
+        maxDepth = depth;
+        submitted.set(0);
+        succeeded.set(0);
+        failed.set(0);
+        timedOut.set(0);
+        superseded.set(0);
+        cancelled.set(0);
+        started.set(0);
+        totalWaitNanos.set(0);
+        maxWaitNanos = 0;
+    }
+
+    private final class Command {
+        final String name;
+        final CastMetrics.Op op;
+        final int priority;
+        final String supersedeKey;
+        final AdaptiveTimeouts.Op timeoutOp;
+        final String timeoutError;
+        final Body body;
+        final IonicChromecast.CastCallback callback;
+        final long enqueuedNanos = System.nanoTime();
+        final Runnable deadline = () -> expire(this);
+        long seq;
+        long startedNanos = 0;
+        boolean finished = false;
+
+        Command(String name, CastMetrics.Op op, int priority, String supersedeKey, AdaptiveTimeouts.Op timeoutOp,
+                String timeoutError, Body body, IonicChromecast.CastCallback callback) {
+            this.name = name;
+            this.op = op;
+            this.priority = priority;
+            this.supersedeKey = supersedeKey;
+            this.timeoutOp = timeoutOp;
+            this.timeoutError = timeoutError;
+            this.body = body;
+            this.callback = callback;
+        }
+
+        /**
+         * @param outcome null = descartado sin llegar a ejecutarse (reemplazado o cancelado): no cuenta en las métricas
+         */
+        void finish(CastMetrics.Outcome outcome, CastResult result) {
+            if (finished) return;
+            finished = true;
+            mainHandler.removeCallbacks(deadline);
+            // Solo los que llegaron a ejecutarse; la espera en cola ya tiene su propio span
+            trace.span("command", name, startedNanos);
+            // Los descartados (outcome null) ya se contaron en superseded/cancelled
+            if (outcome != null) {
+                switch (outcome) {
+                    case SUCCESS:
+                        succeeded.incrementAndGet();
+                        break;
+                    case TIMEOUT:
+                        timedOut.incrementAndGet();
+                        break;
+                    default:
+                        failed.incrementAndGet();
+                        break;
+                }
+                if (op != null) metrics.record(op, outcome, enqueuedNanos);
+                // Solo aprende de lo que llegó a ejecutarse: vencer en la cola no dice nada del receiver
+                if (startedNanos != 0) {
+                    if (outcome == CastMetrics.Outcome.SUCCESS) timeouts.recordSuccess(timeoutOp, System.nanoTime() - startedNanos);
+                    else if (outcome == CastMetrics.Outcome.TIMEOUT) timeouts.recordTimeout(timeoutOp);
+                }
+            }
+            try {
+                callback.onResult(result);
+            } catch (Exception e) {
+                Logger.error(TAG, "Error completing " + name + ": " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.fabianacevedo.ionicchromecast;
+
+/**
+ * Descripción de un elemento de media a enviar al receiver (loadMedia o cola).
+ */
+public final class CastMediaItem {
+
+    /** Segundos antes del final del elemento anterior en que el receiver empieza a precargar éste */
+    public static final double DEFAULT_PRELOAD_TIME_SEC = 20;
+
+    private final String url;
+    private final String title;
+    private final String subtitle;
+    private final String imageUrl;
+    private final String contentType;
+    private final double preloadTimeSec;
+    private final double startTimeSec;
+    private final boolean autoplay;
+    private final CacheBustPolicy cacheBustPolicy;
+
+    /**
+     * @param cacheBustPolicy política para este elemento; null usa la configurada en initialize
+     */
+    public CastMediaItem(String url, String title, String subtitle, String imageUrl, String contentType,
+                         double preloadTimeSec, double startTimeSec, boolean autoplay, CacheBustPolicy cacheBustPolicy) {
+        this.url = url;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.imageUrl = imageUrl;
+        this.contentType = contentType;
+        this.preloadTimeSec = preloadTimeSec;
+        this.startTimeSec = startTimeSec;
+        this.autoplay = autoplay;
+        this.cacheBustPolicy = cacheBustPolicy;
+    }
+
+    /**
+     * Copia con otras URLs y tipo (p. ej. archivos locales publicados por LocalMediaServer).
+     */
+    public CastMediaItem withUrls(String url, String imageUrl, String contentType) {
+        return new CastMediaItem(url, title, subtitle, imageUrl, contentType, preloadTimeSec, startTimeSec, autoplay, cacheBustPolicy);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public double getPreloadTimeSec() {
+        return preloadTimeSec;
+    }
+
+    public double getStartTimeSec() {
+        return startTimeSec;
+    }
+
+    public boolean isAutoplay() {
+        return autoplay;
+    }
+
+    public CacheBustPolicy getCacheBustPolicy() {
+        return cacheBustPolicy;
+    }
+}
@@ -0,0 +1,189 @@
+package com.fabianacevedo.ionicchromecast;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Registro de métricas por operación: histograma de latencias y contadores de éxito/fallo/timeout.
+ * Todo el estado se reserva al construir; record() solo hace incrementos atómicos y no asigna memoria,
+ * así que puede llamarse desde los callbacks del hilo principal sin coste apreciable.
+ */
+public final class CastMetrics {
+
+    public enum Op {
+        INIT("init"),
+        SCAN("scan"),
+        SESSION_START("sessionStart"),
+        SESSION_RESUME("sessionResume"),
+        STOP("stop"),
+        LOAD("load"),
+        END("end");
+
+        private final String key;
+
+        Op(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        FAILURE,
+        TIMEOUT
+    }
+
+    /** Límites superiores (inclusive) de cada bucket en ms; el último bucket recoge todo lo que los supera */
+    static final long[] BUCKET_BOUNDS_MS = { 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 20000 };
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_MS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = BUCKET_BOUNDS_MS[i] * 1_000_000L;
+        }
+    }
+
+    private final OpStats[] stats = new OpStats[Op.values().length];
+
+    public CastMetrics() {
+        for (Op op : Op.values()) {
+            stats[op.ordinal()] = new OpStats();
+        }
+    }
+
+    /**
+     * Registra una operación que empezó en startNanos (System.nanoTime()).
+     */
+    public void record(Op op, Outcome outcome, long startNanos) {
+        recordElapsed(op, outcome, System.nanoTime() - startNanos);
+    }
+
+    public void recordElapsed(Op op, Outcome outcome, long elapsedNanos) {
+        stats[op.ordinal()].record(outcome, elapsedNanos < 0 ? 0 : elapsedNanos);
+    }
+
+    public OpStats get(Op op) {
+        return stats[op.ordinal()];
+    }
+
+    public void reset() {
+        for (OpStats s : stats) s.reset();
+    }
+
+    /**
+     * Copia y pone a cero en un solo paso por contador (getAndSet): lo registrado mientras tanto queda en la
+     * copia o en la ventana siguiente, nunca se pierde.
+     */
+    public CastMetrics snapshotAndReset() {
+        CastMetrics copy = new CastMetrics();
+        for (int i = 0; i < stats.length; i++) stats[i].drainTo(copy.stats[i]);
+        return copy;
+    }
+
+    /**
+     * Contadores e histograma de una operación.
+     */
+    public static final class OpStats {
+
+        private final AtomicLong success = new AtomicLong();
+        private final AtomicLong failure = new AtomicLong();
+        private final AtomicLong timeout = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_NANOS.length + 1);
+
+        void record(Outcome outcome, long elapsedNanos) {
+            switch (outcome) {
+                case SUCCESS:
+                    success.incrementAndGet();
+                    break;
+                case TIMEOUT:
+                    timeout.incrementAndGet();
+                    break;
+                default:
+                    failure.incrementAndGet();
+                    break;
+            }
+            totalNanos.addAndGet(elapsedNanos);
+            long max;
+            while (elapsedNanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, elapsedNanos)) {
+                // reintenta si otro hilo actualizó el máximo
+            }
+            int i = 0;
+            while (i < BUCKET_BOUNDS_NANOS.length && elapsedNanos > BUCKET_BOUNDS_NANOS[i]) i++;
+            buckets.incrementAndGet(i);
+        }
+
+        void reset() {
+            success.set(0);
+            failure.set(0);
+            timeout.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+            for (int i = 0; i < buckets.length(); i++) buckets.set(i, 0);
+        }
+
+        void drainTo(OpStats target) {
+            target.success.set(success.getAndSet(0));
+            target.failure.set(failure.getAndSet(0));
+            target.timeout.set(timeout.getAndSet(0));
+            target.totalNanos.set(totalNanos.getAndSet(0));
+            target.maxNanos.set(maxNanos.getAndSet(0));
+            for (int i = 0; i < buckets.length(); i++) target.buckets.set(i, buckets.getAndSet(i, 0));
+        }
+
+        public long getSuccess() {
+            return success.get();
+        }
+
+        public long getFailure() {
+            return failure.get();
+        }
+
+        public long getTimeout() {
+            return timeout.get();
+        }
+
+        public long getCount() {
+            return success.get() + failure.get() + timeout.get();
+        }
+
+        public double getMeanMs() {
+            long count = getCount();
+            return count == 0 ? 0 : totalNanos.get() / 1_000_000.0 / count;
+        }
+
+        public double getMaxMs() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        public long getBucketCount(int index) {
+            return buckets.get(index);
+        }
+
+        public int getBucketCountLength() {
+            return buckets.length();
+        }
+
+        /**
+         * Percentil estimado como límite superior del bucket que lo contiene (el máximo para el último bucket).
+         */
+        public double getPercentileMs(double percentile) {
+            long count = 0;
+            for (int i = 0; i < buckets.length(); i++) count += buckets.get(i);
+            if (count == 0) return 0;
+            long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : getMaxMs();
+                }
+            }
+            return getMaxMs();
+        }
+    }
+}
@@ -16,29 +16,42 @@ public class CastOptionsProvider implements OptionsProvider {
     private static final String DEFAULT_RECEIVER_APP_ID = "CC1AD845";
     private static final String PREFS_NAME = "IonicChromecastPrefs";
     private static final String KEY_RECEIVER_APP_ID = "receiverApplicationId";
+    static final String KEY_RESUME_SAVED_SESSION = "resumeSavedSession";
 
     public static String sReceiverApplicationId = null;
+    // Receiver con el que se construyó el CastContext (puede venir de un prewarm con el ID guardado)
+    public static volatile String sActiveReceiverApplicationId = null;
+    // Reanudar la sesión guardada al arrancar; null = usar el valor persistido por el último initialize()
+    public static volatile Boolean sResumeSavedSession = null;
+    // Valor con el que se construyó el CastContext
+    public static volatile boolean sActiveResumeSavedSession = false;
 
     @Override
     public CastOptions getCastOptions(Context context) {
         String receiverAppId = DEFAULT_RECEIVER_APP_ID;
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
 
         // Prefer static variable set by initialize()
         if (sReceiverApplicationId != null && !sReceiverApplicationId.isEmpty()) {
             receiverAppId = sReceiverApplicationId;
         } else {
             // Try from SharedPreferences
-            SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
             String savedId = prefs.getString(KEY_RECEIVER_APP_ID, null);
             if (savedId != null && !savedId.isEmpty()) {
                 receiverAppId = savedId;
             }
         }
 
+        // Opt-in: con la reanudación activa el SDK se vuelve a unir al receiver en marcha tras reiniciar la app
+        Boolean resume = sResumeSavedSession;
+        boolean resumeSavedSession = resume != null ? resume : prefs.getBoolean(KEY_RESUME_SAVED_SESSION, false);
+
+        sActiveReceiverApplicationId = receiverAppId;
+        sActiveResumeSavedSession = resumeSavedSession;
         return new CastOptions.Builder()
             .setReceiverApplicationId(receiverAppId)
             .setStopReceiverApplicationWhenEndingSession(true)
-            .setResumeSavedSession(false)
+            .setResumeSavedSession(resumeSavedSession)
             .build();
     }
 
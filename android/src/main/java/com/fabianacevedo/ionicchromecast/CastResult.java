@@ -0,0 +1,117 @@
+package com.fabianacevedo.ionicchromecast;
+
+/**
+ * Resultado inmutable de una operación asíncrona. Cada llamada recibe el suyo en su callback, así que dos
+ * operaciones solapadas no pueden informar el error de la otra; el código es estable y el mensaje es solo
+ * para diagnóstico.
+ */
+public final class CastResult {
+
+    /**
+     * Código de error estable; el plugin lo entrega como error.code de la promesa rechazada.
+     */
+    public enum Code {
+        OK,
+        /** initialize() no se llamó o no terminó bien */
+        NOT_INITIALIZED,
+        /** Argumentos inválidos (URL vacía, lista vacía, archivo local fuera de la app...) */
+        INVALID_ARGUMENT,
+        /** Google Play Services no disponible o desactualizado */
+        PLAY_SERVICES_UNAVAILABLE,
+        /** No hay sesión Cast utilizable */
+        NO_SESSION,
+        /** No se encontró ningún dispositivo Cast */
+        NO_DEVICES,
+        /** El routeId pedido no está entre las rutas visibles */
+        DEVICE_NOT_FOUND,
+        /** La sesión no llegó a iniciarse en el dispositivo */
+        SESSION_START_FAILED,
+        /** El receiver rechazó el comando; statusCode lleva el CastStatusCodes */
+        RECEIVER_ERROR,
+        /** Venció el plazo de la operación */
+        TIMEOUT,
+        /** Descartado por una operación más reciente del mismo tipo */
+        SUPERSEDED,
+        /** Descartado sin ejecutarse (p. ej. al destruir el plugin) */
+        CANCELLED,
+        /** Error inesperado del SDK o del plugin */
+        INTERNAL
+    }
+
+    private static final CastResult OK = new CastResult(Code.OK, null, -1, 0);
+
+    private final Code code;
+    private final String message;
+    private final int statusCode;
+    private final int retries;
+
+    private CastResult(Code code, String message, int statusCode, int retries) {
+        this.code = code;
+        this.message = message;
+        this.statusCode = statusCode;
+        this.retries = retries;
+    }
+
+    public static CastResult ok() {
+        return OK;
+    }
+
+    public static CastResult error(Code code, String message) {
+        return error(code, message, -1);
+    }
+
+    /**
+     * @param statusCode CastStatusCodes que causó el fallo, o -1
+     */
+    public static CastResult error(Code code, String message, int statusCode) {
+        return new CastResult(code != null && code != Code.OK ? code : Code.INTERNAL, message, statusCode, 0);
+    }
+
+    /**
+     * El receiver respondió con un status de error.
+     */
+    public static CastResult receiverError(String message, int statusCode) {
+        return error(Code.RECEIVER_ERROR, message, statusCode);
+    }
+
+    /**
+     * Copia con otro mensaje; conserva código, statusCode y reintentos.
+     */
+    public CastResult withMessage(String message) {
+        return new CastResult(code, message, statusCode, retries);
+    }
+
+    /**
+     * Copia con el número de reintentos que hicieron falta (loadMedia).
+     */
+    public CastResult withRetries(int retries) {
+        return new CastResult(code, message, statusCode, retries);
+    }
+
+    public boolean isSuccess() {
+        return code == Code.OK;
+    }
+
+    public Code getCode() {
+        return code;
+    }
+
+    /** null en los resultados correctos */
+    public String getMessage() {
+        return message;
+    }
+
+    /** CastStatusCodes devuelto por el receiver, o -1 si el fallo no vino de él */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "OK" : code + (message != null ? ": " + message : "");
+    }
+}
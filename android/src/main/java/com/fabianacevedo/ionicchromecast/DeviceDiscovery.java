@@ -0,0 +1,327 @@
+package com.fabianacevedo.ionicchromecast;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import androidx.mediarouter.media.MediaRouteSelector;
+import androidx.mediarouter.media.MediaRouter;
+import com.getcapacitor.Logger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Descubrimiento persistente de dispositivos Cast.
+ * Registra un único MediaRouter.Callback pasivo tras initialize() y mantiene un índice en memoria
+ * de las rutas que cumplen el selector. areDevicesAvailable responde desde el índice y solo lanza
+ * un escaneo activo acotado cuando el índice lleva más de ttlMs sin confirmarse.
+ * Los escaneos son single-flight: quien llega con uno en curso se suma a él y comparte su resultado.
+ * Las ráfagas de onRouteAdded/Removed/Changed se agrupan en una ventana de debounce y el Listener
+ * solo se notifica cuando el conjunto visible de rutas cambia de verdad.
+ * Las mutaciones ocurren en el hilo principal; el índice se publica como mapa inmutable volatile.
+ */
+class DeviceDiscovery {
+
+    private static final String TAG = "IonicChromecast";
+    static final long DEFAULT_TTL_MS = 30000;
+    static final long DEFAULT_DEBOUNCE_MS = 500;
+
+    /**
+     * Recibe cambios del conjunto de rutas visibles. Se invoca en el hilo principal.
+     */
+    interface Listener {
+        void onRoutesChanged(Collection<DiscoveredRoute> routes, boolean available, boolean availabilityChanged);
+    }
+
+    private final MediaRouter mediaRouter;
+    private final MediaRouteSelector selector;
+    private final Handler mainHandler;
+    private final CastMetrics metrics;
+    private final TraceRecorder trace;
+    private final AdaptiveTimeouts timeouts;
+    private volatile long ttlMs = DEFAULT_TTL_MS;
+    private volatile Map<String, DiscoveredRoute> routes = Collections.emptyMap();
+    private volatile long refreshedAt = 0;
+    private boolean started = false;
+    private volatile long debounceMs = DEFAULT_DEBOUNCE_MS;
+    private Listener listener;
+    // Último conjunto notificado al Listener (solo hilo principal)
+    private Map<String, DiscoveredRoute> emittedRoutes = Collections.emptyMap();
+    private boolean changePending = false;
+    private final Runnable debouncedChange = this::flushRouteChange;
+    // Estado del escaneo en curso (solo hilo principal)
+    private List<IonicChromecast.CastCallback> scanWaiters = null;
+    private MediaRouter.Callback scanCallback = null;
+    private long scanStartNanos = 0;
+    private final Runnable scanTimeout = this::onScanTimeout;
+    private final AtomicLong scansStarted = new AtomicLong();
+    private final AtomicLong scanCallsCoalesced = new AtomicLong();
+    private final AtomicLong indexHits = new AtomicLong();
+
+    private final MediaRouter.Callback indexCallback = new MediaRouter.Callback() {
+        @Override
+        public void onRouteAdded(MediaRouter router, MediaRouter.RouteInfo route) {
+            scheduleRouteChange();
+        }
+
+        @Override
+        public void onRouteRemoved(MediaRouter router, MediaRouter.RouteInfo route) {
+            scheduleRouteChange();
+        }
+
+        @Override
+        public void onRouteChanged(MediaRouter router, MediaRouter.RouteInfo route) {
+            scheduleRouteChange();
+        }
+    };
+
+    DeviceDiscovery(MediaRouter mediaRouter, MediaRouteSelector selector, Handler mainHandler, CastMetrics metrics,
+                    TraceRecorder trace, AdaptiveTimeouts timeouts) {
+        this.mediaRouter = mediaRouter;
+        this.selector = selector;
+        this.mainHandler = mainHandler;
+        this.metrics = metrics;
+        this.trace = trace;
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * Registra el callback pasivo. Debe llamarse en el hilo principal; llamadas repetidas no hacen nada.
+     */
+    void start() {
+        if (started) return;
+        started = true;
+        mediaRouter.addCallback(selector, indexCallback, MediaRouter.CALLBACK_FLAG_REQUEST_DISCOVERY);
+        refreshIndex();
+        // Notifica el estado inicial si ya hay rutas conocidas
+        scheduleRouteChange();
+    }
+
+    /**
+     * Quita el callback pasivo y corta el escaneo en curso: sus llamadores reciben ya la disponibilidad del índice
+     * en vez de esperar al plazo. Debe llamarse en el hilo principal.
+     */
+    void stop() {
+        List<IonicChromecast.CastCallback> waiters = takeScanWaiters();
+        if (waiters != null) {
+            CastResult result = availability(hasDevices());
+            for (IonicChromecast.CastCallback waiter : waiters) {
+                waiter.onResult(result);
+            }
+        }
+        if (!started) return;
+        started = false;
+        mainHandler.removeCallbacks(debouncedChange);
+        changePending = false;
+        try {
+            mediaRouter.removeCallback(indexCallback);
+        } catch (Exception ignored) {}
+    }
+
+    void setTtlMs(long ttlMs) {
+        if (ttlMs >= 0) this.ttlMs = ttlMs;
+    }
+
+    long getTtlMs() {
+        return ttlMs;
+    }
+
+    void setDebounceMs(long debounceMs) {
+        if (debounceMs >= 0) this.debounceMs = debounceMs;
+    }
+
+    /**
+     * Debe llamarse en el hilo principal.
+     */
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Abre (si no lo está) la ventana de debounce; los eventos que lleguen dentro se agrupan.
+     */
+    private void scheduleRouteChange() {
+        if (changePending) return;
+        changePending = true;
+        mainHandler.postDelayed(debouncedChange, debounceMs);
+    }
+
+    private void flushRouteChange() {
+        changePending = false;
+        refreshIndex();
+        Map<String, DiscoveredRoute> current = routes;
+        if (current.equals(emittedRoutes)) return;
+
+        boolean wasAvailable = !emittedRoutes.isEmpty();
+        boolean available = !current.isEmpty();
+        emittedRoutes = current;
+        Listener l = listener;
+        if (l != null) {
+            try {
+                l.onRoutesChanged(current.values(), available, wasAvailable != available);
+            } catch (Exception e) {
+                Logger.error(TAG, "Error notifying route change: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * El índice se considera fresco si MediaRouter lo confirmó hace menos de ttlMs.
+     */
+    boolean isFresh() {
+        return refreshedAt > 0 && SystemClock.elapsedRealtime() - refreshedAt < ttlMs;
+    }
+
+    boolean hasDevices() {
+        return !routes.isEmpty();
+    }
+
+    /**
+     * Resultado de areDevicesAvailable: ok si hay dispositivos, NO_DEVICES si no.
+     */
+    static CastResult availability(boolean available) {
+        return available ? CastResult.ok() : CastResult.error(CastResult.Code.NO_DEVICES, "No Cast devices found");
+    }
+
+    Collection<DiscoveredRoute> getRoutes() {
+        return routes.values();
+    }
+
+    boolean isCastRoute(MediaRouter.RouteInfo route) {
+        return route != null && route.matchesSelector(selector) && !route.isDefault();
+    }
+
+    /**
+     * Reconstruye el índice desde las rutas conocidas por MediaRouter. Hilo principal.
+     */
+    private void refreshIndex() {
+        Map<String, DiscoveredRoute> next = new LinkedHashMap<>();
+        try {
+            for (MediaRouter.RouteInfo route : mediaRouter.getRoutes()) {
+                if (isCastRoute(route)) next.put(route.getId(), DiscoveredRoute.from(route));
+            }
+        } catch (Exception e) {
+            Logger.error(TAG, "Error reading MediaRouter routes: " + e.getMessage(), e);
+            return;
+        }
+        routes = Collections.unmodifiableMap(next);
+        refreshedAt = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Escaneo activo acotado: responde en cuanto aparece una ruta Cast o al vencer timeoutMs.
+     * Si ya hay un escaneo en curso, el llamador se suma a él en vez de lanzar otro; cada llamador
+     * conserva su propio plazo vía el callback que recibe (ver IonicChromecast.areDevicesAvailable).
+     * Corre en el hilo principal y responde desde los callbacks de MediaRouter, sin esperar en un latch.
+     */
+    void scan(long timeoutMs, IonicChromecast.CastCallback callback) {
+        if (scanWaiters != null) {
+            scanWaiters.add(callback);
+            scanCallsCoalesced.incrementAndGet();
+            return;
+        }
+
+        scanWaiters = new ArrayList<>();
+        scanWaiters.add(callback);
+        scansStarted.incrementAndGet();
+        scanStartNanos = System.nanoTime();
+        scanCallback = new MediaRouter.Callback() {
+            @Override
+            public void onRouteAdded(MediaRouter router, MediaRouter.RouteInfo route) {
+                if (isCastRoute(route)) onScanFound();
+            }
+
+            @Override
+            public void onRouteChanged(MediaRouter router, MediaRouter.RouteInfo route) {
+                if (isCastRoute(route)) onScanFound();
+            }
+        };
+
+        try {
+            mediaRouter.addCallback(
+                selector,
+                scanCallback,
+                MediaRouter.CALLBACK_FLAG_REQUEST_DISCOVERY | MediaRouter.CALLBACK_FLAG_PERFORM_ACTIVE_SCAN
+            );
+
+            // Revisar rutas conocidas inmediatamente
+            refreshIndex();
+            if (hasDevices()) {
+                finishScan(true, CastMetrics.Outcome.SUCCESS);
+                return;
+            }
+
+            // Esperar algo de tiempo para descubrimiento activo
+            mainHandler.postDelayed(scanTimeout, timeoutMs);
+        } catch (Exception e) {
+            Logger.error(TAG, "Error checking available devices: " + e.getMessage(), e);
+            finishScan(false, CastMetrics.Outcome.FAILURE);
+        }
+    }
+
+    /**
+     * Ruta encontrada por el escaneo activo. Solo estas esperas enseñan cuánto tarda el descubrimiento;
+     * las rutas ya conocidas responden al instante y acortarían el plazo sin motivo.
+     */
+    private void onScanFound() {
+        if (scanWaiters == null) return;
+        timeouts.recordSuccess(AdaptiveTimeouts.Op.SCAN, System.nanoTime() - scanStartNanos);
+        finishScan(true, CastMetrics.Outcome.SUCCESS);
+    }
+
+    private void onScanTimeout() {
+        timeouts.recordTimeout(AdaptiveTimeouts.Op.SCAN);
+        finishScan(false, CastMetrics.Outcome.TIMEOUT);
+    }
+
+    private void finishScan(boolean found, CastMetrics.Outcome outcome) {
+        List<IonicChromecast.CastCallback> waiters = takeScanWaiters();
+        if (waiters == null) return;
+
+        // Revisión final de rutas conocidas antes de salir
+        refreshIndex();
+        if (started) scheduleRouteChange();
+        boolean available = found || hasDevices();
+        metrics.record(CastMetrics.Op.SCAN, available ? CastMetrics.Outcome.SUCCESS : outcome, scanStartNanos);
+        trace.span("scan", "scan", scanStartNanos);
+        Logger.info(TAG, "areDevicesAvailable: found=" + available + ", waiters=" + waiters.size());
+        CastResult result = availability(available);
+        for (IonicChromecast.CastCallback waiter : waiters) {
+            waiter.onResult(result);
+        }
+    }
+
+    /**
+     * Termina el escaneo en curso (plazo y callback activo) y devuelve sus llamadores; null si no había ninguno.
+     */
+    private List<IonicChromecast.CastCallback> takeScanWaiters() {
+        List<IonicChromecast.CastCallback> waiters = scanWaiters;
+        if (waiters == null) return null;
+        scanWaiters = null;
+        mainHandler.removeCallbacks(scanTimeout);
+        try {
+            mediaRouter.removeCallback(scanCallback);
+        } catch (Exception ignored) {}
+        scanCallback = null;
+        return waiters;
+    }
+
+    void recordIndexHit() {
+        indexHits.incrementAndGet();
+    }
+
+    long getScansStarted() {
+        return scansStarted.get();
+    }
+
+    long getScanCallsCoalesced() {
+        return scanCallsCoalesced.get();
+    }
+
+    long getIndexHits() {
+        return indexHits.get();
+    }
+}
@@ -0,0 +1,378 @@
+package com.fabianacevedo.ionicchromecast;
+
+import com.getcapacitor.Logger;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Calidad de cada receiver entre ejecuciones: latencia de inicio de sesión y de carga (EWMA), fallos, timeouts
+ * y desconexiones, por ID de dispositivo Cast. Sirve para ordenar los dispositivos de un local y preseleccionar
+ * el más rápido y fiable.
+ * Se guarda en un único archivo binario versionado y no en SharedPreferences evento a evento: los cambios se
+ * acumulan en memoria y se escriben juntos FLUSH_DELAY_MS después del primero (escritura atómica vía archivo
+ * temporal + rename) en un hilo propio. record*() puede llamarse desde cualquier hilo y no toca disco.
+ */
+class DeviceQualityStore {
+
+    private static final String TAG = "IonicChromecast";
+    static final String FILE_NAME = "ionic_chromecast_devices.bin";
+    private static final int FORMAT_VERSION = 1;
+    static final long FLUSH_DELAY_MS = 5000;
+    // Se olvidan los vistos hace más tiempo cuando se supera
+    static final int MAX_DEVICES = 64;
+    private static final double ALPHA = 0.2;
+    // Latencia (inicio + carga) a la que la componente de velocidad del score vale 0.5
+    private static final double REFERENCE_LATENCY_MS = 4000;
+
+    private final File file;
+    private final ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "IonicChromecast-devices");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    // Protegido por this
+    private final Map<String, Stats> devices = new HashMap<>();
+    private boolean dirty = false;
+
+    DeviceQualityStore(File dir) {
+        this.file = new File(dir, FILE_NAME);
+        // Lo guardado se suma a lo registrado antes de terminar la lectura
+        io.execute(this::load);
+    }
+
+    void recordSessionStart(String deviceId, String name, boolean success, boolean timedOut, long elapsedNanos) {
+        if (deviceId == null || deviceId.isEmpty()) return;
+        synchronized (this) {
+            Stats s = touch(deviceId, name);
+            s.sessionStarts++;
+            if (success) s.sessionStartMs = ewma(s.sessionStartMs, s.sessionStarts - s.sessionStartFailures - s.sessionStartTimeouts, elapsedNanos);
+            else if (timedOut) s.sessionStartTimeouts++;
+            else s.sessionStartFailures++;
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * @param elapsedNanos 0 si la carga no llegó a enviarse (no aporta latencia)
+     */
+    void recordLoad(String deviceId, String name, boolean success, boolean timedOut, long elapsedNanos) {
+        if (deviceId == null || deviceId.isEmpty()) return;
+        synchronized (this) {
+            Stats s = touch(deviceId, name);
+            s.loads++;
+            if (success) {
+                if (elapsedNanos > 0) s.loadMs = ewma(s.loadMs, ++s.loadSamples, elapsedNanos);
+            } else if (timedOut) {
+                s.loadTimeouts++;
+            } else {
+                s.loadFailures++;
+            }
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Sesión perdida sin que la app la cerrara (suspendida o terminada con error).
+     */
+    void recordDisconnect(String deviceId, String name) {
+        if (deviceId == null || deviceId.isEmpty()) return;
+        synchronized (this) {
+            touch(deviceId, name).disconnects++;
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Todos los dispositivos conocidos, del mejor score al peor.
+     */
+    synchronized List<Quality> ranked() {
+        List<Quality> list = new ArrayList<>(devices.size());
+        for (Map.Entry<String, Stats> e : devices.entrySet()) list.add(new Quality(e.getKey(), e.getValue()));
+        Collections.sort(list, (a, b) -> Double.compare(b.score, a.score));
+        return list;
+    }
+
+    /**
+     * Calidad de un dispositivo, o null si nunca se usó.
+     */
+    synchronized Quality get(String deviceId) {
+        Stats s = deviceId != null ? devices.get(deviceId) : null;
+        return s != null ? new Quality(deviceId, s) : null;
+    }
+
+    void clear() {
+        synchronized (this) {
+            devices.clear();
+            dirty = true;
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Escribe ya lo pendiente (p. ej. al destruir el plugin), sin esperar al retardo.
+     */
+    void flushNow() {
+        io.execute(this::flush);
+    }
+
+    private Stats touch(String deviceId, String name) {
+        Stats s = devices.get(deviceId);
+        if (s == null) {
+            if (devices.size() >= MAX_DEVICES) evictOldest();
+            s = new Stats();
+            devices.put(deviceId, s);
+        }
+        if (name != null && !name.isEmpty()) s.name = name;
+        s.lastSeen = System.currentTimeMillis();
+        dirty = true;
+        return s;
+    }
+
+    private void evictOldest() {
+        String oldest = null;
+        long oldestSeen = Long.MAX_VALUE;
+        for (Map.Entry<String, Stats> e : devices.entrySet()) {
+            if (e.getValue().lastSeen < oldestSeen) {
+                oldestSeen = e.getValue().lastSeen;
+                oldest = e.getKey();
+            }
+        }
+        if (oldest != null) devices.remove(oldest);
+    }
+
+    /**
+     * Media exponencial; la primera muestra se toma tal cual.
+     */
+    private static double ewma(double current, long samples, long elapsedNanos) {
+        double ms = Math.max(0, elapsedNanos) / 1_000_000.0;
+        return samples <= 1 ? ms : current + ALPHA * (ms - current);
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            io.schedule(() -> {
+                flushScheduled.set(false);
+                flush();
+            }, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        byte[] bytes;
+        synchronized (this) {
+            if (!dirty) return;
+            dirty = false;
+            try {
+                bytes = encode();
+            } catch (IOException e) {
+                return;
+            }
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(bytes);
+            out.getFD().sync();
+        } catch (IOException e) {
+            Logger.error(TAG, "Error writing device stats: " + e.getMessage(), e);
+            synchronized (this) {
+                dirty = true;
+            }
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            Logger.error(TAG, "Error replacing device stats file", null);
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    private byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + devices.size() * 96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(devices.size());
+        for (Map.Entry<String, Stats> e : devices.entrySet()) {
+            Stats s = e.getValue();
+            out.writeUTF(e.getKey());
+            out.writeUTF(s.name != null ? s.name : "");
+            out.writeLong(s.lastSeen);
+            out.writeInt(s.sessionStarts);
+            out.writeInt(s.sessionStartFailures);
+            out.writeInt(s.sessionStartTimeouts);
+            out.writeFloat((float) s.sessionStartMs);
+            out.writeInt(s.loads);
+            out.writeInt(s.loadFailures);
+            out.writeInt(s.loadTimeouts);
+            out.writeInt(s.loadSamples);
+            out.writeFloat((float) s.loadMs);
+            out.writeInt(s.disconnects);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void load() {
+        if (!file.isFile()) return;
+        Map<String, Stats> loaded = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+            if (in.readInt() != FORMAT_VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                Stats s = new Stats();
+                s.name = in.readUTF();
+                s.lastSeen = in.readLong();
+                s.sessionStarts = in.readInt();
+                s.sessionStartFailures = in.readInt();
+                s.sessionStartTimeouts = in.readInt();
+                s.sessionStartMs = in.readFloat();
+                s.loads = in.readInt();
+                s.loadFailures = in.readInt();
+                s.loadTimeouts = in.readInt();
+                s.loadSamples = in.readInt();
+                s.loadMs = in.readFloat();
+                s.disconnects = in.readInt();
+                loaded.put(id, s);
+            }
+        } catch (IOException e) {
+            // Archivo dañado o de otra versión: se empieza de cero
+            Logger.error(TAG, "Error reading device stats: " + e.getMessage(), e);
+            return;
+        }
+        synchronized (this) {
+            for (Map.Entry<String, Stats> e : loaded.entrySet()) {
+                Stats current = devices.get(e.getKey());
+                if (current == null) {
+                    if (devices.size() < MAX_DEVICES) devices.put(e.getKey(), e.getValue());
+                } else {
+                    current.mergeOlder(e.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Contadores de un dispositivo. Protegido por el lock del store.
+     */
+    private static final class Stats {
+        String name;
+        long lastSeen;
+        int sessionStarts;
+        int sessionStartFailures;
+        int sessionStartTimeouts;
+        double sessionStartMs;
+        int loads;
+        int loadFailures;
+        int loadTimeouts;
+        int loadSamples;
+        double loadMs;
+        int disconnects;
+
+        /**
+         * Suma lo guardado en disco a lo registrado en esta ejecución antes de leerlo.
+         */
+        void mergeOlder(Stats older) {
+            if (name == null || name.isEmpty()) name = older.name;
+            int startsOk = sessionStarts - sessionStartFailures - sessionStartTimeouts;
+            int olderStartsOk = older.sessionStarts - older.sessionStartFailures - older.sessionStartTimeouts;
+            sessionStartMs = weighted(sessionStartMs, startsOk, older.sessionStartMs, olderStartsOk);
+            loadMs = weighted(loadMs, loadSamples, older.loadMs, older.loadSamples);
+            sessionStarts += older.sessionStarts;
+            sessionStartFailures += older.sessionStartFailures;
+            sessionStartTimeouts += older.sessionStartTimeouts;
+            loads += older.loads;
+            loadFailures += older.loadFailures;
+            loadTimeouts += older.loadTimeouts;
+            loadSamples += older.loadSamples;
+            disconnects += older.disconnects;
+        }
+
+        private static double weighted(double a, int na, double b, int nb) {
+            return na + nb == 0 ? 0 : (a * na + b * nb) / (na + nb);
+        }
+    }
+
+    /**
+     * Instantánea inmutable de la calidad de un dispositivo.
+     * score (0..1) = fiabilidad × velocidad: la fiabilidad es la tasa de éxito de inicios y cargas con
+     * suavizado de Laplace, penalizada por las desconexiones por sesión; la velocidad es
+     * 1 / (1 + (inicio + carga) / REFERENCE_LATENCY_MS). Un dispositivo sin historial queda a media tabla.
+     */
+    static final class Quality {
+        /** Score de un dispositivo sin historial (fiabilidad 0.5 × velocidad 0.5) */
+        static final double UNKNOWN_SCORE = 0.25;
+
+        final String deviceId;
+        final String name;
+        final long lastSeen;
+        final int sessionStarts;
+        final int sessionStartFailures;
+        final int sessionStartTimeouts;
+        final double sessionStartMs;
+        final int loads;
+        final int loadFailures;
+        final int loadTimeouts;
+        final double loadMs;
+        final int disconnects;
+        final double score;
+
+        private Quality(String deviceId, Stats s) {
+            this.deviceId = deviceId;
+            this.name = s.name;
+            this.lastSeen = s.lastSeen;
+            this.sessionStarts = s.sessionStarts;
+            this.sessionStartFailures = s.sessionStartFailures;
+            this.sessionStartTimeouts = s.sessionStartTimeouts;
+            this.sessionStartMs = s.sessionStartMs;
+            this.loads = s.loads;
+            this.loadFailures = s.loadFailures;
+            this.loadTimeouts = s.loadTimeouts;
+            this.loadMs = s.loadMs;
+            this.disconnects = s.disconnects;
+            this.score = score(s);
+        }
+
+        private static double score(Stats s) {
+            int attempts = s.sessionStarts + s.loads;
+            int failures = s.sessionStartFailures + s.sessionStartTimeouts + s.loadFailures + s.loadTimeouts;
+            double reliability = (attempts - failures + 1.0) / (attempts + 2.0);
+            double disconnectRate = s.sessionStarts > 0 ? Math.min(1, (double) s.disconnects / s.sessionStarts) : 0;
+            reliability *= 1 - 0.5 * disconnectRate;
+            double latency = s.sessionStartMs + s.loadMs;
+            double speed = latency > 0 ? 1 / (1 + latency / REFERENCE_LATENCY_MS) : 0.5;
+            return reliability * speed;
+        }
+
+        double getFailureRate() {
+            int attempts = sessionStarts + loads;
+            return attempts == 0 ? 0 : (double) (sessionStartFailures + loadFailures) / attempts;
+        }
+
+        double getTimeoutRate() {
+            int attempts = sessionStarts + loads;
+            return attempts == 0 ? 0 : (double) (sessionStartTimeouts + loadTimeouts) / attempts;
+        }
+
+        /** Desconexiones por sesión iniciada */
+        double getDisconnectRate() {
+            return sessionStarts == 0 ? 0 : (double) disconnects / sessionStarts;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.fabianacevedo.ionicchromecast;
+
+import androidx.mediarouter.media.MediaRouter;
+import com.google.android.gms.cast.CastDevice;
+import java.util.Objects;
+
+/**
+ * Copia inmutable de una ruta Cast descubierta por MediaRouter, con las capacidades del dispositivo.
+ * Se puede leer desde cualquier hilo sin volver al hilo principal.
+ */
+public final class DiscoveredRoute {
+
+    public static final String TYPE_TV = "tv";
+    public static final String TYPE_SPEAKER = "speaker";
+    public static final String TYPE_GROUP = "group";
+    public static final String TYPE_UNKNOWN = "unknown";
+
+    private final String id;
+    private final String name;
+    private final String description;
+    private final String deviceId;
+    private final String modelName;
+    private final String deviceType;
+    private final boolean videoOut;
+    private final boolean audioOut;
+    private final boolean volumeControl;
+
+    public DiscoveredRoute(String id, String name, String description, String deviceId, String modelName,
+                           String deviceType, boolean videoOut, boolean audioOut, boolean volumeControl) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.deviceId = deviceId != null && !deviceId.isEmpty() ? deviceId : id;
+        this.modelName = modelName;
+        this.deviceType = deviceType != null ? deviceType : TYPE_UNKNOWN;
+        this.videoOut = videoOut;
+        this.audioOut = audioOut;
+        this.volumeControl = volumeControl;
+    }
+
+    static DiscoveredRoute from(MediaRouter.RouteInfo route) {
+        String deviceId = null;
+        String modelName = null;
+        String deviceType = TYPE_UNKNOWN;
+        boolean videoOut = false;
+        boolean audioOut = false;
+        boolean volumeControl = false;
+        try {
+            CastDevice device = CastDevice.getFromBundle(route.getExtras());
+            if (device != null) {
+                deviceId = device.getDeviceId();
+                modelName = device.getModelName();
+                videoOut = device.hasCapability(CastDevice.CAPABILITY_VIDEO_OUT);
+                audioOut = device.hasCapability(CastDevice.CAPABILITY_AUDIO_OUT);
+                if (device.hasCapability(CastDevice.CAPABILITY_MULTIZONE_GROUP)) deviceType = TYPE_GROUP;
+            }
+            if (TYPE_UNKNOWN.equals(deviceType)) {
+                int type = route.getDeviceType();
+                if (type == MediaRouter.RouteInfo.DEVICE_TYPE_TV) deviceType = TYPE_TV;
+                else if (type == MediaRouter.RouteInfo.DEVICE_TYPE_SPEAKER) deviceType = TYPE_SPEAKER;
+                else if (videoOut) deviceType = TYPE_TV;
+                else if (audioOut) deviceType = TYPE_SPEAKER;
+            }
+            volumeControl = route.getVolumeHandling() == MediaRouter.RouteInfo.PLAYBACK_VOLUME_VARIABLE;
+        } catch (Exception ignored) {}
+        return new DiscoveredRoute(route.getId(), route.getName(), route.getDescription(), deviceId, modelName,
+            deviceType, videoOut, audioOut, volumeControl);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * ID estable del dispositivo Cast (el mismo que da CastSession.getCastDevice()); el de la ruta si no se conoce.
+     */
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    /** null si el dispositivo no lo informa */
+    public String getModelName() {
+        return modelName;
+    }
+
+    /** TYPE_TV, TYPE_SPEAKER, TYPE_GROUP o TYPE_UNKNOWN */
+    public String getDeviceType() {
+        return deviceType;
+    }
+
+    public boolean hasVideoOut() {
+        return videoOut;
+    }
+
+    public boolean hasAudioOut() {
+        return audioOut;
+    }
+
+    /** El volumen del dispositivo se puede cambiar desde el emisor */
+    public boolean hasVolumeControl() {
+        return volumeControl;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DiscoveredRoute)) return false;
+        DiscoveredRoute other = (DiscoveredRoute) o;
+        return Objects.equals(id, other.id) && Objects.equals(name, other.name) && Objects.equals(description, other.description)
+            && Objects.equals(deviceId, other.deviceId) && Objects.equals(modelName, other.modelName)
+            && deviceType.equals(other.deviceType) && videoOut == other.videoOut && audioOut == other.audioOut
+            && volumeControl == other.volumeControl;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, description, deviceId, modelName, deviceType, videoOut, audioOut, volumeControl);
+    }
+}
@@ -0,0 +1,57 @@
+package com.fabianacevedo.ionicchromecast;
+
+/**
+ * Duración de cada fase de initialize(), en milisegundos.
+ * castContextMs es lo que initialize tuvo que esperar al CastContext: cerca de 0 si el prewarm ya lo tenía listo.
+ */
+public final class InitTimings {
+
+    private final boolean prewarmed;
+    private final double prewarmMs;
+    private final double prefsMs;
+    private final double playServicesMs;
+    private final double castContextMs;
+    private final double routerSetupMs;
+    private final double totalMs;
+
+    public InitTimings(boolean prewarmed, double prewarmMs, double prefsMs, double playServicesMs,
+                       double castContextMs, double routerSetupMs, double totalMs) {
+        this.prewarmed = prewarmed;
+        this.prewarmMs = prewarmMs;
+        this.prefsMs = prefsMs;
+        this.playServicesMs = playServicesMs;
+        this.castContextMs = castContextMs;
+        this.routerSetupMs = routerSetupMs;
+        this.totalMs = totalMs;
+    }
+
+    /** Si el CastContext venía de un prewarm (completo o en curso) */
+    public boolean isPrewarmed() {
+        return prewarmed;
+    }
+
+    /** Duración total del prewarm, fuera del camino de initialize */
+    public double getPrewarmMs() {
+        return prewarmMs;
+    }
+
+    public double getPrefsMs() {
+        return prefsMs;
+    }
+
+    public double getPlayServicesMs() {
+        return playServicesMs;
+    }
+
+    public double getCastContextMs() {
+        return castContextMs;
+    }
+
+    public double getRouterSetupMs() {
+        return routerSetupMs;
+    }
+
+    public double getTotalMs() {
+        return totalMs;
+    }
+}
@@ -9,17 +9,30 @@ import com.google.android.gms.cast.framework.CastContext;
 import com.google.android.gms.cast.framework.SessionManager;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.GoogleApiAvailability;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
+import java.io.File;
+import java.io.IOException;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import androidx.mediarouter.media.MediaRouter;
 import androidx.mediarouter.media.MediaRouteSelector;
+import com.google.android.gms.cast.CastDevice;
 import com.google.android.gms.cast.CastMediaControlIntent;
+import com.google.android.gms.cast.CastStatusCodes;
 import com.google.android.gms.cast.MediaMetadata;
 import com.google.android.gms.cast.MediaInfo;
 import com.google.android.gms.cast.framework.CastSession;
 import com.google.android.gms.cast.framework.media.RemoteMediaClient;
 import com.google.android.gms.cast.MediaLoadRequestData;
+import com.google.android.gms.cast.MediaQueueData;
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.MediaSeekOptions;
+import com.google.android.gms.cast.MediaStatus;
 import com.google.android.gms.common.api.PendingResult;
 import com.google.android.gms.common.images.WebImage;
 
@@ -28,102 +41,383 @@ public class IonicChromecast {
     private static final String TAG = "IonicChromecast";
     private static final String PREFS_NAME = "IonicChromecastPrefs";
     private static final String KEY_RECEIVER_APP_ID = "receiverApplicationId";
-    private CastContext castContext;
-    private boolean isInitialized = false;
-    private Context appContext;
-    private String lastError = null;
-    private MediaRouter mediaRouter;
-    private MediaRouteSelector mediaRouteSelector;
-    private final Object discoveryLock = new Object();
-    
+    private static final String LOAD_TIMEOUT = "Media load timed out";
+    // Clave de reemplazo compartida por loadMedia y queueLoad en el CastCommandScheduler
+    private static final String LOAD_KEY = "load";
+    // Margen del plazo de areDevicesAvailable sobre el del escaneo, que es quien responde normalmente
+    private static final long SCAN_GRACE_MS = 2000;
+    // Tope del span load.buffering si el receiver nunca llega a reproducir
+    private static final long BUFFERING_TRACE_MAX_MS = 30000;
+    // Cuánto se mantiene una sesión de prepareSession() sin cargar nada antes de cerrarla
+    static final long DEFAULT_WARM_IDLE_MS = 5 * 60 * 1000;
+    private static final String SELECT_TIMEOUT = "Timed out starting Cast session";
+    private static final String NOT_INITIALIZED = "Cast SDK not initialized. Call initialize() first.";
+    // Se publican en el hilo principal y se leen desde el hilo del plugin: volatile. initialize() escribe
+    // isInitialized al final, así que quien lo ve a true ve también el MediaRouter y el descubrimiento
+    private volatile CastContext castContext;
+    private volatile boolean isInitialized = false;
+    private volatile Context appContext;
+    private volatile MediaRouter mediaRouter;
+    private volatile MediaRouteSelector mediaRouteSelector;
+    private volatile DeviceDiscovery deviceDiscovery;
+    private volatile SessionSnapshot sessionSnapshot = SessionSnapshot.DISCONNECTED;
+    private volatile CacheBustPolicy cacheBustPolicy = CacheBustPolicy.TIMESTAMP;
+    // Token de cache-busting de la sesión Cast actual; se renueva al conectar una sesión nueva
+    private volatile String sessionToken = null;
+    private volatile long discoveryTtlMs = DeviceDiscovery.DEFAULT_TTL_MS;
+    private volatile long routeDebounceMs = DeviceDiscovery.DEFAULT_DEBOUNCE_MS;
+    private volatile DeviceDiscovery.Listener routeListener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Spans de cada fase para getTrace(); se reserva entero aquí y no asigna memoria al registrar
+    private final TraceRecorder trace = new TraceRecorder(TraceRecorder.DEFAULT_CAPACITY);
+    private final MainThreadMonitor mainThreadMonitor = new MainThreadMonitor(trace);
+    private final CastMetrics metrics = new CastMetrics();
+    // Plazos aprendidos de la latencia observada por operación y dispositivo
+    private final AdaptiveTimeouts timeouts = new AdaptiveTimeouts();
+    // Comandos al receiver: serializados, con prioridad, reemplazo y plazo
+    private final CastCommandScheduler commands = new CastCommandScheduler(mainHandler, mainThreadMonitor, metrics, trace, timeouts);
+    // Controles de executeBatch: cola propia para que un pause o un seek no esperen a que termine una carga
+    private final CastCommandScheduler controls = new CastCommandScheduler(mainHandler, mainThreadMonitor, metrics, trace, timeouts);
+    // Eventos de reproducción del RemoteMediaClient de la sesión actual (solo hilo principal)
+    private final PlaybackMonitor playbackMonitor = new PlaybackMonitor(mainHandler);
+    // Estado previsto de los controles, reconciliado con el MediaStatus del receiver
+    private final PlaybackStateModel playbackState = new PlaybackStateModel();
+    // Mensajes en namespaces propios con el receiver
+    private final MessageChannel messageChannel = new MessageChannel(mainHandler);
+    private volatile long sessionStartNanos = 0;
+    // Dispositivo de la sesión que se está iniciando, para atribuirle el resultado
+    private volatile String startingDeviceId = null;
+    private volatile String startingDeviceName = null;
+    // Último dispositivo con la sesión suspendida: si luego termina con error no se cuenta dos veces
+    private volatile String droppedDeviceId = null;
+    // Calidad por dispositivo entre ejecuciones; se crea en initialize()
+    private volatile DeviceQualityStore deviceQuality;
+    private volatile long sessionResumeNanos = 0;
+    // endSession() pedido y aún sin confirmar por el SessionManagerListener
+    private volatile long sessionEndNanos = 0;
+    private volatile Boolean resumeSavedSession = null;
+    // Obtención del CastContext en curso (solo hilo principal)
+    private List<CastCallback> castContextWaiters = null;
+    private volatile long prewarmStartedAt = 0;
+    private volatile double prewarmMs = 0;
+    private volatile InitTimings initTimings;
+    // Publica archivos locales al receiver; se crea con el primer file:// (protegido por this)
+    private LocalMediaServer localServer;
+    // Selección de ruta en curso (prepareSession/selectDevice): se completa con el resultado del inicio de sesión.
+    // selectWarm: la sesión resultante es de prepareSession() y se cierra por inactividad (solo hilo principal)
+    private List<CastCallback> selectWaiters = null;
+    private CastCallback selectDone = null;
+    private boolean selectWarm = false;
+    // Sesión abierta por prepareSession() que aún no ha cargado nada; se cierra tras warmIdleMs
+    private volatile boolean warmSession = false;
+    private volatile long warmIdleMs = DEFAULT_WARM_IDLE_MS;
+    private final Runnable warmIdleTimeout = this::onWarmSessionIdle;
+    // Reintentos de loadMedia; loadGeneration cuenta las cargas pedidas para descartar reintentos obsoletos
+    private final LoadRetryPolicy loadRetry = new LoadRetryPolicy();
+    private final AtomicLong loadGeneration = new AtomicLong();
+    // Reintentos esperando a que la sesión suspendida se reanude (solo hilo principal)
+    private List<CastCallback> sessionWaiters = null;
+    // Comando endSession esperando a onSessionEnded (solo hilo principal)
+    private CastCallback sessionEndDone = null;
+
+    /**
+     * Callback de resultado para las operaciones asíncronas: cada llamada recibe su propio {@link CastResult}.
+     * Se invoca exactamente una vez; normalmente en el hilo principal.
+     */
+    public interface CastCallback {
+        void onResult(CastResult result);
+    }
+
+    /**
+     * Resultado de executeBatch: results[i] es el de la operación i. Hilo principal.
+     */
+    public interface BatchCallback {
+        void onResult(CastResult[] results);
+    }
+
+    /**
+     * Arranca la obtención del CastContext fuera del camino crítico (p. ej. desde Plugin.load()),
+     * con el receiver guardado en la última ejecución. initialize() se une luego a este trabajo.
+     * @param context The application context
+     */
+    public void prewarm(Context context) {
+        if (appContext == null) appContext = context.getApplicationContext();
+        if (prewarmStartedAt != 0 || castContext != null) return;
+        prewarmStartedAt = System.nanoTime();
+        Logger.info(TAG, "Prewarming CastContext");
+        runOnMain("prewarm", () -> obtainCastContext(result -> {
+            prewarmMs = elapsedMs(prewarmStartedAt);
+            trace.span("init", "prewarm", prewarmStartedAt);
+            Logger.info(TAG, "CastContext prewarm " + (result.isSuccess() ? "ready" : "failed: " + result.getMessage()) + " in " + prewarmMs + "ms");
+        }));
+    }
+
     /**
      * Initialize the Google Cast SDK with the provided receiver application ID
      * @param context The application context
      * @param receiverApplicationId The Cast receiver application ID
-     * @return true if initialization was successful
+     * @param callback Receives true if initialization was successful
      */
-    public boolean initialize(Context context, String receiverApplicationId) {
+    public void initialize(Context context, String receiverApplicationId, CastCallback callback) {
         try {
-            lastError = null;
             if (isInitialized) {
                 Logger.info(TAG, "Cast SDK already initialized");
-                return true;
+                callback.onResult(CastResult.ok());
+                return;
             }
             
             if (receiverApplicationId == null || receiverApplicationId.isEmpty()) {
                 Logger.error(TAG, "Receiver Application ID is required", null);
-                return false;
+                callback.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, "Receiver Application ID is required"));
+                return;
             }
 
             Logger.info(TAG, "Initializing Cast SDK with receiver ID: " + receiverApplicationId);
             Logger.info(TAG, "Thread at init: " + Thread.currentThread().getName());
-            
+            final long initStart = System.nanoTime();
+            final boolean prewarmed = prewarmStartedAt != 0;
+
+            // Solo se escribe si cambió; apply() persiste en segundo plano
+            long phaseStart = System.nanoTime();
             SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-            prefs.edit().putString(KEY_RECEIVER_APP_ID, receiverApplicationId).apply();
+            Boolean resume = resumeSavedSession;
+            boolean receiverChanged = !receiverApplicationId.equals(prefs.getString(KEY_RECEIVER_APP_ID, null));
+            boolean resumeChanged = resume != null && resume != prefs.getBoolean(CastOptionsProvider.KEY_RESUME_SAVED_SESSION, false);
+            if (receiverChanged || resumeChanged) {
+                SharedPreferences.Editor editor = prefs.edit();
+                if (receiverChanged) editor.putString(KEY_RECEIVER_APP_ID, receiverApplicationId);
+                if (resumeChanged) editor.putBoolean(CastOptionsProvider.KEY_RESUME_SAVED_SESSION, resume);
+                editor.apply();
+            }
             
             // Also set it in the static variable for immediate use
             CastOptionsProvider.sReceiverApplicationId = receiverApplicationId;
-            
-            int playStatus = GoogleApiAvailability.getInstance().isGooglePlayServicesAvailable(context);
-            Logger.info(TAG, "Google Play Services status=" + playStatus);
-            if (playStatus != ConnectionResult.SUCCESS) {
-                lastError = "Google Play Services status=" + playStatus;
-                Logger.error(TAG, lastError, null);
-                return false;
+            final double prefsMs = elapsedMs(phaseStart);
+            trace.span("init", "init.prefs", phaseStart);
+
+            // Con un CastContext ya creado por el prewarm, Play Services está verificado
+            phaseStart = System.nanoTime();
+            if (castContext == null) {
+                int playStatus = GoogleApiAvailability.getInstance().isGooglePlayServicesAvailable(context);
+                Logger.info(TAG, "Google Play Services status=" + playStatus);
+                if (playStatus != ConnectionResult.SUCCESS) {
+                    String error = "Google Play Services status=" + playStatus;
+                    Logger.error(TAG, error, null);
+                    callback.onResult(CastResult.error(CastResult.Code.PLAY_SERVICES_UNAVAILABLE, error));
+                    return;
+                }
             }
+            final double playServicesMs = elapsedMs(phaseStart);
+            trace.span("init", "init.playServices", phaseStart);
+
             // Obtener CastContext y preparar MediaRouter siempre en el hilo principal
-            appContext = context.getApplicationContext();
-            Runnable initRunnable = () -> {
+            if (appContext == null) appContext = context.getApplicationContext();
+            if (deviceQuality == null) deviceQuality = new DeviceQualityStore(appContext.getFilesDir());
+            final CastCallback done = withTimeout(callback, "Timed out waiting for CastContext", CastMetrics.Op.INIT, AdaptiveTimeouts.Op.INIT);
+            final long castContextStart = System.nanoTime();
+            runOnMain("initialize", () -> obtainCastContext(contextResult -> {
+                double castContextMs = elapsedMs(castContextStart);
+                trace.span("init", "init.castContext", castContextStart);
+                long routerStart = System.nanoTime();
+                String error = contextResult.getMessage();
                 try {
-                    castContext = CastContext.getSharedInstance(appContext);
-                    if (castContext != null) {
+                    if (contextResult.isSuccess() && castContext != null) {
+                        // El prewarm pudo crear el CastContext con el receiver de la ejecución anterior
+                        String activeId = CastOptionsProvider.sActiveReceiverApplicationId;
+                        if (activeId != null && !activeId.equals(receiverApplicationId)) {
+                            castContext.setReceiverApplicationId(receiverApplicationId);
+                            CastOptionsProvider.sActiveReceiverApplicationId = receiverApplicationId;
+                        }
                         mediaRouter = MediaRouter.getInstance(appContext);
                         mediaRouteSelector = new MediaRouteSelector.Builder()
                             .addControlCategory(CastMediaControlIntent.categoryForCast(CastOptionsProvider.sReceiverApplicationId != null ? CastOptionsProvider.sReceiverApplicationId : "CC1AD845"))
                             .build();
+                        // Descubrimiento persistente: se registra una sola vez y alimenta areDevicesAvailable
+                        deviceDiscovery = new DeviceDiscovery(mediaRouter, mediaRouteSelector, mainHandler, metrics, trace, timeouts);
+                        deviceDiscovery.setTtlMs(discoveryTtlMs);
+                        deviceDiscovery.setDebounceMs(routeDebounceMs);
+                        deviceDiscovery.setListener(routeListener);
+                        deviceDiscovery.start();
+                        // Foto inicial; a partir de aquí la mantiene el SessionManagerListener
+                        updateSessionSnapshot(castContext.getSessionManager().getCurrentCastSession());
                     }
                 } catch (Exception e) {
-                    lastError = "Error initializing on main thread: " + e.getMessage();
-                    Logger.error(TAG, lastError, e);
+                    error = "Error initializing on main thread: " + e.getMessage();
+                    Logger.error(TAG, error, e);
                 }
-            };
 
-            if (Looper.myLooper() == Looper.getMainLooper()) {
-                initRunnable.run();
-            } else {
-                final CountDownLatch latch = new CountDownLatch(1);
-                Handler mainHandler = new Handler(Looper.getMainLooper());
-                mainHandler.post(() -> {
-                    initRunnable.run();
-                    latch.countDown();
-                });
-                boolean awaited = latch.await(6, TimeUnit.SECONDS);
-                if (!awaited && castContext == null && lastError == null) {
-                    lastError = "Timed out waiting for CastContext on main thread";
-                    Logger.error(TAG, lastError, null);
+                CastResult result;
+                if (castContext != null && error == null) {
+                    isInitialized = true;
+                    result = CastResult.ok();
+                    Logger.info(TAG, "Cast SDK initialized successfully");
+                } else {
+                    if (error == null) error = "Failed to get CastContext";
+                    result = CastResult.error(CastResult.Code.INTERNAL, error);
+                    Logger.error(TAG, error, null);
                 }
-            }
+                initTimings = new InitTimings(prewarmed, prewarmMs, prefsMs, playServicesMs, castContextMs,
+                    elapsedMs(routerStart), elapsedMs(initStart));
+                trace.span("init", "init.router", routerStart);
+                trace.span("init", "init", initStart);
+                done.onResult(result);
+            }));
+        } catch (Exception e) {
+            String error = "Error initializing Cast SDK: " + e.getMessage();
+            Logger.error(TAG, error, e);
+            callback.onResult(CastResult.error(CastResult.Code.INTERNAL, error));
+        }
+    }
 
-            if (castContext != null) {
-                isInitialized = true;
-                Logger.info(TAG, "Cast SDK initialized successfully");
-            } else {
-                if (lastError == null) lastError = "Failed to get CastContext";
-                Logger.error(TAG, lastError, null);
-            }
-            return isInitialized;
-            
+    /**
+     * Obtiene el CastContext con la API basada en Task, sin bloquear el hilo principal.
+     * Si ya hay una obtención en curso (p. ej. el prewarm), el callback se suma a ella. Hilo principal.
+     */
+    private void obtainCastContext(CastCallback callback) {
+        if (castContext != null) {
+            callback.onResult(CastResult.ok());
+            return;
+        }
+        if (castContextWaiters != null) {
+            castContextWaiters.add(callback);
+            return;
+        }
+        castContextWaiters = new ArrayList<>();
+        castContextWaiters.add(callback);
+
+        final ExecutorService initExecutor = Executors.newSingleThreadExecutor();
+        try {
+            CastContext.getSharedInstance(appContext, initExecutor)
+                .addOnCompleteListener(mainHandler::post, task -> {
+                    initExecutor.shutdown();
+                    String error = null;
+                    if (task.isSuccessful() && task.getResult() != null) {
+                        castContext = task.getResult();
+                    } else {
+                        Exception e = task.getException();
+                        error = "Failed to get CastContext" + (e != null ? ": " + e.getMessage() : "");
+                    }
+                    finishCastContextWaiters(castContext != null ? CastResult.ok() : CastResult.error(CastResult.Code.INTERNAL, error));
+                });
         } catch (Exception e) {
-            lastError = "Error initializing Cast SDK: " + e.getMessage();
-            Logger.error(TAG, lastError, e);
-            return false;
+            initExecutor.shutdown();
+            finishCastContextWaiters(CastResult.error(CastResult.Code.INTERNAL, "Error requesting CastContext: " + e.getMessage()));
         }
     }
 
-    public String getLastError() {
-        return lastError;
+    private void finishCastContextWaiters(CastResult result) {
+        List<CastCallback> waiters = castContextWaiters;
+        castContextWaiters = null;
+        if (waiters == null) return;
+        for (CastCallback waiter : waiters) {
+            waiter.onResult(result);
+        }
     }
-    
+
+    private static double elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+
+    /**
+     * Tiempos del último initialize(), o null si aún no terminó.
+     */
+    public InitTimings getInitTimings() {
+        return initTimings;
+    }
+
+    /**
+     * Ejecuta en el hilo principal; directo si ya estamos en él.
+     * El tiempo que la tarea ocupa el hilo queda registrado en {@link MainThreadMonitor}.
+     */
+    private void runOnMain(String op, Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            mainThreadMonitor.run(op, runnable);
+        } else {
+            mainHandler.post(mainThreadMonitor.wrap(op, runnable));
+        }
+    }
+
+    MainThreadMonitor getMainThreadMonitor() {
+        return mainThreadMonitor;
+    }
+
+    /**
+     * Pone a cero las estadísticas del hilo principal y del scheduler desde el propio hilo principal, que es el
+     * único que las escribe; done se llama allí cuando ya están a cero. Se publica sin el monitor para que la
+     * propia tarea de reset no cuente como la primera de la nueva ventana.
+     */
+    void resetMainThreadStats(Runnable done) {
+        Runnable reset = () -> {
+            mainThreadMonitor.reset();
+            commands.resetStats();
+            controls.resetStats();
+            done.run();
+        };
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            reset.run();
+        } else {
+            mainHandler.post(reset);
+        }
+    }
+
+    /**
+     * Envuelve un callback para que se complete una sola vez y falle con timeoutError
+     * (código TIMEOUT) si nadie lo completa antes de timeoutMs. No bloquea ningún hilo mientras espera.
+     * Con op != null, la latencia y el resultado quedan registrados en {@link CastMetrics};
+     * con timeoutOp != null, además alimentan el plazo aprendido de esa operación.
+     */
+    private CastCallback withTimeout(CastCallback callback, long timeoutMs, String timeoutError, CastMetrics.Op op,
+                                     AdaptiveTimeouts.Op timeoutOp) {
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean completed = new AtomicBoolean(false);
+        final AtomicBoolean timedOut = new AtomicBoolean(false);
+        final Runnable[] timeout = new Runnable[1];
+        final CastCallback once = result -> {
+            if (!completed.compareAndSet(false, true)) return;
+            mainHandler.removeCallbacks(timeout[0]);
+            boolean success = result.isSuccess();
+            if (op != null) {
+                metrics.record(op, success ? CastMetrics.Outcome.SUCCESS : timedOut.get() ? CastMetrics.Outcome.TIMEOUT : CastMetrics.Outcome.FAILURE, startNanos);
+            }
+            if (timeoutOp != null) {
+                if (success) timeouts.recordSuccess(timeoutOp, System.nanoTime() - startNanos);
+                else if (timedOut.get()) timeouts.recordTimeout(timeoutOp);
+            }
+            callback.onResult(result);
+        };
+        timeout[0] = () -> {
+            if (timeoutError != null) Logger.error(TAG, timeoutError, null);
+            timedOut.set(true);
+            once.onResult(CastResult.error(CastResult.Code.TIMEOUT, timeoutError));
+        };
+        mainHandler.postDelayed(timeout[0], timeoutMs);
+        return once;
+    }
+
+    private CastCallback withTimeout(CastCallback callback, String timeoutError, CastMetrics.Op op, AdaptiveTimeouts.Op timeoutOp) {
+        return withTimeout(callback, timeouts.deadlineMs(timeoutOp), timeoutError, op, timeoutOp);
+    }
+
+    private CastCallback withTimeout(CastCallback callback, long timeoutMs, String timeoutError) {
+        return withTimeout(callback, timeoutMs, timeoutError, null, null);
+    }
+
+    /**
+     * Resultado NOT_INITIALIZED, ya registrado en el log.
+     */
+    private static CastResult notInitialized() {
+        Logger.error(TAG, NOT_INITIALIZED, null);
+        return CastResult.error(CastResult.Code.NOT_INITIALIZED, NOT_INITIALIZED);
+    }
+
+    CastCommandScheduler getCommandScheduler() {
+        return commands;
+    }
+
+    CastCommandScheduler getControlScheduler() {
+        return controls;
+    }
+
     public boolean isInitialized() {
         return isInitialized;
     }
@@ -131,259 +425,642 @@ public class IonicChromecast {
         return castContext;
     }
 
+    public CastMetrics getMetrics() {
+        return metrics;
+    }
+
+    TraceRecorder getTrace() {
+        return trace;
+    }
+
+    AdaptiveTimeouts getTimeouts() {
+        return timeouts;
+    }
+
+    LoadRetryPolicy getLoadRetry() {
+        return loadRetry;
+    }
+
     /**
-     * Verifica si hay sesión activa
+     * null hasta initialize()
      */
-    public boolean isSessionActive() {
-        if (!isInitialized || castContext == null) return false;
+    DeviceQualityStore getDeviceQuality() {
+        return deviceQuality;
+    }
 
-        // Consultar SessionManager en el hilo principal para obtener el estado real
-        final AtomicBoolean active = new AtomicBoolean(false);
-        Runnable check = () -> {
-            try {
-                CastSession s = castContext.getSessionManager().getCurrentCastSession();
-                boolean connected = s != null && s.isConnected();
-
-                // Evita falsos positivos: requiere appId y RemoteMediaClient disponibles
-                if (connected) {
-                    try {
-                        String appId = s.getApplicationMetadata() != null ? s.getApplicationMetadata().getApplicationId() : "";
-                        RemoteMediaClient rmc = s.getRemoteMediaClient();
-                        if (rmc == null || appId == null || appId.isEmpty()) {
-                            connected = false;
-                        }
-                    } catch (Exception ignored) {
-                        connected = false;
-                    }
-                }
+    /**
+     * El SessionManagerListener avisa del inicio de sesión para medir su latencia.
+     */
+    public void onSessionStarting(CastSession session) {
+        sessionStartNanos = System.nanoTime();
+        CastDevice device = null;
+        try {
+            device = session != null ? session.getCastDevice() : null;
+        } catch (Exception ignored) {}
+        startingDeviceId = device != null ? device.getDeviceId() : null;
+        startingDeviceName = device != null ? device.getFriendlyName() : null;
+    }
 
-                active.set(connected);
-            } catch (Exception e) {
-                Logger.error(TAG, "Error checking session status: " + e.getMessage(), e);
-                active.set(false);
-            }
-        };
+    /**
+     * Cierra la medición abierta por onSessionStarting(); statusCode es el de onSessionStartFailed.
+     */
+    public void onSessionStartFinished(boolean started, int statusCode) {
+        long start = sessionStartNanos;
+        if (start == 0) return;
+        sessionStartNanos = 0;
+        CastMetrics.Outcome outcome = started ? CastMetrics.Outcome.SUCCESS
+            : statusCode == CastStatusCodes.TIMEOUT ? CastMetrics.Outcome.TIMEOUT : CastMetrics.Outcome.FAILURE;
+        metrics.record(CastMetrics.Op.SESSION_START, outcome, start);
+        trace.span("session", "session.start", start);
+        DeviceQualityStore quality = deviceQuality;
+        if (quality != null) {
+            quality.recordSessionStart(startingDeviceId, startingDeviceName, started,
+                outcome == CastMetrics.Outcome.TIMEOUT, System.nanoTime() - start);
+        }
+        CastCallback selected = selectDone;
+        if (selected != null) {
+            selected.onResult(started ? CastResult.ok() : CastResult.error(CastResult.Code.SESSION_START_FAILED,
+                "Cast session failed to start (code " + statusCode + ")", statusCode));
+        }
+    }
 
-        if (Looper.myLooper() == Looper.getMainLooper()) {
-            check.run();
-            return active.get();
+    /**
+     * Marca el inicio de una reanudación (onSessionResuming) para medir cuánto tarda en reconectar.
+     */
+    public void onSessionResuming() {
+        sessionResumeNanos = System.nanoTime();
+    }
+
+    /**
+     * Cierra la medición abierta por onSessionResuming(); statusCode es el de onSessionResumeFailed.
+     */
+    public void onSessionResumeFinished(boolean resumed, int statusCode) {
+        long start = sessionResumeNanos;
+        if (start == 0) return;
+        sessionResumeNanos = 0;
+        CastMetrics.Outcome outcome = resumed ? CastMetrics.Outcome.SUCCESS
+            : statusCode == CastStatusCodes.TIMEOUT ? CastMetrics.Outcome.TIMEOUT : CastMetrics.Outcome.FAILURE;
+        metrics.record(CastMetrics.Op.SESSION_RESUME, outcome, start);
+        trace.span("session", "session.resume", start);
+    }
+
+    /**
+     * La sesión terminó de forma definitiva (no suspendida): completa el endSession pedido, si lo hay, y las URLs
+     * locales publicadas ya no tienen quién las pida.
+     */
+    public void onSessionEnded() {
+        // Antes de soltar el dispositivo: la latencia del fin se aprende para el receiver que lo confirmó
+        CastCallback endDone = sessionEndDone;
+        sessionEndDone = null;
+        if (endDone != null) {
+            Logger.info(TAG, "Cast session ended by request");
+            endDone.onResult(CastResult.ok());
         }
+        // Sin sesión los plazos (escaneo, prepareSession...) no son de ningún dispositivo
+        timeouts.setDevice("");
+        stopLocalServer();
+        consumeWarmSession();
+        completeSessionWaiters(CastResult.error(CastResult.Code.NO_SESSION, "Cast session ended"));
+    }
 
+    /**
+     * La sesión se perdió sin que la app la cerrara: suspendida (red, receiver reiniciado) o terminada con error.
+     * Cuenta como desconexión del dispositivo; una suspensión que acaba en fin con error cuenta una sola vez.
+     */
+    public void onSessionDropped(CastSession session, boolean suspended) {
+        CastDevice device = null;
         try {
-            CountDownLatch latch = new CountDownLatch(1);
-            new Handler(Looper.getMainLooper()).post(() -> {
-                check.run();
-                latch.countDown();
-            });
-            latch.await(3, TimeUnit.SECONDS);
-        } catch (InterruptedException ie) {
-            Logger.error(TAG, "Interrupted while checking session", ie);
-        }
+            device = session != null ? session.getCastDevice() : null;
+        } catch (Exception ignored) {}
+        String deviceId = device != null ? device.getDeviceId() : null;
+        if (deviceId == null || deviceId.isEmpty()) return;
+        boolean alreadyCounted = deviceId.equals(droppedDeviceId);
+        droppedDeviceId = suspended ? deviceId : null;
+        DeviceQualityStore quality = deviceQuality;
+        if (quality != null && !alreadyCounted) quality.recordDisconnect(deviceId, device.getFriendlyName());
+    }
+
+    /**
+     * Activa o desactiva la reanudación de la sesión guardada. Se persiste en initialize(); si el CastContext
+     * ya existía con otro valor, el cambio se aplica en el siguiente arranque de la app.
+     */
+    public void setResumeSavedSession(boolean resume) {
+        resumeSavedSession = resume;
+        CastOptionsProvider.sResumeSavedSession = resume;
+    }
+
+    /**
+     * Si el CastContext actual se construyó con la reanudación de sesiones activa.
+     */
+    public boolean isResumeSavedSessionActive() {
+        return castContext != null && CastOptionsProvider.sActiveResumeSavedSession;
+    }
+
+    /**
+     * Verifica si hay sesión activa.
+     * Responde desde la foto mantenida por el SessionManagerListener, sin cruzar al hilo principal.
+     */
+    public boolean isSessionActive() {
+        return isInitialized && sessionSnapshot.isActive();
+    }
 
-        return active.get();
+    public SessionSnapshot getSessionSnapshot() {
+        return sessionSnapshot;
+    }
+
+    /**
+     * Actualiza la foto de sesión desde un callback de SessionManagerListener (hilo principal).
+     * Con session null (o en ending/ended) la sesión se da por cerrada.
+     */
+    public void updateSessionSnapshot(CastSession session) {
+        SessionSnapshot previous = sessionSnapshot;
+        sessionSnapshot = SessionSnapshot.from(session);
+        if (previous.isConnected() && !sessionSnapshot.isConnected() && sessionEndNanos != 0) {
+            trace.span("session", "session.end", sessionEndNanos);
+            sessionEndNanos = 0;
+        }
+        if (!previous.isConnected() && sessionSnapshot.isConnected()) {
+            // Derivado del ID de la sesión del receiver: una sesión reanudada conserva las mismas URLs
+            String sessionId = session.getSessionId();
+            sessionToken = sessionId != null && !sessionId.isEmpty()
+                ? Integer.toHexString(sessionId.hashCode())
+                : Long.toHexString(System.currentTimeMillis()) + Integer.toHexString(sessionSnapshot.getDeviceName().hashCode());
+        }
+        RemoteMediaClient rmc = sessionSnapshot.isConnected() ? session.getRemoteMediaClient() : null;
+        // Suspendida o sin sesión no se envían comandos; se conserva el dispositivo para la reconexión
+        if (sessionSnapshot.isConnected()) {
+            timeouts.setDevice(sessionSnapshot.getDeviceId());
+            droppedDeviceId = null;
+        }
+        playbackMonitor.attach(rmc);
+        playbackState.attach(rmc);
+        messageChannel.attach(sessionSnapshot.isConnected() ? session : null);
+        if (sessionSnapshot.isActive()) completeSessionWaiters(CastResult.ok());
     }
 
     /**
      * Finaliza la sesión Cast actual, si existe
      */
-    public boolean endSession() {
+    public void endSession(CastCallback callback) {
         if (!isInitialized || castContext == null) {
-            lastError = "Cast SDK not initialized. Call initialize() first.";
-            Logger.error(TAG, lastError, null);
-            return false;
+            callback.onResult(notInitialized());
+            return;
         }
 
-        lastError = null;
-        final AtomicBoolean success = new AtomicBoolean(false);
-        final CountDownLatch latch = new CountDownLatch(1);
-        Handler mainHandler = new Handler(Looper.getMainLooper());
-
-        Runnable endRunnable = () -> {
+        // Prioridad alta: adelanta a las cargas pendientes, que tras él fallarían sin sesión
+        commands.submit("endSession", CastMetrics.Op.END, CastCommandScheduler.PRIORITY_HIGH, null, AdaptiveTimeouts.Op.END, "Timed out ending session", done -> {
             try {
                 SessionManager sm = castContext.getSessionManager();
                 if (sm == null) {
-                    lastError = "SessionManager is null";
-                    Logger.error(TAG, lastError, null);
-                    latch.countDown();
+                    Logger.error(TAG, "SessionManager is null", null);
+                    done.onResult(CastResult.error(CastResult.Code.INTERNAL, "SessionManager is null"));
                     return;
                 }
 
                 CastSession session = sm.getCurrentCastSession();
                 if (session == null || !session.isConnected()) {
-                    lastError = "No active Cast session to end";
-                    Logger.error(TAG, lastError, null);
-                    latch.countDown();
+                    Logger.error(TAG, "No active Cast session to end", null);
+                    done.onResult(CastResult.error(CastResult.Code.NO_SESSION, "No active Cast session to end"));
                     return;
                 }
 
+                sessionEndNanos = System.nanoTime();
+                // Termina cuando el SessionManagerListener confirma el fin; si no llega, vence el plazo del comando
+                sessionEndDone = done;
                 sm.endCurrentSession(true);
-                success.set(true);
-                Logger.info(TAG, "Cast session ended by request");
+                Logger.info(TAG, "Cast session end requested");
             } catch (Exception e) {
-                lastError = "Error ending session: " + e.getMessage();
-                Logger.error(TAG, lastError, e);
-            } finally {
-                latch.countDown();
+                sessionEndDone = null;
+                String error = "Error ending session: " + e.getMessage();
+                Logger.error(TAG, error, e);
+                done.onResult(CastResult.error(CastResult.Code.INTERNAL, error));
             }
-        };
-
-        mainHandler.post(endRunnable);
+        }, callback);
+    }
 
-        try {
-            latch.await(4, TimeUnit.SECONDS);
-        } catch (InterruptedException ignored) {}
+    /**
+     * Selecciona la ruta y lanza el receiver configurado antes de que el usuario pulse reproducir, para que el
+     * loadMedia posterior solo pague la carga. Sin routeId se elige el dispositivo visible con mejor calidad
+     * observada ({@link DeviceQualityStore}); si aún no se conoce ninguno, escanea primero.
+     * Si la sesión preparada no carga nada en idleTimeoutMs se cierra sola (0 = no se cierra). Una sesión ya
+     * activa con el receiver configurado (y en routeId, si se indica) se reutiliza tal cual; la abierta por el
+     * usuario nunca se cierra sola.
+     */
+    public void prepareSession(String routeId, long idleTimeoutMs, CastCallback callback) {
+        if (!isInitialized || castContext == null || deviceDiscovery == null) {
+            callback.onResult(notInitialized());
+            return;
+        }
+        runOnMain("prepareSession", () -> {
+            if (idleTimeoutMs >= 0) warmIdleMs = idleTimeoutMs;
+            if (isSessionOn(routeId)) {
+                if (warmSession) armWarmIdle();
+                callback.onResult(CastResult.ok());
+                return;
+            }
+            if (routeId == null && !deviceDiscovery.hasDevices()) {
+                deviceDiscovery.scan(timeouts.deadlineMs(AdaptiveTimeouts.Op.SCAN),
+                    scanned -> selectRoute(null, true, callback));
+                return;
+            }
+            selectRoute(routeId, true, callback);
+        });
+    }
 
-        return success.get();
+    /**
+     * Conecta directamente con una ruta ya descubierta, sin el diálogo del selector; la sesión actual, si es
+     * de otro dispositivo, la cierra el SessionManager. Se completa cuando la sesión ha arrancado.
+     */
+    public void selectDevice(String routeId, CastCallback callback) {
+        if (!isInitialized || castContext == null || deviceDiscovery == null) {
+            callback.onResult(notInitialized());
+            return;
+        }
+        if (routeId == null || routeId.isEmpty()) {
+            callback.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, "routeId is required"));
+            return;
+        }
+        runOnMain("selectDevice", () -> {
+            if (isSessionOn(routeId)) {
+                // Elegido a mano: deja de ser una sesión de calentamiento
+                consumeWarmSession();
+                callback.onResult(CastResult.ok());
+                return;
+            }
+            selectRoute(routeId, false, callback);
+        });
     }
 
     /**
-     * Verifica si hay dispositivos Cast disponibles mediante MediaRouter
+     * Hay sesión activa con el receiver configurado y, si se indica routeId, en ese dispositivo.
      */
-    public boolean areDevicesAvailable() {
-        if (!isInitialized || castContext == null || appContext == null || mediaRouter == null || mediaRouteSelector == null) {
-            Logger.error(TAG, "Cast SDK not initialized. Call initialize() first.", null);
+    private boolean isSessionOn(String routeId) {
+        SessionSnapshot snapshot = sessionSnapshot;
+        String wantedApp = CastOptionsProvider.sReceiverApplicationId;
+        if (!snapshot.isActive() || (wantedApp != null && !wantedApp.isEmpty() && !wantedApp.equals(snapshot.getAppId()))) {
             return false;
         }
-
-        // MediaRouter debe consultarse en el hilo principal para obtener rutas válidas
-        final AtomicBoolean result = new AtomicBoolean(false);
-        Runnable scanRunnable = () -> result.set(runDeviceScan());
-
-        if (Looper.myLooper() == Looper.getMainLooper()) {
-            scanRunnable.run();
-            return result.get();
+        if (routeId == null) return true;
+        for (DiscoveredRoute route : deviceDiscovery.getRoutes()) {
+            if (routeId.equals(route.getId())) return snapshot.getDeviceId().equals(route.getDeviceId());
         }
+        return false;
+    }
 
+    /**
+     * Selecciona la ruta (la mejor visible con routeId null) y espera al inicio de sesión. Una selección en curso
+     * se comparte aunque pida otra ruta. Hilo principal.
+     * @param warm la sesión es de prepareSession(): se cierra si no se usa
+     */
+    private void selectRoute(String routeId, boolean warm, CastCallback callback) {
+        if (selectWaiters != null) {
+            selectWaiters.add(callback);
+            if (!warm) selectWarm = false;
+            return;
+        }
+        MediaRouter.RouteInfo route = findRoute(routeId != null ? routeId : bestRouteId());
+        if (route == null) {
+            callback.onResult(routeId != null ? CastResult.error(CastResult.Code.DEVICE_NOT_FOUND, "Cast device not found: " + routeId)
+                : CastResult.error(CastResult.Code.NO_DEVICES, "No Cast devices available"));
+            return;
+        }
+        selectWaiters = new ArrayList<>();
+        selectWaiters.add(callback);
+        selectWarm = warm;
+        selectDone = withTimeout(this::finishRouteSelection, SELECT_TIMEOUT, null, AdaptiveTimeouts.Op.SESSION);
         try {
-            CountDownLatch latch = new CountDownLatch(1);
-            new Handler(Looper.getMainLooper()).post(() -> {
-                scanRunnable.run();
-                latch.countDown();
-            });
-            latch.await(6, TimeUnit.SECONDS);
-        } catch (InterruptedException ie) {
-            Logger.error(TAG, "Interrupted while checking devices", ie);
+            Logger.info(TAG, "Starting Cast session on " + route.getName());
+            // El SessionManager del CastContext abre la sesión y lanza el receiver al seleccionarse la ruta
+            mediaRouter.selectRoute(route);
+        } catch (Exception e) {
+            selectDone.onResult(CastResult.error(CastResult.Code.INTERNAL, "Error selecting route: " + e.getMessage()));
         }
-
-        return result.get();
     }
 
     /**
-     * Realiza el escaneo de rutas Cast usando MediaRouter.
+     * Resultado del inicio de sesión de la ruta seleccionada o su plazo. Hilo principal.
      */
-    private boolean runDeviceScan() {
-        final AtomicBoolean found = new AtomicBoolean(false);
-        final CountDownLatch latch = new CountDownLatch(1);
-        MediaRouter.Callback discoveryCallback = new MediaRouter.Callback() {
-            @Override
-            public void onRouteAdded(MediaRouter router, MediaRouter.RouteInfo route) {
-                if (route != null && route.matchesSelector(mediaRouteSelector) && !route.isDefault()) {
-                    found.set(true);
-                    latch.countDown();
-                }
+    private void finishRouteSelection(CastResult result) {
+        List<CastCallback> waiters = selectWaiters;
+        selectWaiters = null;
+        selectDone = null;
+        if (result.isSuccess() && selectWarm) {
+            warmSession = true;
+            armWarmIdle();
+        } else if (result.isSuccess()) {
+            consumeWarmSession();
+        }
+        if (waiters == null) return;
+        for (CastCallback waiter : waiters) {
+            try {
+                waiter.onResult(result);
+            } catch (Exception e) {
+                Logger.error(TAG, "Error completing route selection: " + e.getMessage(), e);
             }
+        }
+    }
 
-            @Override
-            public void onRouteChanged(MediaRouter router, MediaRouter.RouteInfo route) {
-                if (route != null && route.matchesSelector(mediaRouteSelector) && !route.isDefault()) {
-                    found.set(true);
-                    latch.countDown();
-                }
+    /**
+     * Ruta Cast visible con ese id, o null. Hilo principal.
+     */
+    private MediaRouter.RouteInfo findRoute(String routeId) {
+        if (routeId == null) return null;
+        try {
+            for (MediaRouter.RouteInfo route : mediaRouter.getRoutes()) {
+                if (routeId.equals(route.getId()) && deviceDiscovery.isCastRoute(route)) return route;
             }
-        };
+        } catch (Exception e) {
+            Logger.error(TAG, "Error reading MediaRouter routes: " + e.getMessage(), e);
+        }
+        return null;
+    }
 
-        try {
-            synchronized (discoveryLock) {
-                mediaRouter.addCallback(
-                    mediaRouteSelector,
-                    discoveryCallback,
-                    MediaRouter.CALLBACK_FLAG_REQUEST_DISCOVERY | MediaRouter.CALLBACK_FLAG_PERFORM_ACTIVE_SCAN
-                );
-
-                // Revisar rutas conocidas inmediatamente
-                for (MediaRouter.RouteInfo route : mediaRouter.getRoutes()) {
-                    if (route != null && route.matchesSelector(mediaRouteSelector) && !route.isDefault()) {
-                        found.set(true);
-                        break;
-                    }
-                }
+    /**
+     * Ruta visible con mejor score en {@link DeviceQualityStore}; la primera descubierta si no hay historial.
+     */
+    private String bestRouteId() {
+        DeviceQualityStore quality = deviceQuality;
+        String best = null;
+        double bestScore = -1;
+        for (DiscoveredRoute route : deviceDiscovery.getRoutes()) {
+            DeviceQualityStore.Quality q = quality != null ? quality.get(route.getDeviceId()) : null;
+            double score = q != null ? q.score : DeviceQualityStore.Quality.UNKNOWN_SCORE;
+            if (score > bestScore) {
+                bestScore = score;
+                best = route.getId();
+            }
+        }
+        return best;
+    }
 
-                // Esperar algo de tiempo para descubrimiento activo
-                if (!found.get()) {
-                    latch.await(4000, TimeUnit.MILLISECONDS);
-                }
+    private void armWarmIdle() {
+        mainHandler.removeCallbacks(warmIdleTimeout);
+        long idleMs = warmIdleMs;
+        if (idleMs > 0) mainHandler.postDelayed(warmIdleTimeout, idleMs);
+    }
 
-                // Revisión final de rutas conocidas antes de salir
-                if (!found.get()) {
-                    for (MediaRouter.RouteInfo route : mediaRouter.getRoutes()) {
-                        if (route != null && route.matchesSelector(mediaRouteSelector) && !route.isDefault()) {
-                            found.set(true);
-                            break;
-                        }
-                    }
-                }
+    /**
+     * La sesión preparada pasa a ser de uso normal: ya no se cierra por inactividad. Cualquier hilo.
+     */
+    private void consumeWarmSession() {
+        if (!warmSession) return;
+        warmSession = false;
+        mainHandler.removeCallbacks(warmIdleTimeout);
+    }
 
-                mediaRouter.removeCallback(discoveryCallback);
-            }
-            Logger.info(TAG, "areDevicesAvailable: found=" + found.get());
-            return found.get();
+    /**
+     * La sesión preparada no se usó a tiempo: se libera la TV salvo que algo se esté reproduciendo
+     * (p. ej. cargado por otro emisor).
+     */
+    private void onWarmSessionIdle() {
+        if (!warmSession) return;
+        warmSession = false;
+        try {
+            CastSession session = castContext.getSessionManager().getCurrentCastSession();
+            RemoteMediaClient rmc = session != null && session.isConnected() ? session.getRemoteMediaClient() : null;
+            if (rmc == null || !isReceiverIdle(rmc)) return;
         } catch (Exception e) {
-            Logger.error(TAG, "Error checking available devices: " + e.getMessage(), e);
-            return false;
+            return;
+        }
+        Logger.info(TAG, "Prepared Cast session idle for " + warmIdleMs + "ms; ending it");
+        endSession(result -> {
+            if (!result.isSuccess()) Logger.warn(TAG, "Could not end idle prepared session: " + result.getMessage());
+        });
+    }
+
+    /**
+     * Verifica si hay dispositivos Cast disponibles mediante MediaRouter
+     */
+    public void areDevicesAvailable(CastCallback callback) {
+        if (!isInitialized || castContext == null || appContext == null || deviceDiscovery == null) {
+            callback.onResult(notInitialized());
+            return;
+        }
+
+        // Respuesta inmediata desde el índice persistente mientras no esté caducado
+        DeviceDiscovery discovery = deviceDiscovery;
+        if (discovery != null && discovery.isFresh()) {
+            discovery.recordIndexHit();
+            callback.onResult(DeviceDiscovery.availability(discovery.hasDevices()));
+            return;
         }
+
+        // Índice caducado: escaneo activo acotado y compartido; MediaRouter debe consultarse en el hilo principal.
+        // El plazo es de cada llamador, aunque se sume a un escaneo ya en curso.
+        final long scanMs = timeouts.deadlineMs(AdaptiveTimeouts.Op.SCAN);
+        final CastCallback done = withTimeout(callback, scanMs + SCAN_GRACE_MS, null);
+        runOnMain("scan", () -> deviceDiscovery.scan(scanMs, done));
+    }
+
+    /**
+     * Tiempo máximo que el índice de rutas se da por válido antes de forzar un escaneo activo.
+     */
+    public void setDiscoveryTtlMs(long ttlMs) {
+        if (ttlMs < 0) return;
+        discoveryTtlMs = ttlMs;
+        DeviceDiscovery discovery = deviceDiscovery;
+        if (discovery != null) discovery.setTtlMs(ttlMs);
+    }
+
+    /**
+     * Ventana en la que se agrupan las ráfagas de cambios de rutas antes de notificar.
+     */
+    public void setRouteDebounceMs(long debounceMs) {
+        if (debounceMs < 0) return;
+        routeDebounceMs = debounceMs;
+        DeviceDiscovery discovery = deviceDiscovery;
+        if (discovery != null) discovery.setDebounceMs(debounceMs);
+    }
+
+    /**
+     * Listener de cambios del conjunto de rutas visibles (hilo principal).
+     */
+    void setRouteListener(DeviceDiscovery.Listener listener) {
+        routeListener = listener;
+        runOnMain("setRouteListener", () -> {
+            if (deviceDiscovery != null) deviceDiscovery.setListener(listener);
+        });
+    }
+
+    /**
+     * Destino de los eventos mediaStatus/progress (hilo principal).
+     */
+    void setPlaybackListener(PlaybackMonitor.Listener listener) {
+        runOnMain("setPlaybackListener", () -> playbackMonitor.setListener(listener));
+    }
+
+    /**
+     * Intervalo mínimo entre dos notificaciones de estado de reproducción.
+     */
+    public void setMediaStatusIntervalMs(long intervalMs) {
+        playbackMonitor.setStatusIntervalMs(intervalMs);
+    }
+
+    /**
+     * Periodo con el que el SDK entrega el progreso de reproducción.
+     */
+    public void setProgressIntervalMs(long intervalMs) {
+        runOnMain("setProgressInterval", () -> playbackMonitor.setProgressIntervalMs(intervalMs));
+    }
+
+    /**
+     * Destino de los rollbacks del estado previsto (hilo principal).
+     */
+    void setPlaybackStateListener(PlaybackStateModel.Listener listener) {
+        playbackState.setListener(listener);
+    }
+
+    /**
+     * Estado de reproducción previsto: refleja los controles enviados antes de que el receiver los confirme.
+     */
+    PlaybackStateModel.State getPlaybackState() {
+        return playbackState.getState();
+    }
+
+    /**
+     * Destino de los mensajes recibidos en los namespaces registrados (hilo principal).
+     */
+    void setMessageListener(MessageChannel.Listener listener) {
+        runOnMain("setMessageListener", () -> messageChannel.setListener(listener));
+    }
+
+    /**
+     * Escucha y permite enviar en namespace (urn:x-cast:...); volver a llamarlo solo cambia los intervalos.
+     * callback se completa ya registrado, así que un sendMessage posterior lo encuentra.
+     */
+    public void addMessageNamespace(String namespace, long batchWindowMs, long deliveryIntervalMs, CastCallback callback) {
+        runOnMain("addMessageNamespace", () -> {
+            messageChannel.register(namespace, batchWindowMs, deliveryIntervalMs);
+            callback.onResult(CastResult.ok());
+        });
+    }
+
+    public void removeMessageNamespace(String namespace, CastCallback callback) {
+        runOnMain("removeMessageNamespace", () -> {
+            messageChannel.unregister(namespace);
+            callback.onResult(CastResult.ok());
+        });
+    }
+
+    /**
+     * Encola un mensaje (texto JSON) para el siguiente envío agrupado del namespace.
+     * @return false si el namespace no está registrado
+     */
+    public boolean sendMessage(String namespace, String json, String coalesceKey) {
+        return messageChannel.send(namespace, json, coalesceKey);
+    }
+
+    MessageChannel getMessageChannel() {
+        return messageChannel;
+    }
+
+    DeviceDiscovery getDeviceDiscovery() {
+        return deviceDiscovery;
+    }
+
+    /**
+     * Selector del receiver configurado, el mismo del descubrimiento persistente; null hasta initialize().
+     */
+    MediaRouteSelector getMediaRouteSelector() {
+        return mediaRouteSelector;
     }
 
     /**
-     * Envía media al dispositivo Cast (flujo básico)
+     * Libera el descubrimiento persistente, los callbacks de reproducción y de mensajes y los comandos pendientes;
+     * se llama al destruir el plugin.
      */
-    public boolean loadMedia(String url, String title, String subtitle, String imageUrl, String contentType) {
+    public void shutdown() {
+        runOnMain("shutdown", () -> {
+            if (deviceDiscovery != null) deviceDiscovery.stop();
+            if (deviceQuality != null) deviceQuality.flushNow();
+            playbackMonitor.detach();
+            playbackState.detach();
+            messageChannel.attach(null);
+            commands.cancelPending("Plugin destroyed");
+            controls.cancelPending("Plugin destroyed");
+        });
+        stopLocalServer();
+    }
+
+    /**
+     * Envía media al dispositivo Cast (flujo básico). Los fallos pasajeros se reintentan según {@link LoadRetryPolicy};
+     * el resultado lleva en getRetries() cuántos reintentos hicieron falta (0 = al primer intento).
+     */
+    public void loadMedia(CastMediaItem item, CastCallback callback) {
         if (!isInitialized || castContext == null) {
-            lastError = "Cast SDK not initialized. Call initialize() first.";
-            Logger.error(TAG, lastError, null);
-            return false;
+            callback.onResult(notInitialized());
+            return;
         }
 
-        lastError = null;
-        final AtomicBoolean success = new AtomicBoolean(false);
-        final CountDownLatch done = new CountDownLatch(1);
-        Handler mainHandler = new Handler(Looper.getMainLooper());
+        consumeWarmSession();
+        // Una carga más reciente (loadMedia o queueLoad) deja sin efecto los reintentos pendientes de ésta
+        final long generation = loadGeneration.incrementAndGet();
+        final CastMediaItem served;
+        try {
+            served = serveLocalFiles(item);
+        } catch (IOException e) {
+            Logger.error(TAG, e.getMessage(), null);
+            callback.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, e.getMessage()));
+            return;
+        }
+        new LoadRequest(served, generation, callback).submit();
+    }
 
-        Runnable loadRunnable = () -> {
-            try {
-                if (url == null || url.isEmpty()) {
-                    lastError = "Media URL is required";
-                    Logger.error(TAG, lastError, null);
-                    done.countDown();
-                    return;
-                }
+    /**
+     * Un loadMedia con sus reintentos. Cada intento es un comando propio del CastCommandScheduler, con su plazo
+     * y reemplazable por una carga más reciente; entre intentos solo hay un postDelayed o la espera a que la
+     * sesión se reanude, sin hilos bloqueados. Los intentos corren de uno en uno en el hilo principal.
+     */
+    private final class LoadRequest {
+        private final CastMediaItem item;
+        private final long generation;
+        private final CastCallback callback;
+        private int retries = 0;
+        // Motivo del fallo del intento en curso; lo fija el cuerpo antes de completarlo (null = según el error).
+        // currentDone identifica el intento: un resultado tardío de uno ya vencido no lo pisa
+        private LoadRetryPolicy.Kind failureKind = null;
+        private CastCallback currentDone = null;
+        // Desde que hay sesión y RemoteMediaClient: lo anterior (URL vacía, sin sesión) no es culpa del receiver
+        private long attemptStart = 0;
+        // contentId enviado y posición conocida de ese media en el receiver, para reanudar un reintento (-1 = la pedida)
+        private String contentId = null;
+        private long resumeMs = -1;
 
-                // Cache buster para evitar que el receiver siga mostrando el media anterior
-                String effectiveUrl = url;
-                try {
-                    String suffix = (url != null && url.contains("?")) ? "&" : "?";
-                    effectiveUrl = url + suffix + "_cb=" + System.currentTimeMillis();
-                } catch (Exception ignored) {}
+        LoadRequest(CastMediaItem item, long generation, CastCallback callback) {
+            this.item = item;
+            this.generation = generation;
+            this.callback = callback;
+        }
 
-                Logger.info(TAG, "loadMedia: url=" + effectiveUrl + ", contentType=" + contentType);
+        void submit() {
+            failureKind = null;
+            attemptStart = 0;
+            // Un loadMedia más reciente descarta a éste si aún no ha empezado (p. ej. toques rápidos en "siguiente")
+            commands.submit("loadMedia", CastMetrics.Op.LOAD, CastCommandScheduler.PRIORITY_NORMAL, LOAD_KEY,
+                AdaptiveTimeouts.Op.LOAD, LOAD_TIMEOUT, this::run, this::onAttemptResult);
+        }
 
-                // Use GENERIC to ensure subtitle surfaces in Cast UI overlays.
-                MediaMetadata md = new MediaMetadata(MediaMetadata.MEDIA_TYPE_GENERIC);
-                if (title != null && !title.isEmpty()) md.putString(MediaMetadata.KEY_TITLE, title);
-                if (subtitle != null && !subtitle.isEmpty()) md.putString(MediaMetadata.KEY_SUBTITLE, subtitle);
-                if (imageUrl != null && !imageUrl.isEmpty()) md.addImage(new WebImage(android.net.Uri.parse(imageUrl)));
+        private void fail(CastCallback done, LoadRetryPolicy.Kind kind, CastResult result) {
+            if (done == currentDone) failureKind = kind;
+            done.onResult(result);
+        }
 
-                String ct = (contentType != null && !contentType.isEmpty()) ? contentType : "video/mp4";
-                MediaInfo mediaInfo = new MediaInfo.Builder(effectiveUrl)
-                    .setStreamType(MediaInfo.STREAM_TYPE_BUFFERED)
-                    .setContentType(ct)
-                    .setMetadata(md)
-                    .build();
+        private void run(CastCallback done) {
+            currentDone = done;
+            try {
+                if (item.getUrl() == null || item.getUrl().isEmpty()) {
+                    fail(done, LoadRetryPolicy.Kind.PERMANENT, CastResult.error(CastResult.Code.INVALID_ARGUMENT, "Media URL is required"));
+                    return;
+                }
+
+                MediaInfo mediaInfo = buildMediaInfo(item);
+                Logger.info(TAG, "loadMedia: url=" + mediaInfo.getContentId() + ", contentType=" + item.getContentType()
+                    + (retries > 0 ? ", retry=" + retries : ""));
+                long startTimeMs = (long) (item.getStartTimeSec() * 1000);
 
                 CastSession session = castContext.getSessionManager().getCurrentCastSession();
                 if (session == null || !session.isConnected()) {
-                    lastError = "No active Cast session";
-                    Logger.error(TAG, lastError, null);
-                    done.countDown();
+                    fail(done, LoadRetryPolicy.Kind.SESSION, CastResult.error(CastResult.Code.NO_SESSION, "No active Cast session"));
                     return;
                 }
 
@@ -404,93 +1081,663 @@ public class IonicChromecast {
 
                 RemoteMediaClient rmc = session.getRemoteMediaClient();
                 if (rmc == null) {
-                    lastError = "RemoteMediaClient is null";
-                    Logger.error(TAG, lastError, null);
-                    done.countDown();
+                    fail(done, LoadRetryPolicy.Kind.SESSION, CastResult.error(CastResult.Code.NO_SESSION, "RemoteMediaClient is null"));
                     return;
                 }
+                attemptStart = System.nanoTime();
 
-                // Detener lo que esté reproduciendo antes de cargar
-                try {
-                    PendingResult<RemoteMediaClient.MediaChannelResult> stopPending = rmc.stop();
-                    if (stopPending != null) {
-                        stopPending.await(3, TimeUnit.SECONDS);
+                if (retries > 0) {
+                    // El intento anterior pudo llegar al receiver aunque su resultado se perdiera (timeout, suspensión)
+                    if (isPlaying(rmc, contentId)) {
+                        Logger.info(TAG, "loadMedia: receiver already playing the media after retry " + retries);
+                        done.onResult(CastResult.ok());
+                        return;
                     }
-                } catch (Exception ignored) {}
+                    resumeMs = Math.max(resumeMs, positionOf(rmc, contentId));
+                    if (resumeMs > 0) startTimeMs = resumeMs;
+                }
+                contentId = mediaInfo.getContentId();
+                final long loadStartTimeMs = startTimeMs;
 
-                MediaLoadRequestData req = new MediaLoadRequestData.Builder()
-                    .setMediaInfo(mediaInfo)
-                    .setAutoplay(true)
-                    .setCurrentTime(0L)
-                    .build();
+                // Detener lo que esté reproduciendo antes de cargar, sin bloquear el hilo principal:
+                // si el receiver está inactivo no hace falta stop; si no, la carga se encadena al resultado del stop
+                if (isReceiverIdle(rmc)) {
+                    sendLoad(rmc, mediaInfo, loadStartTimeMs, this, done);
+                    return;
+                }
 
+                final AtomicBoolean loadSent = new AtomicBoolean(false);
+                final long stopStart = System.nanoTime();
+                final Runnable loadAfterStop = () -> {
+                    if (loadSent.compareAndSet(false, true)) sendLoad(rmc, mediaInfo, loadStartTimeMs, this, done);
+                };
                 try {
-                    PendingResult<RemoteMediaClient.MediaChannelResult> pending = rmc.load(req);
-                    if (pending == null) {
-                        lastError = "rmc.load() returned null";
-                        Logger.error(TAG, lastError, null);
-                        done.countDown();
+                    PendingResult<RemoteMediaClient.MediaChannelResult> stopPending = rmc.stop();
+                    if (stopPending == null) {
+                        loadAfterStop.run();
                         return;
                     }
-
-                    pending.setResultCallback(result1 -> {
-                        if (result1 != null && result1.getStatus() != null && result1.getStatus().isSuccess()) {
-                            success.set(true);
-                            Logger.info(TAG, "Media load success");
-                        } else {
-                            int statusCode = (result1 != null && result1.getStatus() != null) ? result1.getStatus().getStatusCode() : -1;
-                            lastError = "Media load failed, statusCode=" + statusCode;
-                            Logger.error(TAG, lastError, null);
+                    // Si el receiver no responde al stop, cargamos igualmente pasado el plazo
+                    final Runnable stopTimeout = mainThreadMonitor.wrap("loadMedia.stopTimeout", () -> {
+                        if (!loadSent.get()) {
+                            metrics.record(CastMetrics.Op.STOP, CastMetrics.Outcome.TIMEOUT, stopStart);
+                            timeouts.recordTimeout(AdaptiveTimeouts.Op.STOP);
+                            trace.span("load", "load.stop", stopStart);
                         }
-                        done.countDown();
+                        loadAfterStop.run();
                     });
-                } catch (Exception e) {
-                    lastError = "Error sending media load request: " + e.getMessage();
-                    Logger.error(TAG, lastError, e);
-                    done.countDown();
+                    mainHandler.postDelayed(stopTimeout, timeouts.deadlineMs(AdaptiveTimeouts.Op.STOP));
+                    stopPending.setResultCallback(stopResult -> mainThreadMonitor.run("loadMedia.stopResult", () -> {
+                        mainHandler.removeCallbacks(stopTimeout);
+                        if (!loadSent.get()) {
+                            boolean stopped = stopResult != null && stopResult.getStatus() != null && stopResult.getStatus().isSuccess();
+                            metrics.record(CastMetrics.Op.STOP, stopped ? CastMetrics.Outcome.SUCCESS : CastMetrics.Outcome.FAILURE, stopStart);
+                            if (stopped) timeouts.recordSuccess(AdaptiveTimeouts.Op.STOP, System.nanoTime() - stopStart);
+                            trace.span("load", "load.stop", stopStart);
+                        }
+                        loadAfterStop.run();
+                    }));
+                } catch (Exception ignored) {
+                    loadAfterStop.run();
                 }
             } catch (Exception e) {
-                lastError = "Error loading media: " + e.getMessage();
-                Logger.error(TAG, lastError, e);
-                done.countDown();
+                done.onResult(CastResult.error(CastResult.Code.INTERNAL, "Error loading media: " + e.getMessage()));
             }
-        };
+        }
 
-        // Always dispatch load to the main thread but wait off-main for completion
-        mainHandler.post(loadRunnable);
+        /**
+         * Resultado de un intento (hilo principal): termina o programa el siguiente.
+         */
+        private void onAttemptResult(CastResult result) {
+            recordLoadQuality(attemptStart, result);
+            if (result.isSuccess()) {
+                if (retries > 0) loadRetry.recovered.incrementAndGet();
+                finish(result);
+                return;
+            }
+            final LoadRetryPolicy.Kind kind = failureKind != null ? failureKind
+                : result.getCode() == CastResult.Code.TIMEOUT ? LoadRetryPolicy.Kind.TRANSIENT : LoadRetryPolicy.Kind.PERMANENT;
+            boolean current = generation == loadGeneration.get();
+            boolean retryable = kind == LoadRetryPolicy.Kind.TRANSIENT
+                || (kind == LoadRetryPolicy.Kind.SESSION && canRejoinSession());
+            if (!current || !retryable || retries >= loadRetry.getMaxRetries()) {
+                if (current && retryable) loadRetry.exhausted.incrementAndGet();
+                finish(result);
+                return;
+            }
+
+            // Posición alcanzada antes del fallo; tras una suspensión el receiver puede haberla perdido
+            try {
+                CastSession session = castContext.getSessionManager().getCurrentCastSession();
+                RemoteMediaClient rmc = session != null ? session.getRemoteMediaClient() : null;
+                if (rmc != null) resumeMs = Math.max(resumeMs, positionOf(rmc, contentId));
+            } catch (Exception ignored) {}
+
+            retries++;
+            loadRetry.retries.incrementAndGet();
+            long delayMs = loadRetry.delayMs(retries);
+            Logger.warn(TAG, "loadMedia attempt failed (" + result + "); retry " + retries + " in " + delayMs + "ms"
+                + (kind == LoadRetryPolicy.Kind.SESSION ? " after the session resumes" : ""));
+            mainHandler.postDelayed(mainThreadMonitor.wrap("loadMedia.retry", () -> {
+                if (kind != LoadRetryPolicy.Kind.SESSION) {
+                    resubmit();
+                    return;
+                }
+                loadRetry.rejoins.incrementAndGet();
+                awaitSessionResume(loadRetry.getRejoinTimeoutMs(), rejoined -> {
+                    if (rejoined.isSuccess()) resubmit();
+                    else finish(result.withMessage(result.getMessage() + "; " + rejoined.getMessage()));
+                });
+            }), delayMs);
+        }
+
+        private void resubmit() {
+            if (generation != loadGeneration.get()) {
+                finish(CastResult.error(CastResult.Code.SUPERSEDED, CastCommandScheduler.SUPERSEDED_PREFIX + "loadMedia"));
+                return;
+            }
+            submit();
+        }
+
+        /**
+         * Los fallos sin detalle describen el appId/dispositivo para diagnosticar receivers lentos.
+         */
+        private void finish(CastResult result) {
+            if (!result.isSuccess()) {
+                String error = result.getMessage();
+                if (LOAD_TIMEOUT.equals(error)) {
+                    String label = describeSession();
+                    error = label != null ? LOAD_TIMEOUT + " (" + label + ")" : LOAD_TIMEOUT;
+                } else if (error == null || error.isEmpty()) {
+                    String label = describeSession();
+                    error = label != null ? "Media load failed (unknown reason, " + label + ")" : "Media load failed (unknown reason)";
+                }
+                if (retries > 0) error = error + " (after " + retries + (retries == 1 ? " retry)" : " retries)");
+                result = result.withMessage(error);
+                Logger.error(TAG, error, null);
+            }
+            try {
+                callback.onResult(result.withRetries(retries));
+            } catch (Exception e) {
+                Logger.error(TAG, "Error completing loadMedia: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Atribuye el resultado de un intento de carga al dispositivo de la sesión. Los que no llegaron a enviarse
+     * (startNanos 0: reemplazados, sin sesión, URL vacía) no dicen nada del receiver.
+     */
+    private void recordLoadQuality(long startNanos, CastResult result) {
+        DeviceQualityStore quality = deviceQuality;
+        if (quality == null || startNanos == 0) return;
+        SessionSnapshot snapshot = sessionSnapshot;
+        boolean success = result.isSuccess();
+        quality.recordLoad(snapshot.getDeviceId(), snapshot.getDeviceName(), success, result.getCode() == CastResult.Code.TIMEOUT,
+            success ? System.nanoTime() - startNanos : 0);
+    }
 
-        boolean awaited = false;
+    /**
+     * Sin media cargado (o ya en IDLE) el stop no aporta nada y solo añade un round trip.
+     */
+    private boolean isReceiverIdle(RemoteMediaClient rmc) {
         try {
-            awaited = done.await(14, TimeUnit.SECONDS);
-        } catch (InterruptedException ie) {
-            lastError = "Interrupted while loading media";
-            Logger.error(TAG, lastError, ie);
+            MediaStatus status = rmc.getMediaStatus();
+            if (status == null) return true;
+            int state = status.getPlayerState();
+            return state == MediaStatus.PLAYER_STATE_IDLE || state == MediaStatus.PLAYER_STATE_UNKNOWN;
+        } catch (Exception e) {
             return false;
         }
+    }
 
-        if (!awaited && !success.get()) {
+    /**
+     * El receiver tiene cargado contentId y no está inactivo.
+     */
+    private boolean isPlaying(RemoteMediaClient rmc, String contentId) {
+        try {
+            MediaInfo info = rmc.getMediaInfo();
+            return contentId != null && info != null && contentId.equals(info.getContentId()) && !isReceiverIdle(rmc);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Posición conocida de contentId en el receiver, o -1 si el receiver tiene otro media (o ninguno).
+     */
+    private long positionOf(RemoteMediaClient rmc, String contentId) {
+        try {
+            MediaInfo info = rmc.getMediaInfo();
+            if (contentId == null || info == null || !contentId.equals(info.getContentId())) return -1;
+            return rmc.getApproximateStreamPosition();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Hay una sesión suspendida o reconectando que puede volver. Hilo principal.
+     */
+    private boolean canRejoinSession() {
+        try {
+            CastSession session = castContext.getSessionManager().getCurrentCastSession();
+            return session != null && (session.isSuspended() || session.isResuming() || session.isConnecting());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Completa callback cuando la sesión vuelve a estar activa, o con error si termina o vence timeoutMs.
+     * Hilo principal.
+     */
+    private void awaitSessionResume(long timeoutMs, CastCallback callback) {
+        if (sessionSnapshot.isActive()) {
+            callback.onResult(CastResult.ok());
+            return;
+        }
+        if (!canRejoinSession()) {
+            callback.onResult(CastResult.error(CastResult.Code.NO_SESSION, "No Cast session to rejoin"));
+            return;
+        }
+        if (sessionWaiters == null) sessionWaiters = new ArrayList<>();
+        sessionWaiters.add(withTimeout(callback, timeoutMs, "Timed out waiting for the Cast session to resume"));
+    }
+
+    private void completeSessionWaiters(CastResult result) {
+        List<CastCallback> waiters = sessionWaiters;
+        if (waiters == null) return;
+        sessionWaiters = null;
+        for (CastCallback waiter : waiters) {
             try {
-                CastSession session = castContext.getSessionManager().getCurrentCastSession();
-                String appId = session != null && session.getApplicationMetadata() != null ? session.getApplicationMetadata().getApplicationId() : "";
-                String deviceName = session != null && session.getCastDevice() != null ? session.getCastDevice().getFriendlyName() : "";
-                lastError = "Media load timed out (appId=" + appId + ", device=" + deviceName + ")";
+                waiter.onResult(result);
+            } catch (Exception e) {
+                Logger.error(TAG, "Error completing session wait: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void sendLoad(RemoteMediaClient rmc, MediaInfo mediaInfo, long startTimeMs, LoadRequest request, CastCallback done) {
+        MediaLoadRequestData req = new MediaLoadRequestData.Builder()
+            .setMediaInfo(mediaInfo)
+            .setAutoplay(true)
+            .setCurrentTime(startTimeMs)
+            .build();
+
+        try {
+            final long requestStart = System.nanoTime();
+            PendingResult<RemoteMediaClient.MediaChannelResult> pending = rmc.load(req);
+            if (pending == null) {
+                request.fail(done, LoadRetryPolicy.Kind.SESSION, CastResult.error(CastResult.Code.NO_SESSION, "rmc.load() returned null"));
+                return;
+            }
+
+            // Como completeOnResult, pero conserva el statusCode para decidir si se reintenta
+            pending.setResultCallback(result -> {
+                trace.span("load", "load.request", requestStart);
+                if (result != null && result.getStatus() != null && result.getStatus().isSuccess()) {
+                    Logger.info(TAG, "Media load success");
+                    if (trace.isEnabled()) new BufferingTrace(rmc).start();
+                    done.onResult(CastResult.ok());
+                } else {
+                    int statusCode = (result != null && result.getStatus() != null) ? result.getStatus().getStatusCode() : -1;
+                    request.fail(done, LoadRetryPolicy.classify(statusCode), CastResult.receiverError("Media load failed, statusCode=" + statusCode, statusCode));
+                }
+            });
+        } catch (Exception e) {
+            request.fail(done, LoadRetryPolicy.Kind.TRANSIENT, CastResult.error(CastResult.Code.INTERNAL, "Error sending media load request: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Span load.buffering: desde que el receiver acepta la carga hasta que empieza a reproducir (o queda en pausa).
+     * Se retira solo al cumplirse o pasado BUFFERING_TRACE_MAX_MS. Hilo principal.
+     */
+    private final class BufferingTrace extends RemoteMediaClient.Callback implements Runnable {
+        private final RemoteMediaClient rmc;
+        private final long start = System.nanoTime();
+
+        BufferingTrace(RemoteMediaClient rmc) {
+            this.rmc = rmc;
+        }
+
+        void start() {
+            rmc.registerCallback(this);
+            mainHandler.postDelayed(this, BUFFERING_TRACE_MAX_MS);
+            onStatusUpdated();
+        }
+
+        @Override
+        public void onStatusUpdated() {
+            MediaStatus status = rmc.getMediaStatus();
+            int state = status != null ? status.getPlayerState() : MediaStatus.PLAYER_STATE_UNKNOWN;
+            if (state != MediaStatus.PLAYER_STATE_PLAYING && state != MediaStatus.PLAYER_STATE_PAUSED) return;
+            trace.span("load", "load.buffering", start);
+            run();
+        }
+
+        @Override
+        public void run() {
+            mainHandler.removeCallbacks(this);
+            try {
+                rmc.unregisterCallback(this);
+            } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * Construye el MediaInfo que se envía al receiver.
+     * La URL del media y la de la imagen se marcan según la política de cache-busting.
+     */
+    private MediaInfo buildMediaInfo(CastMediaItem item) {
+        CacheBustPolicy policy = item.getCacheBustPolicy() != null ? item.getCacheBustPolicy() : cacheBustPolicy;
+        String token = sessionToken;
+        String effectiveUrl = policy.apply(item.getUrl(), token);
+        String imageUrl = policy.apply(item.getImageUrl(), token);
+        String title = item.getTitle();
+        String subtitle = item.getSubtitle();
+
+        // Use GENERIC to ensure subtitle surfaces in Cast UI overlays.
+        MediaMetadata md = new MediaMetadata(MediaMetadata.MEDIA_TYPE_GENERIC);
+        if (title != null && !title.isEmpty()) md.putString(MediaMetadata.KEY_TITLE, title);
+        if (subtitle != null && !subtitle.isEmpty()) md.putString(MediaMetadata.KEY_SUBTITLE, subtitle);
+        if (imageUrl != null && !imageUrl.isEmpty()) md.addImage(new WebImage(android.net.Uri.parse(imageUrl)));
+
+        String contentType = item.getContentType();
+        String ct = (contentType != null && !contentType.isEmpty()) ? contentType : "video/mp4";
+        return new MediaInfo.Builder(effectiveUrl)
+            .setStreamType(MediaInfo.STREAM_TYPE_BUFFERED)
+            .setContentType(ct)
+            .setMetadata(md)
+            .build();
+    }
+
+    /**
+     * Sustituye las URLs locales (file://, rutas absolutas, convertFileSrc) por las del LocalMediaServer.
+     * Hilo del plugin: comprueba el archivo en disco y puede arrancar el servidor.
+     * @throws IOException si un archivo no existe, está fuera de los directorios de la app o no hay red local
+     */
+    private CastMediaItem serveLocalFiles(CastMediaItem item) throws IOException {
+        File media = LocalMediaServer.toLocalFile(item.getUrl());
+        File image = LocalMediaServer.toLocalFile(item.getImageUrl());
+        if (media == null && image == null) return item;
+        LocalMediaServer server = localMediaServer();
+        String contentType = item.getContentType();
+        if (media != null && (contentType == null || contentType.isEmpty())) {
+            contentType = URLConnection.guessContentTypeFromName(media.getName());
+        }
+        String url = media != null ? server.register(media, contentType) : item.getUrl();
+        String imageUrl = image != null ? server.register(image, null) : item.getImageUrl();
+        return item.withUrls(url, imageUrl, contentType);
+    }
+
+    private List<CastMediaItem> serveLocalFiles(List<CastMediaItem> items) throws IOException {
+        List<CastMediaItem> served = new ArrayList<>(items.size());
+        for (CastMediaItem item : items) served.add(serveLocalFiles(item));
+        return served;
+    }
+
+    private synchronized LocalMediaServer localMediaServer() throws IOException {
+        if (localServer != null) return localServer;
+        Context context = appContext;
+        if (context == null) throw new IOException("Cast SDK not initialized. Call initialize() first.");
+        // Almacenamiento propio de la app: interno (files, cache, ...) y externo específico de la app
+        List<File> roots = new ArrayList<>();
+        roots.add(context.getFilesDir().getParentFile());
+        for (File dir : context.getExternalFilesDirs(null)) {
+            if (dir != null) roots.add(dir.getParentFile());
+        }
+        localServer = new LocalMediaServer(roots, trace);
+        return localServer;
+    }
+
+    /**
+     * Servidor de archivos locales, o null si nunca se publicó ninguno.
+     */
+    synchronized LocalMediaServer getLocalMediaServer() {
+        return localServer;
+    }
+
+    private void stopLocalServer() {
+        LocalMediaServer server = getLocalMediaServer();
+        if (server != null) server.stop();
+    }
+
+    /**
+     * Política de cache-busting por defecto para loadMedia y la cola.
+     */
+    public void setCacheBustPolicy(CacheBustPolicy policy) {
+        if (policy != null) cacheBustPolicy = policy;
+    }
+
+    /**
+     * Completa el callback con el resultado de un comando de RemoteMediaClient.
+     */
+    private void completeOnResult(PendingResult<RemoteMediaClient.MediaChannelResult> pending, String op, CastCallback done) {
+        if (pending == null) {
+            done.onResult(CastResult.error(CastResult.Code.INTERNAL, op + " request returned null"));
+            return;
+        }
+        pending.setResultCallback(result1 -> {
+            if (result1 != null && result1.getStatus() != null && result1.getStatus().isSuccess()) {
+                Logger.info(TAG, op + " success");
+                done.onResult(CastResult.ok());
+            } else {
+                int statusCode = (result1 != null && result1.getStatus() != null) ? result1.getStatus().getStatusCode() : -1;
+                done.onResult(CastResult.receiverError(op + " failed, statusCode=" + statusCode, statusCode));
+            }
+        });
+    }
+
+    /**
+     * RemoteMediaClient de la sesión actual, o null tras completar done con el error. Hilo principal.
+     */
+    private RemoteMediaClient requireRemoteMediaClient(CastCallback done) {
+        if (!isInitialized || castContext == null) {
+            done.onResult(notInitialized());
+            return null;
+        }
+        CastSession session = castContext.getSessionManager().getCurrentCastSession();
+        if (session == null || !session.isConnected()) {
+            done.onResult(CastResult.error(CastResult.Code.NO_SESSION, "No active Cast session"));
+            return null;
+        }
+        RemoteMediaClient rmc = session.getRemoteMediaClient();
+        if (rmc == null) {
+            done.onResult(CastResult.error(CastResult.Code.NO_SESSION, "RemoteMediaClient is null"));
+        }
+        return rmc;
+    }
+
+    private MediaQueueItem[] buildQueueItems(List<CastMediaItem> items) {
+        MediaQueueItem[] queueItems = new MediaQueueItem[items.size()];
+        for (int i = 0; i < queueItems.length; i++) {
+            CastMediaItem item = items.get(i);
+            if (item.getUrl() == null || item.getUrl().isEmpty()) {
+                throw new IllegalArgumentException("Media URL is required (item " + i + ")");
+            }
+            MediaInfo mediaInfo = buildMediaInfo(item);
+            queueItems[i] = new MediaQueueItem.Builder(mediaInfo)
+                .setAutoplay(item.isAutoplay())
+                .setPreloadTime(item.getPreloadTimeSec())
+                .setStartTime(item.getStartTimeSec())
+                .build();
+        }
+        return queueItems;
+    }
+
+    /**
+     * Carga una cola completa en una sola petición. Cada elemento lleva su preloadTime para que el
+     * receiver precargue el siguiente y el salto entre elementos sea prácticamente inmediato.
+     * @param repeatMode uno de MediaStatus.REPEAT_MODE_*
+     */
+    public void queueLoad(List<CastMediaItem> items, int startIndex, int repeatMode, CastCallback callback) {
+        if (items == null || items.isEmpty()) {
+            callback.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, "At least one queue item is required"));
+            return;
+        }
+        final List<CastMediaItem> served;
+        try {
+            served = serveLocalFiles(items);
+        } catch (IOException e) {
+            callback.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, e.getMessage()));
+            return;
+        }
+        consumeWarmSession();
+        loadGeneration.incrementAndGet();
+        // Reemplaza el media igual que loadMedia: comparte con él la clave de reemplazo
+        commands.submit("queueLoad", CastMetrics.Op.LOAD, CastCommandScheduler.PRIORITY_NORMAL, LOAD_KEY, AdaptiveTimeouts.Op.LOAD, "Queue load timed out", done -> {
+            try {
+                RemoteMediaClient rmc = requireRemoteMediaClient(done);
+                if (rmc == null) return;
+
+                List<MediaQueueItem> queueItems = Arrays.asList(buildQueueItems(served));
+                MediaQueueData queueData = new MediaQueueData.Builder()
+                    .setItems(queueItems)
+                    .setStartIndex(Math.max(0, Math.min(startIndex, queueItems.size() - 1)))
+                    .setRepeatMode(repeatMode)
+                    .build();
+                MediaLoadRequestData req = new MediaLoadRequestData.Builder()
+                    .setQueueData(queueData)
+                    .setAutoplay(true)
+                    .build();
+                Logger.info(TAG, "queueLoad: items=" + queueItems.size() + ", startIndex=" + startIndex);
+                completeOnResult(rmc.load(req), "Queue load", done);
+            } catch (IllegalArgumentException e) {
+                done.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, e.getMessage()));
             } catch (Exception e) {
-                lastError = "Media load timed out";
+                done.onResult(CastResult.error(CastResult.Code.INTERNAL, "Error loading queue: " + e.getMessage()));
             }
-            Logger.error(TAG, lastError, null);
+        }, callback);
+    }
+
+    /**
+     * Inserta elementos en la cola antes de insertBeforeItemId (MediaQueueItem.INVALID_ITEM_ID = al final).
+     */
+    public void queueInsertItems(List<CastMediaItem> items, int insertBeforeItemId, CastCallback callback) {
+        if (items == null || items.isEmpty()) {
+            callback.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, "At least one queue item is required"));
+            return;
+        }
+        final List<CastMediaItem> served;
+        try {
+            served = serveLocalFiles(items);
+        } catch (IOException e) {
+            callback.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, e.getMessage()));
+            return;
         }
+        commands.submit("queueInsertItems", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.QUEUE, "Queue insert timed out", done -> {
+            try {
+                RemoteMediaClient rmc = requireRemoteMediaClient(done);
+                if (rmc == null) return;
+                completeOnResult(rmc.queueInsertItems(buildQueueItems(served), insertBeforeItemId, null), "Queue insert", done);
+            } catch (IllegalArgumentException e) {
+                done.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, e.getMessage()));
+            } catch (Exception e) {
+                done.onResult(CastResult.error(CastResult.Code.INTERNAL, "Error inserting queue items: " + e.getMessage()));
+            }
+        }, callback);
+    }
 
-        if (!success.get() && (lastError == null || lastError.isEmpty())) {
+    public void queueRemoveItems(int[] itemIds, CastCallback callback) {
+        if (itemIds == null || itemIds.length == 0) {
+            callback.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, "At least one itemId is required"));
+            return;
+        }
+        commands.submit("queueRemoveItems", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.QUEUE, "Queue remove timed out", done -> {
             try {
-                CastSession session = castContext.getSessionManager().getCurrentCastSession();
-                String appId = session != null && session.getApplicationMetadata() != null ? session.getApplicationMetadata().getApplicationId() : "";
-                String deviceName = session != null && session.getCastDevice() != null ? session.getCastDevice().getFriendlyName() : "";
-                lastError = "Media load failed (unknown reason, appId=" + appId + ", device=" + deviceName + ")";
+                RemoteMediaClient rmc = requireRemoteMediaClient(done);
+                if (rmc == null) return;
+                completeOnResult(rmc.queueRemoveItems(itemIds, null), "Queue remove", done);
             } catch (Exception e) {
-                lastError = "Media load failed (unknown reason)";
+                done.onResult(CastResult.error(CastResult.Code.INTERNAL, "Error removing queue items: " + e.getMessage()));
             }
-            Logger.error(TAG, lastError, null);
+        }, callback);
+    }
+
+    /**
+     * Mueve itemIds (en ese orden) antes de insertBeforeItemId (MediaQueueItem.INVALID_ITEM_ID = al final).
+     */
+    public void queueReorderItems(int[] itemIds, int insertBeforeItemId, CastCallback callback) {
+        if (itemIds == null || itemIds.length == 0) {
+            callback.onResult(CastResult.error(CastResult.Code.INVALID_ARGUMENT, "At least one itemId is required"));
+            return;
+        }
+        commands.submit("queueReorderItems", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.QUEUE, "Queue reorder timed out", done -> {
+            try {
+                RemoteMediaClient rmc = requireRemoteMediaClient(done);
+                if (rmc == null) return;
+                completeOnResult(rmc.queueReorderItems(itemIds, insertBeforeItemId, null), "Queue reorder", done);
+            } catch (Exception e) {
+                done.onResult(CastResult.error(CastResult.Code.INTERNAL, "Error reordering queue items: " + e.getMessage()));
+            }
+        }, callback);
+    }
+
+    /**
+     * Envía las operaciones al RemoteMediaClient en orden y en una sola pasada por el hilo principal, sin esperar
+     * la respuesta de una para enviar la siguiente (el canal de media las entrega en orden al receiver).
+     * Completa cuando han respondido todas; las que no respondan antes del plazo heredan el error del lote.
+     * El estado previsto se actualiza en el hilo principal justo antes de encolar el lote, en orden con los
+     * MediaStatus del receiver (ver {@link #getPlaybackState()}), y se reconcilia con él antes de llamar a callback.
+     * @param queued si no es null, se invoca en el hilo principal con el estado previsto ya aplicado y el lote encolado
+     */
+    public void executeBatch(List<RemoteCommand> ops, Runnable queued, BatchCallback callback) {
+        final CastResult[] results = new CastResult[ops.size()];
+        if (ops.isEmpty()) {
+            if (queued != null) queued.run();
+            callback.onResult(results);
+            return;
         }
-        return success.get();
+        runOnMain("executeBatch", () -> {
+            long[] predictions = playbackState.predict(ops);
+            submitBatch(ops, predictions, results, callback);
+            if (queued != null) queued.run();
+        });
+    }
+
+    /**
+     * Hilo principal: los resultados y el callback del scheduler llegan por el main looper.
+     */
+    private void submitBatch(List<RemoteCommand> ops, long[] predictions, CastResult[] results, BatchCallback callback) {
+        final boolean[] answered = new boolean[ops.size()];
+        controls.submit("executeBatch", null, CastCommandScheduler.PRIORITY_NORMAL, null, AdaptiveTimeouts.Op.BATCH, "Batch timed out", done -> {
+            RemoteMediaClient rmc = requireRemoteMediaClient(done);
+            if (rmc == null) return;
+            final int[] remaining = { ops.size() };
+            for (int i = 0; i < ops.size(); i++) {
+                final int index = i;
+                final RemoteCommand op = ops.get(i);
+                CastCallback opDone = result -> {
+                    if (answered[index]) return;
+                    answered[index] = true;
+                    results[index] = result;
+                    if (--remaining[0] == 0) done.onResult(CastResult.ok());
+                };
+                try {
+                    completeOnResult(send(rmc, op), op.getType().key(), opDone);
+                } catch (Exception e) {
+                    opDone.onResult(CastResult.error(CastResult.Code.INTERNAL, "Error sending " + op.getType().key() + ": " + e.getMessage()));
+                }
+            }
+        }, batch -> {
+            // Las que no respondieron heredan el error del lote (plazo, reemplazo o sin sesión)
+            CastResult missing = batch.getMessage() != null ? batch : batch.withMessage("No response from receiver");
+            for (int i = 0; i < results.length; i++) {
+                if (!answered[i]) {
+                    // Una respuesta tardía de esta operación ya no cambia el resultado entregado
+                    answered[i] = true;
+                    results[i] = missing;
+                }
+                playbackState.settle(predictions[i], results[i].isSuccess() ? null : results[i].getMessage());
+            }
+            callback.onResult(results.clone());
+        });
+    }
+
+    private PendingResult<RemoteMediaClient.MediaChannelResult> send(RemoteMediaClient rmc, RemoteCommand op) {
+        switch (op.getType()) {
+            case PLAY:
+                return rmc.play();
+            case PAUSE:
+                return rmc.pause();
+            case SEEK:
+                return rmc.seek(new MediaSeekOptions.Builder().setPosition(op.getPositionMs()).setResumeState(op.getResumeState()).build());
+            case SET_VOLUME:
+                return rmc.setStreamVolume(op.getVolume());
+            case MUTE:
+                return rmc.setStreamMute(op.isMuted());
+            case SET_ACTIVE_TRACK_IDS:
+                return rmc.setActiveMediaTracks(op.getTrackIds());
+            case QUEUE_NEXT:
+                return rmc.queueNext(null);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * IDs de los elementos de la cola según el último MediaStatus. Debe llamarse en el hilo principal
+     * (p. ej. desde el callback de una operación de cola).
+     */
+    public int[] getQueueItemIds() {
+        try {
+            CastSession session = castContext.getSessionManager().getCurrentCastSession();
+            RemoteMediaClient rmc = session != null ? session.getRemoteMediaClient() : null;
+            MediaStatus status = rmc != null ? rmc.getMediaStatus() : null;
+            List<MediaQueueItem> queue = status != null ? status.getQueueItems() : null;
+            if (queue == null) return new int[0];
+            int[] ids = new int[queue.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = queue.get(i).getItemId();
+            return ids;
+        } catch (Exception e) {
+            return new int[0];
+        }
+    }
+
+    private String describeSession() {
+        SessionSnapshot snapshot = sessionSnapshot;
+        return "appId=" + snapshot.getAppId() + ", device=" + snapshot.getDeviceName();
     }
 }
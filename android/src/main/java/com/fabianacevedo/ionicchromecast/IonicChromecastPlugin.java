@@ -1,6 +1,8 @@
 package com.fabianacevedo.ionicchromecast;
 
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
+import com.getcapacitor.Logger;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
@@ -8,6 +10,9 @@ import com.getcapacitor.annotation.CapacitorPlugin;
 
 import android.text.TextUtils;
 import com.google.android.gms.cast.CastMediaControlIntent;
+import com.google.android.gms.cast.MediaQueueItem;
+import com.google.android.gms.cast.MediaSeekOptions;
+import com.google.android.gms.cast.MediaStatus;
 import com.google.android.gms.cast.framework.CastSession;
 import com.google.android.gms.cast.framework.Session;
 import com.google.android.gms.cast.framework.SessionManager;
@@ -17,12 +22,54 @@ import androidx.mediarouter.app.MediaRouteChooserDialog;
 import androidx.mediarouter.media.MediaRouteSelector;
 import androidx.mediarouter.media.MediaRouter;
 import android.content.DialogInterface;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
 
 @CapacitorPlugin(name = "IonicChromecast")
 public class IonicChromecastPlugin extends Plugin {
 
+    // Un solo proceso en la traza exportada
+    private static final int TRACE_PID = 1;
+    // Código de rechazo de los argumentos inválidos, el mismo que usa CastResult
+    private static final String INVALID_ARGUMENT = CastResult.Code.INVALID_ARGUMENT.name();
+
     private IonicChromecast implementation = new IonicChromecast();
     private SessionManagerListener<CastSession> sessionListener;
+    private ScheduledExecutorService metricsScheduler;
+    // Identifica los lotes optimistas en el evento batchResult
+    private final AtomicLong nextBatchId = new AtomicLong();
+
+    /**
+     * Con "prewarm": true en la configuración del plugin, el CastContext se obtiene al cargar el plugin
+     * y initialize() normalmente lo encuentra ya listo.
+     * Con "resumeSavedSession": true el SDK se vuelve a unir a la sesión que seguía activa en el receiver.
+     */
+    @Override
+    public void load() {
+        super.load();
+        try {
+            if (getConfig().getBoolean("resumeSavedSession", false)) {
+                implementation.setResumeSavedSession(true);
+            }
+            if (getConfig().getBoolean("prewarm", false)) {
+                implementation.prewarm(getContext());
+            }
+        } catch (Exception e) {
+            Logger.error("IonicChromecast", "Error prewarming Cast SDK: " + e.getMessage(), e);
+        }
+    }
 
     /**
      * Initialize the Google Cast SDK
@@ -33,25 +80,230 @@ public class IonicChromecastPlugin extends Plugin {
         String receiverApplicationId = call.getString("receiverApplicationId");
         
         if (receiverApplicationId == null || receiverApplicationId.isEmpty()) {
-            call.reject("Receiver Application ID is required");
+            call.reject("Receiver Application ID is required", INVALID_ARGUMENT);
             return;
         }
         
-        boolean success = implementation.initialize(getContext(), receiverApplicationId);
-        
-        JSObject ret = new JSObject();
-        ret.put("success", success);
-        String initError = implementation.getLastError();
-        if (initError != null && !initError.isEmpty()) {
-            ret.put("error", initError);
+        Long discoveryTtlMs = call.getLong("discoveryTtlMs");
+        if (discoveryTtlMs != null) implementation.setDiscoveryTtlMs(discoveryTtlMs);
+        implementation.setCacheBustPolicy(CacheBustPolicy.fromString(call.getString("cacheBusting"), null));
+        Long routeDebounceMs = call.getLong("routeDebounceMs");
+        if (routeDebounceMs != null) implementation.setRouteDebounceMs(routeDebounceMs);
+        implementation.setRouteListener(this::onRoutesChanged);
+        Long mediaStatusIntervalMs = call.getLong("mediaStatusIntervalMs");
+        if (mediaStatusIntervalMs != null) implementation.setMediaStatusIntervalMs(mediaStatusIntervalMs);
+        Long progressIntervalMs = call.getLong("progressIntervalMs");
+        if (progressIntervalMs != null) implementation.setProgressIntervalMs(progressIntervalMs);
+        implementation.setPlaybackListener(playbackListener);
+        implementation.setPlaybackStateListener(playbackStateListener);
+        implementation.setMessageListener(messageListener);
+        Boolean resumeSavedSession = call.getBoolean("resumeSavedSession");
+        if (resumeSavedSession != null) implementation.setResumeSavedSession(resumeSavedSession);
+        Long metricsIntervalMs = call.getLong("metricsIntervalMs");
+        if (metricsIntervalMs != null) scheduleMetricsEvents(metricsIntervalMs);
+        Boolean trace = call.getBoolean("trace");
+        if (trace != null) implementation.getTrace().setEnabled(trace);
+        Boolean adaptiveTimeouts = call.getBoolean("adaptiveTimeouts");
+        if (adaptiveTimeouts != null) implementation.getTimeouts().setEnabled(adaptiveTimeouts);
+        JSObject timeoutBounds = call.getObject("timeoutBounds");
+        if (timeoutBounds != null) applyTimeoutBounds(timeoutBounds);
+        JSObject loadRetry = call.getObject("loadRetry");
+        if (loadRetry != null) {
+            implementation.getLoadRetry().configure(loadRetry.optInt("maxRetries", -1), loadRetry.optLong("baseDelayMs", -1),
+                loadRetry.optLong("maxDelayMs", -1), loadRetry.optLong("rejoinTimeoutMs", -1));
         }
-        
-        if (success) {
-            setupSessionListener();
-            call.resolve(ret);
-        } else {
-            call.reject("Failed to initialize Cast SDK", ret);
+
+        // Se resuelve desde el callback; el hilo del plugin queda libre para otras llamadas
+        implementation.initialize(getContext(), receiverApplicationId, result -> {
+            JSObject ret = resultToJSObject(result);
+            InitTimings timings = implementation.getInitTimings();
+            if (timings != null) {
+                ret.put("timings", timingsToJSObject(timings));
+            }
+
+            if (result.isSuccess()) {
+                // La sesión pudo reanudarse antes de registrar el listener: se informa aquí
+                ret.put("resumedSession", implementation.isResumeSavedSessionActive() && implementation.isSessionActive());
+                setupSessionListener();
+                call.resolve(ret);
+            } else {
+                call.reject("Failed to initialize Cast SDK", result.getCode().name(), ret);
+            }
+        });
+    }
+
+    private JSObject timingsToJSObject(InitTimings timings) {
+        JSObject obj = new JSObject();
+        obj.put("prewarmed", timings.isPrewarmed());
+        obj.put("prewarmMs", timings.getPrewarmMs());
+        obj.put("prefsMs", timings.getPrefsMs());
+        obj.put("playServicesMs", timings.getPlayServicesMs());
+        obj.put("castContextMs", timings.getCastContextMs());
+        obj.put("routerSetupMs", timings.getRouterSetupMs());
+        obj.put("totalMs", timings.getTotalMs());
+        return obj;
+    }
+
+    /**
+     * Emite routesChanged / deviceAvailabilityChanged desde el descubrimiento persistente.
+     * DeviceDiscovery ya agrupa las ráfagas y solo llama cuando el conjunto visible cambia.
+     */
+    private void onRoutesChanged(Collection<DiscoveredRoute> routes, boolean available, boolean availabilityChanged) {
+        if (availabilityChanged) {
+            JSObject data = new JSObject();
+            data.put("available", available);
+            notifyListeners("deviceAvailabilityChanged", data);
+        }
+        if (hasListeners("routesChanged")) {
+            JSArray list = new JSArray();
+            for (DiscoveredRoute route : routes) {
+                list.put(routeToJSObject(route));
+            }
+            JSObject data = new JSObject();
+            data.put("available", available);
+            data.put("routes", list);
+            notifyListeners("routesChanged", data);
+        }
+    }
+
+    /**
+     * Emite mediaStatus / progress solo con los campos que cambiaron.
+     * PlaybackMonitor ya limita la frecuencia y no construye nada si nadie escucha.
+     */
+    private final PlaybackMonitor.Listener playbackListener = new PlaybackMonitor.Listener() {
+        @Override
+        public boolean wantsStatus() {
+            return hasListeners("mediaStatus");
+        }
+
+        @Override
+        public boolean wantsProgress() {
+            return hasListeners("progress");
+        }
+
+        @Override
+        public void onStatusChanged(PlaybackMonitor.StatusDelta delta) {
+            notifyListeners("mediaStatus", statusDeltaToJSObject(delta));
+        }
+
+        @Override
+        public void onProgress(long positionMs, long durationMs, boolean durationChanged) {
+            JSObject data = new JSObject();
+            data.put("positionMs", positionMs);
+            if (durationChanged) data.put("durationMs", durationMs);
+            notifyListeners("progress", data);
+        }
+    };
+
+    /**
+     * El receiver rechazó o contradijo un control aplicado de forma optimista: el estado vuelve al del receiver.
+     */
+    private final PlaybackStateModel.Listener playbackStateListener = (fields, reason, error, state) -> {
+        if (!hasListeners("playbackStateRollback")) return;
+        JSObject data = new JSObject();
+        data.put("fields", fieldsToJSArray(fields));
+        data.put("reason", reason);
+        if (error != null) data.put("error", error);
+        data.put("state", playbackStateToJSObject(state));
+        notifyListeners("playbackStateRollback", data);
+    };
+
+    /**
+     * Mensajes del receiver agrupados por MessageChannel: un evento "message" por entrega, con todos los mensajes.
+     */
+    private final MessageChannel.Listener messageListener = new MessageChannel.Listener() {
+        @Override
+        public boolean wantsMessages() {
+            return hasListeners("message");
+        }
+
+        @Override
+        public void onMessages(String namespace, List<Object> messages) {
+            JSArray list = new JSArray();
+            for (Object message : messages) list.put(message);
+            JSObject data = new JSObject();
+            data.put("namespace", namespace);
+            data.put("messages", list);
+            notifyListeners("message", data);
         }
+    };
+
+    private static JSObject playbackStateToJSObject(PlaybackStateModel.State state) {
+        JSObject data = new JSObject();
+        data.put("playerState", playerStateToString(state.getPlayerState()));
+        data.put("positionMs", state.getPositionMs());
+        data.put("durationMs", state.getDurationMs());
+        data.put("volume", state.getVolume());
+        data.put("muted", state.isMuted());
+        data.put("pending", fieldsToJSArray(state.getPendingFields()));
+        return data;
+    }
+
+    private static JSArray fieldsToJSArray(int fields) {
+        JSArray list = new JSArray();
+        if ((fields & PlaybackStateModel.FIELD_PLAYER_STATE) != 0) list.put("playerState");
+        if ((fields & PlaybackStateModel.FIELD_POSITION) != 0) list.put("position");
+        if ((fields & PlaybackStateModel.FIELD_VOLUME) != 0) list.put("volume");
+        if ((fields & PlaybackStateModel.FIELD_MUTED) != 0) list.put("muted");
+        return list;
+    }
+
+    private JSObject statusDeltaToJSObject(PlaybackMonitor.StatusDelta delta) {
+        JSObject data = new JSObject();
+        if (delta.has(PlaybackMonitor.StatusDelta.PLAYER_STATE)) data.put("playerState", playerStateToString(delta.getPlayerState()));
+        if (delta.has(PlaybackMonitor.StatusDelta.IDLE_REASON)) data.put("idleReason", idleReasonToString(delta.getIdleReason()));
+        if (delta.has(PlaybackMonitor.StatusDelta.ITEM_ID)) data.put("itemId", delta.getItemId());
+        if (delta.has(PlaybackMonitor.StatusDelta.CONTENT_ID)) data.put("contentId", delta.getContentId() != null ? delta.getContentId() : "");
+        if (delta.has(PlaybackMonitor.StatusDelta.TITLE)) data.put("title", delta.getTitle() != null ? delta.getTitle() : "");
+        if (delta.has(PlaybackMonitor.StatusDelta.VOLUME)) data.put("volume", delta.getVolume());
+        if (delta.has(PlaybackMonitor.StatusDelta.MUTED)) data.put("muted", delta.isMuted());
+        return data;
+    }
+
+    private static String playerStateToString(int state) {
+        switch (state) {
+            case MediaStatus.PLAYER_STATE_IDLE:
+                return "idle";
+            case MediaStatus.PLAYER_STATE_PLAYING:
+                return "playing";
+            case MediaStatus.PLAYER_STATE_PAUSED:
+                return "paused";
+            case MediaStatus.PLAYER_STATE_BUFFERING:
+                return "buffering";
+            case MediaStatus.PLAYER_STATE_LOADING:
+                return "loading";
+            default:
+                return "unknown";
+        }
+    }
+
+    private static String idleReasonToString(int reason) {
+        switch (reason) {
+            case MediaStatus.IDLE_REASON_FINISHED:
+                return "finished";
+            case MediaStatus.IDLE_REASON_CANCELED:
+                return "canceled";
+            case MediaStatus.IDLE_REASON_INTERRUPTED:
+                return "interrupted";
+            case MediaStatus.IDLE_REASON_ERROR:
+                return "error";
+            default:
+                return "none";
+        }
+    }
+
+    private JSObject routeToJSObject(DiscoveredRoute route) {
+        JSObject obj = new JSObject();
+        obj.put("id", route.getId());
+        obj.put("name", route.getName());
+        obj.put("description", route.getDescription());
+        obj.put("deviceId", route.getDeviceId());
+        obj.put("modelName", route.getModelName());
+        obj.put("deviceType", route.getDeviceType());
+        obj.put("videoOut", route.hasVideoOut());
+        obj.put("audioOut", route.hasAudioOut());
+        obj.put("volumeControl", route.hasVolumeControl());
+        return obj;
     }
 
     private void setupSessionListener() {
@@ -62,12 +314,16 @@ public class IonicChromecastPlugin extends Plugin {
             if (sessionListener == null) {
                 sessionListener = new SessionManagerListener<CastSession>() {
                     @Override public void onSessionStarting(CastSession session) {
+                        implementation.onSessionStarting(session);
+                        implementation.updateSessionSnapshot(null);
                         JSObject data = new JSObject();
                         data.put("state", "starting");
                         notifyListeners("sessionStarted", data);
                     }
 
                     @Override public void onSessionStarted(CastSession session, String sessionId) {
+                        implementation.onSessionStartFinished(true, 0);
+                        implementation.updateSessionSnapshot(session);
                         JSObject data = new JSObject();
                         data.put("state", "started");
                         data.put("sessionId", sessionId);
@@ -75,6 +331,9 @@ public class IonicChromecastPlugin extends Plugin {
                     }
 
                     @Override public void onSessionStartFailed(CastSession session, int i) {
+                        implementation.onSessionStartFinished(false, i);
+                        implementation.updateSessionSnapshot(null);
+                        implementation.onSessionEnded();
                         JSObject data = new JSObject();
                         data.put("state", "startFailed");
                         data.put("code", i);
@@ -82,22 +341,59 @@ public class IonicChromecastPlugin extends Plugin {
                     }
 
                     @Override public void onSessionEnding(CastSession session) {
+                        implementation.updateSessionSnapshot(null);
                         JSObject data = new JSObject();
                         data.put("state", "ending");
                         notifyListeners("sessionEnded", data);
                     }
 
                     @Override public void onSessionEnded(CastSession session, int i) {
+                        if (i != 0) implementation.onSessionDropped(session, false);
+                        implementation.updateSessionSnapshot(null);
+                        implementation.onSessionEnded();
                         JSObject data = new JSObject();
                         data.put("state", "ended");
                         data.put("code", i);
                         notifyListeners("sessionEnded", data);
                     }
 
-                    @Override public void onSessionResuming(CastSession session, String s) {}
-                    @Override public void onSessionResumed(CastSession session, boolean b) {}
-                    @Override public void onSessionResumeFailed(CastSession session, int i) {}
-                    @Override public void onSessionSuspended(CastSession session, int i) {}
+                    @Override public void onSessionResuming(CastSession session, String s) {
+                        implementation.onSessionResuming();
+                        implementation.updateSessionSnapshot(null);
+                        JSObject data = new JSObject();
+                        data.put("state", "resuming");
+                        data.put("sessionId", s);
+                        notifyListeners("sessionResume", data);
+                    }
+
+                    @Override public void onSessionResumed(CastSession session, boolean b) {
+                        implementation.onSessionResumeFinished(true, 0);
+                        // Solo se restaura la foto; el receiver sigue reproduciendo y no se recarga nada
+                        implementation.updateSessionSnapshot(session);
+                        SessionSnapshot snapshot = implementation.getSessionSnapshot();
+                        JSObject data = new JSObject();
+                        data.put("state", "resumed");
+                        data.put("sessionId", session != null ? session.getSessionId() : null);
+                        data.put("wasSuspended", b);
+                        data.put("appId", snapshot.getAppId());
+                        data.put("deviceName", snapshot.getDeviceName());
+                        notifyListeners("sessionResume", data);
+                    }
+
+                    @Override public void onSessionResumeFailed(CastSession session, int i) {
+                        implementation.onSessionResumeFinished(false, i);
+                        implementation.updateSessionSnapshot(null);
+                        implementation.onSessionEnded();
+                        JSObject data = new JSObject();
+                        data.put("state", "resumeFailed");
+                        data.put("code", i);
+                        notifyListeners("sessionResume", data);
+                    }
+
+                    @Override public void onSessionSuspended(CastSession session, int i) {
+                        implementation.onSessionDropped(session, true);
+                        implementation.updateSessionSnapshot(session);
+                    }
                 };
             }
 
@@ -109,6 +405,8 @@ public class IonicChromecastPlugin extends Plugin {
     @Override
     protected void handleOnDestroy() {
         super.handleOnDestroy();
+        implementation.shutdown();
+        scheduleMetricsEvents(0);
         try {
             SessionManager sm = implementation.getCastContext() != null ? implementation.getCastContext().getSessionManager() : null;
             if (sm != null && sessionListener != null) {
@@ -126,7 +424,7 @@ public class IonicChromecastPlugin extends Plugin {
             JSObject err = new JSObject();
             err.put("success", false);
             err.put("message", "Cast SDK not initialized");
-            call.reject("Failed to request Cast session", err);
+            call.reject("Failed to request Cast session", CastResult.Code.NOT_INITIALIZED.name(), err);
             return;
         }
 
@@ -147,9 +445,13 @@ public class IonicChromecastPlugin extends Plugin {
                 String receiverId = CastOptionsProvider.sReceiverApplicationId;
                 if (TextUtils.isEmpty(receiverId)) receiverId = "CC1AD845";
 
-                MediaRouteSelector selector = new MediaRouteSelector.Builder()
-                        .addControlCategory(CastMediaControlIntent.categoryForCast(receiverId))
-                        .build();
+                // El del descubrimiento persistente: MediaRouter ya conoce sus rutas y el diálogo las muestra al abrirse
+                MediaRouteSelector selector = implementation.getMediaRouteSelector();
+                if (selector == null) {
+                    selector = new MediaRouteSelector.Builder()
+                            .addControlCategory(CastMediaControlIntent.categoryForCast(receiverId))
+                            .build();
+                }
 
                 MediaRouteChooserDialog chooserDialog = new MediaRouteChooserDialog(activity, androidx.appcompat.R.style.Theme_AppCompat_NoActionBar);
                 chooserDialog.setRouteSelector(selector);
@@ -167,7 +469,95 @@ public class IonicChromecastPlugin extends Plugin {
                 JSObject err = new JSObject();
                 err.put("success", false);
                 err.put("message", "Error showing chooser: " + e.getMessage());
-                call.reject("Failed to request Cast session", err);
+                call.reject("Failed to request Cast session", CastResult.Code.INTERNAL.name(), err);
+            }
+        });
+    }
+
+    /**
+     * Dispositivos descubiertos con sus capacidades, para pintar un selector propio. Responde desde el índice
+     * del descubrimiento persistente; solo escanea si está caducado o se pide refresh.
+     */
+    @PluginMethod
+    public void listDevices(PluginCall call) {
+        DeviceDiscovery discovery = implementation.getDeviceDiscovery();
+        if (discovery == null) {
+            call.reject("Cast SDK not initialized", CastResult.Code.NOT_INITIALIZED.name());
+            return;
+        }
+        boolean refresh = Boolean.TRUE.equals(call.getBoolean("refresh", false));
+        if (discovery.isFresh() && !refresh) {
+            discovery.recordIndexHit();
+            call.resolve(devicesToJSObject(discovery));
+            return;
+        }
+        implementation.areDevicesAvailable(result -> {
+            // Una lista vacía solo si el escaneo no encontró nada; los demás fallos no son "sin dispositivos"
+            if (!result.isSuccess() && result.getCode() != CastResult.Code.NO_DEVICES) {
+                call.reject("Failed to list Cast devices", result.getCode().name(), resultToJSObject(result));
+                return;
+            }
+            call.resolve(devicesToJSObject(discovery));
+        });
+    }
+
+    private JSObject devicesToJSObject(DeviceDiscovery discovery) {
+        SessionSnapshot snapshot = implementation.getSessionSnapshot();
+        String sessionDeviceId = snapshot.isConnected() ? snapshot.getDeviceId() : "";
+        JSArray devices = new JSArray();
+        for (DiscoveredRoute route : discovery.getRoutes()) {
+            JSObject obj = routeToJSObject(route);
+            obj.put("connected", sessionDeviceId.equals(route.getDeviceId()));
+            devices.put(obj);
+        }
+        JSObject ret = new JSObject();
+        ret.put("devices", devices);
+        return ret;
+    }
+
+    /**
+     * Conecta con un dispositivo de listDevices() sin el diálogo del selector; se resuelve con la sesión iniciada.
+     */
+    @PluginMethod
+    public void selectDevice(PluginCall call) {
+        String routeId = call.getString("routeId");
+        if (routeId == null || routeId.isEmpty()) {
+            call.reject("routeId is required", INVALID_ARGUMENT);
+            return;
+        }
+        implementation.selectDevice(routeId, result -> {
+            JSObject ret = resultToJSObject(result);
+            if (result.isSuccess()) {
+                SessionSnapshot snapshot = implementation.getSessionSnapshot();
+                ret.put("deviceName", snapshot.getDeviceName());
+                ret.put("deviceId", snapshot.getDeviceId());
+                call.resolve(ret);
+            } else {
+                call.reject("Failed to select Cast device", result.getCode().name(), ret);
+            }
+        });
+    }
+
+    /**
+     * Abre la sesión y lanza el receiver antes de reproducir (p. ej. al abrir la pantalla del reproductor),
+     * sin diálogo. Se resuelve con la sesión lista para loadMedia.
+     */
+    @PluginMethod
+    public void prepareSession(PluginCall call) {
+        String routeId = call.getString("routeId");
+        Long idleTimeoutMs = call.getLong("idleTimeoutMs");
+        long idleMs = idleTimeoutMs != null ? idleTimeoutMs : IonicChromecast.DEFAULT_WARM_IDLE_MS;
+        boolean wasActive = implementation.isSessionActive();
+        implementation.prepareSession(routeId, idleMs, result -> {
+            JSObject ret = resultToJSObject(result);
+            if (result.isSuccess()) {
+                SessionSnapshot snapshot = implementation.getSessionSnapshot();
+                ret.put("alreadyConnected", wasActive);
+                ret.put("deviceName", snapshot.getDeviceName());
+                ret.put("deviceId", snapshot.getDeviceId());
+                call.resolve(ret);
+            } else {
+                call.reject("Failed to prepare Cast session", result.getCode().name(), ret);
             }
         });
     }
@@ -177,9 +567,13 @@ public class IonicChromecastPlugin extends Plugin {
      */
     @PluginMethod
     public void isSessionActive(PluginCall call) {
-        boolean active = implementation.isSessionActive();
+        SessionSnapshot snapshot = implementation.getSessionSnapshot();
         JSObject ret = new JSObject();
-        ret.put("active", active);
+        ret.put("active", implementation.isSessionActive());
+        if (snapshot.isConnected()) {
+            ret.put("appId", snapshot.getAppId());
+            ret.put("deviceName", snapshot.getDeviceName());
+        }
         call.resolve(ret);
     }
 
@@ -188,27 +582,340 @@ public class IonicChromecastPlugin extends Plugin {
      */
     @PluginMethod
     public void loadMedia(PluginCall call) {
-        String url = call.getString("url");
-        JSObject metadataObj = call.getObject("metadata");
+        CastMediaItem item = parseMediaItem(call.getData());
 
-        String title = metadataObj != null ? metadataObj.getString("title") : null;
-        String subtitle = metadataObj != null ? metadataObj.getString("subtitle") : null;
-        String contentType = metadataObj != null ? metadataObj.getString("contentType") : null;
-        String imageUrl = null;
-        if (metadataObj != null && metadataObj.has("images")) {
-            try { imageUrl = metadataObj.getJSONArray("images").optString(0, null); } catch (Exception ignore) {}
+        implementation.loadMedia(item, result -> {
+            JSObject ret = resultToJSObject(result);
+            ret.put("retries", result.getRetries());
+            if (result.isSuccess()) {
+                call.resolve(ret);
+            } else {
+                call.reject("Failed to load media", result.getCode().name(), ret);
+            }
+        });
+    }
+
+    /**
+     * Carga una cola de media en una sola llamada; el receiver precarga el siguiente elemento
+     */
+    @PluginMethod
+    public void queueLoad(PluginCall call) {
+        List<CastMediaItem> items;
+        try {
+            items = parseMediaItems(call.getArray("items"));
+        } catch (Exception e) {
+            call.reject("Invalid queue items: " + e.getMessage(), INVALID_ARGUMENT);
+            return;
+        }
+        int startIndex = call.getInt("startIndex", 0);
+        int repeatMode = parseRepeatMode(call.getString("repeatMode"));
+
+        implementation.queueLoad(items, startIndex, repeatMode, result -> resolveQueueCall(call, result, "Failed to load queue"));
+    }
+
+    /**
+     * Inserta elementos en la cola actual
+     */
+    @PluginMethod
+    public void queueInsertItems(PluginCall call) {
+        List<CastMediaItem> items;
+        try {
+            items = parseMediaItems(call.getArray("items"));
+        } catch (Exception e) {
+            call.reject("Invalid queue items: " + e.getMessage(), INVALID_ARGUMENT);
+            return;
+        }
+        int insertBefore = call.getInt("insertBeforeItemId", MediaQueueItem.INVALID_ITEM_ID);
+
+        implementation.queueInsertItems(items, insertBefore, result -> resolveQueueCall(call, result, "Failed to insert queue items"));
+    }
+
+    /**
+     * Quita elementos de la cola actual
+     */
+    @PluginMethod
+    public void queueRemoveItems(PluginCall call) {
+        int[] itemIds;
+        try {
+            itemIds = parseItemIds(call.getArray("itemIds"));
+        } catch (Exception e) {
+            call.reject("Invalid itemIds: " + e.getMessage(), INVALID_ARGUMENT);
+            return;
+        }
+
+        implementation.queueRemoveItems(itemIds, result -> resolveQueueCall(call, result, "Failed to remove queue items"));
+    }
+
+    /**
+     * Reordena elementos de la cola actual
+     */
+    @PluginMethod
+    public void queueReorderItems(PluginCall call) {
+        int[] itemIds;
+        try {
+            itemIds = parseItemIds(call.getArray("itemIds"));
+        } catch (Exception e) {
+            call.reject("Invalid itemIds: " + e.getMessage(), INVALID_ARGUMENT);
+            return;
+        }
+        int insertBefore = call.getInt("insertBeforeItemId", MediaQueueItem.INVALID_ITEM_ID);
+
+        implementation.queueReorderItems(itemIds, insertBefore, result -> resolveQueueCall(call, result, "Failed to reorder queue items"));
+    }
+
+    /**
+     * Control remoto en una sola llamada: { operations: [{ type: 'play' | 'pause' | 'seek' | 'setVolume' | 'mute' |
+     * 'setActiveTrackIds' | 'queueNext', ... }], optimistic?: boolean }. Resuelve con el resultado de cada operación
+     * en el mismo orden, aunque alguna falle; solo rechaza si el lote no es válido. Con optimistic resuelve en cuanto
+     * el lote se encola, con el estado previsto; los fallos llegan después como playbackStateRollback.
+     */
+    @PluginMethod
+    public void executeBatch(PluginCall call) {
+        List<RemoteCommand> ops;
+        try {
+            ops = parseRemoteCommands(call.getArray("operations"));
+        } catch (Exception e) {
+            call.reject("Invalid operations: " + e.getMessage(), INVALID_ARGUMENT);
+            return;
         }
 
-        boolean ok = implementation.loadMedia(url, title, subtitle, imageUrl, contentType);
+        if (Boolean.TRUE.equals(call.getBoolean("optimistic", false))) {
+            // Los resultados reales llegan después en batchResult, con el mismo batchId
+            final long batchId = nextBatchId.incrementAndGet();
+            // Se resuelve en cuanto el lote está encolado, con la predicción ya aplicada en el hilo principal
+            implementation.executeBatch(ops, () -> {
+                JSArray results = new JSArray();
+                for (RemoteCommand op : ops) {
+                    JSObject result = new JSObject();
+                    result.put("type", op.getType().key());
+                    result.put("success", true);
+                    result.put("pending", true);
+                    results.put(result);
+                }
+                JSObject ret = new JSObject();
+                ret.put("success", true);
+                ret.put("optimistic", true);
+                ret.put("batchId", batchId);
+                ret.put("results", results);
+                ret.put("state", playbackStateToJSObject(implementation.getPlaybackState()));
+                call.resolve(ret);
+            }, opResults -> {
+                if (!hasListeners("batchResult")) return;
+                JSObject data = batchResultToJSObject(ops, opResults);
+                data.put("batchId", batchId);
+                notifyListeners("batchResult", data);
+            });
+            return;
+        }
+
+        implementation.executeBatch(ops, null, opResults -> call.resolve(batchResultToJSObject(ops, opResults)));
+    }
+
+    /**
+     * { success, results, state } de un lote ya respondido por el receiver (hilo principal).
+     */
+    private JSObject batchResultToJSObject(List<RemoteCommand> ops, CastResult[] opResults) {
+        JSArray results = new JSArray();
+        boolean allSucceeded = true;
+        for (int i = 0; i < opResults.length; i++) {
+            JSObject result = resultToJSObject(opResults[i]);
+            result.put("type", ops.get(i).getType().key());
+            allSucceeded &= opResults[i].isSuccess();
+            results.put(result);
+        }
         JSObject ret = new JSObject();
-        ret.put("success", ok);
-        String err = implementation.getLastError();
-        if (err != null && !err.isEmpty()) ret.put("error", err);
-        if (ok) {
+        ret.put("success", allSucceeded);
+        ret.put("results", results);
+        ret.put("state", playbackStateToJSObject(implementation.getPlaybackState()));
+        return ret;
+    }
+
+    /**
+     * Registra un namespace propio (urn:x-cast:...) para enviar y recibir mensajes con el receiver
+     */
+    @PluginMethod
+    public void addMessageNamespace(PluginCall call) {
+        String namespace = call.getString("namespace");
+        if (namespace == null || !namespace.startsWith(MessageChannel.NAMESPACE_PREFIX) || namespace.length() == MessageChannel.NAMESPACE_PREFIX.length()) {
+            call.reject("namespace must start with " + MessageChannel.NAMESPACE_PREFIX, INVALID_ARGUMENT);
+            return;
+        }
+        implementation.addMessageNamespace(
+            namespace,
+            call.getLong("batchWindowMs", MessageChannel.DEFAULT_BATCH_WINDOW_MS),
+            call.getLong("deliveryIntervalMs", MessageChannel.DEFAULT_DELIVERY_INTERVAL_MS),
+            result -> call.resolve()
+        );
+    }
+
+    @PluginMethod
+    public void removeMessageNamespace(PluginCall call) {
+        String namespace = call.getString("namespace");
+        if (namespace == null) {
+            call.reject("namespace is required", INVALID_ARGUMENT);
+            return;
+        }
+        implementation.removeMessageNamespace(namespace, result -> call.resolve());
+    }
+
+    /**
+     * Encola un mensaje; sale en el siguiente envío agrupado del namespace. Resuelve sin esperar al receiver:
+     * los envíos fallidos o descartados se cuentan en getDiagnostics().messages.
+     */
+    @PluginMethod
+    public void sendMessage(PluginCall call) {
+        String namespace = call.getString("namespace");
+        Object message = call.getData().opt("message");
+        if (namespace == null || message == null || message == JSONObject.NULL) {
+            call.reject("namespace and message are required", INVALID_ARGUMENT);
+            return;
+        }
+        String json = message instanceof String ? JSONObject.quote((String) message) : message.toString();
+        if (!implementation.sendMessage(namespace, json, call.getString("coalesceKey"))) {
+            call.reject("Namespace not registered: " + namespace + ". Call addMessageNamespace() first.", INVALID_ARGUMENT);
+            return;
+        }
+        call.resolve();
+    }
+
+    /**
+     * Estado de reproducción previsto: incluye los controles aún sin confirmar por el receiver (pending).
+     * Se responde sin pasar por el hilo principal.
+     */
+    @PluginMethod
+    public void getPlaybackState(PluginCall call) {
+        call.resolve(playbackStateToJSObject(implementation.getPlaybackState()));
+    }
+
+    /**
+     * seek.position en segundos, como startTime en loadMedia; seek.resume = 'play' | 'pause' (por defecto sin cambio).
+     */
+    private List<RemoteCommand> parseRemoteCommands(JSONArray array) throws JSONException {
+        if (array == null || array.length() == 0) throw new JSONException("operations is required");
+        List<RemoteCommand> ops = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject obj = array.getJSONObject(i);
+            String typeKey = obj.optString("type", null);
+            RemoteCommand.Type type = RemoteCommand.Type.fromKey(typeKey);
+            if (type == null) throw new JSONException("unknown operation type '" + typeKey + "' at index " + i);
+            switch (type) {
+                case PLAY:
+                    ops.add(RemoteCommand.play());
+                    break;
+                case PAUSE:
+                    ops.add(RemoteCommand.pause());
+                    break;
+                case SEEK:
+                    if (!obj.has("position")) throw new JSONException("seek requires position at index " + i);
+                    ops.add(RemoteCommand.seek(Math.round(obj.getDouble("position") * 1000), parseResumeState(obj.optString("resume", null))));
+                    break;
+                case SET_VOLUME:
+                    if (!obj.has("level")) throw new JSONException("setVolume requires level at index " + i);
+                    ops.add(RemoteCommand.setVolume(obj.getDouble("level")));
+                    break;
+                case MUTE:
+                    ops.add(RemoteCommand.mute(obj.optBoolean("muted", true)));
+                    break;
+                case SET_ACTIVE_TRACK_IDS:
+                    JSONArray ids = obj.optJSONArray("trackIds");
+                    if (ids == null) throw new JSONException("setActiveTrackIds requires trackIds at index " + i);
+                    long[] trackIds = new long[ids.length()];
+                    for (int j = 0; j < trackIds.length; j++) trackIds[j] = ids.getLong(j);
+                    ops.add(RemoteCommand.setActiveTrackIds(trackIds));
+                    break;
+                case QUEUE_NEXT:
+                    ops.add(RemoteCommand.queueNext());
+                    break;
+            }
+        }
+        return ops;
+    }
+
+    private int parseResumeState(String resume) {
+        if ("play".equals(resume)) return MediaSeekOptions.RESUME_STATE_PLAY;
+        if ("pause".equals(resume)) return MediaSeekOptions.RESUME_STATE_PAUSE;
+        return MediaSeekOptions.RESUME_STATE_UNCHANGED;
+    }
+
+    /**
+     * Se invoca desde el callback de la operación (hilo principal), donde el MediaStatus ya refleja la cola.
+     */
+    private void resolveQueueCall(PluginCall call, CastResult result, String rejectMessage) {
+        JSObject ret = resultToJSObject(result);
+        if (result.isSuccess()) {
+            JSArray ids = new JSArray();
+            for (int id : implementation.getQueueItemIds()) ids.put(id);
+            ret.put("itemIds", ids);
             call.resolve(ret);
         } else {
-            call.reject("Failed to load media", ret);
+            call.reject(rejectMessage, result.getCode().name(), ret);
+        }
+    }
+
+    /**
+     * { success } y, si falló, { code, error, statusCode } del resultado propio de la llamada. code también va
+     * como código del rechazo (error.code en JS), así que el llamador no depende del texto del mensaje.
+     */
+    private static JSObject resultToJSObject(CastResult result) {
+        JSObject ret = new JSObject();
+        ret.put("success", result.isSuccess());
+        if (!result.isSuccess()) {
+            ret.put("code", result.getCode().name());
+            String message = result.getMessage();
+            if (message != null && !message.isEmpty()) ret.put("error", message);
+            if (result.getStatusCode() >= 0) ret.put("statusCode", result.getStatusCode());
+        }
+        return ret;
+    }
+
+    private List<CastMediaItem> parseMediaItems(JSONArray array) throws JSONException {
+        if (array == null) throw new JSONException("items is required");
+        List<CastMediaItem> items = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            items.add(parseMediaItem(array.getJSONObject(i)));
         }
+        return items;
+    }
+
+    /**
+     * Mismo formato que las opciones de loadMedia: { url, metadata: { title, subtitle, images, contentType } },
+     * más preloadTime / startTime (segundos), autoplay y cacheBusting.
+     */
+    private CastMediaItem parseMediaItem(JSONObject obj) {
+        JSONObject metadataObj = obj.optJSONObject("metadata");
+        String title = metadataObj != null ? metadataObj.optString("title", null) : null;
+        String subtitle = metadataObj != null ? metadataObj.optString("subtitle", null) : null;
+        String contentType = metadataObj != null ? metadataObj.optString("contentType", null) : null;
+        String imageUrl = null;
+        if (metadataObj != null && metadataObj.has("images")) {
+            JSONArray images = metadataObj.optJSONArray("images");
+            if (images != null) imageUrl = images.optString(0, null);
+        }
+        return new CastMediaItem(
+            obj.optString("url", null),
+            title,
+            subtitle,
+            imageUrl,
+            contentType,
+            obj.optDouble("preloadTime", CastMediaItem.DEFAULT_PRELOAD_TIME_SEC),
+            obj.optDouble("startTime", 0),
+            obj.optBoolean("autoplay", true),
+            CacheBustPolicy.fromString(obj.optString("cacheBusting", null), null)
+        );
+    }
+
+    private int[] parseItemIds(JSONArray array) throws JSONException {
+        if (array == null || array.length() == 0) throw new JSONException("itemIds is required");
+        int[] ids = new int[array.length()];
+        for (int i = 0; i < ids.length; i++) ids[i] = array.getInt(i);
+        return ids;
+    }
+
+    private int parseRepeatMode(String mode) {
+        if ("all".equals(mode)) return MediaStatus.REPEAT_MODE_REPEAT_ALL;
+        if ("single".equals(mode)) return MediaStatus.REPEAT_MODE_REPEAT_SINGLE;
+        if ("shuffle".equals(mode)) return MediaStatus.REPEAT_MODE_REPEAT_ALL_AND_SHUFFLE;
+        return MediaStatus.REPEAT_MODE_REPEAT_OFF;
     }
 
     /**
@@ -216,27 +923,348 @@ public class IonicChromecastPlugin extends Plugin {
      */
     @PluginMethod
     public void endSession(PluginCall call) {
-        boolean ended = implementation.endSession();
-        JSObject ret = new JSObject();
-        ret.put("success", ended);
-        String err = implementation.getLastError();
-        if (err != null && !err.isEmpty()) ret.put("error", err);
+        implementation.endSession(result -> {
+            JSObject ret = resultToJSObject(result);
+            if (result.isSuccess()) {
+                call.resolve(ret);
+            } else {
+                call.reject("Failed to end session", result.getCode().name(), ret);
+            }
+        });
+    }
 
-        if (ended) {
+    /**
+     * Revisa si hay dispositivos disponibles
+     */
+    @PluginMethod
+    public void areDevicesAvailable(PluginCall call) {
+        implementation.areDevicesAvailable(result -> {
+            // Solo "no hay dispositivos" es una respuesta; sin inicializar, plazo vencido, etc. se rechazan con su código
+            if (!result.isSuccess() && result.getCode() != CastResult.Code.NO_DEVICES) {
+                call.reject("Failed to check available devices", result.getCode().name(), resultToJSObject(result));
+                return;
+            }
+            JSObject ret = new JSObject();
+            ret.put("available", result.isSuccess());
             call.resolve(ret);
-        } else {
-            call.reject("Failed to end session", ret);
+        });
+    }
+
+    /**
+     * { load: { minMs, maxMs }, scan: { ... }, ... }; las claves desconocidas se ignoran.
+     */
+    private void applyTimeoutBounds(JSObject bounds) {
+        AdaptiveTimeouts timeouts = implementation.getTimeouts();
+        for (AdaptiveTimeouts.Op op : AdaptiveTimeouts.Op.values()) {
+            JSONObject b = bounds.optJSONObject(op.key());
+            if (b != null) timeouts.setBounds(op, b.optLong("minMs", 0), b.optLong("maxMs", 0));
         }
     }
 
     /**
-     * Revisa si hay dispositivos disponibles
+     * Diagnóstico interno: cuánto tiempo ha ocupado el plugin el hilo principal
      */
     @PluginMethod
-    public void areDevicesAvailable(PluginCall call) {
-        boolean available = implementation.areDevicesAvailable();
+    public void getDiagnostics(PluginCall call) {
+        MainThreadMonitor monitor = implementation.getMainThreadMonitor();
+        JSObject mainThread = new JSObject();
+        mainThread.put("tasks", monitor.getTasks());
+        mainThread.put("busyTotalMs", monitor.getBusyTotalMs());
+        mainThread.put("busyMaxMs", monitor.getBusyMaxMs());
+        mainThread.put("busyMaxOp", monitor.getBusyMaxOp());
+        mainThread.put("queueWaitAvgMs", monitor.getQueueWaitAvgMs());
+        mainThread.put("queueWaitMaxMs", monitor.getQueueWaitMaxMs());
+
         JSObject ret = new JSObject();
-        ret.put("available", available);
+        ret.put("mainThread", mainThread);
+
+        InitTimings timings = implementation.getInitTimings();
+        if (timings != null) {
+            ret.put("init", timingsToJSObject(timings));
+        }
+
+        DeviceDiscovery discovery = implementation.getDeviceDiscovery();
+        if (discovery != null) {
+            JSObject disc = new JSObject();
+            disc.put("devices", discovery.getRoutes().size());
+            disc.put("fresh", discovery.isFresh());
+            disc.put("ttlMs", discovery.getTtlMs());
+            disc.put("indexHits", discovery.getIndexHits());
+            disc.put("scansStarted", discovery.getScansStarted());
+            disc.put("scanCallsCoalesced", discovery.getScanCallsCoalesced());
+            ret.put("discovery", disc);
+        }
+
+        ret.put("commands", schedulerToJSObject(implementation.getCommandScheduler()));
+        ret.put("controls", schedulerToJSObject(implementation.getControlScheduler()));
+
+        MessageChannel channel = implementation.getMessageChannel();
+        JSObject messages = new JSObject();
+        for (MessageChannel.Namespace ns : channel.getNamespaces()) {
+            JSObject stats = new JSObject();
+            stats.put("queued", ns.queued.get());
+            stats.put("coalesced", ns.coalesced.get());
+            stats.put("sent", ns.sent.get());
+            stats.put("framesSent", ns.framesSent.get());
+            stats.put("sendFailed", ns.sendFailed.get());
+            stats.put("droppedOutgoing", ns.droppedOutgoing.get());
+            stats.put("received", ns.received.get());
+            stats.put("framesReceived", ns.framesReceived.get());
+            stats.put("delivered", ns.delivered.get());
+            stats.put("deliveries", ns.deliveries.get());
+            stats.put("droppedIncoming", ns.droppedIncoming.get());
+            messages.put(ns.name, stats);
+        }
+        ret.put("messages", messages);
+
+        AdaptiveTimeouts timeouts = implementation.getTimeouts();
+        JSObject deadlines = new JSObject();
+        for (AdaptiveTimeouts.Op op : AdaptiveTimeouts.Op.values()) {
+            AdaptiveTimeouts.Snapshot snap = timeouts.snapshot(op);
+            JSObject obj = new JSObject();
+            obj.put("deadlineMs", snap.deadlineMs);
+            obj.put("defaultMs", snap.defaultMs);
+            obj.put("minMs", snap.minMs);
+            obj.put("maxMs", snap.maxMs);
+            obj.put("samples", snap.samples);
+            obj.put("srttMs", snap.srttMs);
+            obj.put("rttvarMs", snap.rttvarMs);
+            obj.put("backoff", snap.backoff);
+            obj.put("timeouts", snap.timeouts);
+            JSObject devices = new JSObject();
+            for (Map.Entry<String, AdaptiveTimeouts.Snapshot.Device> e : snap.getDevices().entrySet()) {
+                AdaptiveTimeouts.Snapshot.Device d = e.getValue();
+                JSObject dev = new JSObject();
+                dev.put("samples", d.samples);
+                dev.put("srttMs", d.srttMs);
+                dev.put("rttvarMs", d.rttvarMs);
+                dev.put("deadlineMs", d.deadlineMs);
+                devices.put(e.getKey(), dev);
+            }
+            obj.put("devices", devices);
+            deadlines.put(op.key(), obj);
+        }
+        JSObject timeoutsObj = new JSObject();
+        timeoutsObj.put("adaptive", timeouts.isEnabled());
+        timeoutsObj.put("operations", deadlines);
+        ret.put("timeouts", timeoutsObj);
+
+        LoadRetryPolicy loadRetry = implementation.getLoadRetry();
+        JSObject retry = new JSObject();
+        retry.put("maxRetries", loadRetry.getMaxRetries());
+        retry.put("retries", loadRetry.retries.get());
+        retry.put("recovered", loadRetry.recovered.get());
+        retry.put("exhausted", loadRetry.exhausted.get());
+        retry.put("rejoins", loadRetry.rejoins.get());
+        ret.put("loadRetry", retry);
+
+        LocalMediaServer localServer = implementation.getLocalMediaServer();
+        if (localServer != null) {
+            JSObject server = new JSObject();
+            server.put("running", localServer.isRunning());
+            server.put("files", localServer.getFileCount());
+            server.put("activeConnections", localServer.activeConnections.get());
+            server.put("requests", localServer.requests.get());
+            server.put("rangeRequests", localServer.rangeRequests.get());
+            server.put("bytesSent", localServer.bytesSent.get());
+            server.put("rejected", localServer.rejected.get());
+            server.put("errors", localServer.errors.get());
+            ret.put("localServer", server);
+        }
+
+        if (Boolean.TRUE.equals(call.getBoolean("reset", false))) {
+            channel.resetStats();
+            loadRetry.resetStats();
+            if (localServer != null) localServer.resetStats();
+            // monitor y scheduler solo se escriben en el hilo principal: se ponen a cero allí
+            implementation.resetMainThreadStats(() -> call.resolve(ret));
+            return;
+        }
         call.resolve(ret);
     }
+
+    /**
+     * Métricas de latencia y resultado por operación (init, scan, sessionStart, sessionResume, stop, load, end)
+     */
+    @PluginMethod
+    public void getMetrics(PluginCall call) {
+        CastMetrics metrics = implementation.getMetrics();
+        if (Boolean.TRUE.equals(call.getBoolean("reset", false))) metrics = metrics.snapshotAndReset();
+        call.resolve(metricsToJSObject(metrics));
+    }
+
+    /**
+     * Línea de tiempo de las últimas fases (init, scan, sesión, carga, fin, hilo principal) en formato JSON de
+     * Chrome/Perfetto: se guarda tal cual en un .json y se abre en ui.perfetto.dev o chrome://tracing.
+     */
+    @PluginMethod
+    public void getTrace(PluginCall call) {
+        TraceRecorder trace = implementation.getTrace();
+        JSArray events = new JSArray();
+        Map<Long, String> threads = new HashMap<>();
+        trace.forEach((category, name, threadId, threadName, tsMicros, durMicros) -> {
+            JSObject event = new JSObject();
+            event.put("name", name);
+            event.put("cat", category);
+            event.put("ph", "X");
+            event.put("ts", tsMicros);
+            event.put("dur", durMicros);
+            event.put("pid", TRACE_PID);
+            event.put("tid", threadId);
+            events.put(event);
+            threads.put(threadId, threadName);
+        });
+        // Metadatos para que el visor muestre el nombre de cada hilo
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            JSObject args = new JSObject();
+            args.put("name", thread.getValue());
+            JSObject meta = new JSObject();
+            meta.put("name", "thread_name");
+            meta.put("ph", "M");
+            meta.put("pid", TRACE_PID);
+            meta.put("tid", thread.getKey());
+            meta.put("args", args);
+            events.put(meta);
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("traceEvents", events);
+        ret.put("displayTimeUnit", "ms");
+        ret.put("enabled", trace.isEnabled());
+        ret.put("capacity", trace.getCapacity());
+        if (Boolean.TRUE.equals(call.getBoolean("reset", false))) {
+            trace.reset();
+        }
+        call.resolve(ret);
+    }
+
+    /**
+     * Dispositivos ordenados del más rápido y fiable al peor según lo observado en ejecuciones anteriores.
+     * Los visibles ahora van primero (con su routeId); los que nunca se usaron quedan con el score neutro.
+     */
+    @PluginMethod
+    public void getDeviceRanking(PluginCall call) {
+        boolean includeUnavailable = Boolean.TRUE.equals(call.getBoolean("includeUnavailable", false));
+        DeviceQualityStore store = implementation.getDeviceQuality();
+        List<DeviceQualityStore.Quality> ranked = store != null ? store.ranked() : new ArrayList<>();
+        Map<String, DeviceQualityStore.Quality> byDevice = new HashMap<>();
+        for (DeviceQualityStore.Quality q : ranked) byDevice.put(q.deviceId, q);
+
+        List<JSObject> available = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        DeviceDiscovery discovery = implementation.getDeviceDiscovery();
+        if (discovery != null) {
+            for (DiscoveredRoute route : discovery.getRoutes()) {
+                DeviceQualityStore.Quality q = byDevice.get(route.getDeviceId());
+                JSObject obj = qualityToJSObject(route.getDeviceId(), route.getName(), q);
+                obj.put("routeId", route.getId());
+                obj.put("available", true);
+                double score = q != null ? q.score : DeviceQualityStore.Quality.UNKNOWN_SCORE;
+                // Inserción ordenada: hay pocos dispositivos visibles a la vez
+                int i = 0;
+                while (i < scores.size() && scores.get(i) >= score) i++;
+                scores.add(i, score);
+                available.add(i, obj);
+                seen.add(route.getDeviceId());
+            }
+        }
+
+        JSArray devices = new JSArray();
+        for (JSObject obj : available) devices.put(obj);
+        if (includeUnavailable) {
+            for (DeviceQualityStore.Quality q : ranked) {
+                if (seen.contains(q.deviceId)) continue;
+                JSObject obj = qualityToJSObject(q.deviceId, q.name, q);
+                obj.put("available", false);
+                devices.put(obj);
+            }
+        }
+        JSObject ret = new JSObject();
+        ret.put("devices", devices);
+        call.resolve(ret);
+    }
+
+    private JSObject qualityToJSObject(String deviceId, String name, DeviceQualityStore.Quality q) {
+        JSObject obj = new JSObject();
+        obj.put("deviceId", deviceId);
+        obj.put("name", name);
+        obj.put("score", q != null ? q.score : DeviceQualityStore.Quality.UNKNOWN_SCORE);
+        obj.put("sessionStarts", q != null ? q.sessionStarts : 0);
+        obj.put("loads", q != null ? q.loads : 0);
+        if (q != null) {
+            obj.put("sessionStartMs", q.sessionStartMs);
+            obj.put("loadMs", q.loadMs);
+            obj.put("failureRate", q.getFailureRate());
+            obj.put("timeoutRate", q.getTimeoutRate());
+            obj.put("disconnects", q.disconnects);
+            obj.put("disconnectRate", q.getDisconnectRate());
+            obj.put("lastUsed", q.lastSeen);
+        }
+        return obj;
+    }
+
+    /**
+     * Emite el evento "metrics" cada intervalMs, fuera del hilo principal; 0 lo desactiva.
+     */
+    private synchronized void scheduleMetricsEvents(long intervalMs) {
+        if (metricsScheduler != null) {
+            metricsScheduler.shutdownNow();
+            metricsScheduler = null;
+        }
+        if (intervalMs <= 0) return;
+        metricsScheduler = Executors.newSingleThreadScheduledExecutor();
+        metricsScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (hasListeners("metrics")) {
+                    notifyListeners("metrics", metricsToJSObject(implementation.getMetrics()));
+                }
+            } catch (Exception e) {
+                Logger.error("IonicChromecast", "Error emitting metrics: " + e.getMessage(), e);
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static JSObject schedulerToJSObject(CastCommandScheduler scheduler) {
+        JSObject ret = new JSObject();
+        ret.put("depth", scheduler.getDepth());
+        ret.put("maxDepth", scheduler.getMaxDepth());
+        ret.put("submitted", scheduler.getSubmitted());
+        ret.put("succeeded", scheduler.getSucceeded());
+        ret.put("failed", scheduler.getFailed());
+        ret.put("timedOut", scheduler.getTimedOut());
+        ret.put("superseded", scheduler.getSuperseded());
+        ret.put("cancelled", scheduler.getCancelled());
+        ret.put("waitAvgMs", scheduler.getAvgWaitMs());
+        ret.put("waitMaxMs", scheduler.getMaxWaitMs());
+        return ret;
+    }
+
+    private JSObject metricsToJSObject(CastMetrics metrics) {
+        JSArray bounds = new JSArray();
+        for (long bound : CastMetrics.BUCKET_BOUNDS_MS) bounds.put(bound);
+
+        JSObject operations = new JSObject();
+        for (CastMetrics.Op op : CastMetrics.Op.values()) {
+            CastMetrics.OpStats stats = metrics.get(op);
+            JSObject obj = new JSObject();
+            obj.put("count", stats.getCount());
+            obj.put("success", stats.getSuccess());
+            obj.put("failure", stats.getFailure());
+            obj.put("timeout", stats.getTimeout());
+            obj.put("meanMs", stats.getMeanMs());
+            obj.put("maxMs", stats.getMaxMs());
+            obj.put("p50Ms", stats.getPercentileMs(0.5));
+            obj.put("p95Ms", stats.getPercentileMs(0.95));
+            JSArray counts = new JSArray();
+            for (int i = 0; i < stats.getBucketCountLength(); i++) counts.put(stats.getBucketCount(i));
+            obj.put("buckets", counts);
+            operations.put(op.key(), obj);
+        }
+
+        JSObject ret = new JSObject();
+        ret.put("bucketBoundsMs", bounds);
+        ret.put("operations", operations);
+        return ret;
+    }
 }
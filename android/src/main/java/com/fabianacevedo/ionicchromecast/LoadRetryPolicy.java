@@ -0,0 +1,99 @@
+package com.fabianacevedo.ionicchromecast;
+
+import com.google.android.gms.cast.CastStatusCodes;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reintentos de loadMedia ante fallos pasajeros del receiver o de la red.
+ * Clasifica el fallo de cada intento: los pasajeros (red, timeout, interrumpido) se reintentan tras un
+ * backoff exponencial con jitter; los de sesión esperan a que la sesión suspendida se reanude y luego
+ * reintentan; el resto (petición inválida, media que el receiver no puede reproducir, reemplazado por otra
+ * carga) se devuelven tal cual. La configuración es volatile: se puede cambiar desde cualquier hilo.
+ */
+class LoadRetryPolicy {
+
+    static final int DEFAULT_MAX_RETRIES = 2;
+    static final long DEFAULT_BASE_DELAY_MS = 500;
+    static final long DEFAULT_MAX_DELAY_MS = 5000;
+    static final long DEFAULT_REJOIN_TIMEOUT_MS = 10000;
+
+    enum Kind {
+        /** Pasajero: se reintenta tras el backoff */
+        TRANSIENT,
+        /** Sin sesión utilizable: se espera a que la sesión suspendida se reanude y se reintenta */
+        SESSION,
+        /** No cambia por reintentar */
+        PERMANENT
+    }
+
+    private volatile int maxRetries = DEFAULT_MAX_RETRIES;
+    private volatile long baseDelayMs = DEFAULT_BASE_DELAY_MS;
+    private volatile long maxDelayMs = DEFAULT_MAX_DELAY_MS;
+    private volatile long rejoinTimeoutMs = DEFAULT_REJOIN_TIMEOUT_MS;
+
+    // Estadísticas, legibles desde cualquier hilo
+    final AtomicLong retries = new AtomicLong();
+    final AtomicLong recovered = new AtomicLong();
+    final AtomicLong exhausted = new AtomicLong();
+    final AtomicLong rejoins = new AtomicLong();
+
+    /**
+     * Clasifica el statusCode de un MediaChannelResult fallido.
+     */
+    static Kind classify(int statusCode) {
+        switch (statusCode) {
+            case CastStatusCodes.NETWORK_ERROR:
+            case CastStatusCodes.INTERNAL_ERROR:
+            case CastStatusCodes.INTERRUPTED:
+            case CastStatusCodes.TIMEOUT:
+            case CastStatusCodes.MESSAGE_SEND_BUFFER_TOO_FULL:
+                return Kind.TRANSIENT;
+            case CastStatusCodes.API_NOT_CONNECTED:
+            case CastStatusCodes.APPLICATION_NOT_RUNNING:
+            case CastStatusCodes.ERROR_SERVICE_DISCONNECTED:
+                return Kind.SESSION;
+            default:
+                // INVALID_REQUEST, CANCELED, REPLACED, NOT_ALLOWED, FAILED (el receiver no pudo cargar el media)...
+                return Kind.PERMANENT;
+        }
+    }
+
+    /**
+     * @param maxRetries reintentos tras el primer intento; 0 desactiva los reintentos
+     * Los valores negativos conservan el actual.
+     */
+    void configure(int maxRetries, long baseDelayMs, long maxDelayMs, long rejoinTimeoutMs) {
+        if (maxRetries >= 0) this.maxRetries = maxRetries;
+        if (baseDelayMs >= 0) this.baseDelayMs = baseDelayMs;
+        if (maxDelayMs >= 0) this.maxDelayMs = maxDelayMs;
+        if (rejoinTimeoutMs >= 0) this.rejoinTimeoutMs = rejoinTimeoutMs;
+    }
+
+    int getMaxRetries() {
+        return maxRetries;
+    }
+
+    long getRejoinTimeoutMs() {
+        return rejoinTimeoutMs;
+    }
+
+    /**
+     * Espera antes del reintento número retry (1, 2, ...): base·2^(retry-1) acotado a maxDelayMs, con "equal
+     * jitter" (la mitad fija y la otra mitad aleatoria) para que varios emisores no reintenten a la vez.
+     */
+    long delayMs(int retry) {
+        long cap = Math.max(0, maxDelayMs);
+        long delay = Math.min(cap, baseDelayMs << Math.min(Math.max(0, retry - 1), 20));
+        if (delay <= 1) return delay;
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    void resetStats() {
+        retries.set(0);
+        recovered.set(0);
+        exhausted.set(0);
+        rejoins.set(0);
+    }
+}
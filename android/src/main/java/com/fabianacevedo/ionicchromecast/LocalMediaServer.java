@@ -0,0 +1,498 @@
+package com.fabianacevedo.ionicchromecast;
+
+import com.getcapacitor.Logger;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URLConnection;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor HTTP mínimo para que el receiver reproduzca archivos locales de la app (loadMedia con file://).
+ * Cada archivo se publica en http://ip-wifi:puerto/token/nombre con un token aleatorio; nada más es accesible.
+ * Soporta Range (206) para los seeks del receiver y envía el cuerpo con FileChannel.transferTo, que en Android
+ * es sendfile: los bytes van del archivo al socket sin pasar por memoria de la app. El FileChannel de cada
+ * archivo se abre una vez y lo comparten todas las peticiones, ya que transferTo con posición explícita no
+ * mueve el cursor. Un hilo por conexión (keep-alive), con tope de MAX_CONNECTIONS.
+ * Se arranca con el primer archivo registrado y stop() cierra todo y olvida los tokens.
+ */
+class LocalMediaServer {
+
+    private static final String TAG = "IonicChromecast";
+    static final int MAX_CONNECTIONS = 16;
+    // Conexión keep-alive sin peticiones: se cierra
+    private static final int IDLE_TIMEOUT_MS = 15000;
+    private static final int MAX_HEADER_BYTES = 8192;
+    private static final String CAPACITOR_FILE_PATH = "/_capacitor_file_";
+    // Los receivers que leen el media con XHR/fetch (MSE) necesitan CORS
+    private static final String CORS_HEADERS = "Access-Control-Allow-Origin: *\r\n"
+        + "Access-Control-Expose-Headers: Content-Length, Content-Range, Accept-Ranges\r\n";
+
+    private final List<File> allowedRoots;
+    private final TraceRecorder trace;
+    private final SecureRandom random = new SecureRandom();
+    // Lo leen los hilos de conexión sin lock
+    private final ConcurrentHashMap<String, Entry> byToken = new ConcurrentHashMap<>();
+    // Protegidos por this
+    private final Map<String, Entry> byPath = new HashMap<>();
+    private ServerSocketChannel server;
+    private ThreadPoolExecutor workers;
+    private String baseUrl;
+
+    final AtomicLong requests = new AtomicLong();
+    final AtomicLong rangeRequests = new AtomicLong();
+    final AtomicLong bytesSent = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+    final AtomicLong errors = new AtomicLong();
+    final AtomicInteger activeConnections = new AtomicInteger();
+
+    /**
+     * @param allowedRoots directorios de la app cuyos archivos se pueden publicar
+     */
+    LocalMediaServer(List<File> allowedRoots, TraceRecorder trace) {
+        this.allowedRoots = allowedRoots;
+        this.trace = trace;
+    }
+
+    /**
+     * Archivo al que apunta una URL local (file://, ruta absoluta o URL de Capacitor.convertFileSrc), o null si es remota.
+     */
+    static File toLocalFile(String url) {
+        if (url == null || url.isEmpty()) return null;
+        // "//host/..." es una URL relativa al protocolo (remota), no una ruta
+        if (url.startsWith("/") && !url.startsWith("//")) return new File(url);
+        try {
+            URI uri = new URI(url);
+            String path = uri.getPath();
+            if ("file".equalsIgnoreCase(uri.getScheme())) return path != null ? new File(path) : null;
+            if ("localhost".equalsIgnoreCase(uri.getHost()) && path != null && path.startsWith(CAPACITOR_FILE_PATH + "/")) {
+                return new File(path.substring(CAPACITOR_FILE_PATH.length()));
+            }
+        } catch (Exception ignored) {}
+        return null;
+    }
+
+    /**
+     * Publica un archivo y devuelve su URL; el mismo archivo conserva su URL hasta stop(). Cualquier hilo.
+     * @param contentType null lo deduce de la extensión
+     * @throws IOException si el archivo no existe, está fuera de los directorios de la app o no hay red local
+     */
+    String register(File file, String contentType) throws IOException {
+        File canonical = file.getCanonicalFile();
+        if (!canonical.isFile() || !canonical.canRead()) {
+            throw new IOException("Local file not found: " + file.getPath());
+        }
+        if (!isAllowed(canonical)) {
+            throw new IOException("Local file is outside the app directories: " + file.getPath());
+        }
+        String base;
+        Entry entry;
+        // Junto con start() para que un stop() concurrente no deje un token en un servidor ya cerrado
+        synchronized (this) {
+            base = start();
+            entry = byPath.get(canonical.getPath());
+            if (entry == null) {
+                String type = contentType;
+                if (type == null || type.isEmpty()) type = URLConnection.guessContentTypeFromName(canonical.getName());
+                entry = new Entry(canonical, type != null ? type : "application/octet-stream", newToken());
+                byPath.put(canonical.getPath(), entry);
+                byToken.put(entry.token, entry);
+            }
+        }
+        return base + "/" + entry.token + "/" + URLEncoder.encode(canonical.getName(), "UTF-8").replace("+", "%20");
+    }
+
+    private boolean isAllowed(File canonical) {
+        String path = canonical.getPath();
+        for (File root : allowedRoots) {
+            if (root == null) continue;
+            try {
+                String rootPath = root.getCanonicalPath();
+                if (path.startsWith(rootPath.endsWith("/") ? rootPath : rootPath + "/")) return true;
+            } catch (IOException ignored) {}
+        }
+        return false;
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        StringBuilder sb = new StringBuilder(32);
+        for (byte b : bytes) sb.append(String.format(Locale.ROOT, "%02x", b));
+        return sb.toString();
+    }
+
+    synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Arranca el servidor si no lo está; devuelve http://ip:puerto.
+     */
+    private synchronized String start() throws IOException {
+        if (server != null) return baseUrl;
+        InetAddress address = findLanAddress();
+        if (address == null) throw new IOException("No local network address reachable by the Cast device");
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.socket().setReuseAddress(true);
+            channel.socket().bind(new InetSocketAddress(address, 0), MAX_CONNECTIONS);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(0, MAX_CONNECTIONS, 30, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), r -> {
+                Thread t = new Thread(r, "IonicChromecast-http");
+                t.setDaemon(true);
+                return t;
+            });
+        server = channel;
+        workers = pool;
+        baseUrl = "http://" + address.getHostAddress() + ":" + channel.socket().getLocalPort();
+        Thread acceptor = new Thread(() -> acceptLoop(channel, pool), "IonicChromecast-http-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        Logger.info(TAG, "Local media server listening on " + baseUrl);
+        return baseUrl;
+    }
+
+    /**
+     * Cierra el socket de escucha, las conexiones y los archivos; las URLs publicadas dejan de ser válidas.
+     */
+    void stop() {
+        ServerSocketChannel channel;
+        ThreadPoolExecutor pool;
+        List<Entry> entries;
+        synchronized (this) {
+            channel = server;
+            pool = workers;
+            server = null;
+            workers = null;
+            baseUrl = null;
+            entries = new ArrayList<>(byPath.values());
+            byPath.clear();
+            byToken.clear();
+        }
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+        // Interrumpir un hilo bloqueado en un canal cierra ese canal
+        pool.shutdownNow();
+        for (Entry entry : entries) entry.close();
+        Logger.info(TAG, "Local media server stopped");
+    }
+
+    void resetStats() {
+        for (AtomicLong counter : new AtomicLong[] { requests, rangeRequests, bytesSent, rejected, errors }) {
+            counter.set(0);
+        }
+    }
+
+    int getFileCount() {
+        return byToken.size();
+    }
+
+    private void acceptLoop(ServerSocketChannel channel, ThreadPoolExecutor pool) {
+        while (channel.isOpen()) {
+            SocketChannel client;
+            try {
+                client = channel.accept();
+            } catch (IOException e) {
+                break;
+            }
+            try {
+                pool.execute(() -> serve(client));
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                try {
+                    writeFully(client, ascii("HTTP/1.1 503 Service Unavailable\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"));
+                } catch (IOException ignored) {}
+                closeQuietly(client);
+            }
+        }
+    }
+
+    private void serve(SocketChannel client) {
+        activeConnections.incrementAndGet();
+        try {
+            client.socket().setSoTimeout(IDLE_TIMEOUT_MS);
+            client.socket().setTcpNoDelay(true);
+            InputStream in = client.socket().getInputStream();
+            byte[] buffer = new byte[MAX_HEADER_BYTES];
+            int filled = 0;
+            while (true) {
+                // Cabeceras completas (hasta \r\n\r\n); lo que sobre es el inicio de la siguiente petición
+                int headerEnd;
+                while ((headerEnd = indexOfHeaderEnd(buffer, filled)) < 0) {
+                    if (filled == buffer.length) {
+                        writeFully(client, ascii("HTTP/1.1 431 Request Header Fields Too Large\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"));
+                        return;
+                    }
+                    int n = in.read(buffer, filled, buffer.length - filled);
+                    if (n < 0) return;
+                    filled += n;
+                }
+                String head = new String(buffer, 0, headerEnd, StandardCharsets.ISO_8859_1);
+                int consumed = headerEnd + 4;
+                System.arraycopy(buffer, consumed, buffer, 0, filled - consumed);
+                filled -= consumed;
+                if (!handle(client, head)) return;
+            }
+        } catch (SocketTimeoutException ignored) {
+            // keep-alive inactivo
+        } catch (IOException ignored) {
+            // El receiver corta la conexión al hacer seek: no es un error
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            Logger.error(TAG, "Local media server error: " + e.getMessage(), e);
+        } finally {
+            activeConnections.decrementAndGet();
+            closeQuietly(client);
+        }
+    }
+
+    /**
+     * Atiende una petición. @return true si la conexión sigue abierta para la siguiente
+     */
+    private boolean handle(SocketChannel client, String head) throws IOException {
+        long started = System.nanoTime();
+        requests.incrementAndGet();
+        String[] lines = head.split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length < 3) {
+            writeFully(client, ascii("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"));
+            return false;
+        }
+        String method = requestLine[0];
+        String target = requestLine[1];
+        boolean keepAlive = !"HTTP/1.0".equals(requestLine[2]);
+        String range = null;
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon <= 0) continue;
+            String name = lines[i].substring(0, colon).trim();
+            String value = lines[i].substring(colon + 1).trim();
+            if (name.equalsIgnoreCase("Range")) range = value;
+            else if (name.equalsIgnoreCase("Connection")) keepAlive = !value.equalsIgnoreCase("close");
+        }
+        String connection = keepAlive ? "keep-alive" : "close";
+
+        // Preflight CORS
+        if (method.equals("OPTIONS")) {
+            writeFully(client, ascii("HTTP/1.1 204 No Content\r\n" + CORS_HEADERS
+                + "Access-Control-Allow-Methods: GET, HEAD, OPTIONS\r\nAccess-Control-Allow-Headers: Range\r\n"
+                + "Access-Control-Max-Age: 86400\r\nContent-Length: 0\r\nConnection: " + connection + "\r\n\r\n"));
+            return keepAlive;
+        }
+        boolean headOnly = method.equals("HEAD");
+        if (!headOnly && !method.equals("GET")) {
+            writeFully(client, ascii("HTTP/1.1 405 Method Not Allowed\r\nAllow: GET, HEAD, OPTIONS\r\nContent-Length: 0\r\nConnection: " + connection + "\r\n\r\n"));
+            return keepAlive;
+        }
+
+        Entry entry = lookup(target);
+        FileChannel file = entry != null ? entry.channel() : null;
+        if (file == null) {
+            writeFully(client, ascii("HTTP/1.1 404 Not Found\r\n" + CORS_HEADERS + "Content-Length: 0\r\nConnection: " + connection + "\r\n\r\n"));
+            return keepAlive;
+        }
+
+        long length = file.size();
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        if (range != null) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                writeFully(client, ascii("HTTP/1.1 416 Range Not Satisfiable\r\n" + CORS_HEADERS + "Content-Range: bytes */" + length
+                    + "\r\nContent-Length: 0\r\nConnection: " + connection + "\r\n\r\n"));
+                return keepAlive;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                partial = true;
+                rangeRequests.incrementAndGet();
+            }
+        }
+        long count = end - start + 1;
+
+        StringBuilder response = new StringBuilder(320);
+        response.append(partial ? "HTTP/1.1 206 Partial Content\r\n" : "HTTP/1.1 200 OK\r\n");
+        response.append(CORS_HEADERS);
+        response.append("Content-Type: ").append(entry.contentType).append("\r\n");
+        response.append("Accept-Ranges: bytes\r\n");
+        response.append("Content-Length: ").append(count).append("\r\n");
+        if (partial) response.append("Content-Range: bytes ").append(start).append('-').append(end).append('/').append(length).append("\r\n");
+        response.append("Cache-Control: no-cache\r\n");
+        response.append("Connection: ").append(connection).append("\r\n\r\n");
+        writeFully(client, ascii(response.toString()));
+
+        if (!headOnly) {
+            // sendfile: del archivo al socket sin copias en la app
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, client);
+                // El archivo se acortó mientras lo servíamos: el cuerpo ya no cuadra con Content-Length
+                if (sent <= 0) return false;
+                position += sent;
+                remaining -= sent;
+                bytesSent.addAndGet(sent);
+            }
+        }
+        trace.span("http", partial ? "http.range" : "http.get", started);
+        return keepAlive;
+    }
+
+    /**
+     * /token/nombre?query -> Entry; el nombre es decorativo, manda el token.
+     */
+    private Entry lookup(String target) {
+        if (!target.startsWith("/")) return null;
+        int end = target.indexOf('/', 1);
+        if (end < 0) end = target.indexOf('?');
+        String token = target.substring(1, end < 0 ? target.length() : end);
+        return byToken.get(token);
+    }
+
+    /**
+     * Rango de una cabecera Range (solo el primero si hay varios).
+     * @return {start, end} inclusivo; vacío si la cabecera no es de bytes (se sirve entero); null si no es satisfacible
+     */
+    static long[] parseRange(String header, long length) {
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, 6)) return new long[0];
+        String spec = value.substring(6);
+        int comma = spec.indexOf(',');
+        if (comma >= 0) spec = spec.substring(0, comma);
+        spec = spec.trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // bytes=-N: los últimos N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) return null;
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start < 0 || start >= length || end < start) return null;
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int indexOfHeaderEnd(byte[] buffer, int filled) {
+        for (int i = 0; i + 3 < filled; i++) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n' && buffer[i + 2] == '\r' && buffer[i + 3] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private static ByteBuffer ascii(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * Primera IPv4 privada de una interfaz activa, preferentemente Wi-Fi: la que comparte red con el receiver.
+     */
+    private static InetAddress findLanAddress() throws IOException {
+        InetAddress fallback = null;
+        for (NetworkInterface nif : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (!nif.isUp() || nif.isLoopback() || nif.isVirtual()) continue;
+            for (InetAddress address : Collections.list(nif.getInetAddresses())) {
+                if (!(address instanceof Inet4Address) || !address.isSiteLocalAddress()) continue;
+                String name = nif.getName();
+                if (name.startsWith("wlan") || name.startsWith("eth")) return address;
+                if (fallback == null) fallback = address;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Archivo publicado. El FileChannel se abre con la primera petición y se comparte entre conexiones.
+     */
+    private static final class Entry {
+        final File file;
+        final String contentType;
+        final String token;
+        private FileChannel channel;
+        private boolean closed = false;
+
+        Entry(File file, String contentType, String token) {
+            this.file = file;
+            this.contentType = contentType;
+            this.token = token;
+        }
+
+        synchronized FileChannel channel() {
+            if (closed) return null;
+            if (channel == null || !channel.isOpen()) {
+                try {
+                    channel = new RandomAccessFile(file, "r").getChannel();
+                } catch (IOException e) {
+                    return null;
+                }
+            }
+            return channel;
+        }
+
+        synchronized void close() {
+            closed = true;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {}
+                channel = null;
+            }
+        }
+    }
+}
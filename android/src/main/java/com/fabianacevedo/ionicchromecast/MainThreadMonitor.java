@@ -0,0 +1,102 @@
+package com.fabianacevedo.ionicchromecast;
+
+/**
+ * Mide cuánto tiempo ocupa el plugin el hilo principal (UI).
+ * Registra la espera en cola del looper y la duración de cada tarea que publicamos,
+ * para poder confirmar que ninguna operación Cast congela la UI. Ambas quedan también como spans en la traza.
+ * Solo escribe el hilo principal; los lectores ven valores volatile.
+ */
+class MainThreadMonitor {
+
+    private final TraceRecorder trace;
+    private volatile long tasks;
+    private volatile long busyTotalNanos;
+    private volatile long busyMaxNanos;
+    private volatile String busyMaxOp;
+    private volatile long queueWaitTotalNanos;
+    private volatile long queueWaitMaxNanos;
+    private volatile long queuedTasks;
+    // Profundidad de run() anidados; solo el hilo principal la toca
+    private int depth;
+
+    MainThreadMonitor(TraceRecorder trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Envuelve una tarea que se publicará en el looper principal para medir su espera y su duración.
+     */
+    Runnable wrap(String op, Runnable task) {
+        final long postedAt = System.nanoTime();
+        return () -> {
+            long now = System.nanoTime();
+            long wait = now - postedAt;
+            trace.record("looper", op, postedAt, now);
+            queuedTasks++;
+            queueWaitTotalNanos += wait;
+            if (wait > queueWaitMaxNanos) queueWaitMaxNanos = wait;
+            run(op, task);
+        };
+    }
+
+    /**
+     * Ejecuta una tarea que ya está en el hilo principal (p. ej. un ResultCallback de Cast) midiendo su duración.
+     * Un run() dentro de otro (el scheduler arrancando un comando desde una tarea ya medida) deja su span en la
+     * traza pero no suma tareas ni tiempo ocupado: ese tiempo ya lo cuenta la tarea exterior.
+     */
+    void run(String op, Runnable task) {
+        long start = System.nanoTime();
+        depth++;
+        try {
+            task.run();
+        } finally {
+            depth--;
+            long end = System.nanoTime();
+            long busy = end - start;
+            trace.record("main", op, start, end);
+            if (depth == 0) {
+                tasks++;
+                busyTotalNanos += busy;
+                if (busy > busyMaxNanos) {
+                    busyMaxNanos = busy;
+                    busyMaxOp = op;
+                }
+            }
+        }
+    }
+
+    long getTasks() {
+        return tasks;
+    }
+
+    double getBusyTotalMs() {
+        return busyTotalNanos / 1_000_000.0;
+    }
+
+    double getBusyMaxMs() {
+        return busyMaxNanos / 1_000_000.0;
+    }
+
+    String getBusyMaxOp() {
+        return busyMaxOp;
+    }
+
+    double getQueueWaitMaxMs() {
+        return queueWaitMaxNanos / 1_000_000.0;
+    }
+
+    double getQueueWaitAvgMs() {
+        long queued = queuedTasks;
+        return queued == 0 ? 0 : (queueWaitTotalNanos / 1_000_000.0) / queued;
+    }
+
+    void reset() {
+        tasks = 0;
+        busyTotalNanos = 0;
+        busyMaxNanos = 0;
+        busyMaxOp = null;
+        queueWaitTotalNanos = 0;
+        queueWaitMaxNanos = 0;
+        queuedTasks = 0;
+    }
+}
@@ -0,0 +1,334 @@
+package com.fabianacevedo.ionicchromecast;
+
+import android.os.Handler;
+import com.getcapacitor.Logger;
+import com.google.android.gms.cast.Cast;
+import com.google.android.gms.cast.framework.CastSession;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Mensajes de la app con un receiver propio en namespaces urn:x-cast:*.
+ * Salida: lo enviado durante batchWindowMs sale en un solo sendMessage. Varios mensajes van en un marco
+ * {"$b":[m1,m2,...]}; uno solo va tal cual, así que un receiver que no conoce el marco sigue funcionando.
+ * La excepción es un mensaje que por sí mismo parece un marco (objeto cuya única clave es "$b"): va siempre
+ * dentro de un marco de uno para que el otro extremo no lo desempaquete. El receiver sigue la misma regla.
+ * Un mensaje con coalesceKey reemplaza al pendiente con la misma clave: de los mensajes de sincronización de alta
+ * frecuencia solo sale el último valor de cada ventana.
+ * Entrada: los marcos se desempaquetan y los mensajes se entregan agrupados, como mucho una entrega por namespace
+ * cada deliveryIntervalMs. Si un búfer se llena se descartan los mensajes más antiguos y se cuentan.
+ * send() puede llamarse desde cualquier hilo; el resto corre en el hilo principal.
+ */
+class MessageChannel {
+
+    private static final String TAG = "IonicChromecast";
+    static final String NAMESPACE_PREFIX = "urn:x-cast:";
+    static final String BATCH_KEY = "$b";
+    private static final String BATCH_PREFIX = "{\"" + BATCH_KEY + "\":[";
+    static final long DEFAULT_BATCH_WINDOW_MS = 20;
+    static final long DEFAULT_DELIVERY_INTERVAL_MS = 50;
+    // El SDK rechaza mensajes de más de 64 KB
+    static final int MAX_FRAME_CHARS = 60 * 1024;
+    static final int MAX_BUFFERED = 256;
+
+    /**
+     * Destino de los mensajes recibidos. Hilo principal.
+     */
+    interface Listener {
+        boolean wantsMessages();
+
+        /**
+         * @param messages valores JSON ya parseados (JSONObject, JSONArray, String, Number, Boolean)
+         */
+        void onMessages(String namespace, List<Object> messages);
+    }
+
+    private final Handler mainHandler;
+    private final ConcurrentHashMap<String, Namespace> namespaces = new ConcurrentHashMap<>();
+    private Listener listener;
+    // Solo hilo principal
+    private CastSession session;
+
+    MessageChannel(Handler mainHandler) {
+        this.mainHandler = mainHandler;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Registra (o reconfigura) un namespace. Hilo principal.
+     */
+    void register(String name, long batchWindowMs, long deliveryIntervalMs) {
+        Namespace ns = namespaces.get(name);
+        if (ns == null) {
+            ns = new Namespace(name);
+            namespaces.put(name, ns);
+            if (session != null) listen(session, ns);
+        }
+        ns.batchWindowMs = Math.max(0, batchWindowMs);
+        ns.deliveryIntervalMs = Math.max(0, deliveryIntervalMs);
+    }
+
+    /**
+     * Hilo principal. Los mensajes pendientes del namespace se descartan.
+     */
+    void unregister(String name) {
+        Namespace ns = namespaces.remove(name);
+        if (ns == null) return;
+        mainHandler.removeCallbacks(ns.flush);
+        mainHandler.removeCallbacks(ns.deliver);
+        if (session != null) unlisten(session, ns);
+    }
+
+    Collection<Namespace> getNamespaces() {
+        return namespaces.values();
+    }
+
+    /**
+     * Sigue la sesión actual: registra los callbacks de entrada de todos los namespaces. Hilo principal.
+     */
+    void attach(CastSession newSession) {
+        if (newSession == session) return;
+        if (session != null) {
+            for (Namespace ns : namespaces.values()) unlisten(session, ns);
+        }
+        session = newSession;
+        if (newSession != null) {
+            for (Namespace ns : namespaces.values()) listen(newSession, ns);
+        }
+    }
+
+    /**
+     * Encola un mensaje (texto JSON). Cualquier hilo.
+     * @param coalesceKey si hay un mensaje pendiente con la misma clave se reemplaza; null = nunca se reemplaza
+     * @return false si el namespace no está registrado
+     */
+    boolean send(String name, String json, String coalesceKey) {
+        Namespace ns = namespaces.get(name);
+        if (ns == null) return false;
+        ns.queued.incrementAndGet();
+        synchronized (ns.outgoing) {
+            if (coalesceKey != null) {
+                for (Outgoing pending : ns.outgoing) {
+                    if (coalesceKey.equals(pending.coalesceKey)) {
+                        pending.json = json;
+                        ns.coalesced.incrementAndGet();
+                        return true;
+                    }
+                }
+            }
+            if (ns.outgoing.size() >= MAX_BUFFERED) {
+                ns.outgoing.pollFirst();
+                ns.droppedOutgoing.incrementAndGet();
+            }
+            ns.outgoing.addLast(new Outgoing(json, coalesceKey));
+            if (!ns.flushScheduled) {
+                ns.flushScheduled = true;
+                mainHandler.postDelayed(ns.flush, ns.batchWindowMs);
+            }
+        }
+        return true;
+    }
+
+    private void flush(Namespace ns) {
+        List<Outgoing> batch;
+        synchronized (ns.outgoing) {
+            ns.flushScheduled = false;
+            batch = new ArrayList<>(ns.outgoing);
+            ns.outgoing.clear();
+        }
+        if (batch.isEmpty()) return;
+        // send() pudo programar el flush justo después de unregister(): lo pendiente se descarta
+        if (namespaces.get(ns.name) != ns) return;
+        CastSession current = session;
+        if (current == null || !current.isConnected()) {
+            ns.droppedOutgoing.addAndGet(batch.size());
+            return;
+        }
+
+        int start = 0;
+        while (start < batch.size()) {
+            // Tantos mensajes como quepan en un marco; uno solo (aunque exceda) sale sin marco salvo que parezca uno
+            StringBuilder frame = new StringBuilder(BATCH_PREFIX);
+            int end = start;
+            while (end < batch.size()) {
+                String json = batch.get(end).json;
+                if (end > start && frame.length() + json.length() + 3 > MAX_FRAME_CHARS) break;
+                if (end > start) frame.append(',');
+                frame.append(json);
+                end++;
+            }
+            int count = end - start;
+            String payload = count == 1 && !looksLikeFrame(batch.get(start).json) ? batch.get(start).json : frame.append("]}").toString();
+            sendFrame(current, ns, payload, count);
+            start = end;
+        }
+    }
+
+    private void sendFrame(CastSession target, Namespace ns, String payload, int count) {
+        try {
+            target.sendMessage(ns.name, payload).setResultCallback(status -> {
+                if (status != null && status.isSuccess()) {
+                    ns.sent.addAndGet(count);
+                    ns.framesSent.incrementAndGet();
+                } else {
+                    ns.sendFailed.addAndGet(count);
+                    Logger.error(TAG, "Message to " + ns.name + " failed, statusCode=" + (status != null ? status.getStatusCode() : -1), null);
+                }
+            });
+        } catch (Exception e) {
+            ns.sendFailed.addAndGet(count);
+            Logger.error(TAG, "Error sending message to " + ns.name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void listen(CastSession target, Namespace ns) {
+        try {
+            target.setMessageReceivedCallbacks(ns.name, ns.callback);
+        } catch (Exception e) {
+            Logger.error(TAG, "Error registering namespace " + ns.name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void unlisten(CastSession target, Namespace ns) {
+        try {
+            target.removeMessageReceivedCallbacks(ns.name);
+        } catch (Exception ignored) {}
+    }
+
+    private void onMessageReceived(Namespace ns, String message) {
+        ns.framesReceived.incrementAndGet();
+        Object value = parse(message);
+        if (isFrame(value)) {
+            JSONArray items = (JSONArray) ((JSONObject) value).opt(BATCH_KEY);
+            for (int i = 0; i < items.length(); i++) buffer(ns, items.opt(i));
+        } else {
+            buffer(ns, value);
+        }
+        if (!ns.deliveryScheduled) {
+            ns.deliveryScheduled = true;
+            mainHandler.postDelayed(ns.deliver, ns.deliveryIntervalMs);
+        }
+    }
+
+    private void buffer(Namespace ns, Object value) {
+        ns.received.incrementAndGet();
+        if (ns.incoming.size() >= MAX_BUFFERED) {
+            ns.incoming.pollFirst();
+            ns.droppedIncoming.incrementAndGet();
+        }
+        ns.incoming.addLast(value);
+    }
+
+    private void deliver(Namespace ns) {
+        ns.deliveryScheduled = false;
+        if (ns.incoming.isEmpty()) return;
+        List<Object> messages = new ArrayList<>(ns.incoming);
+        ns.incoming.clear();
+        Listener l = listener;
+        if (l == null || !l.wantsMessages()) {
+            ns.droppedIncoming.addAndGet(messages.size());
+            return;
+        }
+        try {
+            l.onMessages(ns.name, messages);
+            ns.delivered.addAndGet(messages.size());
+            ns.deliveries.incrementAndGet();
+        } catch (Exception e) {
+            Logger.error(TAG, "Error delivering messages from " + ns.name + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Un objeto cuya única clave es "$b" con un array.
+     */
+    static boolean isFrame(Object value) {
+        return value instanceof JSONObject && ((JSONObject) value).length() == 1 && ((JSONObject) value).opt(BATCH_KEY) instanceof JSONArray;
+    }
+
+    /**
+     * Si el mensaje, enviado solo, se confundiría con un marco. Solo parsea los que contienen la clave.
+     */
+    static boolean looksLikeFrame(String json) {
+        return json.contains("\"" + BATCH_KEY + "\"") && isFrame(parse(json));
+    }
+
+    /**
+     * Texto JSON a valor; lo que no es JSON se entrega como string.
+     */
+    private static Object parse(String message) {
+        if (message == null) return "";
+        try {
+            JSONTokener tokener = new JSONTokener(message);
+            Object value = tokener.nextValue();
+            // El tokenizador es permisivo: de "hola {" devuelve "hola". Si sobra algo tras el valor, no era JSON
+            return value != null && tokener.nextClean() == 0 ? value : message;
+        } catch (Exception e) {
+            return message;
+        }
+    }
+
+    void resetStats() {
+        for (Namespace ns : namespaces.values()) ns.resetStats();
+    }
+
+    private static final class Outgoing {
+        String json;
+        final String coalesceKey;
+
+        Outgoing(String json, String coalesceKey) {
+            this.json = json;
+            this.coalesceKey = coalesceKey;
+        }
+    }
+
+    /**
+     * Estado y contadores de un namespace; los contadores se pueden leer desde cualquier hilo.
+     */
+    final class Namespace {
+        final String name;
+        volatile long batchWindowMs = DEFAULT_BATCH_WINDOW_MS;
+        volatile long deliveryIntervalMs = DEFAULT_DELIVERY_INTERVAL_MS;
+        // Protegido por su propio lock
+        private final ArrayDeque<Outgoing> outgoing = new ArrayDeque<>();
+        private boolean flushScheduled = false;
+        // Solo hilo principal
+        private final ArrayDeque<Object> incoming = new ArrayDeque<>();
+        private boolean deliveryScheduled = false;
+        private final Runnable flush = () -> flush(this);
+        private final Runnable deliver = () -> deliver(this);
+        private final Cast.MessageReceivedCallback callback = (device, namespace, message) -> onMessageReceived(this, message);
+
+        final AtomicLong queued = new AtomicLong();
+        final AtomicLong coalesced = new AtomicLong();
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong framesSent = new AtomicLong();
+        final AtomicLong sendFailed = new AtomicLong();
+        final AtomicLong droppedOutgoing = new AtomicLong();
+        final AtomicLong received = new AtomicLong();
+        final AtomicLong framesReceived = new AtomicLong();
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicLong deliveries = new AtomicLong();
+        final AtomicLong droppedIncoming = new AtomicLong();
+
+        Namespace(String name) {
+            this.name = name;
+        }
+
+        void resetStats() {
+            for (AtomicLong counter : new AtomicLong[] { queued, coalesced, sent, framesSent, sendFailed, droppedOutgoing,
+                received, framesReceived, delivered, deliveries, droppedIncoming }) {
+                counter.set(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.fabianacevedo.ionicchromecast;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import com.getcapacitor.Logger;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaMetadata;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+import java.util.Objects;
+
+/**
+ * Estado de reproducción del receiver a partir de RemoteMediaClient.Callback y ProgressListener.
+ * Las ráfagas de onStatusUpdated/onMetadataUpdated/onQueueStatusUpdated se agrupan y se notifica
+ * como mucho un estado cada statusIntervalMs; el progreso lo entrega el SDK cada progressIntervalMs.
+ * Solo se notifican los campos que cambiaron desde la notificación anterior, y si el Listener no tiene
+ * a nadie suscrito no se lee el MediaStatus ni se construye nada. Todo ocurre en el hilo principal.
+ */
+class PlaybackMonitor {
+
+    private static final String TAG = "IonicChromecast";
+    static final long DEFAULT_STATUS_INTERVAL_MS = 250;
+    static final long DEFAULT_PROGRESS_INTERVAL_MS = 1000;
+    private static final int UNSET = Integer.MIN_VALUE;
+
+    /**
+     * Destino de los eventos. Se invoca en el hilo principal.
+     */
+    interface Listener {
+        boolean wantsStatus();
+
+        boolean wantsProgress();
+
+        void onStatusChanged(StatusDelta delta);
+
+        /**
+         * @param durationChanged si durationMs difiere del último progreso notificado
+         */
+        void onProgress(long positionMs, long durationMs, boolean durationChanged);
+    }
+
+    private final Handler mainHandler;
+    private volatile long statusIntervalMs = DEFAULT_STATUS_INTERVAL_MS;
+    private volatile long progressIntervalMs = DEFAULT_PROGRESS_INTERVAL_MS;
+    private Listener listener;
+    private RemoteMediaClient client;
+    private boolean statusPending = false;
+    private long lastStatusAt = 0;
+    private final Runnable statusFlush = this::flushStatus;
+    // Último estado notificado (solo hilo principal)
+    private int lastPlayerState = UNSET;
+    private int lastIdleReason = UNSET;
+    private int lastItemId = UNSET;
+    private String lastContentId = null;
+    private String lastTitle = null;
+    private double lastVolume = Double.NaN;
+    private int lastMuted = UNSET;
+    private long lastPositionMs = -1;
+    private long lastDurationMs = -1;
+
+    private final RemoteMediaClient.Callback clientCallback = new RemoteMediaClient.Callback() {
+        @Override
+        public void onStatusUpdated() {
+            scheduleStatus();
+        }
+
+        @Override
+        public void onMetadataUpdated() {
+            scheduleStatus();
+        }
+
+        @Override
+        public void onQueueStatusUpdated() {
+            scheduleStatus();
+        }
+    };
+
+    private final RemoteMediaClient.ProgressListener progressListener = this::onProgressUpdated;
+
+    PlaybackMonitor(Handler mainHandler) {
+        this.mainHandler = mainHandler;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    void setStatusIntervalMs(long intervalMs) {
+        if (intervalMs >= 0) statusIntervalMs = intervalMs;
+    }
+
+    /**
+     * Debe llamarse en el hilo principal; si ya hay un cliente, vuelve a registrar el ProgressListener con el nuevo periodo.
+     */
+    void setProgressIntervalMs(long intervalMs) {
+        if (intervalMs <= 0 || intervalMs == progressIntervalMs) return;
+        progressIntervalMs = intervalMs;
+        if (client != null) {
+            client.removeProgressListener(progressListener);
+            client.addProgressListener(progressListener, intervalMs);
+        }
+    }
+
+    /**
+     * Sigue el RemoteMediaClient de la sesión actual. Llamadas repetidas con el mismo cliente no hacen nada.
+     */
+    void attach(RemoteMediaClient rmc) {
+        if (rmc == client) return;
+        detach();
+        if (rmc == null) return;
+        client = rmc;
+        resetEmitted();
+        try {
+            rmc.registerCallback(clientCallback);
+            rmc.addProgressListener(progressListener, progressIntervalMs);
+        } catch (Exception e) {
+            Logger.error(TAG, "Error registering media status callbacks: " + e.getMessage(), e);
+        }
+        // Estado inicial: p. ej. al volver a una sesión que ya estaba reproduciendo
+        scheduleStatus();
+    }
+
+    void detach() {
+        mainHandler.removeCallbacks(statusFlush);
+        statusPending = false;
+        RemoteMediaClient rmc = client;
+        client = null;
+        if (rmc == null) return;
+        try {
+            rmc.unregisterCallback(clientCallback);
+            rmc.removeProgressListener(progressListener);
+        } catch (Exception ignored) {}
+    }
+
+    /**
+     * Abre (si no lo está) la ventana de throttle; la primera actualización tras un periodo tranquilo sale en el siguiente turno.
+     */
+    private void scheduleStatus() {
+        Listener l = listener;
+        if (l == null || !l.wantsStatus()) {
+            // Sin suscriptores: el siguiente que se suscriba recibirá el estado completo
+            resetStatus();
+            return;
+        }
+        if (statusPending) return;
+        statusPending = true;
+        long wait = lastStatusAt + statusIntervalMs - SystemClock.elapsedRealtime();
+        mainHandler.postDelayed(statusFlush, Math.max(0, wait));
+    }
+
+    private void flushStatus() {
+        statusPending = false;
+        lastStatusAt = SystemClock.elapsedRealtime();
+        RemoteMediaClient rmc = client;
+        Listener l = listener;
+        if (rmc == null || l == null) return;
+        MediaStatus status = rmc.getMediaStatus();
+        if (status == null) return;
+
+        MediaInfo info = status.getMediaInfo();
+        MediaMetadata metadata = info != null ? info.getMetadata() : null;
+        int playerState = status.getPlayerState();
+        int idleReason = status.getIdleReason();
+        int itemId = status.getCurrentItemId();
+        String contentId = info != null ? info.getContentId() : null;
+        String title = metadata != null ? metadata.getString(MediaMetadata.KEY_TITLE) : null;
+        double volume = status.getStreamVolume();
+        int muted = status.isMute() ? 1 : 0;
+
+        int changed = 0;
+        if (playerState != lastPlayerState) changed |= StatusDelta.PLAYER_STATE;
+        if (idleReason != lastIdleReason) changed |= StatusDelta.IDLE_REASON;
+        if (itemId != lastItemId) changed |= StatusDelta.ITEM_ID;
+        if (!Objects.equals(contentId, lastContentId)) changed |= StatusDelta.CONTENT_ID;
+        if (!Objects.equals(title, lastTitle)) changed |= StatusDelta.TITLE;
+        if (Double.compare(volume, lastVolume) != 0) changed |= StatusDelta.VOLUME;
+        if (muted != lastMuted) changed |= StatusDelta.MUTED;
+        if (changed == 0) return;
+
+        lastPlayerState = playerState;
+        lastIdleReason = idleReason;
+        lastItemId = itemId;
+        lastContentId = contentId;
+        lastTitle = title;
+        lastVolume = volume;
+        lastMuted = muted;
+        try {
+            l.onStatusChanged(new StatusDelta(changed, playerState, idleReason, itemId, contentId, title, volume, muted == 1));
+        } catch (Exception e) {
+            Logger.error(TAG, "Error notifying media status: " + e.getMessage(), e);
+        }
+    }
+
+    private void onProgressUpdated(long progressMs, long durationMs) {
+        Listener l = listener;
+        if (l == null || !l.wantsProgress()) {
+            lastPositionMs = -1;
+            lastDurationMs = -1;
+            return;
+        }
+        // En pausa el SDK sigue llamando con la misma posición: nada que enviar
+        if (progressMs == lastPositionMs && durationMs == lastDurationMs) return;
+        boolean durationChanged = durationMs != lastDurationMs;
+        lastPositionMs = progressMs;
+        lastDurationMs = durationMs;
+        try {
+            l.onProgress(progressMs, durationMs, durationChanged);
+        } catch (Exception e) {
+            Logger.error(TAG, "Error notifying progress: " + e.getMessage(), e);
+        }
+    }
+
+    private void resetEmitted() {
+        resetStatus();
+        lastPositionMs = -1;
+        lastDurationMs = -1;
+    }
+
+    private void resetStatus() {
+        lastPlayerState = UNSET;
+        lastIdleReason = UNSET;
+        lastItemId = UNSET;
+        lastContentId = null;
+        lastTitle = null;
+        lastVolume = Double.NaN;
+        lastMuted = UNSET;
+    }
+
+    /**
+     * Campos del MediaStatus que cambiaron; has(FLAG) indica cuáles son válidos.
+     */
+    static final class StatusDelta {
+        static final int PLAYER_STATE = 1;
+        static final int IDLE_REASON = 1 << 1;
+        static final int ITEM_ID = 1 << 2;
+        static final int CONTENT_ID = 1 << 3;
+        static final int TITLE = 1 << 4;
+        static final int VOLUME = 1 << 5;
+        static final int MUTED = 1 << 6;
+
+        private final int changed;
+        private final int playerState;
+        private final int idleReason;
+        private final int itemId;
+        private final String contentId;
+        private final String title;
+        private final double volume;
+        private final boolean muted;
+
+        StatusDelta(int changed, int playerState, int idleReason, int itemId, String contentId, String title,
+                    double volume, boolean muted) {
+            this.changed = changed;
+            this.playerState = playerState;
+            this.idleReason = idleReason;
+            this.itemId = itemId;
+            this.contentId = contentId;
+            this.title = title;
+            this.volume = volume;
+            this.muted = muted;
+        }
+
+        boolean has(int field) {
+            return (changed & field) != 0;
+        }
+
+        int getPlayerState() {
+            return playerState;
+        }
+
+        int getIdleReason() {
+            return idleReason;
+        }
+
+        int getItemId() {
+            return itemId;
+        }
+
+        String getContentId() {
+            return contentId;
+        }
+
+        String getTitle() {
+            return title;
+        }
+
+        double getVolume() {
+            return volume;
+        }
+
+        boolean isMuted() {
+            return muted;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.fabianacevedo.ionicchromecast;
+
+import android.os.SystemClock;
+import com.getcapacitor.Logger;
+import com.google.android.gms.cast.MediaSeekOptions;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.cast.framework.media.RemoteMediaClient;
+import java.util.List;
+
+/**
+ * Estado de reproducción local para que los controles respondan al instante.
+ * predict() aplica los comandos de forma optimista y el estado previsto se puede leer sin esperar al receiver.
+ * El receiver sigue siendo la fuente de verdad: cada onStatusUpdated actualiza el estado confirmado, y al terminar
+ * cada comando settle() compara lo previsto con lo que informa el receiver. Si el comando falló o el receiver no
+ * coincide, el campo vuelve al valor del receiver y se notifica un rollback.
+ * Se modifica solo en el hilo principal, en orden con los MediaStatus; getState() se lee desde el hilo del plugin,
+ * de ahí los métodos synchronized.
+ */
+class PlaybackStateModel {
+
+    private static final String TAG = "IonicChromecast";
+    static final int FIELD_PLAYER_STATE = 1;
+    static final int FIELD_POSITION = 1 << 1;
+    static final int FIELD_VOLUME = 1 << 2;
+    static final int FIELD_MUTED = 1 << 3;
+    static final String REASON_FAILED = "failed";
+    static final String REASON_RECEIVER_DISAGREES = "receiverDisagrees";
+    // El receiver informa la posición con cierto retraso y redondeo tras un seek
+    private static final long POSITION_TOLERANCE_MS = 2000;
+    private static final double VOLUME_TOLERANCE = 0.01;
+
+    /**
+     * Destino de los rollbacks. Se invoca en el hilo principal, fuera del lock.
+     */
+    interface Listener {
+        void onRollback(int fields, String reason, String error, State state);
+    }
+
+    private Listener listener;
+    private RemoteMediaClient client;
+    // Estado confirmado por el receiver
+    private int playerState = MediaStatus.PLAYER_STATE_UNKNOWN;
+    private long positionMs = 0;
+    private long positionAt = 0;
+    private long durationMs = 0;
+    private double volume = 1;
+    private boolean muted = false;
+    // Previsiones pendientes: token del comando que las produjo por campo (0 = ninguna)
+    private long playerStateToken = 0;
+    private long positionToken = 0;
+    private long volumeToken = 0;
+    private long mutedToken = 0;
+    private int predictedPlayerState;
+    private long predictedPositionMs;
+    private long predictedPositionAt;
+    private double predictedVolume;
+    private boolean predictedMuted;
+    private long nextToken = 1;
+    private volatile State snapshot = State.EMPTY;
+
+    private final RemoteMediaClient.Callback clientCallback = new RemoteMediaClient.Callback() {
+        @Override
+        public void onStatusUpdated() {
+            synchronized (PlaybackStateModel.this) {
+                readStatus();
+                publish();
+            }
+        }
+    };
+
+    synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sigue el RemoteMediaClient de la sesión actual. Hilo principal; llamadas repetidas con el mismo cliente no hacen nada.
+     */
+    synchronized void attach(RemoteMediaClient rmc) {
+        if (rmc == client) return;
+        detach();
+        if (rmc == null) return;
+        client = rmc;
+        try {
+            rmc.registerCallback(clientCallback);
+        } catch (Exception e) {
+            Logger.error(TAG, "Error registering playback state callback: " + e.getMessage(), e);
+        }
+        readStatus();
+        publish();
+    }
+
+    /**
+     * Sin sesión no hay nada que reconciliar: las previsiones pendientes se descartan sin rollback.
+     */
+    synchronized void detach() {
+        RemoteMediaClient rmc = client;
+        client = null;
+        if (rmc != null) {
+            try {
+                rmc.unregisterCallback(clientCallback);
+            } catch (Exception ignored) {}
+        }
+        playerState = MediaStatus.PLAYER_STATE_UNKNOWN;
+        positionMs = 0;
+        positionAt = 0;
+        durationMs = 0;
+        playerStateToken = positionToken = volumeToken = mutedToken = 0;
+        publish();
+    }
+
+    /**
+     * Aplica las operaciones sobre el estado previsto. Hilo principal, antes de enviarlas.
+     * @return un token por operación para settle(); 0 si la operación no cambia el estado modelado o no hay sesión
+     */
+    synchronized long[] predict(List<RemoteCommand> ops) {
+        long[] tokens = new long[ops.size()];
+        if (client == null) return tokens;
+        long now = SystemClock.elapsedRealtime();
+        for (int i = 0; i < tokens.length; i++) {
+            RemoteCommand op = ops.get(i);
+            long token = nextToken++;
+            switch (op.getType()) {
+                case PLAY:
+                    predictPlayerState(MediaStatus.PLAYER_STATE_PLAYING, token, now);
+                    break;
+                case PAUSE:
+                    predictPlayerState(MediaStatus.PLAYER_STATE_PAUSED, token, now);
+                    break;
+                case SEEK:
+                    positionToken = token;
+                    predictedPositionMs = op.getPositionMs();
+                    predictedPositionAt = now;
+                    if (op.getResumeState() == MediaSeekOptions.RESUME_STATE_PLAY) {
+                        predictPlayerState(MediaStatus.PLAYER_STATE_PLAYING, token, now);
+                    } else if (op.getResumeState() == MediaSeekOptions.RESUME_STATE_PAUSE) {
+                        predictPlayerState(MediaStatus.PLAYER_STATE_PAUSED, token, now);
+                    }
+                    break;
+                case SET_VOLUME:
+                    volumeToken = token;
+                    predictedVolume = op.getVolume();
+                    break;
+                case MUTE:
+                    mutedToken = token;
+                    predictedMuted = op.isMuted();
+                    break;
+                default:
+                    token = 0;
+                    break;
+            }
+            tokens[i] = token;
+        }
+        publish();
+        return tokens;
+    }
+
+    /**
+     * La posición prevista sigue desde donde estaba al cambiar de estado, sin saltos por el tiempo ya transcurrido.
+     * Solo toca la capa prevista: un rollback vuelve a la posición confirmada tal cual.
+     */
+    private void predictPlayerState(int state, long token, long now) {
+        predictedPositionMs = effectivePositionMs(now);
+        predictedPositionAt = now;
+        playerStateToken = token;
+        predictedPlayerState = state;
+    }
+
+    /**
+     * Reconciliación de un comando terminado. Hilo principal.
+     * @param error null si el receiver aceptó el comando
+     */
+    void settle(long token, String error) {
+        if (token == 0) return;
+        Listener l;
+        State state;
+        int rolledBack = 0;
+        synchronized (this) {
+            if (error == null) readStatus();
+            long now = SystemClock.elapsedRealtime();
+            if (playerStateToken == token) {
+                playerStateToken = 0;
+                if (error != null || !playerStateMatches()) rolledBack |= FIELD_PLAYER_STATE;
+            }
+            if (positionToken == token) {
+                positionToken = 0;
+                if (error != null || Math.abs(predictedPositionAt(now) - confirmedPositionAt(now)) > POSITION_TOLERANCE_MS) {
+                    rolledBack |= FIELD_POSITION;
+                }
+                if (playerStateToken != 0) {
+                    // Queda un cambio de estado previsto: su posición parte ahora de la confirmada
+                    predictedPositionMs = confirmedPositionAt(now);
+                    predictedPositionAt = now;
+                }
+            }
+            if (volumeToken == token) {
+                volumeToken = 0;
+                if (error != null || Math.abs(predictedVolume - volume) > VOLUME_TOLERANCE) rolledBack |= FIELD_VOLUME;
+            }
+            if (mutedToken == token) {
+                mutedToken = 0;
+                if (error != null || predictedMuted != muted) rolledBack |= FIELD_MUTED;
+            }
+            publish();
+            l = listener;
+            state = snapshot;
+        }
+        if (rolledBack != 0 && l != null) {
+            try {
+                l.onRollback(rolledBack, error != null ? REASON_FAILED : REASON_RECEIVER_DISAGREES, error, state);
+            } catch (Exception e) {
+                Logger.error(TAG, "Error notifying playback state rollback: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Estado previsto (el confirmado con las previsiones pendientes encima). Cualquier hilo, sin bloqueo.
+     */
+    State getState() {
+        return snapshot;
+    }
+
+    private boolean playerStateMatches() {
+        if (predictedPlayerState == MediaStatus.PLAYER_STATE_PLAYING) {
+            return playerState == MediaStatus.PLAYER_STATE_PLAYING || playerState == MediaStatus.PLAYER_STATE_BUFFERING;
+        }
+        return predictedPlayerState == playerState;
+    }
+
+    private void readStatus() {
+        RemoteMediaClient rmc = client;
+        MediaStatus status = rmc != null ? rmc.getMediaStatus() : null;
+        if (status == null) return;
+        playerState = status.getPlayerState();
+        positionMs = rmc.getApproximateStreamPosition();
+        positionAt = SystemClock.elapsedRealtime();
+        durationMs = Math.max(0, rmc.getStreamDuration());
+        volume = status.getStreamVolume();
+        muted = status.isMute();
+    }
+
+    private int effectivePlayerState() {
+        return playerStateToken != 0 ? predictedPlayerState : playerState;
+    }
+
+    /**
+     * Avanza solo si el estado efectivo (previsto o confirmado) es PLAYING: tras un pause previsto la posición se congela.
+     * Con un seek o un cambio de estado pendiente manda la capa prevista.
+     */
+    private long effectivePositionMs(long now) {
+        if (positionToken != 0 || playerStateToken != 0) return predictedPositionAt(now);
+        return confirmedPositionAt(now);
+    }
+
+    private long confirmedPositionAt(long now) {
+        return playerState == MediaStatus.PLAYER_STATE_PLAYING ? positionMs + (now - positionAt) : positionMs;
+    }
+
+    private long predictedPositionAt(long now) {
+        return effectivePlayerState() == MediaStatus.PLAYER_STATE_PLAYING
+            ? predictedPositionMs + (now - predictedPositionAt)
+            : predictedPositionMs;
+    }
+
+    private void publish() {
+        long now = SystemClock.elapsedRealtime();
+        int pending = (playerStateToken != 0 ? FIELD_PLAYER_STATE : 0)
+            | (positionToken != 0 ? FIELD_POSITION : 0)
+            | (volumeToken != 0 ? FIELD_VOLUME : 0)
+            | (mutedToken != 0 ? FIELD_MUTED : 0);
+        snapshot = new State(
+            effectivePlayerState(),
+            effectivePositionMs(now),
+            now,
+            durationMs,
+            volumeToken != 0 ? predictedVolume : volume,
+            mutedToken != 0 ? predictedMuted : muted,
+            pending
+        );
+    }
+
+    /**
+     * Instantánea inmutable del estado previsto; pending indica los campos FIELD_* aún sin confirmar.
+     */
+    static final class State {
+
+        static final State EMPTY = new State(MediaStatus.PLAYER_STATE_UNKNOWN, 0, 0, 0, 1, false, 0);
+
+        private final int playerState;
+        private final long positionMs;
+        private final long positionAt;
+        private final long durationMs;
+        private final double volume;
+        private final boolean muted;
+        private final int pending;
+
+        State(int playerState, long positionMs, long positionAt, long durationMs, double volume, boolean muted, int pending) {
+            this.playerState = playerState;
+            this.positionMs = positionMs;
+            this.positionAt = positionAt;
+            this.durationMs = durationMs;
+            this.volume = volume;
+            this.muted = muted;
+            this.pending = pending;
+        }
+
+        int getPlayerState() {
+            return playerState;
+        }
+
+        /**
+         * Posición estimada ahora: avanza desde la instantánea si se está reproduciendo.
+         */
+        long getPositionMs() {
+            if (playerState != MediaStatus.PLAYER_STATE_PLAYING) return positionMs;
+            long position = positionMs + (SystemClock.elapsedRealtime() - positionAt);
+            return durationMs > 0 ? Math.min(position, durationMs) : position;
+        }
+
+        long getDurationMs() {
+            return durationMs;
+        }
+
+        double getVolume() {
+            return volume;
+        }
+
+        boolean isMuted() {
+            return muted;
+        }
+
+        /** Campos FIELD_* aún sin confirmar por el receiver */
+        int getPendingFields() {
+            return pending;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.fabianacevedo.ionicchromecast;
+
+import com.google.android.gms.cast.MediaSeekOptions;
+
+/**
+ * Una operación de control remoto de executeBatch (play, pause, seek, volumen, mute, pistas, siguiente).
+ * Inmutable; los factory methods validan los parámetros para rechazar el lote antes de enviar nada.
+ */
+public final class RemoteCommand {
+
+    public enum Type {
+        PLAY("play"),
+        PAUSE("pause"),
+        SEEK("seek"),
+        SET_VOLUME("setVolume"),
+        MUTE("mute"),
+        SET_ACTIVE_TRACK_IDS("setActiveTrackIds"),
+        QUEUE_NEXT("queueNext");
+
+        private final String key;
+
+        Type(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /**
+         * @return null si key no corresponde a ninguna operación
+         */
+        public static Type fromKey(String key) {
+            for (Type type : values()) {
+                if (type.key.equals(key)) return type;
+            }
+            return null;
+        }
+    }
+
+    private static final long[] NO_TRACKS = new long[0];
+
+    private final Type type;
+    private final long positionMs;
+    private final int resumeState;
+    private final double volume;
+    private final boolean muted;
+    private final long[] trackIds;
+
+    private RemoteCommand(Type type, long positionMs, int resumeState, double volume, boolean muted, long[] trackIds) {
+        this.type = type;
+        this.positionMs = positionMs;
+        this.resumeState = resumeState;
+        this.volume = volume;
+        this.muted = muted;
+        this.trackIds = trackIds;
+    }
+
+    private static RemoteCommand of(Type type) {
+        return new RemoteCommand(type, 0, MediaSeekOptions.RESUME_STATE_UNCHANGED, 0, false, NO_TRACKS);
+    }
+
+    public static RemoteCommand play() {
+        return of(Type.PLAY);
+    }
+
+    public static RemoteCommand pause() {
+        return of(Type.PAUSE);
+    }
+
+    /**
+     * @param resumeState MediaSeekOptions.RESUME_STATE_* tras el seek
+     */
+    public static RemoteCommand seek(long positionMs, int resumeState) {
+        if (positionMs < 0) throw new IllegalArgumentException("seek position must be >= 0");
+        return new RemoteCommand(Type.SEEK, positionMs, resumeState, 0, false, NO_TRACKS);
+    }
+
+    /**
+     * @param volume volumen del stream entre 0 y 1
+     */
+    public static RemoteCommand setVolume(double volume) {
+        if (!(volume >= 0 && volume <= 1)) throw new IllegalArgumentException("volume level must be between 0 and 1");
+        return new RemoteCommand(Type.SET_VOLUME, 0, MediaSeekOptions.RESUME_STATE_UNCHANGED, volume, false, NO_TRACKS);
+    }
+
+    public static RemoteCommand mute(boolean muted) {
+        return new RemoteCommand(Type.MUTE, 0, MediaSeekOptions.RESUME_STATE_UNCHANGED, 0, muted, NO_TRACKS);
+    }
+
+    /**
+     * @param trackIds pistas activas (p. ej. subtítulos); vacío desactiva todas
+     */
+    public static RemoteCommand setActiveTrackIds(long[] trackIds) {
+        return new RemoteCommand(Type.SET_ACTIVE_TRACK_IDS, 0, MediaSeekOptions.RESUME_STATE_UNCHANGED, 0, false,
+            trackIds != null ? trackIds.clone() : NO_TRACKS);
+    }
+
+    public static RemoteCommand queueNext() {
+        return of(Type.QUEUE_NEXT);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getPositionMs() {
+        return positionMs;
+    }
+
+    public int getResumeState() {
+        return resumeState;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public boolean isMuted() {
+        return muted;
+    }
+
+    public long[] getTrackIds() {
+        return trackIds.clone();
+    }
+}
@@ -0,0 +1,74 @@
+package com.fabianacevedo.ionicchromecast;
+
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.framework.CastSession;
+
+/**
+ * Foto inmutable del estado de la sesión Cast.
+ * La mantiene el SessionManagerListener del plugin (hilo principal) y se publica en un campo volatile,
+ * así que las consultas de solo lectura no necesitan cruzar al hilo principal.
+ */
+public final class SessionSnapshot {
+
+    public static final SessionSnapshot DISCONNECTED = new SessionSnapshot(false, "", "", "", false);
+
+    private final boolean connected;
+    private final String appId;
+    private final String deviceName;
+    private final String deviceId;
+    private final boolean remoteMediaClientReady;
+
+    public SessionSnapshot(boolean connected, String appId, String deviceName, String deviceId, boolean remoteMediaClientReady) {
+        this.connected = connected;
+        this.appId = appId != null ? appId : "";
+        this.deviceName = deviceName != null ? deviceName : "";
+        this.deviceId = deviceId != null ? deviceId : "";
+        this.remoteMediaClientReady = remoteMediaClientReady;
+    }
+
+    /**
+     * Construye la foto desde una CastSession. Debe llamarse en el hilo principal.
+     */
+    static SessionSnapshot from(CastSession session) {
+        if (session == null) return DISCONNECTED;
+        try {
+            boolean connected = session.isConnected();
+            String appId = session.getApplicationMetadata() != null ? session.getApplicationMetadata().getApplicationId() : "";
+            CastDevice device = session.getCastDevice();
+            String deviceName = device != null ? device.getFriendlyName() : "";
+            String deviceId = device != null ? device.getDeviceId() : "";
+            boolean rmcReady = connected && session.getRemoteMediaClient() != null;
+            return new SessionSnapshot(connected, appId, deviceName, deviceId, rmcReady);
+        } catch (Exception e) {
+            return DISCONNECTED;
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public String getDeviceName() {
+        return deviceName;
+    }
+
+    /** ID estable del dispositivo ("" sin sesión) */
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public boolean isRemoteMediaClientReady() {
+        return remoteMediaClientReady;
+    }
+
+    /**
+     * Evita falsos positivos: requiere appId y RemoteMediaClient disponibles
+     */
+    public boolean isActive() {
+        return connected && remoteMediaClientReady && !appId.isEmpty();
+    }
+}
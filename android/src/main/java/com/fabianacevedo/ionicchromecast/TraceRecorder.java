@@ -0,0 +1,114 @@
+package com.fabianacevedo.ionicchromecast;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Línea de tiempo de las fases de cada operación (init, scan, sesión, carga, fin, espera en el looper) para
+ * adjuntarla a un informe de error. Los spans van a un búfer circular reservado al construir: record() no asigna
+ * memoria (categoría y nombre deben ser constantes) y, lleno el búfer, se sobrescriben los más antiguos.
+ * El plugin lo exporta en el formato JSON de Chrome/Perfetto (chrome://tracing, ui.perfetto.dev).
+ * record() puede llamarse desde cualquier hilo; forEach() descarta las ranuras que se reescriben mientras lee.
+ */
+final class TraceRecorder {
+
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private final int mask;
+    private final String[] categories;
+    private final String[] names;
+    private final String[] threadNames;
+    private final long[] threadIds;
+    private final long[] starts;
+    private final long[] durations;
+    // Secuencia + 1 del span escrito en cada ranura; 0 = vacía o a medio escribir
+    private final AtomicLongArray committed;
+    private final AtomicLong next = new AtomicLong();
+    private volatile long floor = 0;
+    private final long originNanos = System.nanoTime();
+    private volatile boolean enabled = true;
+
+    /**
+     * @param capacity se redondea a la siguiente potencia de dos
+     */
+    TraceRecorder(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+        mask = size - 1;
+        categories = new String[size];
+        names = new String[size];
+        threadNames = new String[size];
+        threadIds = new long[size];
+        starts = new long[size];
+        durations = new long[size];
+        committed = new AtomicLongArray(size);
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Recibe cada span al recorrer el búfer; ts y dur en microsegundos desde la creación del registro.
+     */
+    interface Visitor {
+        void span(String category, String name, long threadId, String threadName, double tsMicros, double durMicros);
+    }
+
+    /**
+     * Span que termina ahora y empezó en startNanos (System.nanoTime()).
+     */
+    void span(String category, String name, long startNanos) {
+        record(category, name, startNanos, System.nanoTime());
+    }
+
+    void record(String category, String name, long startNanos, long endNanos) {
+        if (!enabled || startNanos == 0) return;
+        long seq = next.getAndIncrement();
+        int slot = (int) (seq & mask);
+        Thread thread = Thread.currentThread();
+        committed.set(slot, 0);
+        categories[slot] = category;
+        names[slot] = name;
+        threadNames[slot] = thread.getName();
+        threadIds[slot] = thread.getId();
+        starts[slot] = startNanos;
+        durations[slot] = Math.max(0, endNanos - startNanos);
+        committed.set(slot, seq + 1);
+    }
+
+    /**
+     * Olvida los spans registrados hasta ahora.
+     */
+    void reset() {
+        floor = next.get();
+    }
+
+    /**
+     * Recorre los spans del más antiguo al más reciente.
+     */
+    void forEach(Visitor visitor) {
+        long end = next.get();
+        long first = Math.max(floor, end - (mask + 1));
+        for (long seq = first; seq < end; seq++) {
+            int slot = (int) (seq & mask);
+            if (committed.get(slot) != seq + 1) continue;
+            String category = categories[slot];
+            String name = names[slot];
+            String threadName = threadNames[slot];
+            long threadId = threadIds[slot];
+            long start = starts[slot];
+            long duration = durations[slot];
+            // Reescrita mientras la leíamos
+            if (committed.get(slot) != seq + 1) continue;
+            visitor.span(category, name, threadId, threadName, (start - originNanos) / 1000.0, duration / 1000.0);
+        }
+    }
+}
@@ -1,9 +1,279 @@
+/**
+ * How media/image URLs are marked so the receiver does not show stale media.
+ * - `none`: URL sent unchanged
+ * - `session`: one token per Cast session (edge caches stay warm within a session)
+ * - `contentHash`: stable hash of the URL (always the same URL for the same content)
+ * - `timestamp`: a new `_cb` value on every load (defeats CDN caches; previous default)
+ */
+export type CacheBustingPolicy = 'none' | 'session' | 'contentHash' | 'timestamp';
+
+/**
+ * Stable error code of a failed operation (Android only). Rejected calls carry it as `error.code`
+ * and in the result data as `code`; the message text is for diagnostics only and may change.
+ * - `RECEIVER_ERROR`: the receiver rejected the command; `statusCode` holds the Cast status code
+ * - `SUPERSEDED`: replaced by a newer call of the same kind (e.g. a newer loadMedia)
+ * - `CANCELLED`: dropped without running, e.g. when the plugin is destroyed
+ */
+export type CastErrorCode =
+  | 'NOT_INITIALIZED'
+  | 'INVALID_ARGUMENT'
+  | 'PLAY_SERVICES_UNAVAILABLE'
+  | 'NO_SESSION'
+  | 'NO_DEVICES'
+  | 'DEVICE_NOT_FOUND'
+  | 'SESSION_START_FAILED'
+  | 'RECEIVER_ERROR'
+  | 'TIMEOUT'
+  | 'SUPERSEDED'
+  | 'CANCELLED'
+  | 'INTERNAL';
+
+/**
+ * Error fields of an operation result; present only when it failed
+ */
+export interface CastErrorInfo {
+  error?: string;
+  code?: CastErrorCode;
+  /** Cast status code returned by the receiver, when the failure came from it */
+  statusCode?: number;
+}
+
 export interface InitializeOptions {
   /**
    * The receiver application ID for Google Cast
    * Use "CC1AD845" for the default media receiver
    */
   receiverApplicationId: string;
+  /**
+   * How long (ms) the in-memory device index is trusted before
+   * areDevicesAvailable() falls back to an active scan (Android only).
+   * Defaults to 30000.
+   */
+  discoveryTtlMs?: number;
+  /**
+   * Window (ms) used to coalesce bursts of route added/removed/changed callbacks
+   * before emitting routesChanged / deviceAvailabilityChanged (Android only).
+   * Defaults to 500.
+   */
+  routeDebounceMs?: number;
+  /**
+   * Default cache-busting policy for loadMedia and queue items (Android only).
+   * Defaults to 'timestamp'.
+   */
+  cacheBusting?: CacheBustingPolicy;
+  /**
+   * Rejoin the receiver session that was still running when the app was
+   * restarted or killed, instead of requiring a new requestSession()
+   * (Android only). Progress is reported by the `sessionResume` event
+   * (`resuming`, then `resumed` or `resumeFailed`). The value is persisted; if the
+   * Cast SDK was already started (e.g. prewarm) with a different value, it takes
+   * effect on the next app launch. Can also be set with the `resumeSavedSession`
+   * plugin config. Defaults to false.
+   */
+  resumeSavedSession?: boolean;
+  /**
+   * Emit a `metrics` event (same payload as getMetrics()) every N ms.
+   * Omit or 0 to disable (Android only).
+   */
+  metricsIntervalMs?: number;
+  /**
+   * Minimum interval (ms) between two `mediaStatus` events; bursts of receiver
+   * status updates inside the window are coalesced (Android only).
+   * Defaults to 250.
+   */
+  mediaStatusIntervalMs?: number;
+  /**
+   * Period (ms) of `progress` events while media is playing (Android only).
+   * Defaults to 1000.
+   */
+  progressIntervalMs?: number;
+  /**
+   * Record per-phase trace spans for getTrace() (Android only).
+   * Defaults to true; the ring buffer is allocated up front either way.
+   */
+  trace?: boolean;
+  /**
+   * Learn deadlines from observed latency per operation and device (Android only).
+   * Defaults to true; false uses the fixed defaults (still clamped to timeoutBounds).
+   */
+  adaptiveTimeouts?: boolean;
+  /** Bounds for the learned deadlines, per operation (Android only) */
+  timeoutBounds?: { [operation in TimeoutOperation]?: { minMs?: number; maxMs?: number } };
+  /** Automatic loadMedia retries on transient failures (Android only) */
+  loadRetry?: LoadRetryOptions;
+}
+
+/**
+ * Network errors, receiver timeouts and interrupted requests are retried after a jittered exponential
+ * backoff. If the session was suspended, the retry waits for it to resume, then continues from the last
+ * known position. Invalid requests and media the receiver cannot play fail right away.
+ */
+export interface LoadRetryOptions {
+  /** Retries after the first attempt; 0 disables retrying. Default 2 */
+  maxRetries?: number;
+  /** Backoff before the first retry, doubled for each further one. Default 500 */
+  baseDelayMs?: number;
+  /** Backoff cap. Default 5000 */
+  maxDelayMs?: number;
+  /** How long a retry waits for a suspended session to resume. Default 10000 */
+  rejoinTimeoutMs?: number;
+}
+
+/**
+ * Operations with a deadline. Defaults, with min–max bounds in parentheses:
+ * init 6000 (2000–15000), session 15000 (5000–30000), scan 4000 (1500–10000), stop 3000 (500–8000), load 14000 (3000–30000),
+ * end 4000 (1000–10000), queue 6000 (1500–15000), batch 8000 (2000–15000).
+ */
+export type TimeoutOperation = 'init' | 'session' | 'scan' | 'stop' | 'load' | 'end' | 'queue' | 'batch';
+
+export interface TimeoutEstimate {
+  samples: number;
+  /** Smoothed latency (EWMA), in ms */
+  srttMs: number;
+  /** Smoothed mean deviation of the latency, in ms */
+  rttvarMs: number;
+}
+
+export interface OperationTimeout extends TimeoutEstimate {
+  /** Deadline applied right now for the current device */
+  deadlineMs: number;
+  defaultMs: number;
+  minMs: number;
+  maxMs: number;
+  /** Multiplier after consecutive timeouts; back to 1 on the next success */
+  backoff: number;
+  timeouts: number;
+  /** Per device ID (CastRoute.deviceId); deadlineMs is 0 until the device has 3 samples */
+  devices: { [deviceId: string]: TimeoutEstimate & { deadlineMs: number } };
+}
+
+export interface CastRoute {
+  /** MediaRouter route id */
+  id: string;
+  name: string;
+  description?: string;
+  /** Stable Cast device ID, as used by getDeviceRanking() */
+  deviceId?: string;
+  modelName?: string;
+  deviceType?: 'tv' | 'speaker' | 'group' | 'unknown';
+  videoOut?: boolean;
+  audioOut?: boolean;
+  /** Device volume can be changed from the app */
+  volumeControl?: boolean;
+}
+
+export interface ListDevicesOptions {
+  /** Scan even if the known routes are still fresh. Default false */
+  refresh?: boolean;
+}
+
+export interface ListedDevice extends CastRoute {
+  /** The current Cast session is on this device */
+  connected: boolean;
+}
+
+export interface ListDevicesResult {
+  devices: ListedDevice[];
+}
+
+export interface SelectDeviceOptions {
+  /** CastRoute.id from listDevices() or routesChanged */
+  routeId: string;
+}
+
+export interface SelectDeviceResult extends CastErrorInfo {
+  success: boolean;
+  deviceName?: string;
+  deviceId?: string;
+}
+
+/**
+ * Payload of the `routesChanged` event
+ */
+export interface RoutesChangedEvent {
+  available: boolean;
+  routes: CastRoute[];
+}
+
+export type PlayerState = 'idle' | 'playing' | 'paused' | 'buffering' | 'loading' | 'unknown';
+
+export type IdleReason = 'none' | 'finished' | 'canceled' | 'interrupted' | 'error';
+
+/**
+ * Payload of the `mediaStatus` event.
+ * Only the fields that changed since the previous event are present;
+ * the first event after a session (re)connects, or after a period with no subscribers, carries all of them.
+ */
+export interface MediaStatusEvent {
+  playerState?: PlayerState;
+  idleReason?: IdleReason;
+  /** Current queue item id */
+  itemId?: number;
+  contentId?: string;
+  title?: string;
+  /** Receiver stream volume, 0..1 */
+  volume?: number;
+  muted?: boolean;
+}
+
+/**
+ * Payload of the `progress` event.
+ * `durationMs` is only present when it changed since the previous event.
+ * No event is sent while the position does not move (e.g. paused).
+ */
+export interface ProgressEvent {
+  positionMs: number;
+  durationMs?: number;
+}
+
+/**
+ * Payload of the `deviceAvailabilityChanged` event
+ */
+export interface DeviceAvailabilityChangedEvent {
+  available: boolean;
+}
+
+/**
+ * Payload of the `sessionResume` event (Android only, with `resumeSavedSession`)
+ */
+export interface SessionResumeEvent {
+  state: 'resuming' | 'resumed' | 'resumeFailed';
+  sessionId?: string;
+  /** resumed: whether the session had been suspended rather than saved by a previous launch */
+  wasSuspended?: boolean;
+  /** resumed */
+  appId?: string;
+  /** resumed */
+  deviceName?: string;
+  /** resumeFailed: CastStatusCodes value */
+  code?: number;
+}
+
+/**
+ * Duration of each initialize() phase, in milliseconds
+ */
+export interface InitTimings {
+  /** Whether the CastContext came from the `prewarm` plugin config */
+  prewarmed: boolean;
+  /** Total prewarm duration (off the initialize() path) */
+  prewarmMs: number;
+  prefsMs: number;
+  playServicesMs: number;
+  /** Time initialize() waited for the CastContext; near 0 when prewarmed */
+  castContextMs: number;
+  routerSetupMs: number;
+  totalMs: number;
+}
+
+export interface InitializeResult extends CastErrorInfo {
+  success: boolean;
+  /** Android only */
+  timings?: InitTimings;
+  /**
+   * True when a saved session was already resumed by the time initialize()
+   * finished (Android only, requires `resumeSavedSession`)
+   */
+  resumedSession?: boolean;
 }
 
 export interface RequestSessionResult {
@@ -11,9 +281,28 @@ export interface RequestSessionResult {
   message?: string;
 }
 
+export interface PrepareSessionOptions {
+  /** Route to connect to (CastRoute.id); defaults to the best visible device from getDeviceRanking() */
+  routeId?: string;
+  /** End the prepared session if nothing is loaded within this time; 0 keeps it open. Default 300000 */
+  idleTimeoutMs?: number;
+}
+
+export interface PrepareSessionResult extends CastErrorInfo {
+  success: boolean;
+  /** A session with the configured receiver was already active and is reused */
+  alreadyConnected?: boolean;
+  deviceName?: string;
+  deviceId?: string;
+}
+
 export interface SessionStatusResult {
   active: boolean;
   message?: string;
+  /** Receiver application ID of the connected session (Android only) */
+  appId?: string;
+  /** Friendly name of the connected Cast device (Android only) */
+  deviceName?: string;
 }
 
 export interface DevicesAvailableResult {
@@ -32,8 +321,407 @@ export interface MediaMetadata {
 }
 
 export interface LoadMediaOptions {
+  /**
+   * Remote URL, or on Android an app-local file (`file://...`, an absolute path or a
+   * `Capacitor.convertFileSrc()` URL) that the plugin serves to the receiver over the local network.
+   * The same applies to the first entry of `metadata.images`.
+   */
   url: string;
   metadata?: MediaMetadata;
+  /** Start position in seconds. Defaults to 0 */
+  startTime?: number;
+  /** Overrides the cache-busting policy set in initialize() for this media */
+  cacheBusting?: CacheBustingPolicy;
+}
+
+/**
+ * One remote-control operation for executeBatch().
+ * - `seek.position` is in seconds; `resume` sets the player state after the seek (unchanged by default)
+ * - `setVolume.level` is the stream volume between 0 and 1
+ * - `mute.muted` defaults to true
+ * - `setActiveTrackIds` with an empty array disables all tracks
+ */
+export type RemoteOperation =
+  | { type: 'play' }
+  | { type: 'pause' }
+  | { type: 'seek'; position: number; resume?: 'play' | 'pause' }
+  | { type: 'setVolume'; level: number }
+  | { type: 'mute'; muted?: boolean }
+  | { type: 'setActiveTrackIds'; trackIds: number[] }
+  | { type: 'queueNext' };
+
+export interface ExecuteBatchOptions {
+  /** Sent to the receiver in this order */
+  operations: RemoteOperation[];
+  /**
+   * Resolve as soon as the batch is queued, with the predicted playback state.
+   * The real per-operation results arrive later in a `batchResult` event with the same `batchId`;
+   * reverted predictions are reported through `playbackStateRollback`.
+   */
+  optimistic?: boolean;
+}
+
+export interface BatchOperationResult extends CastErrorInfo {
+  type: RemoteOperation['type'];
+  success: boolean;
+  /** Optimistic batches: not confirmed by the receiver yet */
+  pending?: boolean;
+}
+
+export interface ExecuteBatchResult {
+  /** True when every operation succeeded */
+  success: boolean;
+  /** One entry per operation, in request order */
+  results: BatchOperationResult[];
+  optimistic?: boolean;
+  /** Optimistic batches: matches the `batchId` of the later `batchResult` event */
+  batchId?: number;
+  /** Playback state after the batch: predicted when optimistic, reconciled with the receiver otherwise */
+  state?: PlaybackState;
+}
+
+/**
+ * Payload of the `batchResult` event: the receiver's answer to an optimistic executeBatch
+ */
+export interface BatchResultEvent {
+  batchId: number;
+  /** True when every operation succeeded */
+  success: boolean;
+  /** One entry per operation, in request order */
+  results: BatchOperationResult[];
+  /** Playback state reconciled with the receiver */
+  state: PlaybackState;
+}
+
+export type PlaybackStateField = 'playerState' | 'position' | 'volume' | 'muted';
+
+/**
+ * Local playback model: the receiver status with controls not yet confirmed applied on top.
+ */
+export interface PlaybackState {
+  playerState: PlayerState;
+  /** Estimated position now, extrapolated while playing */
+  positionMs: number;
+  /** 0 when unknown, e.g. live streams */
+  durationMs: number;
+  /** Stream volume, 0..1 */
+  volume: number;
+  muted: boolean;
+  /** Fields that still show a prediction the receiver has not confirmed */
+  pending: PlaybackStateField[];
+}
+
+/**
+ * Payload of the `playbackStateRollback` event: a predicted change was reverted to the receiver's state.
+ * `reason` is `failed` when the command failed and `receiverDisagrees` when it succeeded but the receiver reports otherwise.
+ */
+export interface PlaybackStateRollbackEvent {
+  fields: PlaybackStateField[];
+  reason: 'failed' | 'receiverDisagrees';
+  error?: string;
+  state: PlaybackState;
+}
+
+export interface MessageNamespaceOptions {
+  /** Custom namespace, must start with `urn:x-cast:` */
+  namespace: string;
+  /** Outgoing messages sent within this window share one Cast message. Default 20 */
+  batchWindowMs?: number;
+  /** At most one `message` event per namespace per interval. Default 50 */
+  deliveryIntervalMs?: number;
+}
+
+export interface SendMessageOptions {
+  namespace: string;
+  /** Any JSON value */
+  message: any;
+  /**
+   * A pending message with the same key is replaced, so high-rate sync messages
+   * only send their latest value per batch window
+   */
+  coalesceKey?: string;
+}
+
+/**
+ * Payload of the `message` event: every message received on `namespace` since the previous event.
+ * Batch frames (`{"$b":[...]}`) are unpacked, so a single message that is itself such an object must arrive
+ * wrapped in a frame of one (the plugin does this when sending); messages that are not JSON arrive as strings.
+ */
+export interface MessageEvent {
+  namespace: string;
+  messages: any[];
+}
+
+export interface MessageChannelStats {
+  /** sendMessage() calls */
+  queued: number;
+  /** Messages replaced by a newer one with the same coalesceKey */
+  coalesced: number;
+  sent: number;
+  /** Cast messages actually sent; sent / framesSent is the batching factor */
+  framesSent: number;
+  sendFailed: number;
+  /** Dropped because there was no session or the outgoing buffer was full */
+  droppedOutgoing: number;
+  received: number;
+  framesReceived: number;
+  delivered: number;
+  /** `message` events emitted */
+  deliveries: number;
+  /** Dropped because the incoming buffer was full or nobody listened */
+  droppedIncoming: number;
+}
+
+export interface DiagnosticsOptions {
+  /**
+   * Reset the counters after reading them
+   */
+  reset?: boolean;
+}
+
+export interface MainThreadStats {
+  /** Number of plugin tasks executed on the main (UI) thread */
+  tasks: number;
+  /** Total time the plugin kept the main thread busy, in ms */
+  busyTotalMs: number;
+  /** Longest single main-thread task, in ms */
+  busyMaxMs: number;
+  /** Operation that produced busyMaxMs */
+  busyMaxOp?: string;
+  /** Average time plugin tasks waited in the main looper queue, in ms */
+  queueWaitAvgMs: number;
+  /** Longest main looper queue wait, in ms */
+  queueWaitMaxMs: number;
+}
+
+export interface DiscoveryStats {
+  /** Cast devices currently in the route index */
+  devices: number;
+  /** Whether the index is younger than discoveryTtlMs */
+  fresh: boolean;
+  ttlMs: number;
+  /** areDevicesAvailable() calls answered straight from the index */
+  indexHits: number;
+  /** Active scans actually started */
+  scansStarted: number;
+  /** Calls that joined a scan already in progress instead of starting one */
+  scanCallsCoalesced: number;
+}
+
+export interface CommandQueueStats {
+  /** Commands waiting plus the one running */
+  depth: number;
+  maxDepth: number;
+  submitted: number;
+  succeeded: number;
+  failed: number;
+  timedOut: number;
+  /** Pending loads dropped because a newer loadMedia/queueLoad arrived */
+  superseded: number;
+  /** Pending commands dropped when the plugin was destroyed */
+  cancelled: number;
+  /** Average time a command waited before starting, in ms */
+  waitAvgMs: number;
+  waitMaxMs: number;
+}
+
+export interface DiagnosticsResult {
+  mainThread: MainThreadStats;
+  /** Timings of the last initialize() */
+  init?: InitTimings;
+  /** Present once initialize() has completed */
+  discovery?: DiscoveryStats;
+  /** Android: serialized Cast command queue (loads, queue edits, endSession) */
+  commands?: CommandQueueStats;
+  /** Android: executeBatch controls, queued apart so they never wait behind a load */
+  controls?: CommandQueueStats;
+  /** Android: counters per registered message namespace */
+  messages?: { [namespace: string]: MessageChannelStats };
+  /** Android: learned deadlines (srtt + 4 × rttvar, clamped to the bounds) */
+  timeouts?: {
+    adaptive: boolean;
+    operations: { [operation in TimeoutOperation]: OperationTimeout };
+  };
+  /** Android: automatic loadMedia retries */
+  loadRetry?: LoadRetryStats;
+  /** Android: embedded server for local files; present once a local file has been cast */
+  localServer?: LocalServerStats;
+}
+
+export interface LoadRetryStats {
+  maxRetries: number;
+  /** Retries issued */
+  retries: number;
+  /** Loads that succeeded after at least one retry */
+  recovered: number;
+  /** Loads that still failed after maxRetries */
+  exhausted: number;
+  /** Retries that waited for a suspended session */
+  rejoins: number;
+}
+
+export interface LocalServerStats {
+  running: boolean;
+  /** Files published in the current session */
+  files: number;
+  activeConnections: number;
+  requests: number;
+  /** Requests with a Range header (receiver seeks and buffering) */
+  rangeRequests: number;
+  bytesSent: number;
+  /** Connections refused because all workers were busy */
+  rejected: number;
+  errors: number;
+}
+
+export interface QueueItem extends LoadMediaOptions {
+  /**
+   * Seconds before the previous item ends at which the receiver starts preloading this one.
+   * Defaults to 20.
+   */
+  preloadTime?: number;
+  /** Defaults to true */
+  autoplay?: boolean;
+}
+
+export type QueueRepeatMode = 'off' | 'all' | 'single' | 'shuffle';
+
+export interface QueueLoadOptions {
+  items: QueueItem[];
+  /** Index of the item to start playing. Defaults to 0 */
+  startIndex?: number;
+  /** Defaults to 'off' */
+  repeatMode?: QueueRepeatMode;
+}
+
+export interface QueueInsertOptions {
+  items: QueueItem[];
+  /** Item ID to insert before. Omit to append at the end of the queue */
+  insertBeforeItemId?: number;
+}
+
+export interface QueueRemoveOptions {
+  itemIds: number[];
+}
+
+export interface QueueReorderOptions {
+  /** Item IDs to move, in their new relative order */
+  itemIds: number[];
+  /** Item ID to move them before. Omit to move them to the end of the queue */
+  insertBeforeItemId?: number;
+}
+
+export interface QueueResult extends CastErrorInfo {
+  success: boolean;
+  /** Receiver-assigned item IDs of the queue after the operation */
+  itemIds?: number[];
+}
+
+export interface MetricsOptions {
+  /** Reset the counters after reading them */
+  reset?: boolean;
+}
+
+export interface OperationMetrics {
+  count: number;
+  success: number;
+  failure: number;
+  timeout: number;
+  meanMs: number;
+  maxMs: number;
+  /** Upper bound of the histogram bucket containing the percentile */
+  p50Ms: number;
+  p95Ms: number;
+  /** Histogram counts; one more entry than bucketBoundsMs (the overflow bucket) */
+  buckets: number[];
+}
+
+export interface MetricsResult {
+  /** Inclusive upper bound of each histogram bucket, in ms */
+  bucketBoundsMs: number[];
+  operations: {
+    init: OperationMetrics;
+    scan: OperationMetrics;
+    sessionStart: OperationMetrics;
+    sessionResume: OperationMetrics;
+    stop: OperationMetrics;
+    load: OperationMetrics;
+    end: OperationMetrics;
+  };
+}
+
+export interface TraceOptions {
+  /** Drop the recorded spans after reading them */
+  reset?: boolean;
+}
+
+/**
+ * One entry of the Chrome/Perfetto trace event format.
+ * `ph: 'X'` is a complete span; `ph: 'M'` carries the thread name in `args.name`.
+ */
+export interface TraceEvent {
+  /** Phase, e.g. init.castContext, scan, session.start, load.stop, load.request, load.buffering, session.end */
+  name: string;
+  /** init, scan, session, load, command, command.wait, main or looper (absent on metadata events) */
+  cat?: string;
+  ph: 'X' | 'M';
+  /** Start in µs since the plugin was created */
+  ts?: number;
+  /** Duration in µs */
+  dur?: number;
+  pid: number;
+  tid: number;
+  args?: { name: string };
+}
+
+/**
+ * Save as a .json file and open it in ui.perfetto.dev or chrome://tracing
+ */
+export interface TraceResult {
+  traceEvents: TraceEvent[];
+  displayTimeUnit: 'ms';
+  enabled: boolean;
+  /** Size of the ring buffer; older spans are overwritten once it is full */
+  capacity: number;
+}
+
+export interface DeviceRankingOptions {
+  /** Also list devices used before that are not visible now, after the visible ones. Default false */
+  includeUnavailable?: boolean;
+}
+
+/**
+ * Quality of a receiver as observed across app runs
+ */
+export interface RankedDevice {
+  /** Stable Cast device ID; matches CastRoute.deviceId */
+  deviceId: string;
+  /** Route to select; only for available devices */
+  routeId?: string;
+  name: string;
+  available: boolean;
+  /** 0..1, higher is faster and more reliable; 0.25 for devices never used */
+  score: number;
+  sessionStarts: number;
+  loads: number;
+  /** Moving average of session start latency in ms */
+  sessionStartMs?: number;
+  /** Moving average of media load latency in ms */
+  loadMs?: number;
+  /** Failed session starts and loads per attempt */
+  failureRate?: number;
+  /** Timed out session starts and loads per attempt */
+  timeoutRate?: number;
+  disconnects?: number;
+  /** Unexpected disconnects per session */
+  disconnectRate?: number;
+  /** Epoch ms of the last recorded event */
+  lastUsed?: number;
+}
+
+export interface DeviceRankingResult {
+  /** Best first; available devices before unavailable ones */
+  devices: RankedDevice[];
 }
 
 export interface PluginListenerHandle {
@@ -43,10 +731,19 @@ export interface PluginListenerHandle {
 export type ChromecastEventType =
   | 'sessionStarted'
   | 'sessionEnded'
+  | 'sessionResume'
   | 'mediaLoaded'
   | 'mediaError'
   | 'deviceAvailable'
   | 'deviceUnavailable'
+  | 'deviceAvailabilityChanged'
+  | 'routesChanged'
+  | 'metrics'
+  | 'mediaStatus'
+  | 'progress'
+  | 'playbackStateRollback'
+  | 'batchResult'
+  | 'message'
   | 'volumeChanged'
   | 'playbackStatusChanged';
 
@@ -60,7 +757,7 @@ export interface IonicChromecastPlugin {
    * Initialize the Google Cast SDK
    * Must be called before any other Cast operations
    */
-  initialize(options: InitializeOptions): Promise<{ success: boolean }>;
+  initialize(options: InitializeOptions): Promise<InitializeResult>;
 
   echo(options: { value: string }): Promise<{ value: string }>;
 
@@ -69,25 +766,112 @@ export interface IonicChromecastPlugin {
    */
   requestSession(): Promise<RequestSessionResult>;
 
+  /**
+   * Connect to a device and launch the receiver ahead of playback, without the chooser dialog,
+   * so a later loadMedia only pays for the load itself (Android only)
+   */
+  prepareSession(options?: PrepareSessionOptions): Promise<PrepareSessionResult>;
+
+  /**
+   * Discovered devices with their capabilities, from the known routes when still fresh (Android only).
+   * An empty list means no device was found; a failed scan rejects with a `CastErrorCode`
+   */
+  listDevices(options?: ListDevicesOptions): Promise<ListDevicesResult>;
+
+  /**
+   * Start a session on a device from listDevices() without the chooser dialog (Android only)
+   */
+  selectDevice(options: SelectDeviceOptions): Promise<SelectDeviceResult>;
+
   /**
    * Check if there is an active Cast session (Android only)
    */
   isSessionActive(): Promise<SessionStatusResult>;
 
   /**
-   * Check if there are available Cast devices (Android only)
+   * Check if there are available Cast devices (Android only).
+   * Resolves `available: false` only when no device was found; rejects with a `CastErrorCode`
+   * when the check itself failed (e.g. `NOT_INITIALIZED`, `TIMEOUT`)
    */
   areDevicesAvailable(): Promise<DevicesAvailableResult>;
 
   /**
    * Load media on the Cast device (Android only)
    */
-  loadMedia(options: LoadMediaOptions): Promise<{ success: boolean; message?: string }>;
+  loadMedia(options: LoadMediaOptions): Promise<{ success: boolean; message?: string; retries?: number } & CastErrorInfo>;
+
+  /**
+   * Load a whole queue in one request; the receiver preloads upcoming items (Android only)
+   */
+  queueLoad(options: QueueLoadOptions): Promise<QueueResult>;
+
+  /**
+   * Insert items into the current queue (Android only)
+   */
+  queueInsertItems(options: QueueInsertOptions): Promise<QueueResult>;
+
+  /**
+   * Remove items from the current queue (Android only)
+   */
+  queueRemoveItems(options: QueueRemoveOptions): Promise<QueueResult>;
+
+  /**
+   * Reorder items in the current queue (Android only)
+   */
+  queueReorderItems(options: QueueReorderOptions): Promise<QueueResult>;
+
+  /**
+   * Run several playback controls (play, pause, seek, volume, mute, tracks, next) in one bridge call.
+   * Resolves with per-operation results; rejects only if the batch is invalid (Android only)
+   */
+  executeBatch(options: ExecuteBatchOptions): Promise<ExecuteBatchResult>;
+
+  /**
+   * Predicted playback state, including controls the receiver has not confirmed yet (Android only)
+   */
+  getPlaybackState(): Promise<PlaybackState>;
+
+  /**
+   * Listen and allow sending on a custom namespace; calling it again only updates the intervals (Android only)
+   */
+  addMessageNamespace(options: MessageNamespaceOptions): Promise<void>;
+
+  /**
+   * Stop listening on a namespace; pending outgoing messages are discarded (Android only)
+   */
+  removeMessageNamespace(options: { namespace: string }): Promise<void>;
+
+  /**
+   * Queue a message for the receiver. Resolves once queued; it is sent with the next batch.
+   * Failures and drops are counted in getDiagnostics().messages (Android only)
+   */
+  sendMessage(options: SendMessageOptions): Promise<void>;
 
   /**
    * End the current Cast session (Android only)
    */
-  endSession(): Promise<{ success: boolean; message?: string }>;
+  endSession(): Promise<{ success: boolean; message?: string } & CastErrorInfo>;
+
+  /**
+   * Internal diagnostics, e.g. how long the plugin stalled the UI thread (Android only)
+   */
+  getDiagnostics(options?: DiagnosticsOptions): Promise<DiagnosticsResult>;
+
+  /**
+   * Latency histograms and success/failure/timeout counts per operation (Android only)
+   */
+  getMetrics(options?: MetricsOptions): Promise<MetricsResult>;
+
+  /**
+   * Timeline of the latest init, scan, session, load and end phases as Chrome trace JSON (Android only)
+   */
+  getTrace(options?: TraceOptions): Promise<TraceResult>;
+
+  /**
+   * Devices ranked by observed session start and load latency, failures, timeouts and disconnects,
+   * so the UI can list and preselect the best receiver first (Android only)
+   */
+  getDeviceRanking(options?: DeviceRankingOptions): Promise<DeviceRankingResult>;
 
   /**
    * Listen to Chromecast events (Android only)
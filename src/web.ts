@@ -1,8 +1,26 @@
 import { WebPlugin } from '@capacitor/core';
 
 import type {
+  DeviceRankingResult,
+  DiagnosticsResult,
+  ExecuteBatchOptions,
+  ExecuteBatchResult,
   InitializeOptions,
+  InitializeResult,
   IonicChromecastPlugin,
+  ListDevicesResult,
+  MessageNamespaceOptions,
+  MetricsResult,
+  PlaybackState,
+  PrepareSessionResult,
+  QueueInsertOptions,
+  QueueLoadOptions,
+  QueueRemoveOptions,
+  QueueReorderOptions,
+  QueueResult,
+  SelectDeviceResult,
+  SendMessageOptions,
+  TraceResult,
   ChromecastEventType,
   ChromecastEvent,
   PluginListenerHandle,
@@ -10,7 +28,7 @@ import type {
 
 export class IonicChromecastWeb extends WebPlugin implements IonicChromecastPlugin {
   
-  async initialize(options: InitializeOptions): Promise<{ success: boolean }> {
+  async initialize(options: InitializeOptions): Promise<InitializeResult> {
     console.log('Cast SDK initialize called on web with options:', options);
     console.warn('Google Cast SDK is not supported on web. This is a no-op implementation.');
     return { success: false };
@@ -26,6 +44,21 @@ export class IonicChromecastWeb extends WebPlugin implements IonicChromecastPlug
     return { success: false, message: 'Google Cast session is only available on Android.' };
   }
 
+  async prepareSession(): Promise<PrepareSessionResult> {
+    console.warn('prepareSession() is not supported on web.');
+    return { success: false };
+  }
+
+  async listDevices(): Promise<ListDevicesResult> {
+    console.warn('listDevices() is not supported on web.');
+    return { devices: [] };
+  }
+
+  async selectDevice(): Promise<SelectDeviceResult> {
+    console.warn('selectDevice() is not supported on web.');
+    return { success: false };
+  }
+
   async isSessionActive(): Promise<{ active: boolean; message?: string }> {
     console.warn('isSessionActive() is not supported on web.');
     return { active: false, message: 'Session detection only available on Android.' };
@@ -36,15 +69,87 @@ export class IonicChromecastWeb extends WebPlugin implements IonicChromecastPlug
     return { available: false, message: 'Device detection only available on Android.' };
   }
 
-  async loadMedia(_: { url: string; metadata?: any }): Promise<{ success: boolean; message?: string }> {
+  async loadMedia(_: { url: string; metadata?: any }): Promise<{ success: boolean; message?: string; retries?: number }> {
     console.warn('loadMedia() is not supported on web.');
     return { success: false, message: 'Media casting only available on Android.' };
   }
 
+  async queueLoad(_: QueueLoadOptions): Promise<QueueResult> {
+    console.warn('queueLoad() is not supported on web.');
+    return { success: false, error: 'Media queues only available on Android.' };
+  }
+
+  async queueInsertItems(_: QueueInsertOptions): Promise<QueueResult> {
+    console.warn('queueInsertItems() is not supported on web.');
+    return { success: false, error: 'Media queues only available on Android.' };
+  }
+
+  async queueRemoveItems(_: QueueRemoveOptions): Promise<QueueResult> {
+    console.warn('queueRemoveItems() is not supported on web.');
+    return { success: false, error: 'Media queues only available on Android.' };
+  }
+
+  async queueReorderItems(_: QueueReorderOptions): Promise<QueueResult> {
+    console.warn('queueReorderItems() is not supported on web.');
+    return { success: false, error: 'Media queues only available on Android.' };
+  }
+
+  async executeBatch(options: ExecuteBatchOptions): Promise<ExecuteBatchResult> {
+    console.warn('executeBatch() is not supported on web.');
+    const error = 'Playback control only available on Android.';
+    return {
+      success: false,
+      results: options.operations.map((op) => ({ type: op.type, success: false, error })),
+    };
+  }
+
+  async getPlaybackState(): Promise<PlaybackState> {
+    console.warn('getPlaybackState() is not supported on web.');
+    return { playerState: 'unknown', positionMs: 0, durationMs: 0, volume: 1, muted: false, pending: [] };
+  }
+
+  async addMessageNamespace(_: MessageNamespaceOptions): Promise<void> {
+    console.warn('addMessageNamespace() is not supported on web.');
+  }
+
+  async removeMessageNamespace(_: { namespace: string }): Promise<void> {
+    console.warn('removeMessageNamespace() is not supported on web.');
+  }
+
+  async sendMessage(_: SendMessageOptions): Promise<void> {
+    console.warn('sendMessage() is not supported on web.');
+  }
+
   async endSession(): Promise<{ success: boolean; message?: string }> {
     console.warn('endSession() is not supported on web.');
     return { success: false, message: 'Session control only available on Android.' };
   }
+
+  async getDiagnostics(): Promise<DiagnosticsResult> {
+    console.warn('getDiagnostics() is not supported on web.');
+    return {
+      mainThread: { tasks: 0, busyTotalMs: 0, busyMaxMs: 0, queueWaitAvgMs: 0, queueWaitMaxMs: 0 },
+    };
+  }
+  async getMetrics(): Promise<MetricsResult> {
+    console.warn('getMetrics() is not supported on web.');
+    const empty = { count: 0, success: 0, failure: 0, timeout: 0, meanMs: 0, maxMs: 0, p50Ms: 0, p95Ms: 0, buckets: [] };
+    return {
+      bucketBoundsMs: [],
+      operations: { init: empty, scan: empty, sessionStart: empty, stop: empty, load: empty, end: empty },
+    };
+  }
+
+  async getTrace(): Promise<TraceResult> {
+    console.warn('getTrace() is not supported on web.');
+    return { traceEvents: [], displayTimeUnit: 'ms', enabled: false, capacity: 0 };
+  }
+
+  async getDeviceRanking(): Promise<DeviceRankingResult> {
+    console.warn('getDeviceRanking() is not supported on web.');
+    return { devices: [] };
+  }
+
   addListener(
     _eventName: ChromecastEventType,
     _listenerFunc: (event: ChromecastEvent) => void